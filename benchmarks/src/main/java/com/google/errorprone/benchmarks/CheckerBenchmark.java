@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugCheckerInfo;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ScannerSupplier;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Analyzes each corpus with a single check, to measure the throughput of the scanner and of
+ * individual checks without the cost of all the others. Run with {@code -p checker=Name} to
+ * measure another built-in check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckerBenchmark {
+
+  @Param({
+    "ReturnValueIgnored",
+    "ReferenceEquality",
+    "UnusedVariable",
+    "MissingOverride",
+    "OperatorPrecedence"
+  })
+  public String checker;
+
+  @Param({"SYNTHETIC", "REALISTIC"})
+  public Corpus corpus;
+
+  private CompiledCorpus compiled;
+  private CodeTransformer transformer;
+
+  @Setup
+  public void setUp() throws IOException {
+    BugCheckerInfo info = BuiltInCheckerSuppliers.allChecks().getAllChecks().get(checker);
+    checkArgument(info != null, "no built-in check named %s", checker);
+    compiled = CompiledCorpus.compile(corpus);
+    transformer =
+        CompiledCorpus.transformer(ScannerSupplier.fromBugCheckerInfos(ImmutableList.of(info)));
+  }
+
+  @Benchmark
+  public void singleChecker(Blackhole blackhole) {
+    compiled.analyze(transformer, blackhole::consume);
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.SubContext;
+import com.google.errorprone.scanner.ErrorProneScannerTransformer;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Log;
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * A {@link Corpus} that has been parsed and attributed once, so that benchmarks can measure Error
+ * Prone's analysis separately from the rest of the compilation.
+ */
+final class CompiledCorpus {
+
+  private static final ImmutableList<String> JAVAC_OPTIONS =
+      ImmutableList.of(
+          "-proc:none",
+          "-nowarn",
+          "-Xlint:none",
+          "-XDcompilePolicy=simple",
+          "--should-stop=ifError=FLOW",
+          "-XDaddTypeAnnotationsToSymbol=true");
+
+  private final Context context;
+  private final ImmutableList<JCCompilationUnit> units;
+
+  private CompiledCorpus(Context context, ImmutableList<JCCompilationUnit> units) {
+    this.context = context;
+    this.units = units;
+  }
+
+  /** Parses, attributes and flow-analyzes the sources of the given corpus. */
+  static CompiledCorpus compile(Corpus corpus) throws IOException {
+    JavacTool tool = JavacTool.create();
+    // A diagnostic listener also makes javac record the end positions that fixes need.
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    StandardJavaFileManager fileManager = tool.getStandardFileManager(diagnostics, null, UTF_8);
+    JavacTaskImpl task =
+        (JavacTaskImpl)
+            tool.getTask(null, fileManager, diagnostics, JAVAC_OPTIONS, null, corpus.sources());
+    ImmutableList<JCCompilationUnit> units =
+        StreamSupport.stream(task.parse().spliterator(), false)
+            .map(JCCompilationUnit.class::cast)
+            .collect(toImmutableList());
+    task.analyze();
+    String errors =
+        diagnostics.getDiagnostics().stream()
+            .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+            .map(Object::toString)
+            .collect(Collectors.joining("\n"));
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException("The " + corpus + " corpus doesn't compile:\n" + errors);
+    }
+    return new CompiledCorpus(task.getContext(), units);
+  }
+
+  ImmutableList<JCCompilationUnit> units() {
+    return units;
+  }
+
+  /** Returns the context of the compilation, for building things from its trees. */
+  Context context() {
+    return context;
+  }
+
+  /**
+   * Returns a view of the compilation's context without any of Error Prone's per-compilation
+   * state, so that each analysis starts with empty caches, as it would in a new compilation.
+   */
+  Context newAnalysisContext() {
+    Context analysisContext = new SubContext(context);
+    analysisContext.put(ErrorProneOptions.class, ErrorProneOptions.empty());
+    return analysisContext;
+  }
+
+  /** Creates the transformer that runs the given checks, like a new compilation would. */
+  static CodeTransformer transformer(ScannerSupplier scannerSupplier) {
+    return ErrorProneScannerTransformer.create(scannerSupplier.get());
+  }
+
+  /** Runs the given transformer over every compilation unit of the corpus. */
+  void analyze(CodeTransformer transformer, DescriptionListener listener) {
+    Context analysisContext = newAnalysisContext();
+    Log log = Log.instance(context);
+    for (CompilationUnitTree unit : units) {
+      JavaFileObject originalSource = log.useSource(unit.getSourceFile());
+      try {
+        transformer.apply(new TreePath(unit), analysisContext, listener);
+      } finally {
+        log.useSource(originalSource);
+      }
+    }
+  }
+}
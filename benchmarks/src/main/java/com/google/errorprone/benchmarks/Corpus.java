@@ -0,0 +1,447 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import java.io.IOException;
+import java.net.URI;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * The fixed sets of sources that the benchmarks analyze.
+ *
+ * <p>The synthetic sources are generated deterministically, so every run of a benchmark sees the
+ * same code. They only depend on the JDK, so they can be compiled without a classpath.
+ */
+public enum Corpus {
+  /** Ordinary methods with many method invocations, some of which Error Prone reports and fixes. */
+  SYNTHETIC {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return generate("Synthetic", 40, (name, i) -> syntheticClass(name, i, 12, false));
+    }
+  },
+  /** The same code as {@link #SYNTHETIC}, with most findings suppressed at different scopes. */
+  SUPPRESSED {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return generate("Suppressed", 40, (name, i) -> syntheticClass(name, i, 12, true));
+    }
+  },
+  /** Methods with branchy, loopy control flow that the nullness dataflow analysis has to solve. */
+  DATAFLOW {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return generate("Flow", 20, (name, i) -> dataflowClass(name, i, 8));
+    }
+  },
+  /**
+   * Long methods with hundreds of local variables, whose nullness flows around a loop one variable
+   * per iteration, so the dataflow analysis joins large stores many times.
+   */
+  LARGE_METHODS {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return generate("Large", 4, (name, i) -> largeMethodClass(name, 2, 150 + 50 * i));
+    }
+  },
+  /**
+   * Refaster templates, which {@link RefasterBenchmark} turns into a large rule set rather than
+   * analyzing. Their before templates are near misses for the code in {@link #SYNTHETIC}, so
+   * matching them backtracks through conditionals, {@code if} statements and placeholders.
+   */
+  REFASTER_RULES {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return generate("Rule", 64, Corpus::refasterRule);
+    }
+  },
+  /** Hand-written sources in the style of typical application code. */
+  REALISTIC {
+    @Override
+    ImmutableList<JavaFileObject> sources() throws IOException {
+      ImmutableList.Builder<JavaFileObject> sources = ImmutableList.builder();
+      for (String name : REALISTIC_SOURCES) {
+        String source =
+            Resources.toString(Resources.getResource(Corpus.class, "corpus/" + name), UTF_8);
+        sources.add(new StringSource("realistic/" + name, source));
+      }
+      return sources.build();
+    }
+  };
+
+  private static final ImmutableList<String> REALISTIC_SOURCES =
+      ImmutableList.of("LruCache.java", "JsonReader.java", "EventDispatcher.java");
+
+  abstract ImmutableList<JavaFileObject> sources() throws IOException;
+
+  private interface ClassGenerator {
+    String generate(String name, int index);
+  }
+
+  private static ImmutableList<JavaFileObject> generate(
+      String prefix, int count, ClassGenerator generator) {
+    ImmutableList.Builder<JavaFileObject> sources = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      String name = prefix + i;
+      sources.add(new StringSource("synthetic/" + name + ".java", generator.generate(name, i)));
+    }
+    return sources.build();
+  }
+
+  private static String syntheticClass(String name, int index, int methods, boolean suppressed) {
+    StringBuilder source = new StringBuilder();
+    source.append(
+        """
+        package synthetic;
+
+        import java.util.ArrayList;
+        import java.util.HashMap;
+        import java.util.List;
+        import java.util.Map;
+        import java.util.Optional;
+
+        """);
+    if (suppressed) {
+      source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+    }
+    source
+        .append("public class ")
+        .append(name)
+        .append(" {\n")
+        .append("  private final List<String> names = new ArrayList<>();\n")
+        .append("  private final Map<String, Integer> counts = new HashMap<>();\n");
+    for (int j = 0; j < methods; j++) {
+      int seed = index * methods + j;
+      source.append('\n');
+      if (suppressed && j % 2 == 0) {
+        source.append(
+            "  @SuppressWarnings({\"OperatorPrecedence\", \"BoxedPrimitiveConstructor\","
+                + " \"BoxedPrimitiveEquality\", \"ReturnValueIgnored\","
+                + " \"UnnecessaryParentheses\"})\n");
+      }
+      source
+          .append("  public int method")
+          .append(j)
+          .append("(String value, List<String> values, boolean a, boolean b, boolean c) {\n")
+          .append("    String key = value.trim().toLowerCase();\n")
+          .append("    if (a && b || c) {\n")
+          .append("      names.add(key);\n")
+          .append("    }\n")
+          .append("    Integer count = counts.getOrDefault(key, 0);\n");
+      if (suppressed && j % 2 == 1) {
+        source.append("    @SuppressWarnings(\"BoxedPrimitiveConstructor\")\n");
+      }
+      source
+          .append("    Integer expected = new Integer(")
+          .append(seed)
+          .append(");\n")
+          .append("    if (count == expected) {\n")
+          .append("      counts.put(key, count + 1);\n")
+          .append("    }\n")
+          .append("    StringBuilder sb = new StringBuilder();\n")
+          .append("    for (String v : values) {\n")
+          .append("      if (v.startsWith(key)) {\n")
+          .append("        sb.append(v.substring(0, Math.min(v.length(), ")
+          .append(seed % 7 + 1)
+          .append("))).append(',');\n")
+          .append("      }\n")
+          .append("    }\n")
+          .append("    Optional<String> first =\n")
+          .append("        values.stream().filter(v -> v.length() > ")
+          .append(seed % 5)
+          .append(").findFirst();\n")
+          .append("    String joined = String.join(\":\", names);\n")
+          .append("    value.isEmpty();\n")
+          .append("    return (sb.length() + joined.length()")
+          .append(" + first.map(String::length).orElse(0));\n")
+          .append("  }\n");
+    }
+    if (suppressed) {
+      source
+          .append('\n')
+          .append("  @SuppressWarnings(\"all\")\n")
+          .append("  static class Nested {\n")
+          .append("    int size(List<String> values, boolean a, boolean b, boolean c) {\n")
+          .append("      return (a && b || c) ? values.size() : new Integer(0);\n")
+          .append("    }\n")
+          .append("  }\n");
+    }
+    return source.append("}\n").toString();
+  }
+
+  private static String dataflowClass(String name, int index, int methods) {
+    StringBuilder source = new StringBuilder();
+    source
+        .append(
+            """
+            package synthetic;
+
+            import java.util.List;
+            import java.util.Objects;
+
+            """)
+        .append("public class ")
+        .append(name)
+        .append(" {\n")
+        .append('\n')
+        .append("  @Override\n")
+        .append("  public boolean equals(Object o) {\n")
+        .append("    ")
+        .append(name)
+        .append(" that = (")
+        .append(name)
+        .append(") o;\n")
+        .append("    return that.hashCode() == hashCode();\n")
+        .append("  }\n")
+        .append('\n')
+        .append("  @Override\n")
+        .append("  public int hashCode() {\n")
+        .append("    return ")
+        .append(index)
+        .append(";\n")
+        .append("  }\n");
+    for (int j = 0; j < methods; j++) {
+      source
+          .append('\n')
+          .append("  boolean same")
+          .append(j)
+          .append("(")
+          .append(name)
+          .append(" other, ")
+          .append(name)
+          .append(" fallback) {\n")
+          .append("    ")
+          .append(name)
+          .append(" self = other != null ? other : fallback;\n")
+          .append("    if (self == null) {\n")
+          .append("      return false;\n")
+          .append("    }\n")
+          .append("    return self == this || self == fallback;\n")
+          .append("  }\n")
+          .append('\n')
+          .append("  String flow")
+          .append(j)
+          .append("(String a, String b, List<String> values) {\n")
+          .append("    String result = null;\n")
+          .append("    String previous = a;\n")
+          .append("    for (int k = 0; k < values.size(); k++) {\n")
+          .append("      String v = values.get(k);\n")
+          .append("      if (v == null) {\n")
+          .append("        continue;\n")
+          .append("      }\n")
+          .append("      if (result == null || v.length() > result.length()) {\n")
+          .append("        result = v;\n")
+          .append("      } else if (previous != null && previous.equals(v)) {\n")
+          .append("        result = previous;\n")
+          .append("      }\n")
+          .append("      switch (k % 3) {\n")
+          .append("        case 0 -> previous = b;\n")
+          .append("        case 1 -> {\n")
+          .append("          if (b == null) {\n")
+          .append("            previous = v;\n")
+          .append("          }\n")
+          .append("        }\n")
+          .append("        default -> previous = null;\n")
+          .append("      }\n")
+          .append("      try {\n")
+          .append("        result = Objects.requireNonNull(result, \"result\");\n")
+          .append("      } catch (NullPointerException e) {\n")
+          .append("        result = previous;\n")
+          .append("      }\n");
+      for (int k = 0; k <= (index + j) % 4; k++) {
+        source
+            .append("      while (previous != null && !previous.isEmpty()")
+            .append(" && result != previous) {\n")
+            .append("        previous = previous.length() > ")
+            .append(k + 1)
+            .append(" ? previous.substring(1) : null;\n")
+            .append("        if (previous == null) {\n")
+            .append("          break;\n")
+            .append("        }\n")
+            .append("      }\n");
+      }
+      source
+          .append("    }\n")
+          .append("    if (result != null && result.equals(a)) {\n")
+          .append("      return b;\n")
+          .append("    }\n")
+          .append("    return result != null ? result : previous;\n")
+          .append("  }\n");
+    }
+    return source.append("}\n").toString();
+  }
+
+  private static String largeMethodClass(String name, int methods, int locals) {
+    StringBuilder source = new StringBuilder();
+    source.append("package synthetic;\n\npublic class ").append(name).append(" {\n");
+    for (int j = 0; j < methods; j++) {
+      source
+          .append('\n')
+          .append("  String large")
+          .append(j)
+          .append("(String[] inputs, boolean flag) {\n");
+      for (int k = 0; k < locals; k++) {
+        source
+            .append("    String v")
+            .append(k)
+            .append(" = ")
+            .append(k % 3 == 0 ? "null" : "\"" + k + "\"")
+            .append(";\n");
+      }
+      source.append("    for (int i = 0; i < inputs.length; i++) {\n");
+      for (int k = 0; k < locals - 1; k++) {
+        source
+            .append("      if (v")
+            .append(k)
+            .append(" == null) {\n")
+            .append("        v")
+            .append(k)
+            .append(" = v")
+            .append(k + 1)
+            .append(";\n")
+            .append("      } else if (flag && inputs[i] == null) {\n")
+            .append("        v")
+            .append(k + 1)
+            .append(" = \"")
+            .append(k)
+            .append("\";\n")
+            .append("      }\n");
+      }
+      source
+          .append("      flag = !flag;\n")
+          .append("    }\n")
+          .append("    return v0 != null ? v0 : v")
+          .append(locals - 1)
+          .append(";\n")
+          .append("  }\n");
+    }
+    return source.append("}\n").toString();
+  }
+
+  private static String refasterRule(String name, int index) {
+    int k = index / 4;
+    String template =
+        switch (index % 4) {
+          case 0 ->
+              """
+              public class %1$s {
+                @BeforeTemplate
+                String before(boolean c, String x, String y) {
+                  return c ? x.substring(%2$d) : y.substring(%2$d);
+                }
+
+                @AfterTemplate
+                String after(boolean c, String x, String y) {
+                  return (c ? x : y).substring(%2$d);
+                }
+              }
+              """;
+          case 1 ->
+              """
+              public class %1$s {
+                @BeforeTemplate
+                boolean before(String s, String t) {
+                  return Refaster.anyOf(
+                      s.trim().toLowerCase().startsWith(t),
+                      s.trim().toLowerCase().substring(%2$d).equals(t),
+                      t.equals(s.trim().toLowerCase().substring(%2$d)));
+                }
+
+                @AfterTemplate
+                boolean after(String s, String t) {
+                  return s.trim().toLowerCase().regionMatches(%2$d, t, 0, t.length());
+                }
+              }
+              """;
+          case 2 ->
+              """
+              public class %1$s<K> {
+                @BeforeTemplate
+                void before(Map<K, Integer> map, K key) {
+                  if (map.containsKey(key)) {
+                    map.put(key, map.get(key) + %2$d);
+                  } else {
+                    map.put(key, %2$d);
+                  }
+                }
+
+                @AfterTemplate
+                void after(Map<K, Integer> map, K key) {
+                  map.merge(key, %2$d, Integer::sum);
+                }
+              }
+              """;
+          default ->
+              """
+              public abstract class %1$s {
+                @Placeholder
+                abstract boolean condition(String s);
+
+                @BeforeTemplate
+                void before(List<String> list, StringBuilder sb) {
+                  for (String s : list) {
+                    if (condition(s)) {
+                      sb.append(s.substring(0, Math.min(s.length(), %2$d))).append(',');
+                    }
+                  }
+                }
+
+                @AfterTemplate
+                void after(List<String> list, StringBuilder sb) {
+                  for (String s : list) {
+                    if (condition(s)) {
+                      sb.append(s, 0, Math.min(s.length(), %2$d)).append(',');
+                    }
+                  }
+                }
+              }
+              """;
+        };
+    return """
+        package synthetic;
+
+        import com.google.errorprone.refaster.Refaster;
+        import com.google.errorprone.refaster.annotation.AfterTemplate;
+        import com.google.errorprone.refaster.annotation.BeforeTemplate;
+        import com.google.errorprone.refaster.annotation.Placeholder;
+        import java.util.List;
+        import java.util.Map;
+
+        """
+        + template.formatted(name, k % 7 + 1);
+  }
+
+  /** An in-memory source file. */
+  private static final class StringSource extends SimpleJavaFileObject {
+    private final String source;
+
+    StringSource(String path, String source) {
+      super(URI.create("string:///" + path), Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+}
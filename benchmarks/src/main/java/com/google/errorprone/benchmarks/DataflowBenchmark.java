@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.bugpatterns.ReferenceEquality;
+import com.google.errorprone.bugpatterns.nullness.EqualsBrokenForNull;
+import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.ElementKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs the nullness dataflow analysis over the branchy, loopy methods of the {@link
+ * Corpus#DATAFLOW} sources and the long methods of the {@link Corpus#LARGE_METHODS} sources, both
+ * directly and through checks that use it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataflowBenchmark {
+
+  @Param({"DATAFLOW", "LARGE_METHODS"})
+  public Corpus corpus;
+
+  private CompiledCorpus compiled;
+  private ImmutableList<TreePath> references;
+  private CodeTransformer nullnessChecks;
+
+  @Setup
+  public void setUp() throws IOException {
+    compiled = CompiledCorpus.compile(corpus);
+    ImmutableList.Builder<TreePath> paths = ImmutableList.builder();
+    for (JCCompilationUnit unit : compiled.units()) {
+      new TreePathScanner<Void, Void>() {
+        @Override
+        public Void visitIdentifier(IdentifierTree tree, Void unused) {
+          Symbol symbol = ASTHelpers.getSymbol(tree);
+          if (symbol instanceof VarSymbol
+              && !symbol.type.isPrimitive()
+              && (symbol.getKind() == ElementKind.LOCAL_VARIABLE
+                  || symbol.getKind() == ElementKind.PARAMETER)
+              && !isAssignedTo(getCurrentPath())) {
+            paths.add(getCurrentPath());
+          }
+          return null;
+        }
+      }.scan(new TreePath(unit), null);
+    }
+    references = paths.build();
+    nullnessChecks =
+        CompiledCorpus.transformer(
+            ScannerSupplier.fromBugCheckerClasses(
+                ReferenceEquality.class, EqualsBrokenForNull.class));
+  }
+
+  private static boolean isAssignedTo(TreePath path) {
+    return path.getParentPath().getLeaf() instanceof AssignmentTree assignment
+        && assignment.getVariable() == path.getLeaf();
+  }
+
+  /**
+   * Asks for the nullness of every reference to a local variable or parameter, which builds each
+   * method's control flow graph and solves the analysis once, and then hits the caches.
+   */
+  @Benchmark
+  public void nullness(Blackhole blackhole) {
+    Context context = compiled.newAnalysisContext();
+    NullnessAnalysis analysis = NullnessAnalysis.instance(context);
+    for (TreePath reference : references) {
+      blackhole.consume(analysis.getNullness(reference, context));
+    }
+  }
+
+  @Benchmark
+  public void nullnessChecks(Blackhole blackhole) {
+    compiled.analyze(nullnessChecks, blackhole::consume);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.apply.DescriptionBasedDiff;
+import com.google.errorprone.apply.ImportOrganizer;
+import com.google.errorprone.apply.SourceFile;
+import com.google.errorprone.fixes.AppliedFix;
+import com.google.errorprone.fixes.ErrorProneEndPosTable;
+import com.google.errorprone.fixes.Fix;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Applies the fixes that the default checks suggest for the {@link Corpus#SYNTHETIC} sources, both
+ * to render the snippets shown in diagnostics and to patch whole files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixApplicationBenchmark {
+
+  /** A compilation unit, and the findings with fixes in it. */
+  private record FixedUnit(
+      JCCompilationUnit unit,
+      String source,
+      ErrorProneEndPosTable endPositions,
+      ImmutableList<Description> descriptions) {}
+
+  private ImmutableList<FixedUnit> units;
+
+  @Setup
+  public void setUp() throws IOException {
+    CompiledCorpus compiled = CompiledCorpus.compile(Corpus.SYNTHETIC);
+    CodeTransformer transformer =
+        CompiledCorpus.transformer(BuiltInCheckerSuppliers.defaultChecks());
+    Context context = compiled.newAnalysisContext();
+    ImmutableList.Builder<FixedUnit> units = ImmutableList.builder();
+    for (JCCompilationUnit unit : compiled.units()) {
+      ImmutableList.Builder<Description> descriptions = ImmutableList.builder();
+      transformer.apply(
+          new TreePath(unit),
+          context,
+          description -> {
+            if (!description.fixes.isEmpty()) {
+              descriptions.add(description);
+            }
+          });
+      units.add(
+          new FixedUnit(
+              unit,
+              unit.getSourceFile().getCharContent(false).toString(),
+              ErrorProneEndPosTable.create(unit),
+              descriptions.build()));
+    }
+    this.units = units.build();
+  }
+
+  /** Renders the snippet of every suggested fix, as diagnostics do. */
+  @Benchmark
+  public void snippets(Blackhole blackhole) {
+    for (FixedUnit unit : units) {
+      for (Description description : unit.descriptions()) {
+        for (Fix fix : description.fixes) {
+          blackhole.consume(AppliedFix.apply(unit.source(), unit.endPositions(), fix));
+        }
+      }
+    }
+  }
+
+  /** Applies the first fix of every finding to its file, as patching does. */
+  @Benchmark
+  public void patch(Blackhole blackhole) {
+    for (FixedUnit unit : units) {
+      DescriptionBasedDiff diff =
+          DescriptionBasedDiff.createIgnoringOverlaps(
+              unit.unit(), ImportOrganizer.STATIC_FIRST_ORGANIZER);
+      unit.descriptions().forEach(diff::onDescribed);
+      SourceFile sourceFile = new SourceFile(unit.unit().getSourceFile().getName(), unit.source());
+      diff.applyDifferences(sourceFile);
+      blackhole.consume(sourceFile.getSourceText());
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.SetMultimap;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.LabeledMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ErrorProneScanner;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares two ways of finding the default checks that might report a finding for each method
+ * invocation in a corpus: looking the invocation up in an index compiled from the matchers the
+ * checks declare, as the scanner does, and running every check's matchers in turn, as the checks
+ * did before they declared them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MethodInvocationIndexBenchmark {
+
+  @Param({"SYNTHETIC", "REALISTIC"})
+  public Corpus corpus;
+
+  private ImmutableList<VisitorState> invocations;
+  private ImmutableList<ImmutableList<Matcher<ExpressionTree>>> declaredMatchers;
+  private LabeledMatcher<Integer> index;
+
+  @Setup
+  public void setUp() throws IOException {
+    CompiledCorpus compiled = CompiledCorpus.compile(corpus);
+    ImmutableList.Builder<ImmutableList<Matcher<ExpressionTree>>> declared =
+        ImmutableList.builder();
+    SetMultimap<Integer, Rule> rules = HashMultimap.create();
+    ErrorProneScanner scanner = (ErrorProneScanner) BuiltInCheckerSuppliers.defaultChecks().get();
+    for (BugChecker checker : scanner.getBugCheckers()) {
+      if (!(checker instanceof MethodInvocationTreeMatcher matcher)
+          || matcher.methodInvocationMatchers().isEmpty()) {
+        continue;
+      }
+      int label = rules.keySet().size();
+      for (Matcher<ExpressionTree> m : matcher.methodInvocationMatchers()) {
+        rules.put(label, MethodInvocationMatcher.prefilter(m));
+      }
+      declared.add(matcher.methodInvocationMatchers());
+    }
+    declaredMatchers = declared.build();
+    index = MethodInvocationMatcher.compileLabeled(rules);
+
+    VisitorState state = VisitorState.createForUtilityPurposes(compiled.newAnalysisContext());
+    List<VisitorState> found = new ArrayList<>();
+    for (CompilationUnitTree unit : compiled.units()) {
+      new TreePathScanner<Void, Void>() {
+        @Override
+        public Void visitMethodInvocation(MethodInvocationTree tree, Void unused) {
+          found.add(state.withPath(getCurrentPath()));
+          return super.visitMethodInvocation(tree, null);
+        }
+      }.scan(new TreePath(unit), null);
+    }
+    invocations = ImmutableList.copyOf(found);
+  }
+
+  @Benchmark
+  public void index(Blackhole blackhole) {
+    for (VisitorState state : invocations) {
+      blackhole.consume(index.matchingLabels((ExpressionTree) state.getPath().getLeaf(), state));
+    }
+  }
+
+  @Benchmark
+  public void eachCheck(Blackhole blackhole) {
+    for (VisitorState state : invocations) {
+      ExpressionTree tree = (ExpressionTree) state.getPath().getLeaf();
+      for (List<Matcher<ExpressionTree>> matchers : declaredMatchers) {
+        for (Matcher<ExpressionTree> matcher : matchers) {
+          if (matcher.matches(tree, state)) {
+            blackhole.consume(matcher);
+            break;
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.CompositeCodeTransformer;
+import com.google.errorprone.refaster.RefasterRuleBuilderScanner;
+import com.google.errorprone.refaster.RefasterRuleSet;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Matches the rules generated from the {@link Corpus#REFASTER_RULES} templates against each
+ * corpus, both as an indexed rule set and one rule at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefasterBenchmark {
+
+  @Param({"SYNTHETIC", "REALISTIC"})
+  public Corpus corpus;
+
+  private CompiledCorpus compiled;
+  private CodeTransformer ruleSet;
+  private CodeTransformer eachRule;
+
+  @Setup
+  public void setUp() throws IOException {
+    CompiledCorpus templates = CompiledCorpus.compile(Corpus.REFASTER_RULES);
+    ImmutableList.Builder<CodeTransformer> rules = ImmutableList.builder();
+    for (JCCompilationUnit unit : templates.units()) {
+      for (Tree decl : unit.getTypeDecls()) {
+        rules.addAll(
+            RefasterRuleBuilderScanner.extractRules((ClassTree) decl, templates.context()));
+      }
+    }
+    ruleSet = RefasterRuleSet.combine(rules.build());
+    eachRule = CompositeCodeTransformer.compose(rules.build());
+    compiled = CompiledCorpus.compile(corpus);
+  }
+
+  @Benchmark
+  public void ruleSet(Blackhole blackhole) {
+    compiled.analyze(ruleSet, blackhole::consume);
+  }
+
+  /** Tries every rule on every tree, so unification runs without the rule set's index. */
+  @Benchmark
+  public void eachRule(Blackhole blackhole) {
+    compiled.analyze(eachRule, blackhole::consume);
+  }
+}
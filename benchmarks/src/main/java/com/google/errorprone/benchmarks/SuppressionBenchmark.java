@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.bugpatterns.BoxedPrimitiveConstructor;
+import com.google.errorprone.bugpatterns.BoxedPrimitiveEquality;
+import com.google.errorprone.bugpatterns.OperatorPrecedence;
+import com.google.errorprone.bugpatterns.ReturnValueIgnored;
+import com.google.errorprone.bugpatterns.UnnecessaryParentheses;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ScannerSupplier;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the analysis of the {@link Corpus#SYNTHETIC} sources with the analysis of the same code
+ * in {@link Corpus#SUPPRESSED}, where most findings are suppressed on classes, methods and local
+ * variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuppressionBenchmark {
+
+  @Param({"SYNTHETIC", "SUPPRESSED"})
+  public Corpus corpus;
+
+  private CompiledCorpus compiled;
+  private CodeTransformer defaultChecks;
+  private CodeTransformer suppressedChecks;
+
+  @Setup
+  public void setUp() throws IOException {
+    compiled = CompiledCorpus.compile(corpus);
+    defaultChecks = CompiledCorpus.transformer(BuiltInCheckerSuppliers.defaultChecks());
+    suppressedChecks =
+        CompiledCorpus.transformer(
+            ScannerSupplier.fromBugCheckerClasses(
+                BoxedPrimitiveConstructor.class,
+                BoxedPrimitiveEquality.class,
+                OperatorPrecedence.class,
+                ReturnValueIgnored.class,
+                UnnecessaryParentheses.class));
+  }
+
+  /** Runs every default check, most of which aren't affected by the suppressions. */
+  @Benchmark
+  public void defaultChecks(Blackhole blackhole) {
+    compiled.analyze(defaultChecks, blackhole::consume);
+  }
+
+  /** Runs only the checks that the corpus suppresses, so that suppression handling dominates. */
+  @Benchmark
+  public void suppressedChecks(Blackhole blackhole) {
+    compiled.analyze(suppressedChecks, blackhole::consume);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.util.ErrorProneTokens;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Re-lexes every file of a corpus, as checks and fixes that inspect comments and tokens do. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokensBenchmark {
+
+  @Param({"SYNTHETIC", "REALISTIC"})
+  public Corpus corpus;
+
+  private Context context;
+  private ImmutableList<String> sources;
+
+  @Setup
+  public void setUp() throws IOException {
+    CompiledCorpus compiled = CompiledCorpus.compile(corpus);
+    context = compiled.newAnalysisContext();
+    ImmutableList.Builder<String> sources = ImmutableList.builder();
+    for (JCCompilationUnit unit : compiled.units()) {
+      sources.add(unit.getSourceFile().getCharContent(false).toString());
+    }
+    this.sources = sources.build();
+  }
+
+  @Benchmark
+  public void tokens(Blackhole blackhole) {
+    for (String source : sources) {
+      blackhole.consume(ErrorProneTokens.getTokens(source, context));
+    }
+  }
+}
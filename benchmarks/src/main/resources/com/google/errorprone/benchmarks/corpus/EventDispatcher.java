@@ -0,0 +1,129 @@
+package realistic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Dispatches events to the handlers registered for their type or any of its supertypes. */
+public class EventDispatcher {
+
+  private static final Logger logger = Logger.getLogger(EventDispatcher.class.getName());
+
+  /** A handler registration, which can be cancelled. */
+  public interface Registration {
+    void cancel();
+  }
+
+  private final Map<Class<?>, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, List<Class<?>>> flattenedTypes = new ConcurrentHashMap<>();
+  private final Executor executor;
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong dead = new AtomicLong();
+
+  public EventDispatcher(Executor executor) {
+    this.executor = executor;
+  }
+
+  public <T> Registration register(Class<T> type, Consumer<? super T> handler) {
+    Consumer<Object> erased = event -> handler.accept(type.cast(event));
+    List<Consumer<Object>> forType =
+        handlers.computeIfAbsent(type, unused -> new CopyOnWriteArrayList<>());
+    forType.add(erased);
+    return () -> forType.remove(erased);
+  }
+
+  public void post(Object event) {
+    List<Consumer<Object>> targets = new ArrayList<>();
+    for (Class<?> type : flatten(event.getClass())) {
+      List<Consumer<Object>> forType = handlers.get(type);
+      if (forType != null) {
+        targets.addAll(forType);
+      }
+    }
+    if (targets.isEmpty()) {
+      dead.incrementAndGet();
+      if (!(event instanceof DeadEvent)) {
+        post(new DeadEvent(event));
+      }
+      return;
+    }
+    dispatched.incrementAndGet();
+    for (Consumer<Object> target : targets) {
+      executor.execute(() -> dispatch(target, event));
+    }
+  }
+
+  private static void dispatch(Consumer<Object> target, Object event) {
+    try {
+      target.accept(event);
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exception thrown by handler for " + event, e);
+    }
+  }
+
+  private List<Class<?>> flatten(Class<?> type) {
+    return flattenedTypes.computeIfAbsent(
+        type,
+        t -> {
+          List<Class<?>> result = new ArrayList<>();
+          collectSupertypes(t, result);
+          return List.copyOf(result);
+        });
+  }
+
+  private static void collectSupertypes(Class<?> type, Collection<Class<?>> result) {
+    if (type == null || result.contains(type)) {
+      return;
+    }
+    result.add(type);
+    collectSupertypes(type.getSuperclass(), result);
+    for (Class<?> iface : type.getInterfaces()) {
+      collectSupertypes(iface, result);
+    }
+  }
+
+  public long dispatchedCount() {
+    return dispatched.get();
+  }
+
+  public long deadEventCount() {
+    return dead.get();
+  }
+
+  public Optional<Class<?>> mostSpecificHandledType(Class<?> type) {
+    for (Class<?> candidate : flatten(type)) {
+      List<Consumer<Object>> forType = handlers.get(candidate);
+      if (forType != null && !forType.isEmpty()) {
+        return Optional.of(candidate);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /** Wraps events that no handler was registered for. */
+  public static final class DeadEvent {
+    private final Object event;
+
+    DeadEvent(Object event) {
+      this.event = event;
+    }
+
+    public Object event() {
+      return event;
+    }
+
+    @Override
+    public String toString() {
+      return "DeadEvent[" + event + "]";
+    }
+  }
+}
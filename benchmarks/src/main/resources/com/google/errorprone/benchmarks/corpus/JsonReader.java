@@ -0,0 +1,189 @@
+package realistic;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** A small recursive-descent reader for JSON documents. */
+public final class JsonReader {
+
+  /** Thrown for malformed input. */
+  public static final class JsonException extends RuntimeException {
+    public JsonException(String message, int position) {
+      super(message + " at position " + position);
+    }
+  }
+
+  private final String input;
+  private int position;
+
+  private JsonReader(String input) {
+    this.input = input;
+  }
+
+  public static Object parse(String input) {
+    JsonReader reader = new JsonReader(input);
+    Object value = reader.readValue();
+    reader.skipWhitespace();
+    if (reader.position != input.length()) {
+      throw new JsonException("trailing characters", reader.position);
+    }
+    return value;
+  }
+
+  private Object readValue() {
+    skipWhitespace();
+    if (position >= input.length()) {
+      throw new JsonException("unexpected end of input", position);
+    }
+    char c = input.charAt(position);
+    switch (c) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      case 't':
+        expect("true");
+        return Boolean.TRUE;
+      case 'f':
+        expect("false");
+        return Boolean.FALSE;
+      case 'n':
+        expect("null");
+        return null;
+      default:
+        if (c == '-' || Character.isDigit(c)) {
+          return readNumber();
+        }
+        throw new JsonException("unexpected character '" + c + "'", position);
+    }
+  }
+
+  private Map<String, Object> readObject() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    position++;
+    skipWhitespace();
+    if (peek() == '}') {
+      position++;
+      return result;
+    }
+    while (true) {
+      skipWhitespace();
+      String key = readString();
+      skipWhitespace();
+      consume(':');
+      Object value = readValue();
+      if (result.put(key, value) != null) {
+        throw new JsonException("duplicate key " + key, position);
+      }
+      skipWhitespace();
+      char next = input.charAt(position++);
+      if (next == '}') {
+        return result;
+      }
+      if (next != ',') {
+        throw new JsonException("expected ',' or '}'", position - 1);
+      }
+    }
+  }
+
+  private List<Object> readArray() {
+    List<Object> result = new ArrayList<>();
+    position++;
+    skipWhitespace();
+    if (peek() == ']') {
+      position++;
+      return result;
+    }
+    while (true) {
+      result.add(readValue());
+      skipWhitespace();
+      char next = input.charAt(position++);
+      if (next == ']') {
+        return result;
+      }
+      if (next != ',') {
+        throw new JsonException("expected ',' or ']'", position - 1);
+      }
+    }
+  }
+
+  private String readString() {
+    consume('"');
+    StringBuilder sb = new StringBuilder();
+    while (position < input.length()) {
+      char c = input.charAt(position++);
+      if (c == '"') {
+        return sb.toString();
+      }
+      if (c != '\\') {
+        sb.append(c);
+        continue;
+      }
+      char escaped = input.charAt(position++);
+      switch (escaped) {
+        case 'n' -> sb.append('\n');
+        case 't' -> sb.append('\t');
+        case 'r' -> sb.append('\r');
+        case 'b' -> sb.append('\b');
+        case 'f' -> sb.append('\f');
+        case 'u' -> {
+          sb.append((char) Integer.parseInt(input.substring(position, position + 4), 16));
+          position += 4;
+        }
+        default -> sb.append(escaped);
+      }
+    }
+    throw new JsonException("unterminated string", position);
+  }
+
+  private Number readNumber() {
+    int start = position;
+    if (peek() == '-') {
+      position++;
+    }
+    boolean floating = false;
+    while (position < input.length()) {
+      char c = input.charAt(position);
+      if (c == '.' || c == 'e' || c == 'E' || c == '+' || (c == '-' && position > start)) {
+        floating = true;
+      } else if (!Character.isDigit(c)) {
+        break;
+      }
+      position++;
+    }
+    String text = input.substring(start, position);
+    try {
+      return floating ? (Number) Double.valueOf(text) : (Number) Long.valueOf(text);
+    } catch (NumberFormatException e) {
+      throw new JsonException("malformed number " + text, start);
+    }
+  }
+
+  private void expect(String literal) {
+    if (!input.startsWith(literal, position)) {
+      throw new JsonException("expected " + literal, position);
+    }
+    position += literal.length();
+  }
+
+  private void consume(char expected) {
+    if (peek() != expected) {
+      throw new JsonException("expected '" + expected + "'", position);
+    }
+    position++;
+  }
+
+  private char peek() {
+    return position < input.length() ? input.charAt(position) : '\0';
+  }
+
+  private void skipWhitespace() {
+    while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+      position++;
+    }
+  }
+}
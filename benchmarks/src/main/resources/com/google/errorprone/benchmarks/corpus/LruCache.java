@@ -0,0 +1,132 @@
+package realistic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/** A size-bounded cache that evicts the least recently used entries. */
+public final class LruCache<K, V> {
+
+  /** Receives the entries that are evicted from a cache. */
+  public interface RemovalListener<K, V> {
+    void onRemoval(K key, V value, boolean evicted);
+  }
+
+  private final int maximumSize;
+  private final LinkedHashMap<K, V> entries;
+  private final Map<K, Integer> loads = new HashMap<>();
+  private final List<RemovalListener<K, V>> listeners = new ArrayList<>();
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public LruCache(int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, /* accessOrder= */ true);
+  }
+
+  public void addRemovalListener(RemovalListener<K, V> listener) {
+    listeners.add(Objects.requireNonNull(listener));
+  }
+
+  public synchronized V get(K key, Function<? super K, ? extends V> loader) {
+    V value = entries.get(key);
+    if (value != null) {
+      hits++;
+      return value;
+    }
+    misses++;
+    value = loader.apply(key);
+    if (value == null) {
+      throw new IllegalStateException("loader returned null for " + key);
+    }
+    loads.merge(key, 1, Integer::sum);
+    put(key, value);
+    return value;
+  }
+
+  public synchronized V getIfPresent(K key) {
+    V value = entries.get(key);
+    if (value == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return value;
+  }
+
+  public synchronized void put(K key, V value) {
+    V previous = entries.put(key, value);
+    if (previous != null && previous != value) {
+      notifyListeners(key, previous, false);
+    }
+    evictIfNecessary();
+  }
+
+  public synchronized boolean invalidate(K key) {
+    V removed = entries.remove(key);
+    if (removed == null) {
+      return false;
+    }
+    notifyListeners(key, removed, false);
+    return true;
+  }
+
+  public synchronized void invalidateAll() {
+    List<Map.Entry<K, V>> removed = new ArrayList<>(entries.entrySet());
+    entries.clear();
+    for (Map.Entry<K, V> entry : removed) {
+      notifyListeners(entry.getKey(), entry.getValue(), false);
+    }
+  }
+
+  private void evictIfNecessary() {
+    Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+    while (entries.size() > maximumSize && it.hasNext()) {
+      Map.Entry<K, V> eldest = it.next();
+      it.remove();
+      evictions++;
+      notifyListeners(eldest.getKey(), eldest.getValue(), true);
+    }
+  }
+
+  private void notifyListeners(K key, V value, boolean evicted) {
+    for (RemovalListener<K, V> listener : listeners) {
+      try {
+        listener.onRemoval(key, value, evicted);
+      } catch (RuntimeException e) {
+        // A broken listener shouldn't break the cache.
+        e.printStackTrace();
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized double hitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  public synchronized Map<K, Integer> loadCounts() {
+    return Collections.unmodifiableMap(new HashMap<>(loads));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "LruCache{size=%d, maximumSize=%d, hits=%d, misses=%d, evictions=%d}",
+        entries.size(), maximumSize, hits, misses, evictions);
+  }
+}
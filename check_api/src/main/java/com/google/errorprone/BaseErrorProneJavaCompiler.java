@@ -68,19 +68,29 @@ public class BaseErrorProneJavaCompiler implements JavaCompiler {
       Iterable<String> classes,
       Iterable<? extends JavaFileObject> compilationUnits) {
     ErrorProneOptions errorProneOptions = ErrorProneOptions.processArgs(options);
-    ImmutableList<String> javacOpts = errorProneOptions.getRemainingArgs();
-    javacOpts = defaultToLatestSupportedLanguageLevel(javacOpts);
-    javacOpts = setCompilePolicyToByFile(javacOpts);
-    javacOpts = setShouldStopIfErrorPolicyToFlow(javacOpts);
-    javacOpts = setAddTypeAnnotationsToSymbol(javacOpts);
     JavacTask task =
         (JavacTask)
             javacTool.getTask(
-                out, fileManager, diagnosticListener, javacOpts, classes, compilationUnits);
+                out,
+                fileManager,
+                diagnosticListener,
+                javacOptions(errorProneOptions),
+                classes,
+                compilationUnits);
     addTaskListener(task, scannerSupplier, errorProneOptions);
     return task;
   }
 
+  /** Returns the options to pass to javac for a compilation with the given options. */
+  static ImmutableList<String> javacOptions(ErrorProneOptions errorProneOptions) {
+    ImmutableList<String> javacOpts = errorProneOptions.getRemainingArgs();
+    javacOpts = defaultToLatestSupportedLanguageLevel(javacOpts);
+    javacOpts = setCompilePolicyToByFile(javacOpts);
+    javacOpts = setShouldStopIfErrorPolicyToFlow(javacOpts);
+    javacOpts = setAddTypeAnnotationsToSymbol(javacOpts);
+    return javacOpts;
+  }
+
   static void addTaskListener(
       JavacTask javacTask, ScannerSupplier scannerSupplier, ErrorProneOptions errorProneOptions) {
     Context context = ((BasicJavacTask) javacTask).getContext();
@@ -251,9 +261,18 @@ public class BaseErrorProneJavaCompiler implements JavaCompiler {
     }
   }
 
-  /** Registers our message bundle. */
+  private static final Context.Key<ResourceBundle> MESSAGE_BUNDLE_KEY = new Context.Key<>();
+
+  /**
+   * Registers our message bundle, unless it's already registered. Contexts that javac reuses for
+   * several compilations keep their messages, so the bundle only needs to be added once.
+   */
   public static void setupMessageBundle(Context context) {
+    if (context.get(MESSAGE_BUNDLE_KEY) != null) {
+      return;
+    }
     ResourceBundle bundle = ResourceBundle.getBundle("com.google.errorprone.errors");
+    context.put(MESSAGE_BUNDLE_KEY, bundle);
     JavacMessages.instance(context).add(l -> bundle);
   }
 }
@@ -85,6 +85,12 @@ public final class BugCheckerInfo implements Serializable {
   private final boolean disableable;
 
   public static BugCheckerInfo create(Class<? extends BugChecker> checker) {
+    BugCheckerInfo precomputed = BugCheckerRegistry.lookupInfo(checker);
+    return precomputed != null ? precomputed : createFromAnnotation(checker);
+  }
+
+  /** Reads and validates the {@code @BugPattern} annotation of the given checker reflectively. */
+  static BugCheckerInfo createFromAnnotation(Class<? extends BugChecker> checker) {
     BugPattern pattern =
         checkNotNull(
             checker.getAnnotation(BugPattern.class),
@@ -102,6 +108,35 @@ public final class BugCheckerInfo implements Serializable {
     return new BugCheckerInfo(checker, pattern);
   }
 
+  /**
+   * Returns a {@link BugCheckerInfo} built from metadata that was read from the checker's {@code
+   * BugPattern} annotation and validated at build time. Used by generated {@link
+   * BugCheckerRegistry} implementations.
+   */
+  public static BugCheckerInfo precomputed(
+      Class<? extends BugChecker> checker,
+      String canonicalName,
+      ImmutableSet<String> allNames,
+      String message,
+      SeverityLevel defaultSeverity,
+      @Nullable String linkUrl,
+      boolean supportsSuppressWarnings,
+      ImmutableSet<Class<? extends Annotation>> customSuppressionAnnotations,
+      ImmutableSet<String> tags,
+      boolean disableable) {
+    return new BugCheckerInfo(
+        checker,
+        canonicalName,
+        allNames,
+        message,
+        defaultSeverity,
+        linkUrl,
+        supportsSuppressWarnings,
+        customSuppressionAnnotations,
+        tags,
+        disableable);
+  }
+
   private BugCheckerInfo(Class<? extends BugChecker> checker, BugPattern pattern) {
     this(canonicalName(checker.getSimpleName(), pattern), checker, pattern);
   }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.bugpatterns.BugChecker;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Precomputed {@link BugCheckerInfo}s and constructors for a set of {@link BugChecker}s, so that
+ * creating them doesn't require reading {@code @BugPattern} annotations or searching for
+ * constructors reflectively.
+ *
+ * <p>Implementations are generated at build time by {@code BugCheckerRegistryProcessor}, and
+ * discovered with {@link ServiceLoader} from the class loader of each checker. Checkers that are
+ * not in any registry fall back to reflection.
+ */
+public abstract class BugCheckerRegistry {
+
+  private static final LoadingCache<ClassLoader, ImmutableList<BugCheckerRegistry>> REGISTRIES =
+      Caffeine.newBuilder().weakKeys().build(BugCheckerRegistry::load);
+
+  private static ImmutableList<BugCheckerRegistry> load(ClassLoader loader) {
+    try {
+      return ServiceLoader.load(BugCheckerRegistry.class, loader).stream()
+          .map(ServiceLoader.Provider::get)
+          // Only trust a registry for the classes it was generated from, and not for classes with
+          // the same name from another class loader.
+          .filter(r -> r.getClass().getClassLoader() == loader)
+          .collect(toImmutableList());
+    } catch (ServiceConfigurationError e) {
+      // A broken registry only costs startup time; the checkers still work reflectively.
+      return ImmutableList.of();
+    }
+  }
+
+  /**
+   * Returns the precomputed {@link BugCheckerInfo} for the given checker, or {@code null} if no
+   * registry knows about it.
+   */
+  public static @Nullable BugCheckerInfo lookupInfo(Class<? extends BugChecker> checker) {
+    for (BugCheckerRegistry registry : registriesFor(checker)) {
+      BugCheckerInfo info = registry.info(checker);
+      if (info != null) {
+        return info;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Creates an instance of the given checker with its generated constructor factory, or returns
+   * {@code null} if there is none and the checker has to be instantiated reflectively.
+   */
+  public static <T> @Nullable T newInstance(Class<T> checker, ErrorProneFlags flags) {
+    if (!BugChecker.class.isAssignableFrom(checker)) {
+      return null;
+    }
+    for (BugCheckerRegistry registry : registriesFor(checker)) {
+      BugChecker instance = registry.newChecker(checker.getName(), flags);
+      if (instance != null && instance.getClass() == checker) {
+        return checker.cast(instance);
+      }
+    }
+    return null;
+  }
+
+  private static ImmutableList<BugCheckerRegistry> registriesFor(Class<?> checker) {
+    ClassLoader loader = checker.getClassLoader();
+    if (loader == null) {
+      return ImmutableList.of();
+    }
+    return REGISTRIES.get(loader);
+  }
+
+  /**
+   * Returns the {@link BugCheckerInfo} for the given checker class, or {@code null} if it is not
+   * part of this registry.
+   */
+  protected abstract @Nullable BugCheckerInfo info(Class<? extends BugChecker> checker);
+
+  /**
+   * Returns a new instance of the checker with the given binary name, or {@code null} if it is not
+   * part of this registry or has no constructor that can be called directly.
+   */
+  protected abstract @Nullable BugChecker newChecker(String className, ErrorProneFlags flags);
+}
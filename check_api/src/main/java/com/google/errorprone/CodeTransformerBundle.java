@@ -0,0 +1,593 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.util.Context;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A versioned file of named {@link CodeTransformer}s, such as compiled Refaster rules.
+ *
+ * <p>A bundle starts with a header and a table of contents, followed by the entries. Each entry is
+ * written by the {@link Codec} for its kind of transformer, and starts with a table of the distinct
+ * strings in the entry and a table of the values the codec {@linkplain EntryWriter#writeShared
+ * shared}, such as types; the rest of the entry refers to both by index. Codecs can split an entry
+ * into {@linkplain EntryWriter#writeSection sections}, which are skipped over when the entry is
+ * decoded and can be decoded when they're first needed. Bundles are memory-mapped when they are
+ * loaded, and their entries are only decoded when the loaded transformer is first used.
+ *
+ * <p>Files that don't start with the bundle header are read as a single serialized {@link
+ * CodeTransformer}, which is the format written by earlier versions of the Refaster compiler.
+ */
+public final class CodeTransformerBundle {
+
+  // "EPRB"
+  private static final int MAGIC = 0x45505242;
+
+  /** The version of the format written by {@link Writer}. */
+  static final int VERSION = 2;
+
+  /** Returns a writer for a new bundle. */
+  public static Writer writer() {
+    return new Writer(codecs());
+  }
+
+  static Writer writer(ImmutableList<Codec> codecs) {
+    return new Writer(codecs);
+  }
+
+  /** Builds and writes a bundle. */
+  public static final class Writer {
+    private final ImmutableList<Codec> codecs;
+    private final Map<String, CodeTransformer> entries = new LinkedHashMap<>();
+
+    private Writer(ImmutableList<Codec> codecs) {
+      this.codecs = codecs;
+    }
+
+    /** Adds an entry to the bundle. */
+    public Writer add(String name, CodeTransformer transformer) {
+      checkArgument(entries.put(name, transformer) == null, "duplicate entry: %s", name);
+      return this;
+    }
+
+    /** Writes the bundle to the given stream. */
+    public void write(OutputStream out) throws IOException {
+      List<Codec> entryCodecs = new ArrayList<>();
+      List<byte[]> payloads = new ArrayList<>();
+      for (Map.Entry<String, CodeTransformer> entry : entries.entrySet()) {
+        Codec codec = codecFor(entry.getKey(), entry.getValue());
+        EntryWriter writer = EntryWriter.create();
+        codec.encode(entry.getValue(), writer);
+        entryCodecs.add(codec);
+        payloads.add(writer.toEntry());
+      }
+      DataOutputStream data = new DataOutputStream(out);
+      data.writeInt(MAGIC);
+      data.writeInt(VERSION);
+      data.writeInt(entries.size());
+      int i = 0;
+      for (String name : entries.keySet()) {
+        writeUtf8(data, name);
+        writeUtf8(data, entryCodecs.get(i).name());
+        data.writeInt(payloads.get(i).length);
+        i++;
+      }
+      for (byte[] payload : payloads) {
+        data.write(payload);
+      }
+      data.flush();
+    }
+
+    private Codec codecFor(String name, CodeTransformer transformer) {
+      for (Codec codec : codecs) {
+        if (codec.canEncode(transformer)) {
+          return codec;
+        }
+      }
+      throw new IllegalArgumentException(
+          String.format(
+              "No bundle codec can write %s, of type %s", name, transformer.getClass().getName()));
+    }
+
+    private static void writeUtf8(DataOutputStream data, String string) throws IOException {
+      byte[] bytes = string.getBytes(UTF_8);
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+  }
+
+  /**
+   * Writes and reads the bundle entries of one kind of {@link CodeTransformer}, such as Refaster
+   * rule sets. Each entry records the {@link #name} of the codec that wrote it.
+   *
+   * <p>Codecs are loaded with {@link ServiceLoader}.
+   */
+  public interface Codec {
+    /** The name of this codec, which must not change as long as it can read the entries. */
+    String name();
+
+    /** Returns whether this codec can write the given transformer. */
+    boolean canEncode(CodeTransformer transformer);
+
+    /** Writes the given transformer, which this codec {@linkplain #canEncode can write}. */
+    void encode(CodeTransformer transformer, EntryWriter out);
+
+    /** Reads a transformer written by {@link #encode}. */
+    CodeTransformer decode(EntryReader in);
+  }
+
+  /**
+   * Writes the given transformer with the given codec, and reads it back the way an entry of a
+   * loaded bundle is read.
+   */
+  @VisibleForTesting
+  public static CodeTransformer encodeAndDecode(Codec codec, CodeTransformer transformer) {
+    checkArgument(codec.canEncode(transformer), "%s can't write %s", codec.name(), transformer);
+    EntryWriter out = EntryWriter.create();
+    codec.encode(transformer, out);
+    return codec.decode(EntryReader.create(ByteBuffer.wrap(out.toEntry())));
+  }
+
+  /**
+   * Writes the contents of a bundle entry. Strings, and the values written with {@link
+   * #writeShared}, are only written once per entry.
+   */
+  public static final class EntryWriter {
+    private final Map<String, Integer> strings;
+    private final Map<Object, Integer> shared;
+    private final List<byte[]> sharedValues;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private EntryWriter(
+        Map<String, Integer> strings, Map<Object, Integer> shared, List<byte[]> sharedValues) {
+      this.strings = strings;
+      this.shared = shared;
+      this.sharedValues = sharedValues;
+    }
+
+    static EntryWriter create() {
+      return new EntryWriter(new LinkedHashMap<>(), new HashMap<>(), new ArrayList<>());
+    }
+
+    /** Returns a writer that shares this writer's tables, but writes to a buffer of its own. */
+    private EntryWriter child() {
+      return new EntryWriter(strings, shared, sharedValues);
+    }
+
+    public void writeBoolean(boolean value) {
+      out.write(value ? 1 : 0);
+    }
+
+    public void writeInt(int value) {
+      writeLong(value);
+    }
+
+    public void writeLong(long value) {
+      // Zigzag encoding, so that small negative values are short too.
+      writeUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    /** Writes a string, or {@code null}, as its index in the entry's table of strings. */
+    public void writeString(@Nullable String value) {
+      writeUnsigned(value == null ? 0 : strings.computeIfAbsent(value, s -> strings.size()) + 1);
+    }
+
+    /**
+     * Writes a value with the given writer the first time an equal value is written to the entry,
+     * and as its index in the entry's table of shared values after that. The values must be
+     * immutable, since equal values are shared after they are read.
+     */
+    public <T> void writeShared(T value, BiConsumer<? super T, EntryWriter> writer) {
+      Integer index = shared.get(value);
+      if (index == null) {
+        EntryWriter valueWriter = child();
+        writer.accept(value, valueWriter);
+        // Any values shared by the value itself were added first, so they can be read first.
+        index = sharedValues.size();
+        sharedValues.add(valueWriter.out.toByteArray());
+        shared.put(value, index);
+      }
+      writeUnsigned(index);
+    }
+
+    /**
+     * Writes a section with the given writer. The section shares the entry's tables, but can be
+     * read separately from the rest of the entry, with the reader returned by {@link
+     * EntryReader#readSection}.
+     */
+    public void writeSection(Consumer<EntryWriter> writer) {
+      EntryWriter sectionWriter = child();
+      writer.accept(sectionWriter);
+      writeUnsigned(sectionWriter.out.size());
+      out.writeBytes(sectionWriter.out.toByteArray());
+    }
+
+    private void writeUnsigned(long value) {
+      while ((value & ~0x7FL) != 0) {
+        out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.write((int) value);
+    }
+
+    /** Returns the whole entry: the tables, followed by what was written to this writer. */
+    byte[] toEntry() {
+      EntryWriter entry = new EntryWriter(new HashMap<>(), new HashMap<>(), new ArrayList<>());
+      entry.writeUnsigned(strings.size());
+      for (String string : strings.keySet()) {
+        byte[] bytes = string.getBytes(UTF_8);
+        entry.writeUnsigned(bytes.length);
+        entry.out.writeBytes(bytes);
+      }
+      entry.writeUnsigned(sharedValues.size());
+      for (byte[] value : sharedValues) {
+        entry.writeUnsigned(value.length);
+        entry.out.writeBytes(value);
+      }
+      entry.out.writeBytes(out.toByteArray());
+      return entry.out.toByteArray();
+    }
+  }
+
+  /** Reads what an {@link EntryWriter} wrote, in the same order. */
+  public static final class EntryReader {
+    private final String[] strings;
+    private final SharedValues shared;
+    private final ByteBuffer buffer;
+
+    private EntryReader(String[] strings, SharedValues shared, ByteBuffer buffer) {
+      this.strings = strings;
+      this.shared = shared;
+      this.buffer = buffer;
+    }
+
+    static EntryReader create(ByteBuffer buffer) {
+      String[] strings = new String[readUnsigned(buffer)];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[readUnsigned(buffer)];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, UTF_8);
+      }
+      ByteBuffer[] sharedValues = new ByteBuffer[readUnsigned(buffer)];
+      for (int i = 0; i < sharedValues.length; i++) {
+        sharedValues[i] = slice(buffer, readUnsigned(buffer));
+      }
+      return new EntryReader(strings, new SharedValues(sharedValues), buffer.slice());
+    }
+
+    public boolean readBoolean() {
+      return buffer.get() != 0;
+    }
+
+    public int readInt() {
+      return (int) readLong();
+    }
+
+    public long readLong() {
+      long value = readUnsignedLong(buffer);
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    public @Nullable String readString() {
+      int index = readUnsigned(buffer);
+      return index == 0 ? null : strings[index - 1];
+    }
+
+    /**
+     * Reads a value written with {@link EntryWriter#writeShared}, with a reader for what the given
+     * writer wrote. The value is only read once per entry.
+     */
+    public <T> T readShared(Function<EntryReader, T> reader) {
+      return shared.get(readUnsigned(buffer), data -> reader.apply(withBuffer(data)));
+    }
+
+    /**
+     * Returns a reader for a section written with {@link EntryWriter#writeSection}, and skips over
+     * it. The returned reader can be used later, and on another thread.
+     */
+    public EntryReader readSection() {
+      return withBuffer(slice(buffer, readUnsigned(buffer)));
+    }
+
+    private EntryReader withBuffer(ByteBuffer buffer) {
+      return new EntryReader(strings, shared, buffer);
+    }
+
+    /** Returns the next {@code length} bytes of the given buffer, and skips over them. */
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+      ByteBuffer result = buffer.slice(buffer.position(), length);
+      buffer.position(buffer.position() + length);
+      return result;
+    }
+
+    private static int readUnsigned(ByteBuffer buffer) {
+      return Math.toIntExact(readUnsignedLong(buffer));
+    }
+
+    private static long readUnsignedLong(ByteBuffer buffer) {
+      long result = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = buffer.get();
+        result |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return result;
+        }
+      }
+    }
+  }
+
+  /** The shared values of an entry, which are read when they are first needed. */
+  private static final class SharedValues {
+    private final ByteBuffer[] data;
+    private final Object[] values;
+
+    SharedValues(ByteBuffer[] data) {
+      this.data = data;
+      this.values = new Object[data.length];
+    }
+
+    // Synchronized since sections may be read on different threads. Reading a value may read the
+    // values it shares, on the same thread.
+    @SuppressWarnings("unchecked") // the value was read by a reader for T
+    synchronized <T> T get(int index, Function<ByteBuffer, T> reader) {
+      Object value = values[index];
+      if (value == null) {
+        value = reader.apply(data[index].duplicate());
+        values[index] = value;
+      }
+      return (T) value;
+    }
+  }
+
+  /**
+   * Combines the transformers loaded from bundles, so that transformers of the same kind can be
+   * applied together. For example, Refaster rules from several bundles are combined into a single
+   * rule set that's matched in one pass over each compilation unit.
+   *
+   * <p>Combiners are loaded with {@link ServiceLoader}.
+   */
+  public interface Combiner {
+    /** Returns a transformer equivalent to applying the given transformers in order. */
+    CodeTransformer combine(ImmutableList<CodeTransformer> transformers);
+  }
+
+  /**
+   * Loads the {@link CodeTransformer}s in the given files, which may be bundles or single
+   * serialized transformers, and combines them in order.
+   *
+   * <p>The files' headers are read eagerly, so a file that can't be read is reported right away.
+   * Their entries are decoded and combined when the returned transformer is first used.
+   */
+  public static CodeTransformer load(List<Path> paths) throws IOException {
+    return load(paths, codecs());
+  }
+
+  /**
+   * Loads the {@link CodeTransformer}s in the given file, which may be a bundle or a single
+   * serialized transformer.
+   */
+  public static CodeTransformer load(Path path) throws IOException {
+    return load(ImmutableList.of(path));
+  }
+
+  static CodeTransformer load(List<Path> paths, ImmutableList<Codec> codecs) throws IOException {
+    ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+    for (Path path : paths) {
+      entries.addAll(entries(path, codecs));
+    }
+    return new LazyTransformer(
+        paths.stream().map(Path::toString).collect(joining(File.pathSeparator)), entries.build());
+  }
+
+  private static ImmutableList<Codec> codecs() {
+    return ImmutableList.copyOf(
+        ServiceLoader.load(Codec.class, CodeTransformerBundle.class.getClassLoader()));
+  }
+
+  private static ImmutableList<Entry> entries(Path path, ImmutableList<Codec> codecs)
+      throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+      return ImmutableList.of(new Entry(path.toString(), null, buffer));
+    }
+    buffer.position(Integer.BYTES);
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format(
+              "%s uses version %d of the bundle format, but only version %d is supported",
+              path, version, VERSION));
+    }
+    int count = buffer.getInt();
+    String[] names = new String[count];
+    Codec[] entryCodecs = new Codec[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      names[i] = readUtf8(buffer);
+      String codecName = readUtf8(buffer);
+      entryCodecs[i] =
+          codecs.stream()
+              .filter(c -> c.name().equals(codecName))
+              .findFirst()
+              .orElseThrow(
+                  () ->
+                      new IOException(
+                          String.format(
+                              "%s needs the bundle codec %s, which isn't available",
+                              path, codecName)));
+      lengths[i] = buffer.getInt();
+    }
+    ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+    int offset = buffer.position();
+    for (int i = 0; i < count; i++) {
+      entries.add(
+          new Entry(path + "!" + names[i], entryCodecs[i], buffer.slice(offset, lengths[i])));
+      offset += lengths[i];
+    }
+    return entries.build();
+  }
+
+  private static String readUtf8(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * An encoded transformer: either an entry of a bundle, with the codec that wrote it, or a whole
+   * file with a serialized transformer.
+   */
+  private record Entry(String name, @Nullable Codec codec, ByteBuffer data) {
+    CodeTransformer decode() {
+      if (codec == null) {
+        return deserialize();
+      }
+      try {
+        return codec.decode(EntryReader.create(data.duplicate()));
+      } catch (RuntimeException e) {
+        throw new RuntimeException("Can't load Refaster rule from " + name, e);
+      }
+    }
+
+    private CodeTransformer deserialize() {
+      try (ObjectInputStream objects =
+          new ObjectInputStream(new ByteBufferInputStream(data.duplicate()))) {
+        return (CodeTransformer) objects.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+        throw new RuntimeException("Can't load Refaster rule from " + name, e);
+      }
+    }
+  }
+
+  private static CodeTransformer combine(ImmutableList<CodeTransformer> transformers) {
+    CodeTransformer result =
+        transformers.size() == 1
+            ? transformers.getFirst()
+            : CompositeCodeTransformer.compose(transformers);
+    for (Combiner combiner :
+        ServiceLoader.load(Combiner.class, CodeTransformerBundle.class.getClassLoader())) {
+      result = combiner.combine(ImmutableList.of(result));
+    }
+    return result;
+  }
+
+  /** The transformers of some bundles, which are decoded and combined when first used. */
+  private static final class LazyTransformer implements CodeTransformer {
+    private final String name;
+    private final ImmutableList<Entry> entries;
+    private volatile @Nullable CodeTransformer transformer;
+
+    LazyTransformer(String name, ImmutableList<Entry> entries) {
+      this.name = name;
+      this.entries = entries;
+    }
+
+    @Override
+    public void apply(TreePath path, Context context, DescriptionListener listener) {
+      transformer().apply(path, context, listener);
+    }
+
+    @Override
+    public ImmutableClassToInstanceMap<Annotation> annotations() {
+      return transformer().annotations();
+    }
+
+    private CodeTransformer transformer() {
+      CodeTransformer result = transformer;
+      if (result == null) {
+        synchronized (this) {
+          result = transformer;
+          if (result == null) {
+            result = combine(entries.stream().map(Entry::decode).collect(toImmutableList()));
+            transformer = result;
+          }
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int read = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, read);
+      return read;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  private CodeTransformerBundle() {}
+}
@@ -19,6 +19,7 @@ package com.google.errorprone;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.getStackTraceAsString;
 import static com.google.common.base.Verify.verify;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -26,6 +27,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneOptions.Severity;
 import com.google.errorprone.RefactoringCollection.RefactoringResult;
+import com.google.errorprone.dataflow.DataFlow;
 import com.google.errorprone.scanner.ErrorProneScannerTransformer;
 import com.google.errorprone.scanner.ScannerSupplier;
 import com.google.errorprone.util.ASTHelpers;
@@ -44,7 +46,11 @@ import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
 import com.sun.tools.javac.util.Log.WriterKind;
 import com.sun.tools.javac.util.PropagatedException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Set;
 import javax.tools.JavaFileObject;
@@ -115,6 +121,16 @@ public final class ErrorProneAnalyzer implements TaskListener {
 
     @Override
     public void finished(TaskEvent event) {
+      if (event.getKind() == Kind.COMPILATION) {
+        try {
+          refactoringCollection.flush();
+        } catch (IOException e) {
+          PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+          out.println("Failed to write refactoring changes: " + e.getMessage());
+          out.flush();
+        }
+        return;
+      }
       if (event.getKind() != Kind.GENERATE) {
         return;
       }
@@ -137,25 +153,42 @@ public final class ErrorProneAnalyzer implements TaskListener {
 
   public static ErrorProneAnalyzer createByScanningForPlugins(
       ScannerSupplier scannerSupplier, ErrorProneOptions errorProneOptions, Context context) {
+    Context errorProneContext = errorProneContext(context, errorProneOptions);
     return new ErrorProneAnalyzer(
-        scansPlugins(scannerSupplier, errorProneOptions, context),
+        scansPlugins(scannerSupplier, errorProneOptions, context, errorProneContext),
         errorProneOptions,
-        context,
+        errorProneContext,
         JavacErrorDescriptionListener.provider(context));
   }
 
   private static Supplier<CodeTransformer> scansPlugins(
-      ScannerSupplier scannerSupplier, ErrorProneOptions errorProneOptions, Context context) {
+      ScannerSupplier scannerSupplier,
+      ErrorProneOptions errorProneOptions,
+      Context context,
+      Context errorProneContext) {
     return Suppliers.memoize(
         () -> {
           // we can't load plugins from the processorpath until the filemanager has been
           // initialized, so do it lazily
-          ErrorProneTimings timings = ErrorProneTimings.instance(context);
+          ErrorProneTimings timings = ErrorProneTimings.instance(errorProneContext);
           try (AutoCloseable unused = timings.initializationTimeSpan()) {
-            return ErrorProneScannerTransformer.create(
+            ScannerSupplier scanners =
                 ErrorPronePlugins.loadPlugins(scannerSupplier, context)
-                    .applyOverrides(errorProneOptions)
-                    .get());
+                    .applyOverrides(errorProneOptions);
+            CodeTransformer transformer = ErrorProneScannerTransformer.create(scanners.get());
+            Path findingsCache = errorProneOptions.findingsCache();
+            if (findingsCache != null) {
+              try {
+                transformer =
+                    FindingsCache.create(
+                            findingsCache, scanners, errorProneOptions, errorProneContext)
+                        .wrap(transformer);
+              } catch (IOException e) {
+                throw new InvalidCommandLineOptionException(
+                    "invalid flag: -XepFindingsCache:" + findingsCache + " (" + e + ")");
+              }
+            }
+            return transformer;
           } catch (InvalidCommandLineOptionException e) {
             throw new PropagatedException(e);
           } catch (Exception e) {
@@ -171,27 +204,44 @@ public final class ErrorProneAnalyzer implements TaskListener {
       Context context,
       DescriptionListener.Factory descriptionListenerFactory) {
     return new ErrorProneAnalyzer(
-        codeTransformer, errorProneOptions, context, descriptionListenerFactory);
+        codeTransformer,
+        errorProneOptions,
+        errorProneContext(context, errorProneOptions),
+        descriptionListenerFactory);
+  }
+
+  /**
+   * Returns a view of the compilation's context that holds Error Prone's own state, such as its
+   * timings and caches. Keeping that state out of javac's context means it can't leak into a later
+   * compilation if javac reuses the context, as {@code JavacTaskPool} does.
+   */
+  private static Context errorProneContext(Context context, ErrorProneOptions errorProneOptions) {
+    Context errorProneContext = new SubContext(context);
+    errorProneContext.put(ErrorProneOptions.class, errorProneOptions);
+    return errorProneContext;
   }
 
   private ErrorProneAnalyzer(
       Supplier<CodeTransformer> transformer,
       ErrorProneOptions errorProneOptions,
-      Context context,
+      Context errorProneContext,
       DescriptionListener.Factory descriptionListenerFactory) {
     this.transformer = checkNotNull(transformer);
     this.errorProneOptions = checkNotNull(errorProneOptions);
     this.descriptionListenerFactory = checkNotNull(descriptionListenerFactory);
-
-    Context errorProneContext = new SubContext(context);
-    errorProneContext.put(ErrorProneOptions.class, errorProneOptions);
-    this.context = errorProneContext;
+    this.context = checkNotNull(errorProneContext);
   }
 
   private int errorProneErrors = 0;
 
   @Override
   public void finished(TaskEvent taskEvent) {
+    if (taskEvent.getKind() == Kind.COMPILATION) {
+      finishFindingsCache();
+      writeTimings();
+      writeMetrics();
+      return;
+    }
     if (taskEvent.getKind() != Kind.ANALYZE) {
       return;
     }
@@ -225,10 +275,12 @@ public final class ErrorProneAnalyzer implements TaskListener {
         // (e.g. package-info.java files).  In this case it's safe to analyze the
         // CompilationUnitTree immediately.
         transformer.get().apply(path, context, countingDescriptionListener);
+        finishCompilationUnit(compilation);
       } else if (finishedCompilation(path.getCompilationUnit())) {
         // Otherwise this TaskEvent is for a ClassTree, and we can scan the whole
         // CompilationUnitTree once we've seen all the enclosed classes.
         transformer.get().apply(new TreePath(compilation), context, countingDescriptionListener);
+        finishCompilationUnit(compilation);
       }
     } catch (ErrorProneError e) {
       e.logFatalError(log, context);
@@ -253,6 +305,74 @@ public final class ErrorProneAnalyzer implements TaskListener {
     }
   }
 
+  /**
+   * Attributes the timings recorded since the last compilation unit to the given one, which has
+   * just been analyzed, and discards the dataflow caches for it.
+   */
+  private void finishCompilationUnit(JCCompilationUnit compilation) {
+    ErrorProneTimings.instance(context).finishFile(ASTHelpers.getFileName(compilation));
+    DataFlow.finishCompilationUnit(context, compilation);
+  }
+
+  /** Writes the timing data for the compilation, if {@code -XepTimingsOutput} was given. */
+  private void writeTimings() {
+    Path timingsOutput = errorProneOptions.timingsOutput();
+    if (timingsOutput == null) {
+      return;
+    }
+    try {
+      ErrorProneTimings.instance(context).writeJson(timingsOutput);
+    } catch (IOException e) {
+      PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+      out.println("Failed to write Error Prone timings to " + timingsOutput + ": " + e);
+      out.flush();
+    }
+  }
+
+  /** Writes the counters and timings of the compilation, if {@code -XepMetricsOutput} was given. */
+  private void writeMetrics() {
+    Path metricsOutput = errorProneOptions.metricsOutput();
+    if (metricsOutput == null) {
+      return;
+    }
+    PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+    MetricsExporter exporter =
+        MetricsExporter.forFormat(errorProneOptions.metricsFormat(), context);
+    if (exporter == null) {
+      out.println("Unknown Error Prone metrics format: " + errorProneOptions.metricsFormat());
+      out.flush();
+      return;
+    }
+    try (Writer writer = Files.newBufferedWriter(metricsOutput, UTF_8)) {
+      exporter.export(
+          StatisticsCollector.forCompilation(context).counters(),
+          ErrorProneTimings.instance(context).timers(),
+          writer);
+    } catch (IOException e) {
+      out.println("Failed to write Error Prone metrics to " + metricsOutput + ": " + e);
+      out.flush();
+    }
+  }
+
+  /**
+   * Evicts stale entries from the findings cache, if it was used, and records its statistics with
+   * the timings of the compilation.
+   */
+  private void finishFindingsCache() {
+    FindingsCache cache = FindingsCache.instance(context);
+    if (cache == null) {
+      return;
+    }
+    try {
+      cache.evict();
+    } catch (IOException e) {
+      PrintWriter out = Log.instance(context).getWriter(WriterKind.NOTICE);
+      out.println("Failed to evict entries from the Error Prone findings cache: " + e);
+      out.flush();
+    }
+    ErrorProneTimings.instance(context).findingsCacheStats(cache.stats());
+  }
+
   /** Returns true if the given source file should be excluded from analysis. */
   private boolean shouldExcludeSourceFile(CompilationUnitTree tree) {
     Pattern excludedPattern = errorProneOptions.getExcludedPattern();
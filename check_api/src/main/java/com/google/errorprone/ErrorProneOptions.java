@@ -29,17 +29,18 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.apply.ImportOrganizer;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
 import org.safere.Pattern;
 
 /**
@@ -56,8 +57,14 @@ public final class ErrorProneOptions {
   private static final String PATCH_CHECKS_PREFIX = "-XepPatchChecks:";
   private static final String PATCH_OUTPUT_LOCATION = "-XepPatchLocation:";
   private static final String PATCH_IMPORT_ORDER_PREFIX = "-XepPatchImportOrder:";
+  private static final String PATCH_FILE_PER_PACKAGE_FLAG = "-XepPatchFilePerPackage";
   private static final String EXCLUDED_PATHS_PREFIX = "-XepExcludedPaths:";
   private static final String IGNORE_LARGE_CODE_GENERATORS = "-XepIgnoreLargeCodeGenerators:";
+  private static final String TIMINGS_OUTPUT_PREFIX = "-XepTimingsOutput:";
+  private static final String FINDINGS_CACHE_PREFIX = "-XepFindingsCache:";
+  private static final String METRICS_OUTPUT_PREFIX = "-XepMetricsOutput:";
+  private static final String METRICS_FORMAT_PREFIX = "-XepMetricsFormat:";
+  private static final String CHECK_TIME_BUDGET_PREFIX = "-XepCheckTimeBudget:";
   private static final String ERRORS_AS_WARNINGS_FLAG = "-XepAllErrorsAsWarnings";
   private static final String SUGGESTIONS_AS_WARNINGS_FLAG = "-XepAllSuggestionsAsWarnings";
   private static final String ENABLE_ALL_CHECKS = "-XepAllDisabledChecksAsWarnings";
@@ -79,6 +86,12 @@ public final class ErrorProneOptions {
             || option.startsWith(PATCH_OUTPUT_LOCATION)
             || option.startsWith(PATCH_CHECKS_PREFIX)
             || option.startsWith(EXCLUDED_PATHS_PREFIX)
+            || option.startsWith(TIMINGS_OUTPUT_PREFIX)
+            || option.startsWith(FINDINGS_CACHE_PREFIX)
+            || option.startsWith(METRICS_OUTPUT_PREFIX)
+            || option.startsWith(METRICS_FORMAT_PREFIX)
+            || option.startsWith(CHECK_TIME_BUDGET_PREFIX)
+            || option.equals(PATCH_FILE_PER_PACKAGE_FLAG)
             || option.equals(IGNORE_UNKNOWN_CHECKS_FLAG)
             || option.equals(DISABLE_WARNINGS_IN_GENERATED_CODE_FLAG)
             || option.equals(ERRORS_AS_WARNINGS_FLAG)
@@ -114,8 +127,11 @@ public final class ErrorProneOptions {
       ImmutableSet<String> namedCheckers,
       boolean inPlace,
       String baseDirectory,
+      boolean patchFilePerPackage,
       Optional<Supplier<CodeTransformer>> customRefactorer,
-      ImportOrganizer importOrganizer) {
+      String refasterRules,
+      ImportOrganizer importOrganizer,
+      String importOrder) {
     final boolean doRefactor() {
       return inPlace() || !baseDirectory().isEmpty();
     }
@@ -124,8 +140,11 @@ public final class ErrorProneOptions {
       return new AutoBuilder_ErrorProneOptions_PatchingOptions_Builder()
           .baseDirectory("")
           .inPlace(false)
+          .patchFilePerPackage(false)
           .namedCheckers(ImmutableSet.of())
-          .importOrganizer(ImportOrganizer.STATIC_FIRST_ORGANIZER);
+          .refasterRules("")
+          .importOrganizer(ImportOrganizer.STATIC_FIRST_ORGANIZER)
+          .importOrder("static-first");
     }
 
     @AutoBuilder
@@ -137,10 +156,16 @@ public final class ErrorProneOptions {
 
       abstract Builder baseDirectory(String baseDirectory);
 
+      abstract Builder patchFilePerPackage(boolean patchFilePerPackage);
+
       abstract Builder customRefactorer(Supplier<CodeTransformer> refactorer);
 
+      abstract Builder refasterRules(String refasterRules);
+
       abstract Builder importOrganizer(ImportOrganizer importOrganizer);
 
+      abstract Builder importOrder(String importOrder);
+
       abstract PatchingOptions build();
     }
   }
@@ -161,6 +186,11 @@ public final class ErrorProneOptions {
   private final Pattern excludedPattern;
   private final boolean ignoreSuppressionAnnotations;
   private final boolean ignoreLargeCodeGenerators;
+  private final @Nullable Path timingsOutput;
+  private final @Nullable Path findingsCache;
+  private final @Nullable Path metricsOutput;
+  private final String metricsFormat;
+  private final @Nullable Duration checkTimeBudget;
 
   private ErrorProneOptions(
       ImmutableMap<String, Severity> severityMap,
@@ -178,7 +208,12 @@ public final class ErrorProneOptions {
       PatchingOptions patchingOptions,
       Pattern excludedPattern,
       boolean ignoreSuppressionAnnotations,
-      boolean ignoreLargeCodeGenerators) {
+      boolean ignoreLargeCodeGenerators,
+      @Nullable Path timingsOutput,
+      @Nullable Path findingsCache,
+      @Nullable Path metricsOutput,
+      String metricsFormat,
+      @Nullable Duration checkTimeBudget) {
     this.severityMap = severityMap;
     this.remainingArgs = remainingArgs;
     this.ignoreUnknownChecks = ignoreUnknownChecks;
@@ -195,6 +230,11 @@ public final class ErrorProneOptions {
     this.excludedPattern = excludedPattern;
     this.ignoreSuppressionAnnotations = ignoreSuppressionAnnotations;
     this.ignoreLargeCodeGenerators = ignoreLargeCodeGenerators;
+    this.timingsOutput = timingsOutput;
+    this.findingsCache = findingsCache;
+    this.metricsOutput = metricsOutput;
+    this.metricsFormat = metricsFormat;
+    this.checkTimeBudget = checkTimeBudget;
   }
 
   public ImmutableList<String> getRemainingArgs() {
@@ -245,6 +285,46 @@ public final class ErrorProneOptions {
     return flags;
   }
 
+  /**
+   * Returns the file that the per-check timings of the compilation are written to as JSON, or
+   * {@code null} if they shouldn't be written.
+   */
+  public @Nullable Path timingsOutput() {
+    return timingsOutput;
+  }
+
+  /**
+   * Returns the directory in which the findings of each compilation unit are cached across
+   * compilations, or {@code null} if findings shouldn't be cached.
+   */
+  public @Nullable Path findingsCache() {
+    return findingsCache;
+  }
+
+  /**
+   * Returns the file that the counters and per-check timings of the compilation are written to in
+   * {@link #metricsFormat}, or {@code null} if they shouldn't be written.
+   */
+  public @Nullable Path metricsOutput() {
+    return metricsOutput;
+  }
+
+  /**
+   * Returns the name of the {@link MetricsExporter} that writes {@link #metricsOutput}, {@code
+   * prometheus} by default.
+   */
+  public String metricsFormat() {
+    return metricsFormat;
+  }
+
+  /**
+   * Returns the time each check may spend on a compilation unit before it's skipped for the rest of
+   * that compilation unit, or {@code null} if checks may run for as long as they need.
+   */
+  public @Nullable Duration checkTimeBudget() {
+    return checkTimeBudget;
+  }
+
   public PatchingOptions patchingOptions() {
     return patchingOptions;
   }
@@ -265,6 +345,11 @@ public final class ErrorProneOptions {
     private boolean isPubliclyVisibleTarget = false;
     private boolean ignoreSuppressionAnnotations = false;
     private boolean ignoreLargeCodeGenerators = true;
+    private @Nullable Path timingsOutput;
+    private @Nullable Path findingsCache;
+    private @Nullable Path metricsOutput;
+    private String metricsFormat = MetricsExporter.PROMETHEUS;
+    private @Nullable Duration checkTimeBudget;
     private final Map<String, Severity> severityMap = new LinkedHashMap<>();
     private final ErrorProneFlags.Builder flagsBuilder = ErrorProneFlags.builder();
     private final PatchingOptions.Builder patchingOptionsBuilder = PatchingOptions.builder();
@@ -339,6 +424,75 @@ public final class ErrorProneOptions {
       this.ignoreLargeCodeGenerators = ignoreLargeCodeGenerators;
     }
 
+    void parseTimingsOutput(String arg) {
+      String remaining = arg.substring(TIMINGS_OUTPUT_PREFIX.length());
+      if (remaining.isEmpty()) {
+        throw new InvalidCommandLineOptionException(
+            "invalid flag: " + arg + " (the output file must be specified)");
+      }
+      timingsOutput = FileSystems.getDefault().getPath(remaining);
+    }
+
+    void parseFindingsCache(String arg) {
+      String remaining = arg.substring(FINDINGS_CACHE_PREFIX.length());
+      if (remaining.isEmpty()) {
+        throw new InvalidCommandLineOptionException(
+            "invalid flag: " + arg + " (the cache directory must be specified)");
+      }
+      findingsCache = FileSystems.getDefault().getPath(remaining);
+    }
+
+    void parseMetricsOutput(String arg) {
+      String remaining = arg.substring(METRICS_OUTPUT_PREFIX.length());
+      if (remaining.isEmpty()) {
+        throw new InvalidCommandLineOptionException(
+            "invalid flag: " + arg + " (the output file must be specified)");
+      }
+      metricsOutput = FileSystems.getDefault().getPath(remaining);
+    }
+
+    void parseMetricsFormat(String arg) {
+      String remaining = arg.substring(METRICS_FORMAT_PREFIX.length());
+      if (remaining.isEmpty()) {
+        throw new InvalidCommandLineOptionException(
+            "invalid flag: " + arg + " (the format must be specified)");
+      }
+      metricsFormat = remaining;
+    }
+
+    void parseCheckTimeBudget(String arg) {
+      String remaining = arg.substring(CHECK_TIME_BUDGET_PREFIX.length());
+      Duration budget = null;
+      try {
+        if (remaining.endsWith("ms")) {
+          budget = Duration.ofMillis(parseDurationAmount(remaining, "ms"));
+        } else if (remaining.endsWith("s")) {
+          budget = Duration.ofSeconds(parseDurationAmount(remaining, "s"));
+        } else if (remaining.endsWith("m")) {
+          budget = Duration.ofMinutes(parseDurationAmount(remaining, "m"));
+        }
+      } catch (NumberFormatException e) {
+        // Reported below.
+      }
+      if (budget == null) {
+        throw new InvalidCommandLineOptionException(
+            "invalid flag: "
+                + arg
+                + " ("
+                + remaining
+                + " was not a valid duration, like 500ms, 30s or 2m)");
+      }
+      if (budget.isNegative() || budget.isZero()) {
+        throw new InvalidCommandLineOptionException(
+            "invalid flag: " + arg + " (the time budget must be positive)");
+      }
+      checkTimeBudget = budget;
+    }
+
+    private static long parseDurationAmount(String duration, String unit) {
+      return Long.parseLong(duration.substring(0, duration.length() - unit.length()));
+    }
+
     void setDisableAllChecks(boolean disableAllChecks) {
       // Discard previously set severities so that the DisableAllChecks flag is position sensitive.
       severityMap.clear();
@@ -374,7 +528,12 @@ public final class ErrorProneOptions {
           patchingOptionsBuilder.build(),
           excludedPattern,
           ignoreSuppressionAnnotations,
-          ignoreLargeCodeGenerators);
+          ignoreLargeCodeGenerators,
+          timingsOutput,
+          findingsCache,
+          metricsOutput,
+          metricsFormat,
+          checkTimeBudget);
     }
 
     void setExcludedPattern(Pattern excludedPattern) {
@@ -469,6 +628,8 @@ public final class ErrorProneOptions {
       switch (arg) {
         case IGNORE_SUPPRESSION_ANNOTATIONS -> builder.setIgnoreSuppressionAnnotations(true);
         case IGNORE_UNKNOWN_CHECKS_FLAG -> builder.setIgnoreUnknownChecks(true);
+        case PATCH_FILE_PER_PACKAGE_FLAG ->
+            builder.patchingOptionsBuilder().patchFilePerPackage(true);
         case DISABLE_WARNINGS_IN_GENERATED_CODE_FLAG ->
             builder.setDisableWarningsInGeneratedCode(true);
         case ERRORS_AS_WARNINGS_FLAG -> builder.setDropErrorsToWarnings(true);
@@ -498,17 +659,21 @@ public final class ErrorProneOptions {
             patchCheckSet = true;
             String remaining = arg.substring(PATCH_CHECKS_PREFIX.length());
             if (remaining.startsWith("refaster:")) {
-              // Refaster rule, load from InputStream at file
+              // Refaster rules, loaded from the given bundles or serialized rule files
               builder
                   .patchingOptionsBuilder()
+                  .refasterRules(remaining.substring("refaster:".length()))
                   .customRefactorer(
                       () -> {
                         String path = remaining.substring("refaster:".length());
-                        try (InputStream in =
-                                Files.newInputStream(FileSystems.getDefault().getPath(path));
-                            ObjectInputStream ois = new ObjectInputStream(in)) {
-                          return (CodeTransformer) ois.readObject();
-                        } catch (IOException | ClassNotFoundException e) {
+                        try {
+                          return CodeTransformerBundle.load(
+                              Splitter.on(File.pathSeparatorChar)
+                                  .omitEmptyStrings()
+                                  .splitToStream(path)
+                                  .map(p -> FileSystems.getDefault().getPath(p))
+                                  .collect(toImmutableList()));
+                        } catch (IOException e) {
                           throw new RuntimeException("Can't load Refaster rule from " + path, e);
                         }
                       });
@@ -520,11 +685,24 @@ public final class ErrorProneOptions {
           } else if (arg.startsWith(PATCH_IMPORT_ORDER_PREFIX)) {
             String remaining = arg.substring(PATCH_IMPORT_ORDER_PREFIX.length());
             ImportOrganizer importOrganizer = ImportOrderParser.getImportOrganizer(remaining);
-            builder.patchingOptionsBuilder().importOrganizer(importOrganizer);
+            builder
+                .patchingOptionsBuilder()
+                .importOrganizer(importOrganizer)
+                .importOrder(remaining);
           } else if (arg.startsWith(EXCLUDED_PATHS_PREFIX)) {
             String pathRegex = arg.substring(EXCLUDED_PATHS_PREFIX.length());
             builder.setExcludedPattern(Pattern.compile(pathRegex));
 
+          } else if (arg.startsWith(TIMINGS_OUTPUT_PREFIX)) {
+            builder.parseTimingsOutput(arg);
+          } else if (arg.startsWith(FINDINGS_CACHE_PREFIX)) {
+            builder.parseFindingsCache(arg);
+          } else if (arg.startsWith(METRICS_OUTPUT_PREFIX)) {
+            builder.parseMetricsOutput(arg);
+          } else if (arg.startsWith(METRICS_FORMAT_PREFIX)) {
+            builder.parseMetricsFormat(arg);
+          } else if (arg.startsWith(CHECK_TIME_BUDGET_PREFIX)) {
+            builder.parseCheckTimeBudget(arg);
           } else {
             if (arg.startsWith(PREFIX)) {
               throw new InvalidCommandLineOptionException("invalid flag: " + arg);
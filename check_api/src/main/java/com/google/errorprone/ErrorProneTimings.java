@@ -16,15 +16,30 @@
 
 package com.google.errorprone;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingLong;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.matchers.Suppressible;
 import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
 
 /** A collection of timing data for the runtime of individual checks. */
 public final class ErrorProneTimings {
@@ -43,15 +58,177 @@ public final class ErrorProneTimings {
     context.put(timingsKey, this);
   }
 
-  private final Map<String, Stopwatch> timers = new HashMap<>();
+  /** The number of checks whose time is attributed to each file, starting with the slowest. */
+  private static final int SLOWEST_CHECKS_PER_FILE = 5;
+
+  private final Map<String, Timer> timers = new HashMap<>();
+
+  private final List<FileTimings> fileTimings = new ArrayList<>();
+
+  private final List<BudgetExceeded> budgetsExceeded = new ArrayList<>();
+
+  // Only set if the findings cache was used.
+  private FindingsCache.@Nullable Stats findingsCacheStats;
 
   private final Stopwatch initializationTime = Stopwatch.createUnstarted();
 
+  // Not one of the check timers, since the time is already attributed to the checks that compile
+  // fixes.
+  private final Timer speculativeCompilation = new Timer("SpeculativeCompilation");
+
+  // Likewise attributed to the checks that run dataflow analyses.
+  private final Timer cfgConstruction = new Timer("CfgConstruction");
+
+  /**
+   * The timing data of a single check: the number of invocations, their total and maximum duration,
+   * and a histogram of their durations.
+   *
+   * <p>Recording a duration doesn't allocate, so callers that resolve a check's timer once and
+   * reuse it, like {@link com.google.errorprone.scanner.ErrorProneScanner}, can time every
+   * invocation of every check.
+   */
+  public static final class Timer {
+
+    /*
+     * Durations are bucketed by their highest set bit and the two bits below it, so every bucket
+     * is at most 25% wider than its lower bound. Durations from 2^40ns (about 18 minutes) up share
+     * the last bucket.
+     */
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    // The time spent since the last call to finishFile.
+    private final LongAdder fileNanos = new LongAdder();
+
+    private Timer(String name) {
+      this.name = name;
+    }
+
+    /** Returns a start time to pass to {@link #stop}. */
+    public long start() {
+      return System.nanoTime();
+    }
+
+    /**
+     * Records an invocation that started at the given {@link #start} time, and returns its duration
+     * in nanoseconds.
+     */
+    @CanIgnoreReturnValue
+    public long stop(long start) {
+      long nanos = System.nanoTime() - start;
+      record(nanos);
+      return nanos;
+    }
+
+    /** Records an invocation of the given duration. */
+    public void record(long nanos) {
+      nanos = Math.max(nanos, 0);
+      count.increment();
+      totalNanos.add(nanos);
+      fileNanos.add(nanos);
+      histogram.incrementAndGet(bucket(nanos));
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String name() {
+      return name;
+    }
+
+    /** Returns the number of recorded invocations. */
+    public long count() {
+      return count.sum();
+    }
+
+    public Duration total() {
+      return Duration.ofNanos(totalNanos.sum());
+    }
+
+    public Duration max() {
+      return Duration.ofNanos(maxNanos.get());
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the recorded durations, which is at most
+     * 25% higher than the exact value.
+     *
+     * @param percentile a percentile between 0 and 100
+     */
+    public Duration percentile(double percentile) {
+      long count = 0;
+      long[] counts = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] = histogram.get(i);
+        count += counts[i];
+      }
+      if (count == 0) {
+        return Duration.ZERO;
+      }
+      long rank = (long) Math.ceil(count * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= Math.max(rank, 1)) {
+          return Duration.ofNanos(Math.min(upperBound(i), maxNanos.get()));
+        }
+      }
+      return max();
+    }
+
+    private static int bucket(long nanos) {
+      if (nanos < SUB_BUCKETS) {
+        return (int) nanos;
+      }
+      int exponent = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAX_EXPONENT);
+      int subBucket =
+          exponent == MAX_EXPONENT && nanos >= (1L << (MAX_EXPONENT + 1))
+              ? SUB_BUCKETS - 1
+              : (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+        return bucket;
+      }
+      if (bucket == BUCKETS - 1) {
+        return Long.MAX_VALUE;
+      }
+      int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      long mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS + 1;
+      return (mantissa << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+  }
+
+  /** The time spent analyzing a single file, and the checks that took the longest. */
+  public record FileTimings(String file, Duration total, ImmutableMap<String, Duration> slowest) {}
+
+  /**
+   * A check that exceeded its time budget for a file, and was skipped for the rest of it.
+   *
+   * @param elapsed the time the check had spent on the file when it was skipped
+   */
+  public record BudgetExceeded(String check, String file, Duration elapsed) {}
+
+  /**
+   * Returns the timer for the given {@link Suppressible}, which may be kept and reused for the rest
+   * of the compilation.
+   */
+  public Timer timer(Suppressible suppressible) {
+    return timers.computeIfAbsent(suppressible.canonicalName(), Timer::new);
+  }
+
   /** Creates a timing span for the given {@link Suppressible}. */
   public AutoCloseable span(Suppressible suppressible) {
-    String key = suppressible.canonicalName();
-    Stopwatch sw = timers.computeIfAbsent(key, k -> Stopwatch.createUnstarted()).start();
-    return () -> sw.stop();
+    Timer timer = timer(suppressible);
+    long start = timer.start();
+    return () -> timer.stop(start);
   }
 
   /** Creates a timing span for initialization. */
@@ -63,11 +240,168 @@ public final class ErrorProneTimings {
   /** Returns the elapsed durations of each timer. */
   public ImmutableMap<String, Duration> timings() {
     return timers.entrySet().stream()
-        .collect(toImmutableMap(e -> e.getKey(), e -> e.getValue().elapsed()));
+        .collect(toImmutableMap(e -> e.getKey(), e -> e.getValue().total()));
+  }
+
+  /** Returns the timers of every check that has run. */
+  public ImmutableList<Timer> timers() {
+    return ImmutableList.copyOf(timers.values());
+  }
+
+  /**
+   * Returns the timer for recompiling the compilation with suggested fixes applied, to check that
+   * they compile.
+   */
+  public Timer speculativeCompilationTimer() {
+    return speculativeCompilation;
+  }
+
+  /** Returns the timer for building the control flow graphs of methods for dataflow analyses. */
+  public Timer cfgConstructionTimer() {
+    return cfgConstruction;
   }
 
   /** Returns the elapsed initialization time. */
   public Duration initializationTime() {
     return initializationTime.elapsed();
   }
+
+  /**
+   * Attributes the time recorded since the last call to the given file, which has just been
+   * analyzed. Must not be called while checks are running.
+   */
+  public synchronized void finishFile(String file) {
+    long total = 0;
+    List<Map.Entry<String, Long>> checks = new ArrayList<>();
+    for (Timer timer : timers.values()) {
+      long nanos = timer.fileNanos.sumThenReset();
+      if (nanos > 0) {
+        total += nanos;
+        checks.add(Map.entry(timer.name(), nanos));
+      }
+    }
+    checks.sort(comparingLong(Map.Entry<String, Long>::getValue).reversed());
+    fileTimings.add(
+        new FileTimings(
+            file,
+            Duration.ofNanos(total),
+            checks.stream()
+                .limit(SLOWEST_CHECKS_PER_FILE)
+                .collect(toImmutableMap(e -> e.getKey(), e -> Duration.ofNanos(e.getValue())))));
+  }
+
+  /** Returns the timings of every analyzed file, in the order they were analyzed. */
+  public synchronized ImmutableList<FileTimings> fileTimings() {
+    return ImmutableList.copyOf(fileTimings);
+  }
+
+  /** Records that a check exceeded its time budget for a file. */
+  public synchronized void budgetExceeded(String check, String file, Duration elapsed) {
+    budgetsExceeded.add(new BudgetExceeded(check, file, elapsed));
+  }
+
+  /** Returns every check that exceeded its time budget, in the order they exceeded it. */
+  public synchronized ImmutableList<BudgetExceeded> budgetsExceeded() {
+    return ImmutableList.copyOf(budgetsExceeded);
+  }
+
+  /** Records the hits, misses and evictions of the findings cache used by the compilation. */
+  public synchronized void findingsCacheStats(FindingsCache.Stats stats) {
+    findingsCacheStats = stats;
+  }
+
+  /** Returns the statistics of the findings cache, or {@code null} if it wasn't used. */
+  public synchronized FindingsCache.@Nullable Stats findingsCacheStats() {
+    return findingsCacheStats;
+  }
+
+  /** Writes all timing data to the given file as JSON, with durations in nanoseconds. */
+  public void writeJson(Path path) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(path, UTF_8)) {
+      writeJson(writer);
+    }
+  }
+
+  /** Writes all timing data as JSON, with durations in nanoseconds. */
+  public void writeJson(Writer writer) throws IOException {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"initializationNanos\": ").append(initializationTime().toNanos());
+    json.append(",\n  \"speculativeCompilation\": {\"count\": ")
+        .append(speculativeCompilation.count());
+    json.append(", \"totalNanos\": ").append(speculativeCompilation.total().toNanos()).append("}");
+    json.append(",\n  \"cfgConstruction\": {\"count\": ").append(cfgConstruction.count());
+    json.append(", \"totalNanos\": ").append(cfgConstruction.total().toNanos()).append("}");
+    json.append(",\n  \"checks\": [");
+    ImmutableList<Timer> byTotal =
+        timers.values().stream()
+            .sorted(comparingLong((Timer t) -> t.totalNanos.sum()).reversed())
+            .collect(toImmutableList());
+    String separator = "\n";
+    for (Timer timer : byTotal) {
+      json.append(separator).append("    {\"name\": ");
+      appendString(json, timer.name());
+      json.append(", \"count\": ").append(timer.count());
+      json.append(", \"totalNanos\": ").append(timer.total().toNanos());
+      json.append(", \"p50Nanos\": ").append(timer.percentile(50).toNanos());
+      json.append(", \"p99Nanos\": ").append(timer.percentile(99).toNanos());
+      json.append(", \"maxNanos\": ").append(timer.max().toNanos());
+      json.append("}");
+      separator = ",\n";
+    }
+    json.append("\n  ],\n  \"files\": [");
+    separator = "\n";
+    for (FileTimings file : fileTimings()) {
+      json.append(separator).append("    {\"file\": ");
+      appendString(json, file.file());
+      json.append(", \"totalNanos\": ").append(file.total().toNanos());
+      json.append(", \"slowestChecks\": [");
+      String checkSeparator = "";
+      for (Map.Entry<String, Duration> check : file.slowest().entrySet()) {
+        json.append(checkSeparator).append("{\"name\": ");
+        appendString(json, check.getKey());
+        json.append(", \"nanos\": ").append(check.getValue().toNanos()).append("}");
+        checkSeparator = ", ";
+      }
+      json.append("]}");
+      separator = ",\n";
+    }
+    json.append("\n  ],\n  \"budgetExceeded\": [");
+    separator = "\n";
+    for (BudgetExceeded exceeded : budgetsExceeded()) {
+      json.append(separator).append("    {\"check\": ");
+      appendString(json, exceeded.check());
+      json.append(", \"file\": ");
+      appendString(json, exceeded.file());
+      json.append(", \"nanos\": ").append(exceeded.elapsed().toNanos()).append("}");
+      separator = ",\n";
+    }
+    json.append("\n  ]");
+    FindingsCache.Stats stats = findingsCacheStats();
+    if (stats != null) {
+      json.append(",\n  \"findingsCache\": {\"hits\": ").append(stats.hits());
+      json.append(", \"misses\": ").append(stats.misses());
+      json.append(", \"evictions\": ").append(stats.evictions()).append("}");
+    }
+    json.append("\n}\n");
+    writer.write(json.toString());
+  }
+
+  private static void appendString(StringBuilder json, String s) {
+    json.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"' -> json.append("\\\"");
+        case '\\' -> json.append("\\\\");
+        default -> {
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+        }
+      }
+    }
+    json.append('"');
+  }
 }
@@ -0,0 +1,766 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.ErrorProneOptions.PatchingOptions;
+import com.google.errorprone.fixes.ErrorProneEndPosTable;
+import com.google.errorprone.fixes.ErrorPronePosition;
+import com.google.errorprone.fixes.Fix;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.Replacements.CoalescePolicy;
+import com.google.errorprone.fixes.SuggestedFix;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Source;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.tree.TreeScanner;
+import com.sun.tools.javac.util.Context;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An on-disk cache of the findings reported for each compilation unit, shared across compilations.
+ *
+ * <p>Entries are keyed by a hash of the source of the compilation unit and its path relative to the
+ * working directory, the enabled checks and their severities, the Error Prone flags and options,
+ * including the patching options, and the signatures of the classes that the compilation unit
+ * refers to. When a compilation unit is analyzed again and none of these have changed, the stored
+ * findings are reported instead of running the checks. Only signatures are considered, so a change
+ * to the body of a method in another file doesn't invalidate the findings of its callers.
+ *
+ * <p>Entries that haven't been used for {@code -XepOpt:FindingsCache:MaxAgeDays} days are evicted
+ * at the end of each compilation, followed by the least recently used entries until the cache is
+ * smaller than {@code -XepOpt:FindingsCache:MaxSizeMb} megabytes.
+ */
+public final class FindingsCache {
+
+  /** The version of the key and entry format, which is part of every key. */
+  private static final int VERSION = 2;
+
+  private static final String ENTRY_SUFFIX = ".findings";
+
+  private static final String FLAG_PREFIX = "FindingsCache:";
+
+  private static final int DEFAULT_MAX_SIZE_MB = 256;
+
+  private static final int DEFAULT_MAX_AGE_DAYS = 7;
+
+  /**
+   * Creates a cache in the given directory for the findings of the given checks, and registers it
+   * in the given context.
+   */
+  public static FindingsCache create(
+      Path directory, ScannerSupplier scanners, ErrorProneOptions options, Context context)
+      throws IOException {
+    ErrorProneFlags flags = options.getFlags();
+    long maxSizeMb = flags.getInteger(FLAG_PREFIX + "MaxSizeMb").orElse(DEFAULT_MAX_SIZE_MB);
+    int maxAgeDays = flags.getInteger(FLAG_PREFIX + "MaxAgeDays").orElse(DEFAULT_MAX_AGE_DAYS);
+    FindingsCache cache =
+        new FindingsCache(
+            directory,
+            configuration(scanners, options, context),
+            maxSizeMb << 20,
+            Duration.ofDays(maxAgeDays));
+    context.put(FindingsCache.class, cache);
+    return cache;
+  }
+
+  /** Returns the cache registered in the given context, or {@code null} if there isn't one. */
+  public static @Nullable FindingsCache instance(Context context) {
+    return context.get(FindingsCache.class);
+  }
+
+  private final Path directory;
+  private final HashCode configuration;
+  private final long maxBytes;
+  private final Duration maxAge;
+
+  // The signatures of classes outside the current compilation unit, which don't change during a
+  // compilation.
+  private final Map<ClassSymbol, HashCode> signatures = new HashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  FindingsCache(Path directory, HashCode configuration, long maxBytes, Duration maxAge)
+      throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.configuration = configuration;
+    this.maxBytes = maxBytes;
+    this.maxAge = maxAge;
+  }
+
+  /** The number of cache hits, misses and evicted entries since the cache was created. */
+  public record Stats(long hits, long misses, long evictions) {}
+
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), evictions.sum());
+  }
+
+  /**
+   * Returns a {@link CodeTransformer} that reports the cached findings for compilation units that
+   * have been analyzed before, and otherwise runs the given transformer and caches its findings.
+   */
+  public CodeTransformer wrap(CodeTransformer transformer) {
+    return new CodeTransformer() {
+      @Override
+      public void apply(TreePath path, Context context, DescriptionListener listener) {
+        if (!(path.getLeaf() instanceof JCCompilationUnit compilation)) {
+          transformer.apply(path, context, listener);
+          return;
+        }
+        HashCode key;
+        try {
+          key = key(compilation);
+        } catch (IOException e) {
+          transformer.apply(path, context, listener);
+          return;
+        }
+        ImmutableList<Description> cached = read(key, compilation);
+        if (cached != null) {
+          hits.increment();
+          cached.forEach(listener::onDescribed);
+          return;
+        }
+        misses.increment();
+        List<Description> descriptions = new ArrayList<>();
+        ErrorProneTimings timings = ErrorProneTimings.instance(context);
+        int budgetsExceeded = timings.budgetsExceeded().size();
+        transformer.apply(
+            path,
+            context,
+            d -> {
+              descriptions.add(d);
+              listener.onDescribed(d);
+            });
+        // Checks that ran out of time skipped part of the file, so the findings are incomplete.
+        // Findings without a tree can't be given one when they're replayed, so aren't cached.
+        if (timings.budgetsExceeded().size() == budgetsExceeded
+            && descriptions.stream().allMatch(d -> treeOf(d.position) != null)) {
+          write(key, compilation, descriptions);
+        }
+      }
+
+      @Override
+      public ImmutableClassToInstanceMap<Annotation> annotations() {
+        return transformer.annotations();
+      }
+    };
+  }
+
+  /**
+   * Deletes entries that haven't been used recently, and then the least recently used entries
+   * until the cache fits in its size limit.
+   */
+  public void evict() throws IOException {
+    record Entry(Path path, FileTime lastUsed, long size) {}
+    List<Entry> entries = new ArrayList<>();
+    try (Stream<Path> paths = Files.list(directory)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (!path.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+          continue;
+        }
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+          entries.add(new Entry(path, attributes.lastModifiedTime(), attributes.size()));
+        } catch (IOException e) {
+          // The entry was evicted concurrently by another compilation.
+        }
+      }
+    }
+    entries.sort(comparing(Entry::lastUsed));
+    FileTime oldest = FileTime.from(Instant.now().minus(maxAge));
+    long size = entries.stream().mapToLong(Entry::size).sum();
+    for (Entry entry : entries) {
+      if (entry.lastUsed().compareTo(oldest) >= 0 && size <= maxBytes) {
+        break;
+      }
+      if (Files.deleteIfExists(entry.path())) {
+        evictions.increment();
+      }
+      size -= entry.size();
+    }
+  }
+
+  private HashCode key(JCCompilationUnit compilation) throws IOException {
+    JavaFileObject sourceFile = compilation.getSourceFile();
+    Hasher hasher = Hashing.sha256().newHasher().putInt(VERSION).putBytes(configuration.asBytes());
+    putString(hasher, relativeName(sourceFile));
+    putString(hasher, sourceFile.getCharContent(true).toString());
+    Set<ClassSymbol> seen = new HashSet<>();
+    for (ClassSymbol dependency : dependencies(compilation)) {
+      putSignatures(hasher, dependency, seen);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Returns the path of the given file relative to the working directory, so that findings can be
+   * shared between checkouts, or its full name if it isn't below the working directory. Checks and
+   * {@code -XepExcludedPaths} can depend on the path, so the file name alone isn't enough.
+   */
+  private static String relativeName(JavaFileObject sourceFile) {
+    Path path;
+    try {
+      path = Path.of(sourceFile.toUri());
+    } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+      return sourceFile.toUri().toString();
+    }
+    Path workingDirectory = Path.of("").toAbsolutePath();
+    if (!path.startsWith(workingDirectory)) {
+      return path.toString();
+    }
+    return workingDirectory.relativize(path).toString().replace(File.separatorChar, '/');
+  }
+
+  /** Returns the classes declared outside the given compilation unit that it refers to. */
+  private static Set<ClassSymbol> dependencies(JCCompilationUnit compilation) {
+    Set<ClassSymbol> dependencies = new LinkedHashSet<>();
+    new TreeScanner() {
+      @Override
+      public void scan(JCTree tree) {
+        if (tree == null) {
+          return;
+        }
+        add(TreeInfo.symbol(tree));
+        if (tree.type != null) {
+          add(tree.type.tsym);
+        }
+        super.scan(tree);
+      }
+
+      private void add(@Nullable Symbol symbol) {
+        ClassSymbol owner = symbol == null ? null : symbol.enclClass();
+        if (owner != null && owner.outermostClass().sourcefile != compilation.getSourceFile()) {
+          dependencies.add(owner);
+        }
+      }
+    }.scan(compilation);
+    return dependencies;
+  }
+
+  /** Hashes the signatures of the given class and of its supertypes. */
+  private void putSignatures(Hasher hasher, ClassSymbol symbol, Set<ClassSymbol> seen) {
+    if (!seen.add(symbol)) {
+      return;
+    }
+    hasher.putBytes(signatures.computeIfAbsent(symbol, FindingsCache::signature).asBytes());
+    try {
+      for (Type supertype : supertypes(symbol)) {
+        if (supertype.tsym instanceof ClassSymbol superclass) {
+          putSignatures(hasher, superclass, seen);
+        }
+      }
+    } catch (CompletionFailure e) {
+      putString(hasher, "!" + e.sym);
+    }
+  }
+
+  private static ImmutableList<Type> supertypes(ClassSymbol symbol) {
+    return Stream.concat(Stream.of(symbol.getSuperclass()), symbol.getInterfaces().stream())
+        .collect(toImmutableList());
+  }
+
+  /** Hashes the declarations and annotations of the given class and its members. */
+  private static HashCode signature(ClassSymbol symbol) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, symbol.flatName().toString());
+    try {
+      putString(hasher, symbol.getModifiers().toString());
+      putString(hasher, symbol.getAnnotationMirrors().toString());
+      putString(hasher, symbol.type.toString());
+      putString(hasher, supertypes(symbol).toString());
+      for (Symbol member : symbol.getEnclosedElements()) {
+        putString(hasher, member.getKind().name());
+        putString(hasher, member.getSimpleName().toString());
+        putString(hasher, member.getModifiers().toString());
+        putString(hasher, member.getAnnotationMirrors().toString());
+        putString(hasher, String.valueOf(member.type));
+        if (member instanceof MethodSymbol method) {
+          putString(hasher, method.getThrownTypes().toString());
+        } else if (member instanceof VarSymbol var) {
+          putString(hasher, String.valueOf(var.getConstValue()));
+        }
+      }
+    } catch (CompletionFailure e) {
+      putString(hasher, "!" + e.sym);
+    }
+    return hasher.hash();
+  }
+
+  /** Hashes everything about the compilation that may affect the findings of every file. */
+  private static HashCode configuration(
+      ScannerSupplier scanners, ErrorProneOptions options, Context context) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, ErrorProneVersion.loadVersionFromPom().or("unknown version"));
+    putString(hasher, Source.instance(context).name());
+    Set<String> codeSources = new TreeSet<>();
+    scanners.getEnabledChecks().stream()
+        .sorted(comparing(BugCheckerInfo::canonicalName))
+        .forEachOrdered(
+            check -> {
+              putString(hasher, check.canonicalName());
+              putString(hasher, check.checkerClass().getName());
+              putString(hasher, check.severity(scanners.severities()).name());
+              codeSources.add(codeSource(check.checkerClass()));
+            });
+    // Plugin checks change without changing Error Prone's version, so identify the jars that
+    // contain them by their size and modification time.
+    codeSources.forEach(s -> putString(hasher, s));
+    putFlags(hasher, options.getFlags());
+    putFlags(hasher, scanners.getFlags());
+    new TreeMap<>(options.getSeverityMap())
+        .forEach(
+            (check, severity) -> {
+              putString(hasher, check);
+              putString(hasher, severity.name());
+            });
+    Pattern excludedPattern = options.getExcludedPattern();
+    putString(hasher, excludedPattern == null ? "" : excludedPattern.pattern());
+    hasher
+        .putBoolean(options.ignoreUnknownChecks())
+        .putBoolean(options.isDisableAllChecks())
+        .putBoolean(options.isEnableAllChecksAsWarnings())
+        .putBoolean(options.isDisableAllWarnings())
+        .putBoolean(options.isDropErrorsToWarnings())
+        .putBoolean(options.isSuggestionsAsWarnings())
+        .putBoolean(options.disableWarningsInGeneratedCode())
+        .putBoolean(options.isIgnoreSuppressionAnnotations())
+        .putBoolean(options.isTestOnlyTarget())
+        .putBoolean(options.isPubliclyVisibleTarget())
+        .putBoolean(options.ignoreLargeCodeGenerators());
+    // The patching options decide which checks' fixes are applied, and how they're formatted.
+    PatchingOptions patchingOptions = options.patchingOptions();
+    patchingOptions.namedCheckers().stream().sorted().forEachOrdered(c -> putString(hasher, c));
+    hasher
+        .putBoolean(patchingOptions.inPlace())
+        .putBoolean(patchingOptions.patchFilePerPackage())
+        .putBoolean(patchingOptions.customRefactorer().isPresent());
+    putString(hasher, patchingOptions.baseDirectory());
+    putString(hasher, patchingOptions.importOrder());
+    // Like plugin jars, Refaster rules change without changing their paths.
+    Splitter.on(File.pathSeparatorChar)
+        .omitEmptyStrings()
+        .split(patchingOptions.refasterRules())
+        .forEach(rules -> putString(hasher, fileSignature(Path.of(rules))));
+    return hasher.hash();
+  }
+
+  /** Hashes the given flags, other than the findings cache's own. */
+  private static void putFlags(Hasher hasher, ErrorProneFlags flags) {
+    new TreeMap<>(flags.getFlagsMap())
+        .forEach(
+            (key, value) -> {
+              if (!key.startsWith(FLAG_PREFIX)) {
+                putString(hasher, key);
+                putString(hasher, value);
+              }
+            });
+  }
+
+  private static String codeSource(Class<?> clazz) {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return "";
+    }
+    try {
+      return fileSignature(Path.of(codeSource.getLocation().toURI()));
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return codeSource.getLocation().toString();
+    }
+  }
+
+  /** Identifies the given file by its path, size and modification time. */
+  private static String fileSignature(Path path) {
+    try {
+      if (Files.isRegularFile(path)) {
+        return path + ":" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+      }
+    } catch (IOException e) {
+      // Fall back to the path alone.
+    }
+    return path.toString();
+  }
+
+  private static void putString(Hasher hasher, String s) {
+    hasher.putInt(s.length()).putString(s, UTF_8);
+  }
+
+  private Path entry(HashCode key) {
+    return directory.resolve(key + ENTRY_SUFFIX);
+  }
+
+  /** Returns the cached findings for the given key, or {@code null} if there are none. */
+  private @Nullable ImmutableList<Description> read(HashCode key, JCCompilationUnit compilation) {
+    Path path = entry(key);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    ImmutableList<StoredDescription> stored;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      int count = in.readInt();
+      ImmutableList.Builder<StoredDescription> builder = ImmutableList.builder();
+      for (int i = 0; i < count; i++) {
+        builder.add(StoredDescription.read(in));
+      }
+      stored = builder.build();
+      // Keep the entry from being evicted as unused.
+      Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+    } catch (IOException | RuntimeException e) {
+      // The entry is corrupt or was evicted concurrently, and will be replaced.
+      return null;
+    }
+    Map<Long, JCTree> trees = findTrees(compilation, stored);
+    ImmutableList.Builder<Description> descriptions = ImmutableList.builder();
+    for (StoredDescription description : stored) {
+      JCTree tree = trees.get(position(description.start(), description.preferred()));
+      if (tree == null) {
+        // The tree the finding was reported on can't be found, so analyze the file again.
+        return null;
+      }
+      descriptions.add(description.toDescription(tree));
+    }
+    return descriptions.build();
+  }
+
+  /** Returns the tree of the given position, or {@code null} if it doesn't have one. */
+  private static @Nullable JCTree treeOf(ErrorPronePosition position) {
+    try {
+      return position.getTree();
+    } catch (UnsupportedOperationException e) {
+      // IndexedPosition
+      return null;
+    }
+  }
+
+  private void write(HashCode key, JCCompilationUnit compilation, List<Description> descriptions) {
+    ErrorProneEndPosTable endPositions = ErrorProneEndPosTable.create(compilation);
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(directory, key.toString(), ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(descriptions.size());
+        for (Description description : descriptions) {
+          StoredDescription.of(description, endPositions).write(out);
+        }
+      }
+      Files.move(
+          temp, entry(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Caching is best-effort; the findings will be recomputed by the next compilation.
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the outermost tree at the position of each stored finding, so that listeners which
+   * inspect {@link ErrorPronePosition#getTree} see the same kind of tree as when the finding was
+   * reported.
+   */
+  private static Map<Long, JCTree> findTrees(
+      JCCompilationUnit compilation, List<StoredDescription> descriptions) {
+    Map<Long, StoredDescription> wanted = new HashMap<>();
+    for (StoredDescription description : descriptions) {
+      wanted.put(position(description.start(), description.preferred()), description);
+    }
+    Map<Long, JCTree> trees = new HashMap<>();
+    if (wanted.isEmpty()) {
+      return trees;
+    }
+    ErrorProneEndPosTable endPositions = ErrorProneEndPosTable.create(compilation);
+    new TreeScanner() {
+      @Override
+      public void scan(JCTree tree) {
+        if (tree == null) {
+          return;
+        }
+        long position = position(tree.getStartPosition(), tree.getPreferredPosition());
+        StoredDescription description = wanted.get(position);
+        if (description != null
+            && !trees.containsKey(position)
+            && endPositions.getEndPosition(tree) == description.end()) {
+          trees.put(position, tree);
+        }
+        super.scan(tree);
+      }
+    }.scan(compilation);
+    return trees;
+  }
+
+  private static long position(int start, int preferred) {
+    return ((long) start << 32) | (preferred & 0xffffffffL);
+  }
+
+  /** The part of a {@link Description} that is stored in the cache. */
+  private record StoredDescription(
+      String checkName,
+      String rawMessage,
+      @Nullable String linkUrl,
+      SeverityLevel severity,
+      int start,
+      int preferred,
+      int end,
+      ImmutableList<StoredFix> fixes) {
+
+    static StoredDescription of(Description description, ErrorProneEndPosTable endPositions) {
+      ErrorPronePosition position = description.position;
+      return new StoredDescription(
+          description.checkName,
+          description.getRawMessage(),
+          description.getLink(),
+          description.severity(),
+          position.getStartPosition(),
+          position.getPreferredPosition(),
+          position.getEndPosition(endPositions),
+          description.fixes.stream()
+              .map(f -> StoredFix.of(f, endPositions))
+              .collect(toImmutableList()));
+    }
+
+    Description toDescription(JCTree tree) {
+      Description.Builder builder =
+          Description.builder(
+              new StoredPosition(start, preferred, end, tree), checkName, linkUrl, rawMessage);
+      for (StoredFix fix : fixes) {
+        builder.addFix(fix.toFix());
+      }
+      // The stored severity already reflects any overrides.
+      return builder.build().applySeverityOverride(severity);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      writeString(out, checkName);
+      writeString(out, rawMessage);
+      out.writeBoolean(linkUrl != null);
+      if (linkUrl != null) {
+        writeString(out, linkUrl);
+      }
+      writeString(out, severity.name());
+      out.writeInt(start);
+      out.writeInt(preferred);
+      out.writeInt(end);
+      out.writeInt(fixes.size());
+      for (StoredFix fix : fixes) {
+        fix.write(out);
+      }
+    }
+
+    static StoredDescription read(DataInputStream in) throws IOException {
+      String checkName = readString(in);
+      String rawMessage = readString(in);
+      String linkUrl = in.readBoolean() ? readString(in) : null;
+      SeverityLevel severity = SeverityLevel.valueOf(readString(in));
+      int start = in.readInt();
+      int preferred = in.readInt();
+      int end = in.readInt();
+      int count = in.readInt();
+      ImmutableList.Builder<StoredFix> fixes = ImmutableList.builder();
+      for (int i = 0; i < count; i++) {
+        fixes.add(StoredFix.read(in));
+      }
+      return new StoredDescription(
+          checkName, rawMessage, linkUrl, severity, start, preferred, end, fixes.build());
+    }
+  }
+
+  /** A {@link Fix}, with its replacements resolved against the source it was computed for. */
+  private record StoredFix(
+      String shortDescription,
+      CoalescePolicy coalescePolicy,
+      ImmutableList<Replacement> replacements,
+      ImmutableList<String> importsToAdd,
+      ImmutableList<String> importsToRemove) {
+
+    static StoredFix of(Fix fix, ErrorProneEndPosTable endPositions) {
+      return new StoredFix(
+          fix.getShortDescription(),
+          fix.getCoalescePolicy(),
+          fix.getReplacements(endPositions).asList(),
+          fix.getImportsToAdd().asList(),
+          fix.getImportsToRemove().asList());
+    }
+
+    Fix toFix() {
+      SuggestedFix.Builder builder =
+          SuggestedFix.builder()
+              .setShortDescription(shortDescription)
+              .setCoalescePolicy(coalescePolicy);
+      for (Replacement replacement : replacements) {
+        builder.replace(
+            replacement.startPosition(), replacement.endPosition(), replacement.replaceWith());
+      }
+      for (String importToAdd : importsToAdd) {
+        if (importToAdd.startsWith("import static ")) {
+          builder.addStaticImport(importToAdd.substring("import static ".length()));
+        } else {
+          builder.addImport(importToAdd.substring("import ".length()));
+        }
+      }
+      for (String importToRemove : importsToRemove) {
+        if (importToRemove.startsWith("import static ")) {
+          builder.removeStaticImport(importToRemove.substring("import static ".length()));
+        } else {
+          builder.removeImport(importToRemove.substring("import ".length()));
+        }
+      }
+      return builder.build();
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      writeString(out, shortDescription);
+      writeString(out, coalescePolicy.name());
+      out.writeInt(replacements.size());
+      for (Replacement replacement : replacements) {
+        out.writeInt(replacement.startPosition());
+        out.writeInt(replacement.endPosition());
+        writeString(out, replacement.replaceWith());
+      }
+      writeStrings(out, importsToAdd);
+      writeStrings(out, importsToRemove);
+    }
+
+    static StoredFix read(DataInputStream in) throws IOException {
+      String shortDescription = readString(in);
+      CoalescePolicy coalescePolicy = CoalescePolicy.valueOf(readString(in));
+      int count = in.readInt();
+      ImmutableList.Builder<Replacement> replacements = ImmutableList.builder();
+      for (int i = 0; i < count; i++) {
+        int start = in.readInt();
+        int end = in.readInt();
+        replacements.add(Replacement.create(start, end, readString(in)));
+      }
+      return new StoredFix(
+          shortDescription,
+          coalescePolicy,
+          replacements.build(),
+          readStrings(in),
+          readStrings(in));
+    }
+  }
+
+  /** The position of a cached finding, and the tree that it was reported on. */
+  private record StoredPosition(int start, int preferred, int end, JCTree tree)
+      implements ErrorPronePosition {
+
+    @Override
+    public int getStartPosition() {
+      return start;
+    }
+
+    @Override
+    public int getPreferredPosition() {
+      return preferred;
+    }
+
+    @Override
+    public JCTree getTree() {
+      return tree;
+    }
+
+    @Override
+    public int getEndPosition(ErrorProneEndPosTable endPosTable) {
+      return end;
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    // Not writeUTF, which is limited to 64KB.
+    byte[] bytes = s.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+    out.writeInt(strings.size());
+    for (String s : strings) {
+      writeString(out, s);
+    }
+  }
+
+  private static ImmutableList<String> readStrings(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    ImmutableList.Builder<String> strings = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      strings.add(readString(in));
+    }
+    return strings.build();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.errorprone.ErrorProneTimings.Timer;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ServiceLoader;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardLocation;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Writes the counters and per-check timings of a compilation for a monitoring system, in the format
+ * selected with {@code -XepMetricsFormat}.
+ *
+ * <p>Besides the built-in {@value #PROMETHEUS} and {@value #OPEN_METRICS} formats, exporters are
+ * loaded with {@link ServiceLoader} from the annotation processor path, like custom checks.
+ */
+public interface MetricsExporter {
+
+  /** The name of the Prometheus text exposition format. */
+  String PROMETHEUS = "prometheus";
+
+  /** The name of the OpenMetrics text format. */
+  String OPEN_METRICS = "openmetrics";
+
+  /** Returns the name of the format written by this exporter. */
+  String format();
+
+  /**
+   * Writes the given counters, collected with {@link VisitorState#incrementCounter}, and check
+   * timers.
+   */
+  void export(ImmutableMultiset<String> counters, ImmutableList<Timer> timers, Writer writer)
+      throws IOException;
+
+  /** Returns the exporter for the given format, or {@code null} if there is none. */
+  static @Nullable MetricsExporter forFormat(String format, Context context) {
+    if (format.equals(PROMETHEUS)) {
+      return PrometheusMetricsExporter.prometheus();
+    }
+    if (format.equals(OPEN_METRICS)) {
+      return PrometheusMetricsExporter.openMetrics();
+    }
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    ClassLoader loader =
+        fileManager != null && fileManager.hasLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH)
+            ? JavacProcessingEnvironment.instance(context).getProcessorClassLoader()
+            : MetricsExporter.class.getClassLoader();
+    for (MetricsExporter exporter : ServiceLoader.load(MetricsExporter.class, loader)) {
+      if (exporter.format().equals(format)) {
+        return exporter;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.util.Comparator.comparing;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Multiset;
+import com.google.errorprone.ErrorProneTimings.Timer;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Writes metrics in the <a
+ * href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>
+ * or in the <a href="https://openmetrics.io/">OpenMetrics</a> text format.
+ *
+ * <p>Each check's timer is written as a summary of its durations with the median and the 99th
+ * percentile, and a gauge of its longest duration. Counters are written as a single counter
+ * labelled by key.
+ */
+final class PrometheusMetricsExporter implements MetricsExporter {
+
+  private static final PrometheusMetricsExporter PROMETHEUS_EXPORTER =
+      new PrometheusMetricsExporter(/* openMetrics= */ false);
+  private static final PrometheusMetricsExporter OPEN_METRICS_EXPORTER =
+      new PrometheusMetricsExporter(/* openMetrics= */ true);
+
+  private static final String DURATION = "errorprone_check_duration_seconds";
+  private static final String MAX_DURATION = "errorprone_check_max_duration_seconds";
+  private static final String COUNTER = "errorprone_counter";
+
+  static PrometheusMetricsExporter prometheus() {
+    return PROMETHEUS_EXPORTER;
+  }
+
+  static PrometheusMetricsExporter openMetrics() {
+    return OPEN_METRICS_EXPORTER;
+  }
+
+  private final boolean openMetrics;
+
+  private PrometheusMetricsExporter(boolean openMetrics) {
+    this.openMetrics = openMetrics;
+  }
+
+  @Override
+  public String format() {
+    return openMetrics ? OPEN_METRICS : PROMETHEUS;
+  }
+
+  @Override
+  public void export(ImmutableMultiset<String> counters, ImmutableList<Timer> timers, Writer writer)
+      throws IOException {
+    StringBuilder out = new StringBuilder();
+    List<Timer> sortedTimers = timers.stream().sorted(comparing(Timer::name)).toList();
+
+    header(out, DURATION, "summary", "The time spent running each check.", "seconds");
+    for (Timer timer : sortedTimers) {
+      sample(out, DURATION, "check", timer.name(), "0.5", seconds(timer.percentile(50)));
+      sample(out, DURATION, "check", timer.name(), "0.99", seconds(timer.percentile(99)));
+      sample(out, DURATION + "_sum", "check", timer.name(), null, seconds(timer.total()));
+      sample(out, DURATION + "_count", "check", timer.name(), null, Long.toString(timer.count()));
+    }
+
+    header(out, MAX_DURATION, "gauge", "The longest single run of each check.", "seconds");
+    for (Timer timer : sortedTimers) {
+      sample(out, MAX_DURATION, "check", timer.name(), null, seconds(timer.max()));
+    }
+
+    // Prometheus names counters with their _total suffix, OpenMetrics without it.
+    header(
+        out,
+        openMetrics ? COUNTER : COUNTER + "_total",
+        "counter",
+        "Counters incremented by checks, by key.",
+        null);
+    List<Multiset.Entry<String>> sortedCounters =
+        counters.entrySet().stream().sorted(comparing(Multiset.Entry::getElement)).toList();
+    for (Multiset.Entry<String> counter : sortedCounters) {
+      sample(
+          out,
+          COUNTER + "_total",
+          "key",
+          counter.getElement(),
+          null,
+          Integer.toString(counter.getCount()));
+    }
+
+    if (openMetrics) {
+      out.append("# EOF\n");
+    }
+    writer.write(out.toString());
+  }
+
+  private void header(
+      StringBuilder out, String name, String type, String help, @Nullable String unit) {
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    if (openMetrics && unit != null) {
+      out.append("# UNIT ").append(name).append(' ').append(unit).append('\n');
+    }
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+  }
+
+  private static void sample(
+      StringBuilder out,
+      String name,
+      String label,
+      String labelValue,
+      @Nullable String quantile,
+      String value) {
+    out.append(name).append('{').append(label).append("=\"");
+    appendLabelValue(out, labelValue);
+    out.append('"');
+    if (quantile != null) {
+      out.append(",quantile=\"").append(quantile).append('"');
+    }
+    out.append("} ").append(value).append('\n');
+  }
+
+  private static void appendLabelValue(StringBuilder out, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> out.append("\\\\");
+        case '"' -> out.append("\\\"");
+        case '\n' -> out.append("\\n");
+        default -> out.append(c);
+      }
+    }
+  }
+
+  private static String seconds(Duration duration) {
+    return Double.toString(duration.toNanos() / 1e9);
+  }
+}
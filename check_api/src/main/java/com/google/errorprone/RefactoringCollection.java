@@ -16,19 +16,13 @@
 
 package com.google.errorprone;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE;
-
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
 import com.google.errorprone.ErrorProneOptions.PatchingOptions;
 import com.google.errorprone.apply.DescriptionBasedDiff;
 import com.google.errorprone.apply.FileDestination;
-import com.google.errorprone.apply.FileSource;
 import com.google.errorprone.apply.FsFileDestination;
-import com.google.errorprone.apply.FsFileSource;
 import com.google.errorprone.apply.ImportOrganizer;
 import com.google.errorprone.apply.PatchFileDestination;
 import com.google.errorprone.apply.SourceFile;
@@ -37,16 +31,14 @@ import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.tools.JavaFileObject;
 
 /** A container of fixes that have been collected during a single compilation phase. */
 public final class RefactoringCollection implements DescriptionListener.Factory {
@@ -55,7 +47,6 @@ public final class RefactoringCollection implements DescriptionListener.Factory
 
   private final SetMultimap<URI, DelegatingDescriptionListener> foundSources =
       HashMultimap.create();
-  private final Path rootPath;
   private final FileDestination fileDestination;
   private final Function<URI, RefactoringResult> postProcess;
   private final DescriptionListener.Factory descriptionsFactory;
@@ -86,43 +77,35 @@ public final class RefactoringCollection implements DescriptionListener.Factory
           };
     } else {
       Path baseDir = rootPath.resolve(patchingOptions.baseDirectory());
-      Path patchFilePath = baseDir.resolve("error-prone.patch");
 
-      PatchFileDestination patchFileDestination = new PatchFileDestination(baseDir, rootPath);
+      PatchFileDestination patchFileDestination =
+          new PatchFileDestination(baseDir, rootPath, patchingOptions.patchFilePerPackage());
       postProcess =
-          new Function<URI, RefactoringResult>() {
-            private final AtomicBoolean first = new AtomicBoolean(true);
-
-            @Override
-            public RefactoringResult apply(URI uri) {
-              try {
-                writePatchFile(first, uri, patchFileDestination, patchFilePath);
-                return new RefactoringResult(
-                    "Changes were written to "
-                        + patchFilePath
-                        + ". Please inspect the file and apply with: "
-                        + "patch -p0 -u -i error-prone.patch",
-                    RefactoringResultType.CHANGED);
-              } catch (IOException e) {
-                throw new RuntimeException("Failed to emit patch file!", e);
-              }
+          uri -> {
+            Path patchFilePath = patchFileDestination.patchFilePath(uri);
+            if (patchFilePath == null) {
+              return new RefactoringResult("", RefactoringResultType.NO_CHANGES);
             }
+            return new RefactoringResult(
+                "Changes were written to "
+                    + patchFilePath
+                    + ". Please inspect the file and apply with: "
+                    + "patch -p0 -u -i "
+                    + patchFilePath.getFileName(),
+                RefactoringResultType.CHANGED);
           };
       fileDestination = patchFileDestination;
     }
 
     ImportOrganizer importOrganizer = patchingOptions.importOrganizer();
-    return new RefactoringCollection(
-        rootPath, fileDestination, postProcess, importOrganizer, context);
+    return new RefactoringCollection(fileDestination, postProcess, importOrganizer, context);
   }
 
   private RefactoringCollection(
-      Path rootPath,
       FileDestination fileDestination,
       Function<URI, RefactoringResult> postProcess,
       ImportOrganizer importOrganizer,
       Context context) {
-    this.rootPath = rootPath;
     this.fileDestination = fileDestination;
     this.postProcess = postProcess;
     this.descriptionsFactory = JavacErrorDescriptionListener.providerForRefactoring(context);
@@ -144,41 +127,29 @@ public final class RefactoringCollection implements DescriptionListener.Factory
     DelegatingDescriptionListener delegate =
         new DelegatingDescriptionListener(
             descriptionsFactory.getDescriptionListener(log, compilation),
-            DescriptionBasedDiff.createIgnoringOverlaps(compilation, importOrganizer));
+            DescriptionBasedDiff.createIgnoringOverlaps(compilation, importOrganizer),
+            compilation.getSourceFile(),
+            compilation.packge.getQualifiedName().toString());
     foundSources.put(sourceFile, delegate);
     return delegate;
   }
 
   RefactoringResult applyChanges(URI uri) throws Exception {
     Collection<DelegatingDescriptionListener> listeners = foundSources.removeAll(uri);
-    if (doApplyProcess(fileDestination, new FsFileSource(rootPath), listeners)) {
+    if (doApplyProcess(fileDestination, listeners)) {
       return postProcess.apply(uri);
     }
 
     return new RefactoringResult("", RefactoringResultType.NO_CHANGES);
   }
 
-  private static void writePatchFile(
-      AtomicBoolean first, URI uri, PatchFileDestination fileDestination, Path patchFilePatch)
-      throws IOException {
-    String patchFile = fileDestination.patchFile(uri);
-    if (patchFile != null) {
-      if (first.compareAndSet(true, false)) {
-        try {
-          Files.deleteIfExists(patchFilePatch);
-        } catch (IOException e) {
-          throw new UncheckedIOException(e);
-        }
-      }
-      Files.createDirectories(patchFilePatch.getParent());
-      Files.write(patchFilePatch, patchFile.getBytes(UTF_8), APPEND, CREATE);
-    }
+  /** Writes any changes that are still buffered, at the end of the compilation. */
+  void flush() throws IOException {
+    fileDestination.flush();
   }
 
   private static boolean doApplyProcess(
-      FileDestination fileDestination,
-      FileSource fileSource,
-      Collection<DelegatingDescriptionListener> listeners) {
+      FileDestination fileDestination, Collection<DelegatingDescriptionListener> listeners) {
     boolean appliedDiff = false;
     for (DelegatingDescriptionListener listener : listeners) {
       if (listener.base.isEmpty()) {
@@ -186,9 +157,11 @@ public final class RefactoringCollection implements DescriptionListener.Factory
       }
 
       try {
-        SourceFile file = fileSource.readFile(listener.base.getRelevantFileName());
+        // Start from the source javac already read, rather than reading the file again.
+        CharSequence originalSource = listener.sourceFile.getCharContent(false);
+        SourceFile file = new SourceFile(listener.base.getRelevantFileName(), originalSource);
         listener.base.applyDifferences(file);
-        fileDestination.writeFile(file);
+        fileDestination.writeFile(file, originalSource, listener.packageName);
         appliedDiff = true;
       } catch (IOException e) {
         logger.log(
@@ -202,7 +175,11 @@ public final class RefactoringCollection implements DescriptionListener.Factory
   }
 
   private record DelegatingDescriptionListener(
-      DescriptionListener listener, DescriptionBasedDiff base) implements DescriptionListener {
+      DescriptionListener listener,
+      DescriptionBasedDiff base,
+      JavaFileObject sourceFile,
+      String packageName)
+      implements DescriptionListener {
 
     @Override
     public void onDescribed(Description description) {
@@ -16,9 +16,12 @@
 
 package com.google.errorprone;
 
-import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableMultiset;
-import com.google.common.collect.Multiset;
+import com.google.common.primitives.Ints;
+import com.sun.tools.javac.util.Context;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /** A collector of counters keyed by strings. */
 public interface StatisticsCollector {
@@ -34,23 +37,47 @@ public interface StatisticsCollector {
   /** Returns a copy of the counters in this statistics collector. */
   ImmutableMultiset<String> counters();
 
-  /** Returns a new statistics collector that will successfully count keys added to it. */
+  /**
+   * Returns a new statistics collector that will successfully count keys added to it.
+   *
+   * <p>The collector may be used concurrently. Each counter is striped across threads, and
+   * incrementing a counter that already exists doesn't allocate.
+   */
   static StatisticsCollector createCollector() {
     return new StatisticsCollector() {
-      private final Multiset<String> strings = HashMultiset.create();
+      private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
 
       @Override
       public void incrementCounter(String key, int count) {
-        strings.add(key, count);
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+          counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.add(count);
       }
 
       @Override
       public ImmutableMultiset<String> counters() {
-        return ImmutableMultiset.copyOf(strings);
+        ImmutableMultiset.Builder<String> result = ImmutableMultiset.builder();
+        counters.forEach((key, count) -> result.addCopies(key, Ints.saturatedCast(count.sum())));
+        return result.build();
       }
     };
   }
 
+  /**
+   * Returns the collector for the counters of the compilation with the given context, creating it
+   * if necessary. Must not be called concurrently for the same context.
+   */
+  static StatisticsCollector forCompilation(Context context) {
+    StatisticsCollector collector = context.get(StatisticsCollector.class);
+    if (collector == null) {
+      collector = createCollector();
+      context.put(StatisticsCollector.class, collector);
+    }
+    return collector;
+  }
+
   /**
    * Returns a statistics collector that will ignore any statistics added to it, always returning an
    * empty result for {@link #counters}.
@@ -68,6 +68,14 @@ public final class SuppressionInfo {
     this.inGeneratedCode = inGeneratedCode;
   }
 
+  /**
+   * Returns true if there are no suppression signals at all, in which case nothing is suppressed,
+   * like for {@link #EMPTY}.
+   */
+  public boolean isEmpty() {
+    return suppressWarningsStrings.isEmpty() && customSuppressions.isEmpty() && !inGeneratedCode;
+  }
+
   private static boolean isGenerated(Symbol sym) {
     return !ASTHelpers.getGeneratedBy(sym).isEmpty();
   }
@@ -35,7 +35,11 @@ import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ErrorProneToken;
+import com.google.errorprone.util.ErrorProneTokenIndex;
 import com.google.errorprone.util.ErrorProneTokens;
+import com.google.errorprone.util.SymbolIndex;
+import com.google.errorprone.util.SymbolQueryCache;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Kinds.Kind;
@@ -128,7 +132,7 @@ public final class VisitorState {
         listener,
         severityMap,
         errorProneOptions,
-        StatisticsCollector.createCollector(),
+        StatisticsCollector.forCompilation(context),
         null,
         SuppressedState.UNSUPPRESSED);
   }
@@ -239,7 +243,9 @@ public final class VisitorState {
     if (override != null) {
       description = description.applySeverityOverride(override);
     }
-    sharedState.statisticsCollector.incrementCounter(statsKey(description.checkName + "-findings"));
+    incrementCounter(
+        sharedState.findingsCounters.computeIfAbsent(
+            description.checkName, name -> Counter.create(name + "-findings")));
 
     // TODO(glorioso): I believe it is correct to still emit regular findings since the
     // Scanner configured the visitor state to explicitly scan suppressed nodes, but perhaps
@@ -274,8 +280,54 @@ public final class VisitorState {
   }
 
   /**
-   * Returns a copy of all of the counters previously added to this VisitorState with {@link
-   * #incrementCounter}.
+   * Increment the given counter by 1. Unlike {@link #incrementCounter(BugChecker, String)}, this
+   * doesn't allocate.
+   */
+  public void incrementCounter(Counter counter) {
+    incrementCounter(counter, 1);
+  }
+
+  /**
+   * Increment the given counter by {@code count}. Unlike {@link #incrementCounter(BugChecker,
+   * String, int)}, this doesn't allocate.
+   */
+  public void incrementCounter(Counter counter, int count) {
+    sharedState.statisticsCollector.incrementCounter(
+        suppressedState == SuppressedState.SUPPRESSED ? counter.suppressedKey : counter.key, count);
+  }
+
+  /**
+   * A counter whose keys are computed once, so that it can be incremented without allocating.
+   * {@link BugChecker}s should create their counters with {@link BugChecker#counter} when they are
+   * constructed.
+   */
+  public static final class Counter {
+    private final String key;
+    private final String suppressedKey;
+
+    private Counter(String key) {
+      this.key = key;
+      this.suppressedKey = key + "-suppressed";
+    }
+
+    /** Returns a counter for the given key. */
+    public static Counter create(String key) {
+      return new Counter(key);
+    }
+
+    public String key() {
+      return key;
+    }
+
+    @Override
+    public String toString() {
+      return key;
+    }
+  }
+
+  /**
+   * Returns a copy of all of the counters previously added with {@link #incrementCounter} during
+   * the current compilation.
    */
   public ImmutableMultiset<String> counters() {
     return sharedState.statisticsCollector.counters();
@@ -525,13 +577,83 @@ public final class VisitorState {
     return source.subSequence(start, end).toString();
   }
 
+  /**
+   * The name of the counter recording how many times a request for tokens was answered from {@link
+   * #getTokenIndex} instead of by re-lexing source code.
+   */
+  public static final String RELEX_AVOIDED_COUNTER = "ErrorProneTokens-relex-avoided";
+
+  /**
+   * Returns the tokens of the current compilation unit, including comments.
+   *
+   * <p>The compilation unit is lexed at most once, and the result is shared by all callers that
+   * analyze it. Prefer this to re-lexing the whole source of the compilation unit.
+   */
+  public ErrorProneTokenIndex getTokenIndex() {
+    ErrorProneTokenIndex tokenIndex = existingTokenIndex();
+    if (tokenIndex != null) {
+      countRelexAvoided();
+      return tokenIndex;
+    }
+    tokenIndex = ErrorProneTokenIndex.create(getSourceCode().toString(), context);
+    sharedState.tokenIndex = tokenIndex;
+    sharedState.tokenIndexCompilationUnit = getPath().getCompilationUnit();
+    return tokenIndex;
+  }
+
+  /** Returns the token index for the current compilation unit, if it has already been built. */
+  private @Nullable ErrorProneTokenIndex existingTokenIndex() {
+    return path != null && sharedState.tokenIndexCompilationUnit == path.getCompilationUnit()
+        ? sharedState.tokenIndex
+        : null;
+  }
+
+  private void countRelexAvoided() {
+    sharedState.statisticsCollector.incrementCounter(RELEX_AVOIDED_COUNTER);
+  }
+
+  /**
+   * The name of the counter recording how many times {@link #getSymbolIndex} returned an index that
+   * had already been built.
+   */
+  public static final String SYMBOL_INDEX_REUSED_COUNTER = "SymbolIndex-reused";
+
+  /**
+   * Returns the declarations, references and writes of symbols in the current compilation unit.
+   *
+   * <p>The index is built at most once per compilation unit, and is shared by all callers that
+   * analyze it. Prefer this to scanning the whole compilation unit to collect uses of symbols.
+   */
+  public SymbolIndex getSymbolIndex() {
+    CompilationUnitTree compilationUnit = getPath().getCompilationUnit();
+    SymbolIndex symbolIndex = sharedState.symbolIndex;
+    if (symbolIndex != null && sharedState.symbolIndexCompilationUnit == compilationUnit) {
+      sharedState.statisticsCollector.incrementCounter(SYMBOL_INDEX_REUSED_COUNTER);
+      return symbolIndex;
+    }
+    symbolIndex = SymbolIndex.create(new TreePath(compilationUnit));
+    sharedState.symbolIndex = symbolIndex;
+    sharedState.symbolIndexCompilationUnit = compilationUnit;
+    return symbolIndex;
+  }
+
   /**
    * Returns the list of {@link Token}s for the given {@link JCTree}.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>This is moderately expensive (the source of the node has to be re-lexed, unless the
+   * compilation unit's {@link #getTokenIndex token index} has already been built), so it should
+   * only be used if a fix is already going to be emitted.
    */
   public ImmutableList<ErrorProneToken> getTokensForNode(Tree tree) {
+    ErrorProneTokenIndex tokenIndex = existingTokenIndex();
+    if (tokenIndex != null && hasExplicitSource(tree, this)) {
+      ImmutableList<ErrorProneToken> tokens =
+          tokenIndex.getTokens(getStartPosition(tree), getEndPosition(tree));
+      if (tokens != null) {
+        countRelexAvoided();
+        return tokens;
+      }
+    }
     return ErrorProneTokens.getTokens(getSourceForNode(tree), context);
   }
 
@@ -539,11 +661,21 @@ public final class VisitorState {
    * Returns the list of {@link Token}s for the given {@link JCTree}, offset by the start position
    * of the tree within the overall source.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>This is moderately expensive (the source of the node has to be re-lexed, unless the
+   * compilation unit's {@link #getTokenIndex token index} has already been built), so it should
+   * only be used if a fix is already going to be emitted.
    */
   public ImmutableList<ErrorProneToken> getOffsetTokensForNode(Tree tree) {
     int start = getStartPosition(tree);
+    ErrorProneTokenIndex tokenIndex = existingTokenIndex();
+    if (tokenIndex != null && hasExplicitSource(tree, this)) {
+      ImmutableList<ErrorProneToken> tokens =
+          tokenIndex.getOffsetTokens(start, getEndPosition(tree));
+      if (tokens != null) {
+        countRelexAvoided();
+        return tokens;
+      }
+    }
     return ErrorProneTokens.getTokens(getSourceForNode(tree), start, context);
   }
 
@@ -551,10 +683,19 @@ public final class VisitorState {
    * Returns the list of {@link Token}s for source code between the given positions, offset by the
    * start position.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>This is moderately expensive (the source of the node has to be re-lexed, unless the
+   * compilation unit's {@link #getTokenIndex token index} has already been built), so it should
+   * only be used if a fix is already going to be emitted.
    */
   public ImmutableList<ErrorProneToken> getOffsetTokens(int start, int end) {
+    ErrorProneTokenIndex tokenIndex = existingTokenIndex();
+    if (tokenIndex != null) {
+      ImmutableList<ErrorProneToken> tokens = tokenIndex.getOffsetTokens(start, end);
+      if (tokens != null) {
+        countRelexAvoided();
+        return tokens;
+      }
+    }
     return ErrorProneTokens.getTokens(getSourceCode(start, end).toString(), start, context);
   }
 
@@ -601,6 +742,11 @@ public final class VisitorState {
     return Options.instance(context).getBoolean("androidCompatible");
   }
 
+  /** Returns the timing data for the current compilation. */
+  public ErrorProneTimings timings() {
+    return sharedState.timings;
+  }
+
   /** Returns a timing span for the given {@link Suppressible}. */
   public AutoCloseable timingSpan(Suppressible suppressible) {
     return sharedState.timings.span(suppressible);
@@ -681,6 +827,7 @@ public final class VisitorState {
 
     private final DescriptionListener descriptionListener;
     private final StatisticsCollector statisticsCollector;
+    private final Map<String, Counter> findingsCounters = new HashMap<>();
     private final Map<String, SeverityLevel> severityMap;
     private final ErrorProneOptions errorProneOptions;
 
@@ -689,6 +836,12 @@ public final class VisitorState {
     // based on number of files?
     private final Map<String, Optional<Type>> typeCache = new HashMap<>();
 
+    private @Nullable CompilationUnitTree tokenIndexCompilationUnit;
+    private @Nullable ErrorProneTokenIndex tokenIndex;
+
+    private @Nullable CompilationUnitTree symbolIndexCompilationUnit;
+    private @Nullable SymbolIndex symbolIndex;
+
     SharedState(
         Context context,
         DescriptionListener descriptionListener,
@@ -702,6 +855,8 @@ public final class VisitorState {
       this.types = Types.instance(context);
       this.treeMaker = TreeMaker.instance(context);
       this.javacInvocationInstance = JavacInvocationInstance.instance(context);
+      // Makes the compilation's symbol query cache available to ASTHelpers.
+      SymbolQueryCache.instance(context);
 
       this.descriptionListener = descriptionListener;
       this.statisticsCollector = statisticsCollector;
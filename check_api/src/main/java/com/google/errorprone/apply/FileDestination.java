@@ -25,5 +25,14 @@ public interface FileDestination {
 
   void writeFile(SourceFile file) throws IOException;
 
+  /**
+   * Writes the updated version of a file, given the source it was updated from and the name of its
+   * package. Destinations that don't need them can ignore them.
+   */
+  default void writeFile(SourceFile file, CharSequence originalSource, String packageName)
+      throws IOException {
+    writeFile(file);
+  }
+
   void flush() throws IOException;
 }
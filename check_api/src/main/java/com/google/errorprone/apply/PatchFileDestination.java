@@ -17,6 +17,10 @@
 package com.google.errorprone.apply;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.UnifiedDiffUtils;
@@ -24,54 +28,142 @@ import com.github.difflib.patch.Patch;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A {@link FileDestination} that writes a unix-patch file to {@code rootPath} containing the
  * suggested changes.
+ *
+ * <p>Diffs are streamed to the patch file as each source file is written, through a buffered writer
+ * that stays open until the next {@link #flush}. Patch files are truncated the first time they're
+ * written to, so a patch file only contains the changes of the current compilation.
+ *
+ * <p>Optionally, the changes to each package are written to a separate patch file, so that the
+ * patches can be applied in parallel.
  */
 public final class PatchFileDestination implements FileDestination {
 
+  /** The name of the patch file, or of the patch file for the unnamed package. */
+  public static final String PATCH_FILE_NAME = "error-prone.patch";
+
   // TODO(glorioso): This won't work for Windows, although getting unix patch on Windows is
   // a bit funky.
   private static final Splitter LINE_SPLITTER = Splitter.on('\n');
 
   private final Path baseDir;
   private final Path rootPath;
-  // Path -> Unified Diff, sorted by path
-  private final Map<URI, String> diffByFile = new TreeMap<>();
+  private final boolean patchFilePerPackage;
+  private final Map<Path, Writer> openPatchFiles = new HashMap<>();
+  private final Set<Path> writtenPatchFiles = new HashSet<>();
+  // Source file -> its diff, and the patch file it was written to
+  private final Map<URI, WrittenDiff> diffByFile = new HashMap<>();
+
+  private record WrittenDiff(String diff, Path patchFile) {}
 
   public PatchFileDestination(Path baseDir, Path rootPath) {
+    this(baseDir, rootPath, /* patchFilePerPackage= */ false);
+  }
+
+  public PatchFileDestination(Path baseDir, Path rootPath, boolean patchFilePerPackage) {
     this.baseDir = baseDir;
     this.rootPath = rootPath;
+    this.patchFilePerPackage = patchFilePerPackage;
+  }
+
+  /** Returns the name of the patch file for the given package. */
+  public static String patchFileName(String packageName) {
+    return packageName.isEmpty() ? PATCH_FILE_NAME : "error-prone-" + packageName + ".patch";
   }
 
   @Override
   public void writeFile(SourceFile update) throws IOException {
     Path sourceFilePath = rootPath.resolve(update.getPath());
-    String oldSource = new String(Files.readAllBytes(sourceFilePath), UTF_8);
+    writeFile(update, new String(Files.readAllBytes(sourceFilePath), UTF_8), "");
+  }
+
+  @Override
+  public synchronized void writeFile(
+      SourceFile update, CharSequence originalSource, String packageName) throws IOException {
+    Path sourceFilePath = rootPath.resolve(update.getPath());
     String newSource = update.getSourceText();
-    if (!oldSource.equals(newSource)) {
-      List<String> originalLines = LINE_SPLITTER.splitToList(oldSource);
-
-      Patch<String> diff = DiffUtils.diff(originalLines, LINE_SPLITTER.splitToList(newSource));
-      String relativePath = baseDir.relativize(sourceFilePath).toString();
-      List<String> unifiedDiff =
-          UnifiedDiffUtils.generateUnifiedDiff(relativePath, relativePath, originalLines, diff, 2);
-      String diffString = Joiner.on("\n").join(unifiedDiff) + "\n";
-      diffByFile.put(sourceFilePath.toUri(), diffString);
+    if (newSource.contentEquals(originalSource)) {
+      return;
+    }
+    List<String> originalLines = LINE_SPLITTER.splitToList(originalSource);
+    Patch<String> diff = DiffUtils.diff(originalLines, LINE_SPLITTER.splitToList(newSource));
+    String relativePath = baseDir.relativize(sourceFilePath).toString();
+    List<String> unifiedDiff =
+        UnifiedDiffUtils.generateUnifiedDiff(relativePath, relativePath, originalLines, diff, 2);
+    Path patchFile = baseDir.resolve(patchFileName(patchFilePerPackage ? packageName : ""));
+    String diffString = Joiner.on("\n").join(unifiedDiff) + "\n";
+    openPatchFile(patchFile).write(diffString);
+    diffByFile.put(sourceFilePath.toUri(), new WrittenDiff(diffString, patchFile));
+  }
+
+  private Writer openPatchFile(Path patchFile) throws IOException {
+    Writer writer = openPatchFiles.get(patchFile);
+    if (writer == null) {
+      Files.createDirectories(patchFile.getParent());
+      writer =
+          writtenPatchFiles.add(patchFile)
+              ? Files.newBufferedWriter(patchFile, UTF_8, CREATE, TRUNCATE_EXISTING, WRITE)
+              : Files.newBufferedWriter(patchFile, UTF_8, CREATE, APPEND);
+      openPatchFiles.put(patchFile, writer);
     }
+    return writer;
   }
 
-  public String patchFile(URI uri) {
-    return diffByFile.remove(uri);
+  /**
+   * Returns the unified diff of the changes to the given source file, or {@code null} if it wasn't
+   * changed.
+   *
+   * <p>The changes to each file are only reported once, by either this method or {@link
+   * #patchFilePath}.
+   */
+  public synchronized @Nullable String patchFile(URI uri) {
+    WrittenDiff written = diffByFile.remove(uri);
+    return written == null ? null : written.diff();
   }
 
+  /**
+   * Returns the patch file that the changes to the given source file were written to, or {@code
+   * null} if it wasn't changed.
+   *
+   * <p>The changes to each file are only reported once, by either this method or {@link
+   * #patchFile}.
+   */
+  public synchronized @Nullable Path patchFilePath(URI uri) {
+    WrittenDiff written = diffByFile.remove(uri);
+    return written == null ? null : written.patchFile();
+  }
+
+  /** Writes any buffered changes, and closes the patch files until they're written to again. */
   @Override
-  public void flush() throws IOException {}
+  public synchronized void flush() throws IOException {
+    IOException failure = null;
+    for (Writer writer : openPatchFiles.values()) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    openPatchFiles.clear();
+    if (failure != null) {
+      throw failure;
+    }
+  }
 }
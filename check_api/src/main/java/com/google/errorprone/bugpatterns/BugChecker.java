@@ -21,6 +21,7 @@ import static com.google.errorprone.util.ASTHelpers.getDeclaredSymbol;
 import static com.google.errorprone.util.ASTHelpers.getModifiers;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
@@ -34,6 +35,7 @@ import com.google.errorprone.annotations.CheckReturnValue;
 import com.google.errorprone.fixes.ErrorPronePosition;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.suppliers.Supplier;
 import com.sun.source.tree.AnnotatedTypeTree;
@@ -61,6 +63,7 @@ import com.sun.source.tree.EmptyStatementTree;
 import com.sun.source.tree.EnhancedForLoopTree;
 import com.sun.source.tree.ExportsTree;
 import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.ForLoopTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.IfTree;
@@ -247,6 +250,16 @@ public abstract class BugChecker implements Suppressible, Serializable {
     return info.canonicalName();
   }
 
+  /**
+   * Returns a counter for the given key of this check, to be incremented with {@link
+   * VisitorState#incrementCounter(VisitorState.Counter)}. The counter's key is {@code key} prefixed
+   * with the check's canonical name, as with {@link VisitorState#incrementCounter(BugChecker,
+   * String)}.
+   */
+  protected final VisitorState.Counter counter(String key) {
+    return VisitorState.Counter.create(canonicalName() + "-" + key);
+  }
+
   @Override
   public Set<String> allNames() {
     return info.allNames();
@@ -499,6 +512,19 @@ public abstract class BugChecker implements Suppressible, Serializable {
 
   public interface MethodInvocationTreeMatcher extends Suppressible {
     Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state);
+
+    /**
+     * Returns matchers of which at least one matches every invocation that this checker reports a
+     * finding for. The scanner compiles the matchers of all checkers into a single index, and only
+     * calls {@link #matchMethodInvocation} for invocations that might be matched by one of them.
+     * Matchers built with {@link com.google.errorprone.matchers.method.MethodMatchers} make the
+     * index most selective.
+     *
+     * <p>The default is an empty list, which means that the checker sees every invocation.
+     */
+    default ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+      return ImmutableList.of();
+    }
   }
 
   public interface ModifiersTreeMatcher extends Suppressible {
@@ -17,12 +17,9 @@
 package com.google.errorprone.dataflow;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Sets.intersection;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import org.checkerframework.errorprone.dataflow.analysis.AbstractValue;
 import org.checkerframework.errorprone.dataflow.analysis.Store;
 import org.checkerframework.errorprone.dataflow.cfg.visualize.CFGVisualizer;
@@ -35,20 +32,40 @@ import org.jspecify.annotations.Nullable;
  * <p>To derive a new instance, {@linkplain #toBuilder() create a builder} from an old instance. To
  * start from scratch, call {@link #empty()}.
  *
+ * <p>Stores share the unchanged parts of their heaps with the stores they were derived from, so
+ * deriving a store, joining two stores and comparing them are proportional to the size of the
+ * difference between them rather than to the number of access paths.
+ *
  * @author bennostein@google.com (Benno Stein)
  */
-public record AccessPathStore<V extends AbstractValue<V>>(ImmutableMap<AccessPath, V> heap)
+public final class AccessPathStore<V extends AbstractValue<V>>
     implements Store<AccessPathStore<V>>, AccessPathValues<V> {
   @SuppressWarnings({"unchecked", "rawtypes"}) // fully variant
-  private static final AccessPathStore<?> EMPTY = new AccessPathStore(ImmutableMap.of());
+  private static final AccessPathStore<?> EMPTY = new AccessPathStore(HashTrieMap.empty());
 
   @SuppressWarnings("unchecked") // fully variant
   public static <V extends AbstractValue<V>> AccessPathStore<V> empty() {
     return (AccessPathStore<V>) EMPTY;
   }
 
+  private final HashTrieMap<AccessPath, V> heap;
+
+  private AccessPathStore(HashTrieMap<AccessPath, V> heap) {
+    this.heap = heap;
+  }
+
+  /**
+   * Returns a copy of the information in this store. Each call copies every access path, so use
+   * {@link #valueOfAccessPath} to look up individual paths.
+   */
+  public ImmutableMap<AccessPath, V> heap() {
+    ImmutableMap.Builder<AccessPath, V> result = ImmutableMap.builderWithExpectedSize(heap.size());
+    heap.forEach(result::put);
+    return result.buildOrThrow();
+  }
+
   private @Nullable V getInformation(AccessPath ap) {
-    return heap().get(checkNotNull(ap));
+    return heap.get(checkNotNull(ap));
   }
 
   public Builder<V> toBuilder() {
@@ -69,17 +86,47 @@ public record AccessPathStore<V extends AbstractValue<V>>(ImmutableMap<AccessPat
 
   @Override
   public AccessPathStore<V> leastUpperBound(AccessPathStore<V> other) {
-    ImmutableMap.Builder<AccessPath, V> resultHeap = ImmutableMap.builder();
-    for (AccessPath aPath : intersection(heap().keySet(), other.heap().keySet())) {
-      resultHeap.put(aPath, heap().get(aPath).leastUpperBound(other.heap().get(aPath)));
-    }
-    return new AccessPathStore<>(resultHeap.buildOrThrow());
+    return withHeap(heap.intersect(other.heap, V::leastUpperBound), other);
   }
 
+  /**
+   * Returns an upper bound of this store and the {@code previous} store at the same program point,
+   * which the analysis uses instead of the {@linkplain #leastUpperBound least upper bound} once it
+   * has recomputed a block's input a few times. Access paths whose values changed since the {@code
+   * previous} store go straight to the top of their lattice, so a loop that keeps refining a value
+   * still reaches a fixpoint after a bounded number of iterations.
+   *
+   * <p>The top of a lattice of enum constants, such as {@code Nullness}, is the least upper bound
+   * of all of the constants. Paths with other values are dropped, like the paths that only one of
+   * two joined stores has, and so are read as whatever default the transfer function uses.
+   */
   @Override
-  public AccessPathStore<V> widenedUpperBound(AccessPathStore<V> vAccessPathStore) {
-    // No support for widening yet.
-    return leastUpperBound(vAccessPathStore);
+  public AccessPathStore<V> widenedUpperBound(AccessPathStore<V> previous) {
+    return withHeap(heap.intersect(previous.heap, (value, unused) -> top(value)), previous);
+  }
+
+  private static <V extends AbstractValue<V>> @Nullable V top(V value) {
+    if (!(value instanceof Enum<?> constant)) {
+      return null;
+    }
+    @SuppressWarnings("unchecked") // the constants of value's enum are all Vs
+    V[] values = (V[]) constant.getDeclaringClass().getEnumConstants();
+    V result = value;
+    for (V other : values) {
+      result = result.leastUpperBound(other);
+    }
+    return result;
+  }
+
+  private AccessPathStore<V> withHeap(
+      HashTrieMap<AccessPath, V> newHeap, AccessPathStore<V> other) {
+    if (newHeap == heap) {
+      return this;
+    }
+    if (newHeap == other.heap) {
+      return other;
+    }
+    return new AccessPathStore<>(newHeap);
   }
 
   @Override
@@ -92,26 +139,44 @@ public record AccessPathStore<V extends AbstractValue<V>>(ImmutableMap<AccessPat
     throw new UnsupportedOperationException("DOT output not supported");
   }
 
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    return obj == this || (obj instanceof AccessPathStore<?> that && heap.equals(that.heap));
+  }
+
+  @Override
+  public int hashCode() {
+    return heap.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "AccessPathStore[heap=" + heap + "]";
+  }
+
   /**
    * Builder for {@link AccessPathStore} instances. To obtain an instance, obtain a {@link
    * AccessPathStore} (such as {@link AccessPathStore#empty()}), and call {@link
    * AccessPathStore#toBuilder() toBuilder()} on it.
    */
   public static final class Builder<V extends AbstractValue<V>> {
-    private final Map<AccessPath, V> heap;
+    private final AccessPathStore<V> prototype;
+    private HashTrieMap<AccessPath, V> heap;
 
     Builder(AccessPathStore<V> prototype) {
-      this.heap = new LinkedHashMap<>(prototype.heap());
+      this.prototype = prototype;
+      this.heap = prototype.heap;
     }
 
     @CanIgnoreReturnValue
     public Builder<V> setInformation(AccessPath aPath, V value) {
-      heap.put(checkNotNull(aPath), checkNotNull(value));
+      heap = heap.put(checkNotNull(aPath), checkNotNull(value));
       return this;
     }
 
     public AccessPathStore<V> build() {
-      return new AccessPathStore<>(ImmutableMap.copyOf(heap));
+      // Return the prototype if nothing changed, so that the analysis can recognize it cheaply.
+      return heap == prototype.heap ? prototype : new AccessPathStore<>(heap);
     }
   }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.util.Context;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A cache of values computed for the methods, lambdas and initializers of a compilation unit, such
+ * as their control flow graphs, which are kept until Error Prone has finished analyzing the unit.
+ *
+ * <p>Each cache is a constant, which holds separate entries for each compilation. The entries of a
+ * compilation unit are sized to the number of methods, lambdas and initializers in it, and are
+ * discarded by {@link #finishCompilationUnit}. Only a few compilation units' entries are kept at
+ * once, in case a caller never finishes them.
+ */
+public final class CompilationUnitCache<V> {
+
+  /** The maximum number of compilation units whose entries are kept per compilation. */
+  private static final int MAX_OPEN_COMPILATION_UNITS = 16;
+
+  /** Returns a new cache, which should be stored in a constant. */
+  public static <V> CompilationUnitCache<V> create() {
+    return new CompilationUnitCache<>();
+  }
+
+  private CompilationUnitCache() {}
+
+  /** Returns the cached value for {@code tree}, or null if it isn't cached. */
+  public @Nullable V getIfPresent(Context context, CompilationUnitTree compilationUnit, Tree tree) {
+    return Units.instance(context).entries(compilationUnit, this).get(tree);
+  }
+
+  /**
+   * Returns the cached value for {@code tree}, computing it with {@code loader} if it isn't cached.
+   *
+   * <p>The value isn't computed under a lock, so threads that ask for the same uncached tree at the
+   * same time may both compute it, and the first one to finish wins. {@code loader} may use other
+   * caches, including this one.
+   */
+  public V get(
+      Context context,
+      CompilationUnitTree compilationUnit,
+      Tree tree,
+      Function<? super Tree, ? extends V> loader) {
+    ConcurrentMap<Tree, V> entries = Units.instance(context).entries(compilationUnit, this);
+    V value = entries.get(tree);
+    if (value != null) {
+      return value;
+    }
+    value = loader.apply(tree);
+    V existing = entries.putIfAbsent(tree, value);
+    return existing != null ? existing : value;
+  }
+
+  /** Discards the entries of every cache for the given compilation unit. */
+  public static void finishCompilationUnit(Context context, CompilationUnitTree compilationUnit) {
+    Units.instance(context).units.invalidate(compilationUnit);
+  }
+
+  /** The entries of every cache, by compilation unit, for a single compilation. */
+  private static final class Units {
+    private static final Context.Key<Units> UNITS_KEY = new Context.Key<>();
+
+    static Units instance(Context context) {
+      synchronized (context) {
+        Units instance = context.get(UNITS_KEY);
+        if (instance == null) {
+          instance = new Units();
+          context.put(UNITS_KEY, instance);
+        }
+        return instance;
+      }
+    }
+
+    private final Cache<CompilationUnitTree, Unit> units =
+        Caffeine.newBuilder().maximumSize(MAX_OPEN_COMPILATION_UNITS).build();
+
+    <V> ConcurrentMap<Tree, V> entries(
+        CompilationUnitTree compilationUnit, CompilationUnitCache<V> cache) {
+      Unit unit = units.get(compilationUnit, Unit::new);
+      @SuppressWarnings("unchecked") // each cache only stores its own values
+      ConcurrentMap<Tree, V> entries =
+          (ConcurrentMap<Tree, V>)
+              unit.caches.computeIfAbsent(
+                  cache, unused -> new ConcurrentHashMap<>(unit.procedures));
+      return entries;
+    }
+  }
+
+  /** The entries of every cache for a single compilation unit. */
+  private static final class Unit {
+    final int procedures;
+    final ConcurrentMap<CompilationUnitCache<?>, ConcurrentMap<Tree, ?>> caches =
+        new ConcurrentHashMap<>();
+
+    Unit(CompilationUnitTree compilationUnit) {
+      this.procedures = countProcedures(compilationUnit);
+    }
+  }
+
+  /** Counts the methods, lambdas, initializer blocks and field initializers in a tree. */
+  private static int countProcedures(Tree tree) {
+    int[] count = {0};
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitClass(ClassTree classTree, Void unused) {
+        for (Tree member : classTree.getMembers()) {
+          if (member instanceof BlockTree
+              || (member instanceof VariableTree variable && variable.getInitializer() != null)) {
+            count[0]++;
+          }
+        }
+        return super.visitClass(classTree, null);
+      }
+
+      @Override
+      public Void visitMethod(MethodTree methodTree, Void unused) {
+        count[0]++;
+        return super.visitMethod(methodTree, null);
+      }
+
+      @Override
+      public Void visitLambdaExpression(LambdaExpressionTree lambda, Void unused) {
+        count[0]++;
+        return super.visitLambdaExpression(lambda, null);
+      }
+    }.scan(tree, null);
+    return count[0];
+  }
+}
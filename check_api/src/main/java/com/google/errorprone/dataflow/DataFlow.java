@@ -16,10 +16,9 @@
 
 package com.google.errorprone.dataflow;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Preconditions;
+import com.google.errorprone.ErrorProneTimings;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
@@ -31,6 +30,8 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import org.checkerframework.errorprone.dataflow.analysis.AbstractValue;
 import org.checkerframework.errorprone.dataflow.analysis.Analysis;
@@ -58,64 +59,186 @@ public final class DataFlow {
     ControlFlowGraph getControlFlowGraph();
   }
 
-  /*
-   * We cache both the control flow graph and the analyses that are run on it.
-   * We tuned performance to the following assumptions (which are currently true for error-prone):
-   *
-   * <ul>
-   * <li> all dataflow analyses for a method are finished before another method is analyzed
-   * <li> multiple dataflow analyses for the same method are executed in arbitrary order
-   * </ul>
+  /**
+   * The control flow graphs of the methods, lambdas and initializers of each compilation unit, and
+   * the analyses that have been run over them, which are kept until the compilation unit has been
+   * analyzed.
+   */
+  private static final CompilationUnitCache<CachedCfg> CFGS = CompilationUnitCache.create();
+
+  /**
+   * The number of times the input of a block is recomputed before it's widened rather than joined
+   * with the new input, which bounds the number of times a loop is analyzed.
+   */
+  private static final int MAX_COUNT_BEFORE_WIDENING = 10;
+
+  /**
+   * Returns a forward analysis with the given transfer function, which {@linkplain
+   * Store#widenedUpperBound widens} the input of a block once it has been recomputed a few times.
+   */
+  public static <
+          A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
+      ForwardAnalysisImpl<A, S, T> forwardAnalysis(T transfer) {
+    return new WideningAnalysis<>(transfer);
+  }
+
+  private static final class WideningAnalysis<
+          A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
+      extends ForwardAnalysisImpl<A, S, T> {
+    WideningAnalysis(T transfer) {
+      super(MAX_COUNT_BEFORE_WIDENING);
+      this.transferFunction = transfer;
+    }
+  }
+
+  /**
+   * The dataflow caches of a compilation, which are shared by all checks.
    *
-   * TODO(b/158869538): Write a test that checks these assumptions
+   * <p>Control flow graphs are cached by method tree, for as long as Error Prone is analyzing the
+   * compilation unit that contains them. The analyses run over a control flow graph are cached
+   * alongside it, keyed by transfer function, so they are discarded together with the graph.
+   */
+  private static final class Caches {
+    private static final Context.Key<Caches> DATAFLOW_CACHES_KEY = new Context.Key<>();
+
+    static Caches instance(Context context) {
+      Caches instance = context.get(DATAFLOW_CACHES_KEY);
+      if (instance == null) {
+        instance = new Caches(context);
+        context.put(DATAFLOW_CACHES_KEY, instance);
+      }
+      return instance;
+    }
+
+    private final Context context;
+    private final ProcessingEnvironment env;
+    private final ErrorProneTimings.Timer cfgConstruction;
+    private long cfgHits;
+    private long cfgMisses;
+    private long analysisHits;
+    private long analysisMisses;
+
+    private Caches(Context context) {
+      this.context = context;
+      this.env = JavacProcessingEnvironment.instance(context);
+      this.cfgConstruction = ErrorProneTimings.instance(context).cfgConstructionTimer();
+    }
+
+    CachedCfg cfg(TreePath methodPath) {
+      CompilationUnitTree compilationUnit = methodPath.getCompilationUnit();
+      CachedCfg cached = CFGS.getIfPresent(context, compilationUnit, methodPath.getLeaf());
+      if (cached != null) {
+        cfgHits++;
+        return cached;
+      }
+      cfgMisses++;
+      return CFGS.get(
+          context,
+          compilationUnit,
+          methodPath.getLeaf(),
+          unused -> new CachedCfg(build(methodPath)));
+    }
+
+    private ControlFlowGraph build(TreePath methodPath) {
+      long start = cfgConstruction.start();
+      try {
+        return buildCfg(methodPath, env);
+      } finally {
+        cfgConstruction.stop(start);
+      }
+    }
+
+    Analysis<?, ?, ?> analysis(CachedCfg cached, ForwardTransferFunction<?, ?> transfer) {
+      Analysis<?, ?, ?> analysis = cached.analyses.get(transfer);
+      if (analysis != null) {
+        analysisHits++;
+        return analysis;
+      }
+      analysisMisses++;
+      // Not computeIfAbsent: running the analysis may analyze other graphs, and the map mustn't be
+      // modified while computeIfAbsent runs.
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      Analysis<?, ?, ?> newAnalysis = forwardAnalysis((ForwardTransferFunction) transfer);
+      newAnalysis.performAnalysis(cached.cfg);
+      cached.analyses.put(transfer, newAnalysis);
+      return newAnalysis;
+    }
+
+    CacheStatistics statistics() {
+      return new AutoValue_DataFlow_CacheStatistics(
+          cfgHits, cfgMisses, analysisHits, analysisMisses);
+    }
+  }
+
+  /** A control flow graph, and the analyses that have been run over it. */
+  private static final class CachedCfg {
+    final ControlFlowGraph cfg;
+    final Map<ForwardTransferFunction<?, ?>, Analysis<?, ?, ?>> analyses = new HashMap<>();
+
+    CachedCfg(ControlFlowGraph cfg) {
+      this.cfg = cfg;
+    }
+  }
+
+  private static ControlFlowGraph buildCfg(TreePath methodPath, ProcessingEnvironment env) {
+    UnderlyingAST ast;
+    // The path to the code to analyze. Building from it, rather than from the compilation unit,
+    // saves searching the whole compilation unit for the code.
+    TreePath bodyPath;
+    ClassTree classTree = null;
+    MethodTree methodTree = null;
+    for (Tree parent : methodPath) {
+      if (parent instanceof MethodTree m) {
+        methodTree = m;
+      }
+      if (parent instanceof ClassTree c) {
+        classTree = c;
+        break;
+      }
+    }
+    if (methodPath.getLeaf() instanceof LambdaExpressionTree lambdaExpressionTree) {
+      ast = new UnderlyingAST.CFGLambda(lambdaExpressionTree, classTree, methodTree);
+      bodyPath = new TreePath(methodPath, lambdaExpressionTree.getBody());
+    } else if (methodPath.getLeaf() instanceof MethodTree mt) {
+      methodTree = mt;
+      ast = new UnderlyingAST.CFGMethod(methodTree, classTree);
+      // Abstract and native methods have no body, and an empty control flow graph.
+      bodyPath =
+          methodTree.getBody() != null
+              ? new TreePath(methodPath, methodTree.getBody())
+              : methodPath;
+    } else {
+      // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
+      ast = new UnderlyingAST.CFGStatement(methodPath.getLeaf(), classTree);
+      bodyPath = methodPath;
+    }
+    return CFGBuilder.build(bodyPath, ast, false, false, env);
+  }
+
+  /** Hit and miss counts of the dataflow caches of a compilation. */
+  @AutoValue
+  public abstract static class CacheStatistics {
+    public abstract long cfgHits();
+
+    public abstract long cfgMisses();
+
+    public abstract long analysisHits();
+
+    public abstract long analysisMisses();
+  }
+
+  /**
+   * Discards the cached control flow graphs and analyses of a compilation unit, and any other
+   * {@link CompilationUnitCache} entries for it, once it has been analyzed.
    */
-  private static final LoadingCache<AnalysisParams, Analysis<?, ?, ?>> analysisCache =
-      Caffeine.newBuilder()
-          .build(
-              (AnalysisParams key) -> {
-                ControlFlowGraph cfg = key.cfg();
-                ForwardTransferFunction<?, ?> transfer = key.transferFunction();
-
-                @SuppressWarnings({"unchecked", "rawtypes"})
-                Analysis<?, ?, ?> analysis = new ForwardAnalysisImpl(transfer);
-                analysis.performAnalysis(cfg);
-                return analysis;
-              });
-
-  private static final LoadingCache<CfgParams, ControlFlowGraph> cfgCache =
-      Caffeine.newBuilder()
-          .maximumSize(1)
-          .build(
-              (CfgParams key) -> {
-                TreePath methodPath = key.methodPath();
-                UnderlyingAST ast;
-                ClassTree classTree = null;
-                MethodTree methodTree = null;
-                for (Tree parent : methodPath) {
-                  if (parent instanceof MethodTree m) {
-                    methodTree = m;
-                  }
-                  if (parent instanceof ClassTree c) {
-                    classTree = c;
-                    break;
-                  }
-                }
-                if (methodPath.getLeaf() instanceof LambdaExpressionTree lambdaExpressionTree) {
-                  ast = new UnderlyingAST.CFGLambda(lambdaExpressionTree, classTree, methodTree);
-                } else if (methodPath.getLeaf() instanceof MethodTree mt) {
-                  methodTree = mt;
-                  ast = new UnderlyingAST.CFGMethod(methodTree, classTree);
-                } else {
-                  // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
-                  ast = new UnderlyingAST.CFGStatement(methodPath.getLeaf(), classTree);
-                }
-                ProcessingEnvironment env = key.environment();
-
-                analysisCache.invalidateAll();
-                CompilationUnitTree root = methodPath.getCompilationUnit();
-                // TODO(b/158869538): replace with faster build(bodyPath, env, ast, false, false);
-                return CFGBuilder.build(root, ast, false, false, env);
-              });
+  public static void finishCompilationUnit(Context context, CompilationUnitTree compilationUnit) {
+    CompilationUnitCache.finishCompilationUnit(context, compilationUnit);
+  }
+
+  /** Returns the hit and miss counts of the dataflow caches of the given compilation. */
+  public static CacheStatistics cacheStatistics(Context context) {
+    return Caches.instance(context).statistics();
+  }
 
   private static @Nullable TreePath findEnclosingMethodOrLambdaOrInitializer(TreePath path) {
     while (path != null) {
@@ -148,20 +271,18 @@ public final class DataFlow {
    * Run the {@code transfer} dataflow analysis over the method or lambda which is the leaf of the
    * {@code methodPath}.
    *
-   * <p>For caching, we make the following assumptions: - if two paths to methods are {@code equal},
-   * their control flow graph is the same. - if two transfer functions are {@code equal}, and are
-   * run over the same control flow graph, the analysis result is the same. - for all contexts, the
-   * analysis result is the same.
+   * <p>For caching, we make the following assumptions: - paths to the same method tree have the
+   * same control flow graph. - if two transfer functions are {@code equal}, and are run over the
+   * same control flow graph, the analysis result is the same.
    */
   private static <
           A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
       Result<A, S, T> methodDataflow(TreePath methodPath, Context context, T transfer) {
-    ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
-
-    ControlFlowGraph cfg = cfgCache.get(CfgParams.create(methodPath, env));
-    AnalysisParams aparams = AnalysisParams.create(transfer, cfg, env);
+    Caches caches = Caches.instance(context);
+    CachedCfg cached = caches.cfg(methodPath);
+    ControlFlowGraph cfg = cached.cfg;
     @SuppressWarnings("unchecked")
-    Analysis<A, S, T> analysis = (Analysis<A, S, T>) analysisCache.get(aparams);
+    Analysis<A, S, T> analysis = (Analysis<A, S, T>) caches.analysis(cached, transfer);
 
     return new Result<A, S, T>() {
       @Override
@@ -217,47 +338,5 @@ public final class DataFlow {
     return methodDataflow(enclosingMethodPath, context, transfer).getAnalysis().getValue(expr);
   }
 
-  @AutoValue
-  abstract static class CfgParams {
-    abstract TreePath methodPath();
-
-    // Should not be used for hashCode or equals
-    private ProcessingEnvironment environment;
-
-    private static CfgParams create(TreePath methodPath, ProcessingEnvironment environment) {
-      CfgParams cp = new AutoValue_DataFlow_CfgParams(methodPath);
-      cp.environment = environment;
-      return cp;
-    }
-
-    ProcessingEnvironment environment() {
-      return environment;
-    }
-  }
-
-  @AutoValue
-  abstract static class AnalysisParams {
-
-    abstract ForwardTransferFunction<?, ?> transferFunction();
-
-    abstract ControlFlowGraph cfg();
-
-    // Should not be used for hashCode or equals
-    private ProcessingEnvironment environment;
-
-    private static AnalysisParams create(
-        ForwardTransferFunction<?, ?> transferFunction,
-        ControlFlowGraph cfg,
-        ProcessingEnvironment environment) {
-      AnalysisParams ap = new AutoValue_DataFlow_AnalysisParams(transferFunction, cfg);
-      ap.environment = environment;
-      return ap;
-    }
-
-    ProcessingEnvironment environment() {
-      return environment;
-    }
-  }
-
   private DataFlow() {}
 }
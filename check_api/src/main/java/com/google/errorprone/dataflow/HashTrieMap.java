@@ -0,0 +1,633 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable hash map that shares structure with the maps it was derived from.
+ *
+ * <p>This is a compressed hash-array mapped prefix tree (a CHAMP trie): each level consumes five
+ * bits of the keys' hash codes, and {@link #put} copies only the nodes on the path to the changed
+ * entry. The trie is kept in a canonical shape, so equal maps have equal shapes and can be
+ * compared node by node, stopping early at nodes they share. The size and hash code of every node
+ * are maintained as it is built.
+ */
+final class HashTrieMap<K, V> {
+  private static final int BITS_PER_LEVEL = 5;
+  private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+  private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(BitmapNode.EMPTY);
+
+  @SuppressWarnings("unchecked") // fully variant
+  static <K, V> HashTrieMap<K, V> empty() {
+    return (HashTrieMap<K, V>) EMPTY;
+  }
+
+  private final Node root;
+
+  private HashTrieMap(Node root) {
+    this.root = root;
+  }
+
+  int size() {
+    return root.size;
+  }
+
+  boolean isEmpty() {
+    return root.size == 0;
+  }
+
+  @SuppressWarnings("unchecked") // the trie only contains Vs
+  @Nullable V get(Object key) {
+    return (V) root.get(key, key.hashCode(), 0);
+  }
+
+  /**
+   * Returns a map that also maps {@code key} to {@code value}. Returns this map if it already
+   * does.
+   */
+  HashTrieMap<K, V> put(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    Node newRoot = root.put(key, value, key.hashCode(), 0);
+    return newRoot == root ? this : new HashTrieMap<>(newRoot);
+  }
+
+  /**
+   * Returns a map of the keys that this map shares with {@code other}. Keys that both maps map to
+   * equal values keep this map's value; for the others, {@code merger} is called with this map's
+   * value and the other map's value, and returns the result's value, or null to drop the key.
+   *
+   * <p>Subtries that are unaffected by the intersection are shared with the inputs, and if the
+   * result is equal to either input then that input is returned.
+   */
+  HashTrieMap<K, V> intersect(
+      HashTrieMap<K, V> other, BiFunction<? super V, ? super V, ? extends @Nullable V> merger) {
+    if (root == other.root) {
+      return this;
+    }
+    @SuppressWarnings("unchecked") // the tries only contain Vs
+    BiFunction<Object, Object, @Nullable Object> untypedMerger =
+        (BiFunction<Object, Object, @Nullable Object>) (BiFunction<?, ?, ?>) merger;
+    Node newRoot = root.intersect(other.root, 0, untypedMerger);
+    if (newRoot == root) {
+      return this;
+    }
+    if (newRoot == other.root) {
+      return other;
+    }
+    return new HashTrieMap<>(newRoot);
+  }
+
+  @SuppressWarnings("unchecked") // the trie only contains Ks and Vs
+  void forEach(BiConsumer<? super K, ? super V> action) {
+    root.forEach((BiConsumer<Object, Object>) action);
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    return obj instanceof HashTrieMap<?, ?> that && root.equalTo(that.root);
+  }
+
+  /** Returns the same hash code as a {@link java.util.Map} with the same entries. */
+  @Override
+  public int hashCode() {
+    return root.hashSum;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("{");
+    forEach(
+        (key, value) -> {
+          if (result.length() > 1) {
+            result.append(", ");
+          }
+          result.append(key).append('=').append(value);
+        });
+    return result.append('}').toString();
+  }
+
+  private static int mask(int hash, int shift) {
+    return (hash >>> shift) & LEVEL_MASK;
+  }
+
+  private static int entryHash(Object key, Object value) {
+    return key.hashCode() ^ value.hashCode();
+  }
+
+  /** Returns a node for two entries with different keys, at the given depth in the trie. */
+  private static Node twoEntries(
+      Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+    if (shift >= Integer.SIZE) {
+      return new CollisionNode(hash1, new Object[] {key1, key2}, new Object[] {value1, value2});
+    }
+    int mask1 = mask(hash1, shift);
+    int mask2 = mask(hash2, shift);
+    if (mask1 == mask2) {
+      Node child = twoEntries(key1, value1, hash1, key2, value2, hash2, shift + BITS_PER_LEVEL);
+      return new BitmapNode(0, 1 << mask1, new Object[0], new Object[0], new Node[] {child});
+    }
+    return mask1 < mask2
+        ? new BitmapNode(
+            (1 << mask1) | (1 << mask2),
+            0,
+            new Object[] {key1, key2},
+            new Object[] {value1, value2},
+            new Node[0])
+        : new BitmapNode(
+            (1 << mask1) | (1 << mask2),
+            0,
+            new Object[] {key2, key1},
+            new Object[] {value2, value1},
+            new Node[0]);
+  }
+
+  private abstract static class Node {
+    final int size;
+    final int hashSum;
+
+    Node(int size, int hashSum) {
+      this.size = size;
+      this.hashSum = hashSum;
+    }
+
+    abstract @Nullable Object get(Object key, int hash, int shift);
+
+    /** Returns this node if it already maps {@code key} to {@code value}. */
+    abstract Node put(Object key, Object value, int hash, int shift);
+
+    /**
+     * Returns the intersection of this node and {@code other}, which is this node or {@code other}
+     * if it's equal to either of them.
+     */
+    abstract Node intersect(
+        Node other, int shift, BiFunction<Object, Object, @Nullable Object> merger);
+
+    /** The key of a node with a single entry. */
+    abstract Object singleKey();
+
+    /** The value of a node with a single entry. */
+    abstract Object singleValue();
+
+    abstract void forEach(BiConsumer<Object, Object> action);
+
+    abstract boolean equalTo(Node other);
+  }
+
+  /**
+   * An inner node of the trie. The bitmaps record which of the 32 slots at this level hold an entry
+   * and which hold a child node, and the arrays hold the entries and children in slot order.
+   *
+   * <p>The trie is canonical because a child node always has at least two entries below it: a
+   * single entry is always stored inline.
+   */
+  private static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY =
+        new BitmapNode(0, 0, new Object[0], new Object[0], new Node[0]);
+
+    final int dataMap;
+    final int nodeMap;
+    final Object[] keys;
+    final Object[] values;
+    final Node[] children;
+
+    BitmapNode(int dataMap, int nodeMap, Object[] keys, Object[] values, Node[] children) {
+      super(sizeOf(keys, children), hashSumOf(keys, values, children));
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.keys = keys;
+      this.values = values;
+      this.children = children;
+    }
+
+    private BitmapNode(
+        int dataMap,
+        int nodeMap,
+        Object[] keys,
+        Object[] values,
+        Node[] children,
+        int size,
+        int hashSum) {
+      super(size, hashSum);
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.keys = keys;
+      this.values = values;
+      this.children = children;
+    }
+
+    private static int sizeOf(Object[] keys, Node[] children) {
+      int size = keys.length;
+      for (Node child : children) {
+        size += child.size;
+      }
+      return size;
+    }
+
+    private static int hashSumOf(Object[] keys, Object[] values, Node[] children) {
+      int hashSum = 0;
+      for (int i = 0; i < keys.length; i++) {
+        hashSum += entryHash(keys[i], values[i]);
+      }
+      for (Node child : children) {
+        hashSum += child.hashSum;
+      }
+      return hashSum;
+    }
+
+    private static int index(int bitmap, int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    @Nullable Object get(Object key, int hash, int shift) {
+      int bit = 1 << mask(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = index(dataMap, bit);
+        return key.equals(keys[index]) ? values[index] : null;
+      }
+      if ((nodeMap & bit) != 0) {
+        return children[index(nodeMap, bit)].get(key, hash, shift + BITS_PER_LEVEL);
+      }
+      return null;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift) {
+      int bit = 1 << mask(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = index(dataMap, bit);
+        Object existingKey = keys[index];
+        Object existingValue = values[index];
+        if (key.equals(existingKey)) {
+          if (value == existingValue || value.equals(existingValue)) {
+            return this;
+          }
+          Object[] newValues = values.clone();
+          newValues[index] = value;
+          return new BitmapNode(
+              dataMap,
+              nodeMap,
+              keys,
+              newValues,
+              children,
+              size,
+              hashSum - entryHash(existingKey, existingValue) + entryHash(key, value));
+        }
+        // Push the existing entry down into a new child, together with the new one.
+        Node child =
+            twoEntries(
+                existingKey,
+                existingValue,
+                existingKey.hashCode(),
+                key,
+                value,
+                hash,
+                shift + BITS_PER_LEVEL);
+        int childIndex = index(nodeMap, bit);
+        return new BitmapNode(
+            dataMap & ~bit,
+            nodeMap | bit,
+            remove(keys, index),
+            remove(values, index),
+            insert(children, childIndex, child),
+            size + 1,
+            hashSum + entryHash(key, value));
+      }
+      if ((nodeMap & bit) != 0) {
+        int index = index(nodeMap, bit);
+        Node child = children[index];
+        Node newChild = child.put(key, value, hash, shift + BITS_PER_LEVEL);
+        if (newChild == child) {
+          return this;
+        }
+        Node[] newChildren = children.clone();
+        newChildren[index] = newChild;
+        return new BitmapNode(
+            dataMap,
+            nodeMap,
+            keys,
+            values,
+            newChildren,
+            size - child.size + newChild.size,
+            hashSum - child.hashSum + newChild.hashSum);
+      }
+      int index = index(dataMap, bit);
+      return new BitmapNode(
+          dataMap | bit,
+          nodeMap,
+          insert(keys, index, key),
+          insert(values, index, value),
+          children,
+          size + 1,
+          hashSum + entryHash(key, value));
+    }
+
+    @Override
+    Node intersect(Node other, int shift, BiFunction<Object, Object, @Nullable Object> merger) {
+      if (this == other) {
+        return this;
+      }
+      BitmapNode that = (BitmapNode) other;
+      int common = (dataMap | nodeMap) & (that.dataMap | that.nodeMap);
+      int newDataMap = 0;
+      int newNodeMap = 0;
+      Object[] newKeys = new Object[Integer.bitCount(common)];
+      Object[] newValues = new Object[newKeys.length];
+      Node[] newChildren = new Node[newKeys.length];
+      int entries = 0;
+      int nodes = 0;
+      for (int remaining = common; remaining != 0; remaining &= remaining - 1) {
+        int bit = Integer.lowestOneBit(remaining);
+        Object key;
+        Object value;
+        if ((nodeMap & bit) != 0 && (that.nodeMap & bit) != 0) {
+          Node child =
+              children[index(nodeMap, bit)].intersect(
+                  that.children[index(that.nodeMap, bit)], shift + BITS_PER_LEVEL, merger);
+          if (child.size == 0) {
+            continue;
+          }
+          if (child.size > 1) {
+            newNodeMap |= bit;
+            newChildren[nodes++] = child;
+            continue;
+          }
+          key = child.singleKey();
+          value = child.singleValue();
+        } else if ((dataMap & bit) != 0) {
+          int index = index(dataMap, bit);
+          key = keys[index];
+          Object thisValue = values[index];
+          Object thatValue = that.get(key, key.hashCode(), shift);
+          if (thatValue == null) {
+            continue;
+          }
+          value = merge(thisValue, thatValue, merger);
+        } else {
+          int index = index(that.dataMap, bit);
+          key = that.keys[index];
+          Object thatValue = that.values[index];
+          Object thisValue = get(key, key.hashCode(), shift);
+          if (thisValue == null) {
+            continue;
+          }
+          value = merge(thisValue, thatValue, merger);
+        }
+        if (value != null) {
+          newDataMap |= bit;
+          newKeys[entries] = key;
+          newValues[entries] = value;
+          entries++;
+        }
+      }
+      if (sameAs(newDataMap, newNodeMap, newKeys, newValues, newChildren)) {
+        return this;
+      }
+      if (that.sameAs(newDataMap, newNodeMap, newKeys, newValues, newChildren)) {
+        return that;
+      }
+      return new BitmapNode(
+          newDataMap,
+          newNodeMap,
+          Arrays.copyOf(newKeys, entries),
+          Arrays.copyOf(newValues, entries),
+          Arrays.copyOf(newChildren, nodes));
+    }
+
+    /** Whether this node has exactly the given contents, which may be followed by unused slots. */
+    private boolean sameAs(
+        int dataMap, int nodeMap, Object[] keys, Object[] values, Node[] children) {
+      if (this.dataMap != dataMap || this.nodeMap != nodeMap) {
+        return false;
+      }
+      for (int i = 0; i < this.values.length; i++) {
+        if (this.values[i] != values[i]) {
+          return false;
+        }
+      }
+      for (int i = 0; i < this.children.length; i++) {
+        if (this.children[i] != children[i]) {
+          return false;
+        }
+      }
+      // The keys are equal, since they're in the same slots and come from the same maps.
+      return true;
+    }
+
+    @Override
+    Object singleKey() {
+      return keys.length == 1 ? keys[0] : children[0].singleKey();
+    }
+
+    @Override
+    Object singleValue() {
+      return values.length == 1 ? values[0] : children[0].singleValue();
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < keys.length; i++) {
+        action.accept(keys[i], values[i]);
+      }
+      for (Node child : children) {
+        child.forEach(action);
+      }
+    }
+
+    @Override
+    boolean equalTo(Node other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof BitmapNode that)
+          || size != that.size
+          || hashSum != that.hashSum
+          || dataMap != that.dataMap
+          || nodeMap != that.nodeMap) {
+        return false;
+      }
+      for (int i = 0; i < keys.length; i++) {
+        if (!keys[i].equals(that.keys[i]) || !values[i].equals(that.values[i])) {
+          return false;
+        }
+      }
+      for (int i = 0; i < children.length; i++) {
+        if (!children[i].equalTo(that.children[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** A leaf for keys whose hash codes are equal, in no particular order. */
+  private static final class CollisionNode extends Node {
+    final int hash;
+    final Object[] keys;
+    final Object[] values;
+
+    CollisionNode(int hash, Object[] keys, Object[] values) {
+      super(keys.length, hashSumOf(keys, values));
+      this.hash = hash;
+      this.keys = keys;
+      this.values = values;
+    }
+
+    private static int hashSumOf(Object[] keys, Object[] values) {
+      int hashSum = 0;
+      for (int i = 0; i < keys.length; i++) {
+        hashSum += entryHash(keys[i], values[i]);
+      }
+      return hashSum;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < keys.length; i++) {
+        if (key.equals(keys[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @Nullable Object get(Object key, int hash, int shift) {
+      int index = indexOf(key);
+      return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift) {
+      int index = indexOf(key);
+      if (index < 0) {
+        return new CollisionNode(
+            this.hash, insert(keys, keys.length, key), insert(values, values.length, value));
+      }
+      if (value == values[index] || value.equals(values[index])) {
+        return this;
+      }
+      Object[] newValues = values.clone();
+      newValues[index] = value;
+      return new CollisionNode(this.hash, keys, newValues);
+    }
+
+    @Override
+    Node intersect(Node other, int shift, BiFunction<Object, Object, @Nullable Object> merger) {
+      if (this == other) {
+        return this;
+      }
+      CollisionNode that = (CollisionNode) other;
+      Object[] newKeys = new Object[keys.length];
+      Object[] newValues = new Object[keys.length];
+      int entries = 0;
+      boolean unchanged = true;
+      for (int i = 0; i < keys.length; i++) {
+        int index = that.indexOf(keys[i]);
+        Object value = index >= 0 ? merge(values[i], that.values[index], merger) : null;
+        if (value != null) {
+          newKeys[entries] = keys[i];
+          newValues[entries] = value;
+          entries++;
+        }
+        unchanged &= value == values[i];
+      }
+      if (unchanged) {
+        return this;
+      }
+      if (entries == that.keys.length && that.hasEntries(newKeys, newValues)) {
+        return that;
+      }
+      return entries == 0
+          ? BitmapNode.EMPTY
+          : new CollisionNode(
+              hash, Arrays.copyOf(newKeys, entries), Arrays.copyOf(newValues, entries));
+    }
+
+    /** Whether this node maps each of the given keys to the same value, ignoring unused slots. */
+    private boolean hasEntries(Object[] keys, Object[] values) {
+      for (int i = 0; i < this.keys.length; i++) {
+        int index = indexOf(keys[i]);
+        if (index < 0 || this.values[index] != values[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    Object singleKey() {
+      return keys[0];
+    }
+
+    @Override
+    Object singleValue() {
+      return values[0];
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < keys.length; i++) {
+        action.accept(keys[i], values[i]);
+      }
+    }
+
+    @Override
+    boolean equalTo(Node other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof CollisionNode that) || size != that.size || hashSum != that.hashSum) {
+        return false;
+      }
+      for (int i = 0; i < keys.length; i++) {
+        int index = that.indexOf(keys[i]);
+        if (index < 0 || !values[i].equals(that.values[index])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static @Nullable Object merge(
+      Object thisValue, Object thatValue, BiFunction<Object, Object, @Nullable Object> merger) {
+    return thisValue == thatValue || thisValue.equals(thatValue)
+        ? thisValue
+        : merger.apply(thisValue, thatValue);
+  }
+
+  private static <T> T[] insert(T[] array, int index, T element) {
+    T[] result = Arrays.copyOf(array, array.length + 1);
+    System.arraycopy(array, index, result, index + 1, array.length - index);
+    result[index] = element;
+    return result;
+  }
+
+  private static <T> T[] remove(T[] array, int index) {
+    T[] result = Arrays.copyOf(array, array.length - 1);
+    System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+    return result;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow.nullnesspropagation;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+
+/**
+ * What the nullness analysis learned about a method from its body, which applies to every call of
+ * the method.
+ *
+ * @param returnNullness the nullness of the method's result whenever it returns normally, if known
+ * @param dereferencedParameters the indexes of the parameters that are non-null whenever the method
+ *     returns normally, because it dereferences them or checks that they're non-null; callers can
+ *     assume that the corresponding arguments are non-null after a call
+ */
+public record MethodSummary(
+    Optional<Nullness> returnNullness, ImmutableSet<Integer> dereferencedParameters) {
+
+  /** The summary of a method whose body wasn't analyzed. */
+  public static final MethodSummary UNKNOWN =
+      new MethodSummary(Optional.empty(), ImmutableSet.of());
+}
@@ -17,7 +17,9 @@
 package com.google.errorprone.dataflow.nullnesspropagation;
 
 import com.google.errorprone.dataflow.DataFlow;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.util.Context;
 import java.io.Serializable;
 
@@ -61,4 +63,19 @@ public final class NullnessAnalysis implements Serializable {
       nullnessPropagation.setContext(null).setCompilationUnit(null);
     }
   }
+
+  /**
+   * Returns what the analysis learns about calls to {@code method} from its body, or {@link
+   * MethodSummary#UNKNOWN} unless {@code method} is declared in {@code compilationUnit} and can't
+   * be overridden. Summaries are computed once per compilation unit.
+   */
+  public MethodSummary getMethodSummary(
+      MethodSymbol method, CompilationUnitTree compilationUnit, Context context) {
+    try {
+      nullnessPropagation.setContext(context).setCompilationUnit(compilationUnit);
+      return nullnessPropagation.methodSummary(method);
+    } finally {
+      nullnessPropagation.setContext(null).setCompilationUnit(null);
+    }
+  }
 }
@@ -31,6 +31,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.io.Files;
@@ -40,6 +41,8 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.dataflow.AccessPath;
 import com.google.errorprone.dataflow.AccessPathStore;
 import com.google.errorprone.dataflow.AccessPathValues;
+import com.google.errorprone.dataflow.CompilationUnitCache;
+import com.google.errorprone.dataflow.DataFlow;
 import com.google.errorprone.dataflow.nullnesspropagation.inference.InferredNullability;
 import com.google.errorprone.dataflow.nullnesspropagation.inference.NullnessQualifierInference;
 import com.sun.source.tree.BlockTree;
@@ -49,9 +52,11 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.LambdaExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.ReturnTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Symbol;
@@ -78,14 +83,16 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.type.TypeVariable;
 import org.checkerframework.errorprone.dataflow.analysis.Analysis;
-import org.checkerframework.errorprone.dataflow.analysis.ForwardAnalysisImpl;
 import org.checkerframework.errorprone.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.errorprone.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.errorprone.dataflow.cfg.builder.CFGBuilder;
@@ -228,6 +235,27 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
 
   private final transient Set<VarSymbol> traversed = new HashSet<>();
 
+  /**
+   * The maximum number of methods summarized per compilation unit, which bounds the extra dataflow
+   * analyses that summaries cost in large files.
+   */
+  private static final int MAX_SUMMARIES_PER_COMPILATION_UNIT = 100;
+
+  /** The maximum number of method summaries computed at once, one inside another. */
+  private static final int MAX_SUMMARY_DEPTH = 4;
+
+  /**
+   * The method summaries of each compilation unit, per transfer function class. Summaries depend
+   * on the transfer's {@link #defaultAssumption} and on the overrides of subclasses such as {@link
+   * TrustingNullnessPropagation}, which are fixed by its class.
+   */
+  private static final CompilationUnitCache<
+          Map<Class<? extends NullnessPropagationTransfer>, MethodSummaries>>
+      methodSummaries = CompilationUnitCache.create();
+
+  /** The methods whose summaries are being computed. */
+  private final transient Set<MethodSymbol> summarizing = new HashSet<>();
+
   protected final Nullness defaultAssumption;
   private final Predicate<MethodInfo> methodReturnsNonNull;
 
@@ -280,12 +308,13 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
         procedureTree = enclosingOfClass(pathToNode, VariableTree.class); // field init
       }
 
+      checkNotNull(
+          procedureTree, "Call `%s` is not contained in an lambda, initializer or method.", node);
       inferenceResults =
-          NullnessQualifierInference.getInferredNullability(
-              checkNotNull(
-                  procedureTree,
-                  "Call `%s` is not contained in an lambda, initializer or method.",
-                  node));
+          context != null
+              ? NullnessQualifierInference.getInferredNullability(
+                  procedureTree, pathToNode.getCompilationUnit(), context)
+              : NullnessQualifierInference.getInferredNullability(procedureTree);
     }
     return inferenceResults.getExprNullness(node.getTree());
   }
@@ -333,6 +362,7 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
     this.context = context;
     // Clear traversed set just-in-case as this marks the beginning or end of analyzing a method
     this.traversed.clear();
+    this.summarizing.clear();
     // Null out local inference results when leaving a method
     this.inferenceResults = null;
     return this;
@@ -575,7 +605,13 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
         callee,
         Types.instance(context),
         Symtab.instance(context));
-    return returnValueNullness(node, callee);
+    MethodSummary summary =
+        callee != null ? methodSummary(callee.methodSymbol()) : MethodSummary.UNKNOWN;
+    for (LocalVariableNode var :
+        variablesAtIndexes(summary.dereferencedParameters(), node.getArguments())) {
+      bothUpdates.set(var, NONNULL);
+    }
+    return returnValueNullness(node, callee, summary);
   }
 
   @Override
@@ -763,7 +799,8 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
     return declaredNullness.orElse(defaultAssumption);
   }
 
-  private Nullness returnValueNullness(MethodInvocationNode node, @Nullable ClassAndMethod callee) {
+  private Nullness returnValueNullness(
+      MethodInvocationNode node, @Nullable ClassAndMethod callee, MethodSummary summary) {
     if (callee == null) {
       return defaultAssumption;
     }
@@ -776,7 +813,8 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
       return NONNULL;
     }
 
-    Nullness assumedNullness = methodReturnsNonNull.test(callee) ? NONNULL : NULLABLE;
+    Nullness assumedNullness =
+        methodReturnsNonNull.test(callee) ? NONNULL : summary.returnNullness().orElse(NULLABLE);
     if (!callee.isGenericResult()) {
       // We only care about inference results for methods that return a type variable.
       return assumedNullness;
@@ -824,7 +862,7 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
               /* assumeAssertionsDisabled= */ false,
               javacEnv);
       Analysis<Nullness, AccessPathStore<Nullness>, NullnessPropagationTransfer> analysis =
-          new ForwardAnalysisImpl<>(this);
+          DataFlow.forwardAnalysis(this);
       analysis.performAnalysis(cfg);
       return analysis.getValue(initializerPath.getLeaf());
     } finally {
@@ -832,6 +870,163 @@ class NullnessPropagationTransfer extends AbstractNullnessPropagationTransfer
     }
   }
 
+  /** The summaries of the methods of a compilation unit, and how many more may be computed. */
+  private static final class MethodSummaries {
+    final Map<MethodSymbol, MethodSummary> summaries = new ConcurrentHashMap<>();
+    final AtomicInteger budget = new AtomicInteger(MAX_SUMMARIES_PER_COMPILATION_UNIT);
+  }
+
+  /**
+   * Returns what the analysis learns from the body of {@code method}, if it can't be overridden
+   * and is declared in the compilation unit being analyzed.
+   *
+   * <p>Summaries are computed when they're first needed, and summarizing a method summarizes the
+   * methods that it calls first, so the methods of a compilation unit are summarized bottom-up
+   * through its call graph. Recursive calls, calls nested more than {@link #MAX_SUMMARY_DEPTH}
+   * deep, and calls after {@link #MAX_SUMMARIES_PER_COMPILATION_UNIT} methods of the compilation
+   * unit have been summarized, are left {@linkplain MethodSummary#UNKNOWN unknown}.
+   */
+  MethodSummary methodSummary(MethodSymbol method) {
+    if (context == null || compilationUnit == null || !isSummarizable(method)) {
+      return MethodSummary.UNKNOWN;
+    }
+    MethodSummaries unitSummaries =
+        methodSummaries
+            .get(context, compilationUnit, compilationUnit, unused -> new ConcurrentHashMap<>())
+            .computeIfAbsent(getClass(), unused -> new MethodSummaries());
+    MethodSummary summary = unitSummaries.summaries.get(method);
+    if (summary != null) {
+      return summary;
+    }
+    if (summarizing.size() >= MAX_SUMMARY_DEPTH || summarizing.contains(method)) {
+      return MethodSummary.UNKNOWN;
+    }
+    if (unitSummaries.budget.getAndDecrement() <= 0) {
+      return MethodSummary.UNKNOWN;
+    }
+    summarizing.add(method);
+    try {
+      JavacProcessingEnvironment javacEnv = JavacProcessingEnvironment.instance(context);
+      TreePath methodPath = Trees.instance(javacEnv).getPath(method);
+      summary =
+          methodPath != null
+                  && methodPath.getCompilationUnit() == compilationUnit
+                  && methodPath.getLeaf() instanceof MethodTree methodTree
+                  && methodTree.getBody() != null
+              ? summarize(methodPath, methodTree, method, javacEnv)
+              : MethodSummary.UNKNOWN;
+    } finally {
+      summarizing.remove(method);
+    }
+    MethodSummary existing = unitSummaries.summaries.putIfAbsent(method, summary);
+    return existing != null ? existing : summary;
+  }
+
+  private boolean isSummarizable(MethodSymbol method) {
+    if (method.isConstructor() || (method.flags() & (Flags.ABSTRACT | Flags.NATIVE)) != 0) {
+      return false;
+    }
+    if (!method.isPrivate()
+        && !method.isStatic()
+        && (method.flags() & Flags.FINAL) == 0
+        && (method.owner.flags() & Flags.FINAL) == 0) {
+      return false;
+    }
+    ClassSymbol outermostClass = method.outermostClass();
+    return outermostClass != null && outermostClass.sourcefile == compilationUnit.getSourceFile();
+  }
+
+  private MethodSummary summarize(
+      TreePath methodPath,
+      MethodTree methodTree,
+      MethodSymbol method,
+      JavacProcessingEnvironment javacEnv) {
+    ControlFlowGraph cfg =
+        CFGBuilder.build(
+            new TreePath(methodPath, methodTree.getBody()),
+            new UnderlyingAST.CFGMethod(methodTree, enclosingOfClass(methodPath, ClassTree.class)),
+            /* assumeAssertionsEnabled= */ false,
+            /* assumeAssertionsDisabled= */ false,
+            javacEnv);
+    // The inference results belong to the method being analyzed when the summary was needed.
+    InferredNullability callerInferenceResults = inferenceResults;
+    inferenceResults = null;
+    Analysis<Nullness, AccessPathStore<Nullness>, NullnessPropagationTransfer> analysis =
+        DataFlow.forwardAnalysis(this);
+    try {
+      analysis.performAnalysis(cfg);
+    } finally {
+      inferenceResults = callerInferenceResults;
+    }
+    return new MethodSummary(
+        summarizedReturnNullness(methodTree, method, analysis),
+        dereferencedParameters(method, analysis.getRegularExitStore()));
+  }
+
+  private static Optional<Nullness> summarizedReturnNullness(
+      MethodTree methodTree, MethodSymbol method, Analysis<Nullness, ?, ?> analysis) {
+    if (method.getReturnType().isPrimitiveOrVoid()) {
+      return Optional.empty();
+    }
+    Nullness result = BOTTOM;
+    for (ExpressionTree returned : returnedExpressions(methodTree.getBody())) {
+      Nullness value = analysis.getValue(returned);
+      result = result.leastUpperBound(value != null ? value : NULLABLE);
+    }
+    // BOTTOM means the method never returns normally.
+    return result == BOTTOM ? Optional.empty() : Optional.of(result);
+  }
+
+  /** Returns the expressions returned by a method body, excluding lambdas and local classes. */
+  private static List<ExpressionTree> returnedExpressions(BlockTree body) {
+    List<ExpressionTree> result = new ArrayList<>();
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitReturn(ReturnTree tree, Void unused) {
+        if (tree.getExpression() != null) {
+          result.add(tree.getExpression());
+        }
+        return null;
+      }
+
+      @Override
+      public Void visitLambdaExpression(LambdaExpressionTree tree, Void unused) {
+        return null;
+      }
+
+      @Override
+      public Void visitClass(ClassTree tree, Void unused) {
+        return null;
+      }
+    }.scan(body, null);
+    return result;
+  }
+
+  private ImmutableSet<Integer> dereferencedParameters(
+      MethodSymbol method, @Nullable AccessPathStore<Nullness> exitStore) {
+    if (exitStore == null || method.isVarArgs()) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<Integer> result = ImmutableSet.builder();
+    List<VarSymbol> parameters = method.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      VarSymbol parameter = parameters.get(i);
+      if (parameter.type.isPrimitive()
+          // A reassigned parameter's final value says nothing about the argument.
+          || (parameter.flags() & (Flags.FINAL | Flags.EFFECTIVELY_FINAL)) == 0
+          // Nor does a value that the analysis assumed from the start.
+          || NullnessAnnotations.fromAnnotationsOn(parameter).orElse(defaultAssumption)
+              == NONNULL) {
+        continue;
+      }
+      if (exitStore.valueOfAccessPath(new AccessPath(parameter, ImmutableList.of()), BOTTOM)
+          == NONNULL) {
+        result.add(i);
+      }
+    }
+    return result.build();
+  }
+
   private static void setNonnullIfTrackable(Updates updates, Node node) {
     if (node instanceof LocalVariableNode localVariableNode) {
       updates.set(localVariableNode, NONNULL);
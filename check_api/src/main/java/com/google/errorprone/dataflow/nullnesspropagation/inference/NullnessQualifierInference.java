@@ -18,18 +18,18 @@ package com.google.errorprone.dataflow.nullnesspropagation.inference;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
 import com.google.common.graph.GraphBuilder;
 import com.google.common.graph.MutableGraph;
+import com.google.errorprone.dataflow.CompilationUnitCache;
 import com.google.errorprone.dataflow.nullnesspropagation.Nullness;
 import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnnotations;
 import com.sun.source.tree.ArrayAccessTree;
 import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.LambdaExpressionTree;
@@ -56,6 +56,7 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 import com.sun.tools.javac.tree.JCTree.JCIdent;
 import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
 import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.util.Context;
 import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.List;
@@ -73,18 +74,27 @@ import org.jspecify.annotations.Nullable;
  */
 public final class NullnessQualifierInference extends TreeScanner<Void, Void> {
 
-  private static final LoadingCache<Tree, InferredNullability> inferenceCache =
-      Caffeine.newBuilder()
-          .maximumSize(1)
-          .build(
-              (Tree methodOrInitializer) -> {
-                NullnessQualifierInference inferenceEngine =
-                    new NullnessQualifierInference(methodOrInitializer);
-                inferenceEngine.scan(methodOrInitializer, null);
-                return new InferredNullability(inferenceEngine.qualifierConstraints);
-              });
+  private static final CompilationUnitCache<InferredNullability> inferenceCache =
+      CompilationUnitCache.create();
 
+  /**
+   * Returns the inferred nullability in the given method, lambda or initializer of {@code
+   * compilationUnit}, which is cached until the compilation unit has been analyzed.
+   */
+  public static InferredNullability getInferredNullability(
+      Tree methodOrInitializerOrLambda, CompilationUnitTree compilationUnit, Context context) {
+    checkProcedure(methodOrInitializerOrLambda);
+    return inferenceCache.get(
+        context, compilationUnit, methodOrInitializerOrLambda, NullnessQualifierInference::infer);
+  }
+
+  /** Returns the inferred nullability in the given method, lambda or initializer, uncached. */
   public static InferredNullability getInferredNullability(Tree methodOrInitializerOrLambda) {
+    checkProcedure(methodOrInitializerOrLambda);
+    return infer(methodOrInitializerOrLambda);
+  }
+
+  private static void checkProcedure(Tree methodOrInitializerOrLambda) {
     checkArgument(
         methodOrInitializerOrLambda instanceof MethodTree
             || methodOrInitializerOrLambda instanceof LambdaExpressionTree
@@ -92,7 +102,13 @@ public final class NullnessQualifierInference extends TreeScanner<Void, Void> {
             || methodOrInitializerOrLambda instanceof VariableTree,
         "Tree `%s` is not a lambda, initializer, or method.",
         methodOrInitializerOrLambda);
-    return inferenceCache.get(methodOrInitializerOrLambda);
+  }
+
+  private static InferredNullability infer(Tree methodOrInitializerOrLambda) {
+    NullnessQualifierInference inferenceEngine =
+        new NullnessQualifierInference(methodOrInitializerOrLambda);
+    inferenceEngine.scan(methodOrInitializerOrLambda, null);
+    return new InferredNullability(inferenceEngine.qualifierConstraints);
   }
 
   /**
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.ErrorProneTimings;
+import com.google.errorprone.ErrorProneTimings.Timer;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.VisitorState.Counter;
+import com.google.errorprone.fixes.SuggestedFixes.FixCompiler;
+import com.google.errorprone.fixes.SuggestedFixes.FixCompiler.Result;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.code.Kinds.Kind;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.main.Arguments;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Checks whether the current compilation would succeed with suggested fixes applied, by compiling
+ * it again with the fixes.
+ *
+ * <p>Candidate fixes are checked in batches: all fixes of a batch are applied together, and the
+ * batch is only split in half and checked again if that doesn't compile. The result for each fix
+ * is remembered for the rest of the compilation of its compilation unit.
+ *
+ * <p>If only the compilation unit with the fixes needs to compile, the other source files of the
+ * compilation are put on the source path, so that only those that the modified file depends on are
+ * attributed again.
+ */
+final class SpeculativeCompiler {
+
+  private static final Context.Key<SpeculativeCompiler> KEY = new Context.Key<>();
+
+  private static final Counter COMPILES = Counter.create("SpeculativeCompiler-compiles");
+  private static final Counter CACHE_HITS = Counter.create("SpeculativeCompiler-cache-hits");
+
+  /** Returns the speculative compiler for the compilation with the given context. */
+  static synchronized SpeculativeCompiler instance(Context context) {
+    SpeculativeCompiler instance = context.get(KEY);
+    if (instance == null) {
+      instance = new SpeculativeCompiler(ErrorProneTimings.instance(context));
+      context.put(KEY, instance);
+    }
+    return instance;
+  }
+
+  private record Check(Fix fix, ImmutableList<String> options, boolean onlyInSameCompilationUnit) {}
+
+  /**
+   * The number of compilation units whose results are kept. Fixes are usually checked while their
+   * compilation unit is analyzed, so only the most recent units are likely to be asked about again.
+   */
+  private static final int MAX_COMPILATION_UNITS = 64;
+
+  private final Timer timer;
+
+  // Keyed by identity, and only until javac discards the compilation unit or it is evicted.
+  private final Cache<CompilationUnitTree, Map<Check, Boolean>> results =
+      Caffeine.newBuilder().weakKeys().maximumSize(MAX_COMPILATION_UNITS).build();
+
+  // The binary names of the compilation's source files, or an empty map if they can't be put on the
+  // source path; see sourcePath().
+  private volatile @Nullable ImmutableMap<URI, String> sourcePath;
+
+  private SpeculativeCompiler(ErrorProneTimings timings) {
+    this.timer = timings.speculativeCompilationTimer();
+  }
+
+  /** Returns the fixes with which the current compilation would succeed, in order. */
+  <F extends Fix> ImmutableList<F> compilingFixes(
+      List<F> fixes,
+      VisitorState state,
+      ImmutableList<String> options,
+      boolean onlyInSameCompilationUnit,
+      int maxErrors,
+      int maxWarnings) {
+    Map<Check, Boolean> unitResults =
+        results.get(state.getPath().getCompilationUnit(), unit -> new ConcurrentHashMap<>());
+    ImmutableList.Builder<F> unchecked = ImmutableList.builder();
+    for (F fix : ImmutableSet.copyOf(fixes)) {
+      if (unitResults.containsKey(new Check(fix, options, onlyInSameCompilationUnit))) {
+        state.incrementCounter(CACHE_HITS);
+      } else {
+        unchecked.add(fix);
+      }
+    }
+    check(
+        unchecked.build(),
+        state,
+        options,
+        onlyInSameCompilationUnit,
+        maxErrors,
+        maxWarnings,
+        unitResults);
+    ImmutableList.Builder<F> compiling = ImmutableList.builder();
+    for (F fix : fixes) {
+      Boolean compiles = unitResults.get(new Check(fix, options, onlyInSameCompilationUnit));
+      if (Boolean.TRUE.equals(compiles)) {
+        compiling.add(fix);
+      }
+    }
+    return compiling.build();
+  }
+
+  private void check(
+      List<? extends Fix> fixes,
+      VisitorState state,
+      ImmutableList<String> options,
+      boolean onlyInSameCompilationUnit,
+      int maxErrors,
+      int maxWarnings,
+      Map<Check, Boolean> unitResults) {
+    if (fixes.isEmpty()) {
+      return;
+    }
+    boolean compiles =
+        compiles(fixes, state, options, onlyInSameCompilationUnit, maxErrors, maxWarnings);
+    if (compiles || fixes.size() == 1) {
+      for (Fix fix : fixes) {
+        unitResults.put(new Check(fix, options, onlyInSameCompilationUnit), compiles);
+      }
+      return;
+    }
+    // Bisect, to find the fixes that broke the compilation without compiling every fix on its own.
+    int half = fixes.size() / 2;
+    check(
+        fixes.subList(0, half),
+        state,
+        options,
+        onlyInSameCompilationUnit,
+        maxErrors,
+        maxWarnings,
+        unitResults);
+    check(
+        fixes.subList(half, fixes.size()),
+        state,
+        options,
+        onlyInSameCompilationUnit,
+        maxErrors,
+        maxWarnings,
+        unitResults);
+  }
+
+  private boolean compiles(
+      List<? extends Fix> fixes,
+      VisitorState state,
+      ImmutableList<String> options,
+      boolean onlyInSameCompilationUnit,
+      int maxErrors,
+      int maxWarnings) {
+    FixCompiler fixCompiler;
+    try {
+      fixCompiler = FixCompiler.create(fixes, state);
+    } catch (IOException e) {
+      return false;
+    } catch (IllegalArgumentException e) {
+      if (fixes.size() == 1) {
+        throw e;
+      }
+      // Some of the fixes overlap, so they'll have to be checked separately.
+      return false;
+    }
+    ImmutableMap<URI, String> sourcePath =
+        onlyInSameCompilationUnit ? sourcePath(state) : ImmutableMap.of();
+    Result result;
+    long start = timer.start();
+    try {
+      result =
+          sourcePath.isEmpty()
+              ? fixCompiler.compile(options)
+              : fixCompiler.compileModifiedFile(options, sourcePath);
+    } finally {
+      timer.stop(start);
+    }
+    state.incrementCounter(COMPILES);
+    return SuggestedFixes.compilationSucceeded(
+        result,
+        FixCompiler.getModifiedFileUri(state),
+        onlyInSameCompilationUnit,
+        maxErrors,
+        maxWarnings);
+  }
+
+  /**
+   * Returns the binary name of the top-level class declared by each source file of the
+   * compilation, or an empty map if the files can't be put on the source path: if the compilation
+   * declares a module, or a source file declares a top-level class that's named differently from
+   * the file, which javac wouldn't find on the source path.
+   */
+  private ImmutableMap<URI, String> sourcePath(VisitorState state) {
+    ImmutableMap<URI, String> result = sourcePath;
+    if (result == null) {
+      result = computeSourcePath(state);
+      sourcePath = result;
+    }
+    return result;
+  }
+
+  private static ImmutableMap<URI, String> computeSourcePath(VisitorState state) {
+    JavaFileManager fileManager = state.context.get(JavaFileManager.class);
+    BasicJavacTask javacTask = (BasicJavacTask) state.context.get(JavacTask.class);
+    if (!(fileManager instanceof StandardJavaFileManager) || javacTask == null) {
+      return ImmutableMap.of();
+    }
+    Map<URI, JavaFileObject> files = new HashMap<>();
+    for (JavaFileObject file : Arguments.instance(javacTask.getContext()).getFileObjects()) {
+      if (file.isNameCompatible("module-info", JavaFileObject.Kind.SOURCE)) {
+        return ImmutableMap.of();
+      }
+      files.put(file.toUri(), file);
+    }
+    Map<URI, String> binaryNames = new HashMap<>();
+    // A copy, since javac enters classes into the symbol table as they're completed.
+    for (ClassSymbol sym : ImmutableList.copyOf(state.getSymtab().getAllClasses())) {
+      if (sym.owner.kind != Kind.PCK || sym.sourcefile == null) {
+        continue;
+      }
+      JavaFileObject file = files.get(sym.sourcefile.toUri());
+      if (file == null) {
+        continue;
+      }
+      if (!file.isNameCompatible(sym.getSimpleName().toString(), JavaFileObject.Kind.SOURCE)) {
+        return ImmutableMap.of();
+      }
+      binaryNames.put(file.toUri(), sym.flatName().toString());
+    }
+    return ImmutableMap.copyOf(binaryNames);
+  }
+}
@@ -19,6 +19,7 @@ package com.google.errorprone.fixes;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.getOnlyElement;
@@ -45,6 +46,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Splitter;
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -56,6 +58,7 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.apply.DescriptionBasedDiff;
 import com.google.errorprone.apply.ImportOrganizer;
 import com.google.errorprone.apply.SourceFile;
+import com.google.errorprone.dataflow.CompilationUnitCache;
 import com.google.errorprone.fixes.SuggestedFixes.FixCompiler.Result;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.ErrorProneComment;
@@ -88,6 +91,7 @@ import com.sun.source.util.DocTreePath;
 import com.sun.source.util.DocTreeScanner;
 import com.sun.source.util.JavacTask;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
 import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.api.BasicJavacTask;
 import com.sun.tools.javac.api.JavacTool;
@@ -136,6 +140,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -158,6 +163,7 @@ import javax.tools.JavaFileObject;
 import javax.tools.JavaFileObject.Kind;
 import javax.tools.SimpleJavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import org.jspecify.annotations.Nullable;
 
 /** Factories for constructing {@link Fix}es. */
@@ -1399,17 +1405,114 @@ public final class SuggestedFixes {
     if (fix.isEmpty() && extraOptions.isEmpty()) {
       return true;
     }
+    return !SpeculativeCompiler.instance(state.context)
+        .compilingFixes(
+            ImmutableList.of(fix),
+            state,
+            extraOptions,
+            onlyInSameCompilationUnit,
+            maxErrors,
+            maxWarnings)
+        .isEmpty();
+  }
 
-    FixCompiler fixCompiler;
-    try {
-      fixCompiler = FixCompiler.create(fix, state);
-    } catch (IOException e) {
-      return false;
-    }
+  /**
+   * Returns the fixes with which the current compilation would succeed, in order. This is
+   * equivalent to calling {@link #compilesWithFix(Fix, VisitorState)} for each fix, but checks all
+   * of them with a single compile if they all compile, and only compiles smaller groups of them
+   * again if they don't. Prefer collecting the candidate fixes for a compilation unit and checking
+   * them at once.
+   *
+   * <p>The fixes are assumed to be independent: a fix that only compiles together with another one
+   * of the given fixes may be returned.
+   */
+  public static <F extends Fix> ImmutableList<F> compilingFixes(List<F> fixes, VisitorState state) {
+    return compilingFixes(fixes, state, ImmutableList.of(), false);
+  }
+
+  /**
+   * Returns the fixes with which the current compilation would succeed, using the given additional
+   * compiler options, optionally limiting the checking of compilation failures to the compilation
+   * unit in which the fixes are applied. See {@link #compilingFixes(List, VisitorState)}.
+   */
+  public static <F extends Fix> ImmutableList<F> compilingFixes(
+      List<F> fixes,
+      VisitorState state,
+      ImmutableList<String> extraOptions,
+      boolean onlyInSameCompilationUnit) {
+    ImmutableList.Builder<String> extraOptionsBuilder =
+        ImmutableList.<String>builder().addAll(extraOptions);
+    int maxErrors = findOptionOrAppend(extraOptionsBuilder, extraOptions, "-Xmaxerrs", 100);
+    int maxWarnings = findOptionOrAppend(extraOptionsBuilder, extraOptions, "-Xmaxwarns", 100);
+    return SpeculativeCompiler.instance(state.context)
+        .compilingFixes(
+            fixes,
+            state,
+            extraOptionsBuilder.build(),
+            onlyInSameCompilationUnit,
+            maxErrors,
+            maxWarnings);
+  }
+
+  /**
+   * Returns the fixes that the given function suggests for the trees of the current compilation
+   * unit, in order. The function is called with a state whose path is that of each tree in turn.
+   *
+   * <p>This walks the whole compilation unit on every call. Checks that verify the fix for each
+   * tree they match should use {@link #compilingFixesInCompilationUnit} instead, which only does
+   * so once per compilation unit.
+   */
+  public static <F extends Fix> ImmutableList<F> fixesInCompilationUnit(
+      VisitorState state, Function<VisitorState, Optional<F>> fixForTree) {
+    ImmutableList.Builder<F> fixes = ImmutableList.builder();
+    new TreePathScanner<Void, Void>() {
+      @Override
+      public Void scan(Tree tree, Void unused) {
+        if (tree != null) {
+          fixForTree
+              .apply(state.withPath(new TreePath(getCurrentPath(), tree)))
+              .ifPresent(fixes::add);
+        }
+        return super.scan(tree, null);
+      }
+    }.scan(new TreePath(state.getPath().getCompilationUnit()), null);
+    return fixes.build();
+  }
 
-    Result compilationResult = fixCompiler.compile(extraOptions);
-    URI modifiedFileUri = FixCompiler.getModifiedFileUri(state);
+  /**
+   * Returns the fixes that the given function suggests for the trees of the current compilation
+   * unit, as {@link #fixesInCompilationUnit} does, with which the compilation would succeed.
+   *
+   * <p>The fixes are collected and {@linkplain #compilingFixes(List, VisitorState) compiled
+   * together} the first time this is called for a compilation unit, and are kept in {@code cache}
+   * until Error Prone has finished analyzing it. Later calls for the same compilation unit, such as
+   * those for the other trees that a check matches, neither walk the compilation unit nor compile
+   * again. The cache should be a constant of the calling check, and used with a single function.
+   */
+  public static <F extends Fix> ImmutableSet<F> compilingFixesInCompilationUnit(
+      CompilationUnitCache<ImmutableSet<F>> cache,
+      VisitorState state,
+      Function<VisitorState, Optional<F>> fixForTree) {
+    CompilationUnitTree compilationUnit = state.getPath().getCompilationUnit();
+    return cache.get(
+        state.context,
+        compilationUnit,
+        compilationUnit,
+        unused ->
+            ImmutableSet.copyOf(
+                compilingFixes(fixesInCompilationUnit(state, fixForTree), state)));
+  }
 
+  /**
+   * Returns whether a speculative compilation of the file with the given URI succeeded, ignoring
+   * failures in other files if {@code onlyInSameCompilationUnit} is set.
+   */
+  static boolean compilationSucceeded(
+      Result compilationResult,
+      URI modifiedFileUri,
+      boolean onlyInSameCompilationUnit,
+      int maxErrors,
+      int maxWarnings) {
     // If we reached the maximum number of diagnostics of a given kind without finding one in the
     // modified compilation unit, we won't find any more diagnostics, but we can't be sure that
     // there isn't a diagnostic, as the diagnostic may simply be the (max+1)-th diagnostic, and
@@ -1471,26 +1574,56 @@ public final class SuggestedFixes {
     }
 
     public Result compile(ImmutableList<String> extraOptions) {
+      Arguments arguments = Arguments.instance(javacTask.getContext());
+      return compile(
+          extraOptions, fileObjects, ImmutableListMultimap.of(), arguments.getClassNames());
+    }
+
+    /**
+     * Compiles only the modified file. The other files of the compilation are put on the source
+     * path instead, so only the ones that the modified file depends on are attributed. They're
+     * given by the binary names of the top-level classes they declare, which must match their file
+     * names.
+     */
+    Result compileModifiedFile(
+        ImmutableList<String> extraOptions, ImmutableMap<URI, String> binaryNames) {
+      List<JavaFileObject> modifiedFiles = new ArrayList<>();
+      ImmutableListMultimap.Builder<String, SourcePathEntry> sourcePath =
+          ImmutableListMultimap.builder();
+      for (JavaFileObject fileObject : fileObjects) {
+        String binaryName = binaryNames.get(fileObject.toUri());
+        if (speculativeFiles.containsKey(fileObject.toUri())) {
+          modifiedFiles.add(fileObject);
+        } else if (binaryName != null) {
+          int lastDot = binaryName.lastIndexOf('.');
+          sourcePath.put(
+              lastDot < 0 ? "" : binaryName.substring(0, lastDot),
+              new SourcePathEntry(fileObject, binaryName));
+        }
+      }
+      ImmutableList<String> options =
+          ImmutableList.<String>builder()
+              .addAll(extraOptions)
+              // The class path may contain stale class files for the sources of the compilation,
+              // and annotation processors have already generated their sources.
+              .add("-Xprefer:source", "-proc:none")
+              .build();
+      return compile(options, modifiedFiles, sourcePath.build(), ImmutableList.of());
+    }
+
+    private record SourcePathEntry(JavaFileObject file, String binaryName) {}
+
+    private Result compile(
+        ImmutableList<String> extraOptions,
+        List<JavaFileObject> compilationUnits,
+        ImmutableListMultimap<String, SourcePathEntry> sourcePath,
+        Iterable<String> classNames) {
       DiagnosticCollector<JavaFileObject> diagnosticListener = new DiagnosticCollector<>();
       Context context = createContext();
-      Arguments arguments = Arguments.instance(javacTask.getContext());
       JavaFileManager originalFileManager = state.context.get(JavaFileManager.class);
       JavaFileManager fileManager = originalFileManager;
       if (originalFileManager instanceof StandardJavaFileManager standardFileManager) {
-        fileManager =
-            new StandardForwardingFileManager(standardFileManager) {
-              @Override
-              public boolean contains(Location location, FileObject fo) throws IOException {
-                JavaFileObject underlying = speculativeFiles.get(fo.toUri());
-                return super.contains(location, underlying != null ? underlying : fo);
-              }
-
-              @Override
-              public Path asPath(FileObject fo) {
-                JavaFileObject underlying = speculativeFiles.get(fo.toUri());
-                return super.asPath(underlying != null ? underlying : fo);
-              }
-            };
+        fileManager = new SpeculativeFileManager(standardFileManager, sourcePath);
       }
       JavacTask newTask =
           JavacTool.create()
@@ -1499,8 +1632,8 @@ public final class SuggestedFixes {
                   fileManager,
                   diagnosticListener,
                   extraOptions,
-                  arguments.getClassNames(),
-                  fileObjects,
+                  classNames,
+                  compilationUnits,
                   context);
       try {
         newTask.analyze();
@@ -1510,6 +1643,96 @@ public final class SuggestedFixes {
       return new Result(diagnosticListener.getDiagnostics());
     }
 
+    /**
+     * Forwards to the compilation's file manager, treating speculative files like the originals
+     * they replace, and adding the given files to the source path.
+     */
+    private final class SpeculativeFileManager extends StandardForwardingFileManager {
+      private final ImmutableListMultimap<String, SourcePathEntry> sourcePath;
+      private final ImmutableMap<JavaFileObject, String> binaryNames;
+
+      SpeculativeFileManager(
+          StandardJavaFileManager delegate,
+          ImmutableListMultimap<String, SourcePathEntry> sourcePath) {
+        super(delegate);
+        this.sourcePath = sourcePath;
+        this.binaryNames =
+            sourcePath.values().stream()
+                .collect(toImmutableMap(SourcePathEntry::file, SourcePathEntry::binaryName));
+      }
+
+      @Override
+      public boolean contains(Location location, FileObject fo) throws IOException {
+        JavaFileObject underlying = speculativeFiles.get(fo.toUri());
+        return super.contains(location, underlying != null ? underlying : fo);
+      }
+
+      @Override
+      public Path asPath(FileObject fo) {
+        JavaFileObject underlying = speculativeFiles.get(fo.toUri());
+        return super.asPath(underlying != null ? underlying : fo);
+      }
+
+      @Override
+      public boolean hasLocation(Location location) {
+        return (location == StandardLocation.SOURCE_PATH && !sourcePath.isEmpty())
+            || super.hasLocation(location);
+      }
+
+      @Override
+      public Iterable<JavaFileObject> list(
+          Location location, String packageName, Set<Kind> kinds, boolean recurse)
+          throws IOException {
+        if (location != StandardLocation.SOURCE_PATH || sourcePath.isEmpty()) {
+          return super.list(location, packageName, kinds, recurse);
+        }
+        if (!kinds.contains(Kind.SOURCE)) {
+          return ImmutableList.of();
+        }
+        List<JavaFileObject> files = new ArrayList<>();
+        for (SourcePathEntry entry : sourcePath.get(packageName)) {
+          files.add(entry.file());
+        }
+        // Without an explicit source path, javac looks for sources on the class path.
+        Location original =
+            super.hasLocation(StandardLocation.SOURCE_PATH)
+                ? StandardLocation.SOURCE_PATH
+                : StandardLocation.CLASS_PATH;
+        for (Location sources : ImmutableList.of(original, StandardLocation.SOURCE_OUTPUT)) {
+          if (super.hasLocation(sources)) {
+            Iterables.addAll(
+                files, super.list(sources, packageName, EnumSet.of(Kind.SOURCE), recurse));
+          }
+        }
+        return files;
+      }
+
+      @Override
+      public @Nullable String inferBinaryName(Location location, JavaFileObject file) {
+        String binaryName = binaryNames.get(file);
+        if (binaryName != null) {
+          return binaryName;
+        }
+        if (location != StandardLocation.SOURCE_PATH || sourcePath.isEmpty()) {
+          return super.inferBinaryName(location, file);
+        }
+        // The file was listed from one of the locations that stand in for the source path.
+        for (Location sources :
+            ImmutableList.of(
+                StandardLocation.SOURCE_PATH,
+                StandardLocation.CLASS_PATH,
+                StandardLocation.SOURCE_OUTPUT)) {
+          if (super.hasLocation(sources)) {
+            binaryName = super.inferBinaryName(sources, file);
+            if (binaryName != null) {
+              return binaryName;
+            }
+          }
+        }
+        return null;
+      }
+    }
+
     private Context createContext() {
       Context context = new Context();
       Options options = Options.instance(context);
@@ -1538,6 +1761,16 @@ public final class SuggestedFixes {
     }
 
     public static FixCompiler create(Fix fix, VisitorState state) throws IOException {
+      return create(ImmutableList.of(fix), state);
+    }
+
+    /**
+     * Creates a compiler for the compilation with all the given fixes applied.
+     *
+     * @throws IllegalArgumentException if the fixes overlap
+     */
+    static FixCompiler create(Iterable<? extends Fix> fixes, VisitorState state)
+        throws IOException {
       BasicJavacTask javacTask = (BasicJavacTask) state.context.get(JavacTask.class);
       if (javacTask == null) {
         throw new IllegalArgumentException("No JavacTask in context.");
@@ -1545,12 +1778,12 @@ public final class SuggestedFixes {
       Arguments arguments = Arguments.instance(javacTask.getContext());
       ArrayList<JavaFileObject> fileObjects = new ArrayList<>(arguments.getFileObjects());
       Map<URI, JavaFileObject> speculativeFiles = new HashMap<>();
-      applyFix(fix, state, fileObjects, speculativeFiles);
+      applyFixes(fixes, state, fileObjects, speculativeFiles);
       return new FixCompiler(fileObjects, state, javacTask, speculativeFiles);
     }
 
-    private static void applyFix(
-        Fix fix,
+    private static void applyFixes(
+        Iterable<? extends Fix> fixes,
         VisitorState state,
         ArrayList<JavaFileObject> fileObjects,
         Map<URI, JavaFileObject> speculativeFiles)
@@ -1570,7 +1803,9 @@ public final class SuggestedFixes {
                 DescriptionBasedDiff diff =
                     DescriptionBasedDiff.create(
                         compilationUnit, ImportOrganizer.STATIC_FIRST_ORGANIZER);
-                diff.handleFix(fix);
+                for (Fix fix : fixes) {
+                  diff.handleFix(fix);
+                }
                 SourceFile fixSource = new SourceFile(modifiedFile.getName(), modifiedFileContent);
                 diff.applyDifferences(fixSource);
                 JavaFileObject originalFile = fileObjects.get(i);
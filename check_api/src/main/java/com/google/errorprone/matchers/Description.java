@@ -144,7 +144,8 @@ public final class Description {
       link = "",
       allowedOnPath =
           ".*/third_party/java_src/error_prone/project/check_api/src/main/java/com/google/errorprone/bugpatterns/BugChecker.java"
-              + "|.*/third_party/java_src/error_prone/project/core/src/main/java/com/google/errorprone/refaster/RefasterScanner.java")
+              + "|.*/third_party/java_src/error_prone/project/core/src/main/java/com/google/errorprone/refaster/RefasterScanner.java"
+              + "|.*/third_party/java_src/error_prone/project/check_api/src/main/java/com/google/errorprone/FindingsCache.java")
   public static Builder builder(
       ErrorPronePosition position, String name, @Nullable String link, String message) {
     return new Builder(position, name, link, message);
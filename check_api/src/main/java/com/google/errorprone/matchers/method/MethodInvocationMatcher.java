@@ -24,11 +24,13 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.NewClassTree;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Type;
@@ -423,7 +425,193 @@ public final class MethodInvocationMatcher {
       }
     }
     ImmutableSet<Node> roots = rootsBuilder.build();
+    Map<Set<Node>, NodeWithDefault> mappings = determinize(nfa, roots);
 
+    // At this point, mappings has all the information we need, but it's burdened with a bunch of
+    // now-unnecessary Set<Node> objects for its map keys. We want to replace those with something
+    // lightweight, and convert the indirect references through mappings to a direct pointer lookup.
+    return GraphMatcher.from(mappings, mappings.get(roots));
+  }
+
+  /**
+   * Matches method invocations against several labelled sets of rules at once.
+   *
+   * @see #compileLabeled(SetMultimap)
+   */
+  @FunctionalInterface
+  public interface LabeledMatcher<T> {
+    /** Returns the labels with at least one rule satisfied by the given method invocation. */
+    ImmutableSet<T> matchingLabels(ExpressionTree tree, VisitorState state);
+  }
+
+  /**
+   * Returns a {@link Rule} satisfied by every method invocation that the given matcher matches. The
+   * rule may also be satisfied by invocations that the matcher doesn't match, and it allows any
+   * invocation if the matcher wasn't created with the fluent API in {@link MethodMatchers}.
+   */
+  public static Rule prefilter(Matcher<? super ExpressionTree> matcher) {
+    return matcher instanceof MethodMatcherImpl methodMatcher
+        ? methodMatcher.prefilter()
+        : Rule.create(ImmutableMap.of());
+  }
+
+  /**
+   * Constructs a {@link LabeledMatcher} that finds every label with a rule satisfied by a method
+   * invocation, in a single traversal of a graph built from all the given rules. Unlike {@link
+   * #compile(Iterable)}, the traversal doesn't stop at the first satisfied rule, so it's suited to
+   * dispatching each invocation to the clients interested in it.
+   */
+  public static <T> LabeledMatcher<T> compileLabeled(SetMultimap<T, Rule> rules) {
+    // This is the same construction as in compile(), except that each label gets its own accept
+    // state. Every path from a root has exactly one edge per TokenType, so that a DFA state without
+    // outgoing edges contains only accept states, and the labels it matches can be computed ahead
+    // of time.
+    Table<Node, Optional<Token>, Node> nfa = HashBasedTable.create();
+    Map<Node, T> labels = new HashMap<>();
+    Map<T, Node> acceptStates = new HashMap<>();
+    ImmutableSet.Builder<Node> rootsBuilder = ImmutableSet.builder();
+    TokenType[] types = TokenType.values();
+    for (Map.Entry<T, Rule> entry : rules.entries()) {
+      Node accept =
+          acceptStates.computeIfAbsent(
+              entry.getKey(),
+              label -> {
+                Node node = new Node();
+                labels.put(node, label);
+                return node;
+              });
+      ImmutableMap<TokenType, ? extends Set<Token>> required = entry.getValue().required();
+      Node root = new Node();
+      rootsBuilder.add(root);
+      Node src = root;
+      for (int i = 0; i < types.length; i++) {
+        Node dst = i == types.length - 1 ? accept : new Node();
+        Set<Token> tokens = required.get(types[i]);
+        if (tokens == null) {
+          nfa.put(src, Optional.empty(), dst);
+        } else {
+          for (Token token : tokens) {
+            nfa.put(src, Optional.of(token), dst);
+          }
+        }
+        src = dst;
+      }
+    }
+    ImmutableSet<Node> roots = rootsBuilder.build();
+    Map<Set<Node>, NodeWithDefault> mappings = determinize(nfa, roots);
+    LabelLookup<T> lookup = LabeledGraphMatcher.traverse(mappings, mappings.get(roots), labels);
+    return (tree, state) -> {
+      Optional<Context> ctx = Context.create(tree);
+      return ctx.isPresent() ? lookup.labels(ctx.get(), state) : ImmutableSet.of();
+    };
+  }
+
+  private interface LabelLookup<T> {
+    ImmutableSet<T> labels(Context ctx, VisitorState state);
+  }
+
+  /** Converts a DFA produced by {@link #compileLabeled} into lookups of the matching labels. */
+  private static final class LabeledGraphMatcher {
+    private static <T> LabelLookup<T> traverse(
+        Map<Set<Node>, NodeWithDefault> mappings, NodeWithDefault root, Map<Node, T> labels) {
+      SetMultimap<Token, Node> children = root.mapping;
+      if (children.isEmpty() && root.def == null) {
+        // We've seen a token of every type, so all that's left are accept states, and any states
+        // of rules that required a token type but didn't allow any tokens for it.
+        ImmutableSet.Builder<T> accepted = ImmutableSet.builder();
+        for (Node node : root.states) {
+          T label = labels.get(node);
+          if (label != null) {
+            accepted.add(label);
+          }
+        }
+        ImmutableSet<T> result = accepted.build();
+        return (ctx, state) -> result;
+      }
+      if (children.isEmpty()) {
+        return traverse(mappings, mappings.get(root.def), labels);
+      }
+      ImmutableSet<TokenType> tokenTypes =
+          children.keySet().stream().map(Token::type).collect(ImmutableSet.toImmutableSet());
+      Preconditions.checkArgument(
+          tokenTypes.size() == 1,
+          "Found mismatched token types in node with mappings %s",
+          children);
+      TokenType type = tokenTypes.iterator().next();
+      LabelLookup<T> defaultBehavior =
+          root.def == null
+              ? (ctx, state) -> ImmutableSet.of()
+              : traverse(mappings, mappings.get(root.def), labels);
+
+      Map<Object, LabelLookup<T>> lookup = new HashMap<>();
+      @SuppressWarnings("UnstableApiUsage")
+      Set<Map.Entry<Token, Set<Node>>> entries = Multimaps.asMap(children).entrySet();
+      for (Map.Entry<Token, Set<Node>> entry : entries) {
+        lookup.put(
+            entry.getKey().comparisonKey(),
+            traverse(mappings, mappings.get(entry.getValue()), labels));
+      }
+
+      return switch (type) {
+        case RECEIVER_TYPE ->
+            (ctx, state) -> {
+              Type receiverType = receiverType(ctx);
+              if (receiverType == null) {
+                return defaultBehavior.labels(ctx, state);
+              }
+              // Compared like MethodMatchers#onClass does, which erases type variables to their
+              // bounds.
+              LabelLookup<T> child =
+                  lookup.get(
+                      state.getTypes().erasure(receiverType).tsym.getQualifiedName().toString());
+              return child != null ? child.labels(ctx, state) : defaultBehavior.labels(ctx, state);
+            };
+        case RECEIVER_SUPERTYPE ->
+            (ctx, state) -> {
+              Type receiverType = receiverType(ctx);
+              if (receiverType == null) {
+                return defaultBehavior.labels(ctx, state);
+              }
+              // Every supertype of the receiver may lead to different labels, so unlike compile()
+              // we have to follow all of them.
+              @Nullable ImmutableSet<T> result = null;
+              for (Map.Entry<Object, LabelLookup<T>> child : lookup.entrySet()) {
+                if (ASTHelpers.isSubtype(
+                    receiverType, state.getTypeFromString((String) child.getKey()), state)) {
+                  ImmutableSet<T> childLabels = child.getValue().labels(ctx, state);
+                  result =
+                      result == null
+                          ? childLabels
+                          : Sets.union(result, childLabels).immutableCopy();
+                }
+              }
+              return result != null ? result : defaultBehavior.labels(ctx, state);
+            };
+        default ->
+            (ctx, state) -> {
+              LabelLookup<T> child = lookup.get(type.extract(ctx, state));
+              return child != null ? child.labels(ctx, state) : defaultBehavior.labels(ctx, state);
+            };
+      };
+    }
+
+    /**
+     * Returns the type that {@link MethodMatchers} compare with the classes a method is invoked on,
+     * or {@code null} for instance creations, which only constructor matchers match, and those
+     * don't constrain the receiver.
+     */
+    private static @Nullable Type receiverType(Context ctx) {
+      return ctx.tree() instanceof NewClassTree ? null : ASTHelpers.getReceiverType(ctx.tree());
+    }
+  }
+
+  /**
+   * Converts an NFA, in which each node may have several outgoing edges for the same token, into an
+   * equivalent DFA using a modified version of the power-set construction. The DFA's nodes are the
+   * sets of NFA nodes that can be reached by the same tokens.
+   */
+  private static Map<Set<Node>, NodeWithDefault> determinize(
+      Table<Node, Optional<Token>, Node> nfa, Set<Node> roots) {
     // TODO(amalloy): When converting to a DFA, we could use the information that there is
     // exactly one accept state
     // (and no transitions out of that accept state) to help us prune unnecessary identical states
@@ -436,6 +624,10 @@ public final class MethodInvocationMatcher {
     open.add(roots);
     while (!open.isEmpty()) {
       Set<Node> curr = open.removeFirst();
+      if (mappings.containsKey(curr)) {
+        // Reached along more than one path, and already converted.
+        continue;
+      }
       Set<Node> acceptsAny = new HashSet<>();
       SetMultimap<Token, Node> destinations = HashMultimap.create();
 
@@ -474,11 +666,7 @@ public final class MethodInvocationMatcher {
       Collection<Set<Node>> values = Multimaps.asMap(destinations).values();
       open.addAll(values);
     }
-
-    // At this point, mappings has all the information we need, but it's burdened with a bunch of
-    // now-unnecessary Set<Node> objects for its map keys. We want to replace those with something
-    // lightweight, and convert the indirect references through mappings to a direct pointer lookup.
-    return GraphMatcher.from(mappings, mappings.get(roots));
+    return mappings;
   }
 
   private MethodInvocationMatcher() {}
@@ -18,11 +18,20 @@ package com.google.errorprone.matchers.method;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Streams;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.MethodKind;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Token;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.TokenType;
 import com.google.errorprone.matchers.method.MethodMatchers.AnyMethodMatcher;
 import com.google.errorprone.matchers.method.MethodMatchers.ConstructorClassMatcher;
 import com.google.errorprone.matchers.method.MethodMatchers.ConstructorMatcher;
@@ -40,8 +49,12 @@ import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 final class MethodMatcherImpl
@@ -71,29 +84,105 @@ final class MethodMatcherImpl
               (m, s) -> {
                 // Handled by base matcher.
                 return true;
-              }));
+              }),
+          ImmutableMap.of());
   static final ConstructorMatcher CONSTRUCTOR =
-      new MethodMatcherImpl(BaseMethodMatcher.CONSTRUCTOR, ImmutableList.of((m, s) -> true));
+      new MethodMatcherImpl(
+          BaseMethodMatcher.CONSTRUCTOR,
+          ImmutableList.of((m, s) -> true),
+          kinds(MethodKind.CONSTRUCTOR));
   static final StaticMethodMatcher STATIC_METHOD =
       new MethodMatcherImpl(
-          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> m.sym().isStatic()));
+          BaseMethodMatcher.METHOD,
+          ImmutableList.of((m, s) -> m.sym().isStatic()),
+          kinds(MethodKind.STATIC));
   static final InstanceMethodMatcher INSTANCE_METHOD =
       new MethodMatcherImpl(
-          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> !m.sym().isStatic()));
+          BaseMethodMatcher.METHOD,
+          ImmutableList.of((m, s) -> !m.sym().isStatic()),
+          // Explicit constructor invocations like super() are method invocations of non-static
+          // methods, too.
+          kinds(MethodKind.INSTANCE, MethodKind.CONSTRUCTOR));
 
   private final BaseMethodMatcher baseMatcher;
 
   private final ImmutableList<Constraint> constraints;
 
+  /**
+   * The tokens that any invocation matched by the constraints must have, as far as they're known.
+   * See {@link #prefilter}.
+   */
+  private final ImmutableMap<TokenType, ImmutableSet<Token>> tokens;
+
   // All constructors private: only static final instances are legal starting points for chains.
-  private MethodMatcherImpl(BaseMethodMatcher baseMatcher, ImmutableList<Constraint> matchers) {
+  private MethodMatcherImpl(
+      BaseMethodMatcher baseMatcher,
+      ImmutableList<Constraint> matchers,
+      ImmutableMap<TokenType, ImmutableSet<Token>> tokens) {
     this.baseMatcher = baseMatcher;
     this.constraints = matchers;
+    this.tokens = tokens;
+  }
+
+  private static ImmutableMap<TokenType, ImmutableSet<Token>> kinds(MethodKind... kinds) {
+    return ImmutableMap.of(
+        TokenType.KIND,
+        Arrays.stream(kinds).<Token>map(Token.Kind::create).collect(ImmutableSet.toImmutableSet()));
   }
 
   private MethodMatcherImpl append(Constraint c) {
+    return append(c, tokens);
+  }
+
+  private MethodMatcherImpl append(
+      Constraint c, ImmutableMap<TokenType, ImmutableSet<Token>> tokens) {
     return new MethodMatcherImpl(
-        baseMatcher, ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build());
+        baseMatcher,
+        ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build(),
+        tokens);
+  }
+
+  /**
+   * Appends a constraint that limits the tokens of the given type to ones created from the given
+   * values.
+   */
+  private MethodMatcherImpl append(
+      Constraint c, TokenType type, Function<String, Token> token, Iterable<String> values) {
+    ImmutableSet<Token> allowed =
+        Streams.stream(values).map(token).collect(ImmutableSet.toImmutableSet());
+    ImmutableSet<Token> previous = tokens.get(type);
+    if (previous != null) {
+      allowed = Sets.intersection(previous, allowed).immutableCopy();
+    }
+    Map<TokenType, ImmutableSet<Token>> updated = new EnumMap<>(TokenType.class);
+    updated.putAll(tokens);
+    updated.put(type, allowed);
+    return append(c, Maps.immutableEnumMap(updated));
+  }
+
+  /**
+   * Appends a constraint that the receiver type is exactly one of the given classes. The receiver
+   * type is only tracked if all the names are canonical names of classes, since {@link
+   * TokenType#RECEIVER_TYPE} compares names rather than types.
+   */
+  private MethodMatcherImpl appendReceiverTypes(Constraint c, Iterable<String> classNames) {
+    for (String className : classNames) {
+      if (!CharMatcher.anyOf("$[<").matchesNoneOf(className)) {
+        return append(c);
+      }
+    }
+    return append(c, TokenType.RECEIVER_TYPE, Token.ReceiverType::create, classNames);
+  }
+
+  /**
+   * Returns a rule that's satisfied by every invocation this matcher matches, for {@link
+   * MethodInvocationMatcher#compileLabeled}. The method kinds and names, the classes that
+   * constructors are defined in, and the receiver types given by name are tracked, but not
+   * constraints given as predicates or suppliers, or on parameters. So the rule may be satisfied
+   * by invocations that this matcher doesn't match.
+   */
+  Rule prefilter() {
+    return Rule.create(tokens);
   }
 
   @Override
@@ -118,7 +207,8 @@ final class MethodMatcherImpl
   @Override
   public MethodClassMatcher onClass(String className) {
     TypePredicate pred = TypePredicates.isExactType(className);
-    return append((m, s) -> pred.apply(m.ownerType(), s));
+    return appendReceiverTypes(
+        (m, s) -> pred.apply(m.ownerType(), s), ImmutableList.of(className));
   }
 
   @Override
@@ -129,7 +219,7 @@ final class MethodMatcherImpl
   @Override
   public MethodClassMatcher onClassAny(Iterable<String> classNames) {
     TypePredicate pred = TypePredicates.isExactTypeAny(classNames);
-    return append((m, s) -> pred.apply(m.ownerType(), s));
+    return appendReceiverTypes((m, s) -> pred.apply(m.ownerType(), s), classNames);
   }
 
   @Override
@@ -159,8 +249,7 @@ final class MethodMatcherImpl
 
   @Override
   public MethodClassMatcher onDescendantOf(String className) {
-    TypePredicate pred = TypePredicates.isDescendantOf(className);
-    return append((m, s) -> pred.apply(m.ownerType(), s));
+    return onDescendantOfAny(ImmutableList.of(className));
   }
 
   @Override
@@ -176,7 +265,11 @@ final class MethodMatcherImpl
   @Override
   public MethodClassMatcher onDescendantOfAny(Iterable<String> classTypes) {
     TypePredicate pred = TypePredicates.isDescendantOfAny(classTypes);
-    return append((m, s) -> pred.apply(m.ownerType(), s));
+    return append(
+        (m, s) -> pred.apply(m.ownerType(), s),
+        TokenType.RECEIVER_SUPERTYPE,
+        Token.ReceiverSupertype::create,
+        classTypes);
   }
 
   @Override
@@ -190,7 +283,11 @@ final class MethodMatcherImpl
         !name.contains("(") && !name.contains(")"),
         "method name (%s) cannot contain parentheses; use \"foo\" instead of \"foo()\"",
         name);
-    return append((m, s) -> m.sym().getSimpleName().contentEquals(name));
+    return append(
+        (m, s) -> m.sym().getSimpleName().contentEquals(name),
+        TokenType.METHOD_NAME,
+        Token.MethodName::create,
+        ImmutableList.of(name));
   }
 
   @Override
@@ -201,7 +298,11 @@ final class MethodMatcherImpl
   @Override
   public MethodNameMatcher namedAnyOf(Iterable<String> names) {
     ImmutableSet<String> expected = ImmutableSet.copyOf(names);
-    return append((m, s) -> expected.contains(m.sym().getSimpleName().toString()));
+    return append(
+        (m, s) -> expected.contains(m.sym().getSimpleName().toString()),
+        TokenType.METHOD_NAME,
+        Token.MethodName::create,
+        expected);
   }
 
   @Override
@@ -299,7 +400,11 @@ final class MethodMatcherImpl
 
   @Override
   public ConstructorClassMatcher forClass(String className) {
-    return append((m, s) -> m.ownerType().asElement().getQualifiedName().contentEquals(className));
+    return append(
+        (m, s) -> m.ownerType().asElement().getQualifiedName().contentEquals(className),
+        TokenType.DEFINED_IN,
+        Token.DefinedIn::create,
+        ImmutableList.of(className));
   }
 
   @Override
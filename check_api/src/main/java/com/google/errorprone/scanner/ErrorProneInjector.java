@@ -22,6 +22,7 @@ import static java.util.stream.Collectors.joining;
 
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.MutableClassToInstanceMap;
+import com.google.errorprone.BugCheckerRegistry;
 import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.lang.reflect.Constructor;
@@ -71,6 +72,14 @@ public final class ErrorProneInjector {
       return instance;
     }
     path.add(clazz);
+    ErrorProneFlags flags = instances.getInstance(ErrorProneFlags.class);
+    if (flags != null) {
+      T precomputed = BugCheckerRegistry.newInstance(clazz, flags);
+      if (precomputed != null) {
+        instances.putInstance(clazz, precomputed);
+        return precomputed;
+      }
+    }
     Constructor<T> constructor =
         findConstructor(clazz)
             .orElseThrow(
@@ -22,6 +22,8 @@ import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneError;
 import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.ErrorProneTimings;
+import com.google.errorprone.ErrorProneTimings.Timer;
 import com.google.errorprone.SourcePositionException;
 import com.google.errorprone.SuppressionInfo.SuppressedState;
 import com.google.errorprone.VisitorState;
@@ -163,14 +165,21 @@ import com.sun.source.tree.YieldTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol.CompletionFailure;
 import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+import com.sun.tools.javac.util.Log;
+import com.sun.tools.javac.util.Log.WriterKind;
 import com.sun.tools.javac.util.Name;
+import java.io.PrintWriter;
 import java.lang.annotation.Annotation;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Scans the parsed AST, looking for violations of any of the enabled checks.
@@ -184,6 +193,11 @@ public class ErrorProneScanner extends Scanner {
 
   private final Map<String, SeverityLevel> severities;
   private final ImmutableSet<BugChecker> bugCheckers;
+  private final Map<Suppressible, Integer> checkerIndices = new IdentityHashMap<>();
+  private final MethodInvocationIndex methodInvocationIndex;
+  // The timers of each checker by index, resolved lazily for the timings they were resolved from.
+  // Like the rest of the scanner's state, only used by the thread running the analysis.
+  private @Nullable ResolvedTimers resolvedTimers;
 
   /**
    * Create an error-prone scanner for the given checkers.
@@ -215,8 +229,10 @@ public class ErrorProneScanner extends Scanner {
     ImmutableSet.Builder<Class<? extends Annotation>> annotationClassesBuilder =
         ImmutableSet.builder();
     for (BugChecker checker : this.bugCheckers) {
+      checkerIndices.put(checker, checkerIndices.size());
       registerNodeTypes(checker, annotationClassesBuilder);
     }
+    this.methodInvocationIndex = MethodInvocationIndex.create(methodInvocationMatchers);
     ImmutableSet<Class<? extends Annotation>> annotationClasses = annotationClassesBuilder.build();
     this.customSuppressionAnnotations =
         VisitorState.memoize(
@@ -243,6 +259,34 @@ public class ErrorProneScanner extends Scanner {
     return customSuppressionAnnotations.get(state);
   }
 
+  private record ResolvedTimers(ErrorProneTimings timings, Timer[] timers) {}
+
+  /** Returns the timer for the given matcher, without allocating once it has been resolved. */
+  private Timer timer(Suppressible matcher, VisitorState state) {
+    ErrorProneTimings timings = state.timings();
+    ResolvedTimers resolved = resolvedTimers;
+    if (resolved == null || resolved.timings() != timings) {
+      resolved = new ResolvedTimers(timings, new Timer[checkerIndices.size()]);
+      resolvedTimers = resolved;
+    }
+    int index = suppressibleIndex(matcher);
+    if (index < 0) {
+      return timings.timer(matcher);
+    }
+    Timer timer = resolved.timers()[index];
+    if (timer == null) {
+      timer = timings.timer(matcher);
+      resolved.timers()[index] = timer;
+    }
+    return timer;
+  }
+
+  @Override
+  protected int suppressibleIndex(Suppressible suppressible) {
+    Integer index = checkerIndices.get(suppressible);
+    return index != null ? index : -1;
+  }
+
   // keep-sorted start
   private final List<AnnotatedTypeTreeMatcher> annotatedTypeMatchers = new ArrayList<>();
   private final List<AnnotationTreeMatcher> annotationMatchers = new ArrayList<>();
@@ -529,12 +573,19 @@ public class ErrorProneScanner extends Scanner {
     ErrorProneOptions errorProneOptions = oldState.errorProneOptions();
     // A VisitorState with our new path, but without mentioning the suppression of any matcher.
     VisitorState newState = oldState.withPath(getCurrentPath());
+    FileBudget fileBudget = fileBudget(errorProneOptions, newState);
     for (M matcher : matchers) {
+      int index = fileBudget != null ? suppressibleIndex(matcher) : -1;
+      if (index >= 0 && fileBudget.exhausted.get(index)) {
+        continue;
+      }
       SuppressedState suppressed = isSuppressed(matcher, errorProneOptions, newState);
       // If the ErrorProneOptions say to visit suppressed code, we still visit it
       if (suppressed == SuppressedState.UNSUPPRESSED
           || errorProneOptions.isIgnoreSuppressionAnnotations()) {
-        try (AutoCloseable unused = oldState.timingSpan(matcher)) {
+        Timer timer = timer(matcher, oldState);
+        long start = timer.start();
+        try {
           // We create a new VisitorState with the suppression info specific to this matcher.
           VisitorState stateWithSuppressionInformation = newState.withSuppression(suppressed);
           reportMatch(
@@ -542,12 +593,75 @@ public class ErrorProneScanner extends Scanner {
               stateWithSuppressionInformation);
         } catch (Exception | AssertionError t) {
           handleError(matcher, t);
+        } finally {
+          long nanos = timer.stop(start);
+          if (index >= 0) {
+            fileBudget.charge(matcher, index, nanos, newState);
+          }
         }
       }
     }
     return newState;
   }
 
+  /**
+   * The time each checker has spent on a compilation unit, and the checkers that exceeded the
+   * {@link ErrorProneOptions#checkTimeBudget} and are skipped for the rest of it.
+   */
+  private static final class FileBudget {
+    final CompilationUnitTree compilationUnit;
+    final long budgetNanos;
+    final long[] nanos;
+    final BitSet exhausted = new BitSet();
+
+    FileBudget(CompilationUnitTree compilationUnit, Duration budget, int checkers) {
+      this.compilationUnit = compilationUnit;
+      this.budgetNanos = budget.toNanos();
+      this.nanos = new long[checkers];
+    }
+
+    void charge(Suppressible matcher, int index, long elapsed, VisitorState state) {
+      nanos[index] += elapsed;
+      if (nanos[index] <= budgetNanos || exhausted.get(index)) {
+        return;
+      }
+      exhausted.set(index);
+      Duration spent = Duration.ofNanos(nanos[index]);
+      String file = ASTHelpers.getFileName(compilationUnit);
+      state.timings().budgetExceeded(matcher.canonicalName(), file, spent);
+      if (matcher instanceof BugChecker checker) {
+        state.incrementCounter(checker, "time-budget-exceeded");
+      }
+      PrintWriter out = Log.instance(state.context).getWriter(WriterKind.NOTICE);
+      out.printf(
+          "Error Prone: %s spent %d ms on %s, more than its time budget of %d ms, and was skipped"
+              + " for the rest of the file%n",
+          matcher.canonicalName(),
+          spent.toMillis(),
+          file,
+          Duration.ofNanos(budgetNanos).toMillis());
+      out.flush();
+    }
+  }
+
+  // The budget of the compilation unit being scanned, if checks have a time budget. Compilation
+  // units are analyzed one at a time, on a single thread.
+  private @Nullable FileBudget currentFileBudget;
+
+  private @Nullable FileBudget fileBudget(ErrorProneOptions options, VisitorState state) {
+    Duration budget = options.checkTimeBudget();
+    if (budget == null) {
+      return null;
+    }
+    CompilationUnitTree compilationUnit = state.getPath().getCompilationUnit();
+    FileBudget current = currentFileBudget;
+    if (current == null || current.compilationUnit != compilationUnit) {
+      current = new FileBudget(compilationUnit, budget, checkerIndices.size());
+      currentFileBudget = current;
+    }
+    return current;
+  }
+
   @Override
   public Void visitAnnotation(AnnotationTree tree, VisitorState visitorState) {
     VisitorState state =
@@ -888,7 +1002,7 @@ public class ErrorProneScanner extends Scanner {
   public Void visitMethodInvocation(MethodInvocationTree tree, VisitorState visitorState) {
     VisitorState state =
         processMatchers(
-            methodInvocationMatchers,
+            methodInvocationIndex.matchersFor(tree, visitorState),
             tree,
             MethodInvocationTreeMatcher::matchMethodInvocation,
             visitorState);
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.LabeledMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Selects the {@link MethodInvocationTreeMatcher}s to run for each method invocation, using the
+ * matchers they declare in {@link MethodInvocationTreeMatcher#methodInvocationMatchers}.
+ *
+ * <p>The declared matchers of all checkers are compiled into a single {@link LabeledMatcher}, so
+ * finding the candidate checkers for an invocation takes a few map lookups, instead of running
+ * every checker's matchers in turn.
+ */
+final class MethodInvocationIndex {
+
+  private final ImmutableList<MethodInvocationTreeMatcher> matchers;
+  // For each checker, whether it declared any matchers; the others see every invocation.
+  private final boolean[] declared;
+  private final @Nullable LabeledMatcher<Integer> index;
+  // The checkers to run, by the labels matched by the index. There are as many distinct label sets
+  // as there are states in the index, so this stays small.
+  private final ConcurrentHashMap<ImmutableSet<Integer>, ImmutableList<MethodInvocationTreeMatcher>>
+      selections = new ConcurrentHashMap<>();
+
+  static MethodInvocationIndex create(List<MethodInvocationTreeMatcher> matchers) {
+    boolean[] declared = new boolean[matchers.size()];
+    SetMultimap<Integer, Rule> rules = HashMultimap.create();
+    for (int i = 0; i < matchers.size(); i++) {
+      for (Matcher<ExpressionTree> matcher : matchers.get(i).methodInvocationMatchers()) {
+        declared[i] = true;
+        rules.put(i, MethodInvocationMatcher.prefilter(matcher));
+      }
+    }
+    return new MethodInvocationIndex(
+        ImmutableList.copyOf(matchers),
+        declared,
+        rules.isEmpty() ? null : MethodInvocationMatcher.compileLabeled(rules));
+  }
+
+  private MethodInvocationIndex(
+      ImmutableList<MethodInvocationTreeMatcher> matchers,
+      boolean[] declared,
+      @Nullable LabeledMatcher<Integer> index) {
+    this.matchers = matchers;
+    this.declared = declared;
+    this.index = index;
+  }
+
+  /** Returns the checkers that might report a finding for the given invocation, in order. */
+  ImmutableList<MethodInvocationTreeMatcher> matchersFor(
+      MethodInvocationTree tree, VisitorState state) {
+    if (index == null || !(ASTHelpers.getSymbol(tree.getMethodSelect()) instanceof MethodSymbol)) {
+      // Let the checkers deal with invocations that didn't resolve, as they did without the index.
+      return matchers;
+    }
+    return selections.computeIfAbsent(index.matchingLabels(tree, state), this::select);
+  }
+
+  private ImmutableList<MethodInvocationTreeMatcher> select(ImmutableSet<Integer> labels) {
+    ImmutableList.Builder<MethodInvocationTreeMatcher> selected = ImmutableList.builder();
+    for (int i = 0; i < matchers.size(); i++) {
+      if (!declared[i] || labels.contains(i)) {
+        selected.add(matchers.get(i));
+      }
+    }
+    return selected.build();
+  }
+}
@@ -34,6 +34,7 @@ import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.util.Name;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -48,12 +49,28 @@ import java.util.Set;
 @CheckReturnValue
 public class Scanner extends TreePathScanner<Void, VisitorState> {
 
-  private SuppressionInfo currentSuppressions = SuppressionInfo.EMPTY;
+  private SuppressionScope currentSuppressions = new SuppressionScope(SuppressionInfo.EMPTY);
+
+  /**
+   * The suppression signals of a scope, and the suppressed states of the checks in that scope,
+   * which are computed when first needed and then reused for every node in the scope.
+   */
+  private static final class SuppressionScope {
+    final SuppressionInfo info;
+    // The checks whose suppressed state is known, and the ones among them that are suppressed, by
+    // suppressibleIndex.
+    final BitSet known = new BitSet();
+    final BitSet suppressed = new BitSet();
+
+    SuppressionScope(SuppressionInfo info) {
+      this.info = info;
+    }
+  }
 
   /** Scan a tree from a position identified by a TreePath. */
   @Override
   public Void scan(TreePath path, VisitorState state) {
-    SuppressionInfo prevSuppressionInfo = updateSuppressions(path.getLeaf(), state);
+    SuppressionScope prevSuppressionInfo = updateSuppressions(path.getLeaf(), state);
     try {
       return super.scan(path, state);
     } finally {
@@ -69,7 +86,7 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
       return null;
     }
 
-    SuppressionInfo prevSuppressionInfo = updateSuppressions(tree, state);
+    SuppressionScope prevSuppressionInfo = updateSuppressions(tree, state);
     try {
       return super.scan(tree, state);
     } finally {
@@ -82,18 +99,20 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
    * Updates current suppression state with information for the given {@code tree}. Returns the
    * previous suppression state so that it can be restored when going up the tree.
    */
-  private SuppressionInfo updateSuppressions(Tree tree, VisitorState state) {
-    SuppressionInfo prevSuppressionInfo = currentSuppressions;
+  private SuppressionScope updateSuppressions(Tree tree, VisitorState state) {
+    SuppressionScope prevSuppressionInfo = currentSuppressions;
+    SuppressionInfo info = currentSuppressions.info;
     if (tree instanceof CompilationUnitTree compilationUnitTree) {
-      currentSuppressions = currentSuppressions.forCompilationUnit(compilationUnitTree, state);
+      info = info.forCompilationUnit(compilationUnitTree, state);
     } else {
       Symbol sym = ASTHelpers.getDeclaredSymbol(tree);
       if (sym != null) {
-        currentSuppressions =
-            currentSuppressions.withExtendedSuppressions(
-                sym, state, getCustomSuppressionAnnotations(state));
+        info = info.withExtendedSuppressions(sym, state, getCustomSuppressionAnnotations(state));
       }
     }
+    if (info != currentSuppressions.info) {
+      currentSuppressions = new SuppressionScope(info);
+    }
     return prevSuppressionInfo;
   }
 
@@ -105,12 +124,47 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
    */
   protected SuppressedState isSuppressed(
       Suppressible suppressible, ErrorProneOptions errorProneOptions, VisitorState state) {
+    SuppressionScope scope = currentSuppressions;
+    if (scope.info.isEmpty()) {
+      // The common case: nothing in scope can suppress anything.
+      return SuppressedState.UNSUPPRESSED;
+    }
+    int index = suppressibleIndex(suppressible);
+    if (index < 0) {
+      return computeSuppressedState(scope.info, suppressible, errorProneOptions, state);
+    }
+    if (!scope.known.get(index)) {
+      if (computeSuppressedState(scope.info, suppressible, errorProneOptions, state)
+          == SuppressedState.SUPPRESSED) {
+        scope.suppressed.set(index);
+      }
+      scope.known.set(index);
+    }
+    return scope.suppressed.get(index) ? SuppressedState.SUPPRESSED : SuppressedState.UNSUPPRESSED;
+  }
 
+  private SuppressedState computeSuppressedState(
+      SuppressionInfo suppressions,
+      Suppressible suppressible,
+      ErrorProneOptions errorProneOptions,
+      VisitorState state) {
     boolean suppressedInGeneratedCode =
         errorProneOptions.disableWarningsInGeneratedCode()
             && severityMap().get(suppressible.canonicalName()) != SeverityLevel.ERROR;
 
-    return currentSuppressions.suppressedState(suppressible, suppressedInGeneratedCode, state);
+    return suppressions.suppressedState(suppressible, suppressedInGeneratedCode, state);
+  }
+
+  /**
+   * Returns a small, dense index identifying the given check within this scanner, which allows its
+   * suppressed state to be computed once per suppression scope instead of once per node; or -1 if
+   * the suppressed state should be computed every time.
+   *
+   * <p>The suppressed state of an indexed check may only depend on the suppression signals in
+   * scope, and not on the node being visited.
+   */
+  protected int suppressibleIndex(Suppressible suppressible) {
+    return -1;
   }
 
   /**
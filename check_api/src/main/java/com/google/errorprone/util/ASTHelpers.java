@@ -327,8 +327,7 @@ public final class ASTHelpers {
    * also means that this symbol is not an override.
    */
   public static boolean canBeRemoved(Symbol symbol, VisitorState state) {
-    if (symbol instanceof MethodSymbol methodSymbol
-        && !findSuperMethods(methodSymbol, state.getTypes()).isEmpty()) {
+    if (symbol instanceof MethodSymbol methodSymbol && isOverride(methodSymbol, state.getTypes())) {
       return false;
     }
     return isEffectivelyPrivate(symbol);
@@ -716,14 +715,36 @@ public final class ASTHelpers {
     return streamSuperMethods(methodSymbol, types).collect(toCollection(LinkedHashSet::new));
   }
 
-  /** See {@link #findSuperMethods(MethodSymbol, Types)}. */
+  /**
+   * See {@link #findSuperMethods(MethodSymbol, Types)}.
+   *
+   * <p>The super methods are cached for the rest of the compilation.
+   */
   public static Stream<MethodSymbol> streamSuperMethods(MethodSymbol methodSymbol, Types types) {
+    SymbolQueryCache cache = SymbolQueryCache.forTypes(types);
+    if (cache == null) {
+      return computeSuperMethods(methodSymbol, types);
+    }
+    return cache
+        .superMethods(methodSymbol, m -> computeSuperMethods(m, types).collect(toImmutableList()))
+        .stream();
+  }
+
+  private static Stream<MethodSymbol> computeSuperMethods(MethodSymbol methodSymbol, Types types) {
     TypeSymbol owner = (TypeSymbol) methodSymbol.owner;
     return types.closure(owner.type).stream()
         .map(type -> findSuperMethodInType(methodSymbol, type, types))
         .filter(Objects::nonNull);
   }
 
+  /**
+   * Returns true if {@code methodSymbol} overrides or implements a method of one of its supertypes,
+   * including interfaces.
+   */
+  public static boolean isOverride(MethodSymbol methodSymbol, Types types) {
+    return streamSuperMethods(methodSymbol, types).findAny().isPresent();
+  }
+
   /**
    * Finds all methods in any superclass of {@code startClass} with a certain {@code name} that
    * match the given {@code predicate}.
@@ -849,12 +870,20 @@ public final class ASTHelpers {
       return true;
     }
     if (sym instanceof ClassSymbol cs && isInherited(state, annotationClass)) {
-      for (sym = cs.getSuperclass().tsym;
-          sym instanceof ClassSymbol cs2;
-          sym = cs2.getSuperclass().tsym) {
-        if (hasAttribute(sym, annotationName)) {
-          return true;
-        }
+      SymbolQueryCache cache = SymbolQueryCache.forTypes(state.getTypes());
+      return cache == null
+          ? superclassHasAttribute(cs, annotationName)
+          : cache.hasInheritedAnnotation(cs, annotationName, ASTHelpers::superclassHasAttribute);
+    }
+    return false;
+  }
+
+  private static boolean superclassHasAttribute(ClassSymbol cs, Name annotationName) {
+    for (Symbol sym = cs.getSuperclass().tsym;
+        sym instanceof ClassSymbol cs2;
+        sym = cs2.getSuperclass().tsym) {
+      if (hasAttribute(sym, annotationName)) {
+        return true;
       }
     }
     return false;
@@ -1974,7 +2003,7 @@ public final class ASTHelpers {
     }
 
     // don't match overrides (even "effective overrides")
-    if (!findSuperMethods(method, state.getTypes()).isEmpty()) {
+    if (isOverride(method, state.getTypes())) {
       return false;
     }
     return true;
@@ -27,14 +27,30 @@ import com.sun.tools.javac.util.Name;
 public class ErrorProneToken {
   private final Token token;
   private final int offset;
+  private final int commentOffset;
   private final ImmutableList<ErrorProneComment> comments;
 
   ErrorProneToken(Token token, int offset, ImmutableList<ErrorProneComment> comments) {
+    this(token, offset, offset, comments);
+  }
+
+  private ErrorProneToken(
+      Token token, int offset, int commentOffset, ImmutableList<ErrorProneComment> comments) {
     this.token = token;
     this.offset = offset;
+    this.commentOffset = commentOffset;
     this.comments = comments;
   }
 
+  /**
+   * Returns a copy of this token with its position shifted by {@code posShift}, and with the given
+   * comments shifted by {@code commentShift}.
+   */
+  ErrorProneToken withShift(
+      int posShift, int commentShift, ImmutableList<ErrorProneComment> comments) {
+    return new ErrorProneToken(token, offset + posShift, commentOffset + commentShift, comments);
+  }
+
   public TokenKind kind() {
     return token.kind;
   }
@@ -48,7 +64,7 @@ public class ErrorProneToken {
   }
 
   public ImmutableList<ErrorProneComment> comments() {
-    return comments.stream().map(c -> c.withOffset(offset)).collect(toImmutableList());
+    return comments.stream().map(c -> c.withOffset(commentOffset)).collect(toImmutableList());
   }
 
   public boolean hasName() {
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Position.LineMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The tokens and comments of an entire source file, lexed once and sliced to answer queries about
+ * ranges of that file.
+ */
+public final class ErrorProneTokenIndex {
+
+  private final int length;
+  private final ImmutableList<ErrorProneToken> tokens;
+  private final int[] positions;
+  private final Supplier<ImmutableList<ErrorProneComment>> comments;
+  private final Supplier<LineMap> lineMap;
+
+  /** Lexes the given source text, which should be the full contents of a source file. */
+  public static ErrorProneTokenIndex create(String source, Context context) {
+    ErrorProneTokens errorProneTokens = new ErrorProneTokens(source, context);
+    return new ErrorProneTokenIndex(
+        source.length(), errorProneTokens.getTokens(), errorProneTokens::getLineMap);
+  }
+
+  private ErrorProneTokenIndex(
+      int length, ImmutableList<ErrorProneToken> tokens, Supplier<LineMap> lineMap) {
+    this.length = length;
+    this.tokens = tokens;
+    this.positions = new int[tokens.size()];
+    for (int i = 0; i < tokens.size(); i++) {
+      positions[i] = tokens.get(i).pos();
+    }
+    this.comments =
+        Suppliers.memoize(
+            () -> tokens.stream().flatMap(t -> t.comments().stream()).collect(toImmutableList()));
+    this.lineMap = Suppliers.memoize(lineMap);
+  }
+
+  /** Returns all tokens in the file, including the trailing EOF token. */
+  public ImmutableList<ErrorProneToken> getTokens() {
+    return tokens;
+  }
+
+  /** Returns all comments in the file, in declaration order. */
+  public ImmutableList<ErrorProneComment> getComments() {
+    return comments.get();
+  }
+
+  public LineMap getLineMap() {
+    return lineMap.get();
+  }
+
+  /**
+   * Returns the tokens for the source code between the given positions, offset by the start
+   * position, exactly as {@link ErrorProneTokens#getTokens(String, int, Context)} would return
+   * them for that range of the source.
+   *
+   * @return the tokens, or {@code null} if the range does not fall on token and comment boundaries
+   *     and has to be re-lexed instead
+   */
+  public @Nullable ImmutableList<ErrorProneToken> getOffsetTokens(int start, int end) {
+    return slice(start, end, 0);
+  }
+
+  /**
+   * Returns the tokens for the source code between the given positions, exactly as {@link
+   * ErrorProneTokens#getTokens(String, Context)} would return them for that range of the source.
+   *
+   * @return the tokens, or {@code null} if the range does not fall on token and comment boundaries
+   *     and has to be re-lexed instead
+   */
+  public @Nullable ImmutableList<ErrorProneToken> getTokens(int start, int end) {
+    return slice(start, end, -start);
+  }
+
+  private @Nullable ImmutableList<ErrorProneToken> slice(int start, int end, int shift) {
+    if (start < 0 || start > end || end > length) {
+      return null;
+    }
+    int first = firstTokenAtOrAfter(start);
+    // The token following the range; lexing the range on its own would produce an EOF token here.
+    int next = firstTokenAtOrAfter(end);
+    if (next == tokens.size()) {
+      return null;
+    }
+    if (first > 0 && tokens.get(first - 1).endPos() > start) {
+      // the range starts in the middle of a token
+      return null;
+    }
+    if (next > first && tokens.get(next - 1).endPos() > end) {
+      // the range ends in the middle of a token
+      return null;
+    }
+    ImmutableList.Builder<ErrorProneToken> result = ImmutableList.builder();
+    for (int i = first; i < next; i++) {
+      ErrorProneToken token = tokens.get(i);
+      if (i == first) {
+        // Only the first token can have comments that precede the range.
+        ImmutableList<ErrorProneComment> comments = commentsWithin(token, start, end);
+        if (comments == null) {
+          return null;
+        }
+        result.add(token.withShift(shift, shift, comments));
+      } else {
+        result.add(shift == 0 ? token : token.withShift(shift, shift, token.comments()));
+      }
+    }
+    ImmutableList<ErrorProneComment> trailingComments = commentsWithin(tokens.get(next), start, end);
+    if (trailingComments == null) {
+      return null;
+    }
+    ErrorProneToken eof = tokens.get(tokens.size() - 1);
+    result.add(eof.withShift(end - eof.pos() + shift, shift, trailingComments));
+    return result.build();
+  }
+
+  /**
+   * Returns the comments of the given token that fall within {@code [start, end)}, or {@code null}
+   * if any of them straddle either end of the range.
+   */
+  private static @Nullable ImmutableList<ErrorProneComment> commentsWithin(
+      ErrorProneToken token, int start, int end) {
+    ImmutableList.Builder<ErrorProneComment> result = ImmutableList.builder();
+    for (ErrorProneComment comment : token.comments()) {
+      if (comment.getEndPos() <= start || comment.getPos() >= end) {
+        continue;
+      }
+      if (comment.getPos() < start || comment.getEndPos() > end) {
+        return null;
+      }
+      result.add(comment);
+    }
+    return result.build();
+  }
+
+  /** Returns the index of the first token that starts at or after {@code pos}. */
+  private int firstTokenAtOrAfter(int pos) {
+    int lo = 0;
+    int hi = positions.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (positions[mid] < pos) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
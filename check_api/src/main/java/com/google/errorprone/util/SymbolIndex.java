@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.Tree.Kind;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.tools.javac.code.Symbol;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The declarations, references and writes of symbols in an entire compilation unit, collected in a
+ * single scan.
+ *
+ * <p>Every entry is the {@link TreePath} of the tree in question, so its enclosing scopes are
+ * available from the path. Entries are in source order.
+ */
+public final class SymbolIndex {
+
+  private static final ImmutableSet<Kind> UNARY_WRITES =
+      ImmutableSet.of(
+          Kind.PREFIX_DECREMENT,
+          Kind.POSTFIX_DECREMENT,
+          Kind.PREFIX_INCREMENT,
+          Kind.POSTFIX_INCREMENT);
+
+  private final ImmutableMap<Symbol, TreePath> declarations;
+  private final ImmutableListMultimap<Symbol, TreePath> references;
+  private final ImmutableListMultimap<Symbol, TreePath> writes;
+
+  /** Scans the compilation unit at the given path. */
+  public static SymbolIndex create(TreePath compilationUnit) {
+    Map<Symbol, TreePath> declarations = new LinkedHashMap<>();
+    ImmutableListMultimap.Builder<Symbol, TreePath> references = ImmutableListMultimap.builder();
+    ImmutableListMultimap.Builder<Symbol, TreePath> writes = ImmutableListMultimap.builder();
+    new TreePathScanner<Void, Void>() {
+      @Override
+      public Void visitClass(ClassTree tree, Void unused) {
+        declare(tree);
+        return super.visitClass(tree, null);
+      }
+
+      @Override
+      public Void visitMethod(MethodTree tree, Void unused) {
+        declare(tree);
+        return super.visitMethod(tree, null);
+      }
+
+      @Override
+      public Void visitVariable(VariableTree tree, Void unused) {
+        declare(tree);
+        return super.visitVariable(tree, null);
+      }
+
+      private void declare(Tree tree) {
+        Symbol symbol = getSymbol(tree);
+        if (symbol != null) {
+          declarations.putIfAbsent(symbol, getCurrentPath());
+        }
+      }
+
+      @Override
+      public Void visitIdentifier(IdentifierTree tree, Void unused) {
+        reference(tree);
+        return super.visitIdentifier(tree, null);
+      }
+
+      @Override
+      public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+        reference(tree);
+        return super.visitMemberSelect(tree, null);
+      }
+
+      private void reference(Tree tree) {
+        Symbol symbol = getSymbol(tree);
+        if (symbol != null) {
+          references.put(symbol, getCurrentPath());
+        }
+      }
+
+      @Override
+      public Void visitAssignment(AssignmentTree tree, Void unused) {
+        write(tree.getVariable());
+        return super.visitAssignment(tree, null);
+      }
+
+      @Override
+      public Void visitCompoundAssignment(CompoundAssignmentTree tree, Void unused) {
+        write(tree.getVariable());
+        return super.visitCompoundAssignment(tree, null);
+      }
+
+      @Override
+      public Void visitUnary(UnaryTree tree, Void unused) {
+        if (UNARY_WRITES.contains(tree.getKind())) {
+          write(tree.getExpression());
+        }
+        return super.visitUnary(tree, null);
+      }
+
+      private void write(ExpressionTree target) {
+        Symbol symbol = getSymbol(target);
+        if (symbol != null) {
+          writes.put(symbol, getCurrentPath());
+        }
+      }
+    }.scan(compilationUnit, null);
+    return new SymbolIndex(ImmutableMap.copyOf(declarations), references.build(), writes.build());
+  }
+
+  private SymbolIndex(
+      ImmutableMap<Symbol, TreePath> declarations,
+      ImmutableListMultimap<Symbol, TreePath> references,
+      ImmutableListMultimap<Symbol, TreePath> writes) {
+    this.declarations = declarations;
+    this.references = references;
+    this.writes = writes;
+  }
+
+  /** Returns the paths of the classes, methods and variables declared in the compilation unit. */
+  public ImmutableMap<Symbol, TreePath> declarations() {
+    return declarations;
+  }
+
+  /** Returns the path of the declaration of the given symbol, if it's in the compilation unit. */
+  public @Nullable TreePath declaration(Symbol symbol) {
+    return declarations.get(symbol);
+  }
+
+  /**
+   * Returns the paths of the identifiers and member selects in the compilation unit, by the symbol
+   * they refer to. This includes the targets of writes.
+   */
+  public ImmutableListMultimap<Symbol, TreePath> references() {
+    return references;
+  }
+
+  /** Returns the paths of the identifiers and member selects that refer to the given symbol. */
+  public ImmutableList<TreePath> references(Symbol symbol) {
+    return references.get(symbol);
+  }
+
+  /**
+   * Returns the paths of the assignments, compound assignments, and increments and decrements in
+   * the compilation unit, by the symbol they write to.
+   */
+  public ImmutableListMultimap<Symbol, TreePath> writes() {
+    return writes;
+  }
+
+  /**
+   * Returns the paths of the assignments, compound assignments, and increments and decrements that
+   * write to the given symbol.
+   */
+  public ImmutableList<TreePath> writes(Symbol symbol) {
+    return writes.get(symbol);
+  }
+}
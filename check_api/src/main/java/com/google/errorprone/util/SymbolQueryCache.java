@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.StatisticsCollector;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Name;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A cache of the answers to queries about symbols that are expensive to compute, and that don't
+ * change for the rest of a compilation, like the super methods of a method.
+ *
+ * <p>The hits and misses of each kind of query are counted in the compilation's {@link
+ * StatisticsCollector}.
+ */
+public final class SymbolQueryCache {
+
+  public static final String SUPER_METHODS_HIT_COUNTER = "SymbolQueryCache-super-methods-hit";
+  public static final String SUPER_METHODS_MISS_COUNTER = "SymbolQueryCache-super-methods-miss";
+  public static final String INHERITED_ANNOTATION_HIT_COUNTER =
+      "SymbolQueryCache-inherited-annotation-hit";
+  public static final String INHERITED_ANNOTATION_MISS_COUNTER =
+      "SymbolQueryCache-inherited-annotation-miss";
+
+  /** The maximum number of answers that are cached for each kind of query. */
+  private static final int MAXIMUM_SIZE = 10_000;
+
+  private static final Context.Key<SymbolQueryCache> KEY = new Context.Key<>();
+
+  /**
+   * The caches of running compilations, by their {@link Types}, for queries that only have access
+   * to those. The caches themselves belong to their compilation's context.
+   */
+  private static final Cache<Types, SymbolQueryCache> byTypes =
+      Caffeine.newBuilder().weakKeys().weakValues().build();
+
+  /** Returns the cache of the compilation with the given context, creating it if necessary. */
+  public static synchronized SymbolQueryCache instance(Context context) {
+    SymbolQueryCache cache = context.get(KEY);
+    if (cache == null) {
+      cache = new SymbolQueryCache(StatisticsCollector.forCompilation(context));
+      context.put(KEY, cache);
+      byTypes.put(Types.instance(context), cache);
+    }
+    return cache;
+  }
+
+  /**
+   * Returns the cache of the compilation that the given {@link Types} belongs to, or {@code null}
+   * if that compilation doesn't have one.
+   */
+  static @Nullable SymbolQueryCache forTypes(Types types) {
+    return byTypes.getIfPresent(types);
+  }
+
+  private final StatisticsCollector statisticsCollector;
+
+  private final Cache<MethodSymbol, ImmutableList<MethodSymbol>> superMethods =
+      Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+  private final Cache<AnnotationQuery, Boolean> inheritedAnnotations =
+      Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+  private record AnnotationQuery(ClassSymbol symbol, Name annotation) {}
+
+  private SymbolQueryCache(StatisticsCollector statisticsCollector) {
+    this.statisticsCollector = statisticsCollector;
+  }
+
+  /** Returns the super methods of the given method, computing them if they aren't cached. */
+  ImmutableList<MethodSymbol> superMethods(
+      MethodSymbol method, Function<MethodSymbol, ImmutableList<MethodSymbol>> compute) {
+    ImmutableList<MethodSymbol> result = superMethods.getIfPresent(method);
+    if (result != null) {
+      statisticsCollector.incrementCounter(SUPER_METHODS_HIT_COUNTER);
+      return result;
+    }
+    statisticsCollector.incrementCounter(SUPER_METHODS_MISS_COUNTER);
+    result = compute.apply(method);
+    superMethods.put(method, result);
+    return result;
+  }
+
+  /**
+   * Returns whether the given class inherits the given annotation, computing it if it isn't
+   * cached.
+   */
+  boolean hasInheritedAnnotation(
+      ClassSymbol symbol, Name annotation, BiPredicate<ClassSymbol, Name> compute) {
+    AnnotationQuery query = new AnnotationQuery(symbol, annotation);
+    Boolean result = inheritedAnnotations.getIfPresent(query);
+    if (result != null) {
+      statisticsCollector.incrementCounter(INHERITED_ANNOTATION_HIT_COUNTER);
+      return result;
+    }
+    statisticsCollector.incrementCounter(INHERITED_ANNOTATION_MISS_COUNTER);
+    result = compute.test(symbol, annotation);
+    inheritedAnnotations.put(query, result);
+    return result;
+  }
+}
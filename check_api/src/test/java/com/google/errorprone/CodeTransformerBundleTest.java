@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformerBundle.Codec;
+import com.google.errorprone.CodeTransformerBundle.EntryReader;
+import com.google.errorprone.CodeTransformerBundle.EntryWriter;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.util.Context;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link CodeTransformerBundle}Test */
+@RunWith(JUnit4.class)
+public class CodeTransformerBundleTest {
+
+  @Rule public final TemporaryFolder tempDir = new TemporaryFolder();
+
+  private static final ImmutableList<Codec> CODECS =
+      ImmutableList.of(new NamedCodec());
+
+  private static final List<String> decoded = new ArrayList<>();
+  private static final List<String> applied = new ArrayList<>();
+
+  @Before
+  public void clear() {
+    decoded.clear();
+    applied.clear();
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    Path path = tempDir.newFile("rules.bundle").toPath();
+    try (OutputStream out = Files.newOutputStream(path)) {
+      CodeTransformerBundle.writer(CODECS)
+          .add("a", new NamedTransformer("a"))
+          .add("b", new NamedTransformer("b"))
+          .write(out);
+    }
+
+    CodeTransformer transformer = CodeTransformerBundle.load(ImmutableList.of(path), CODECS);
+    assertThat(decoded).isEmpty();
+
+    transformer.apply(null, null, null);
+    assertThat(decoded).containsExactly("a", "b").inOrder();
+    assertThat(applied).containsExactly("a", "b").inOrder();
+  }
+
+  @Test
+  public void serializedTransformer() throws IOException {
+    Path path = tempDir.newFile("rule.analyzer").toPath();
+    try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(path))) {
+      out.writeObject(new NamedTransformer("legacy"));
+    }
+
+    CodeTransformerBundle.load(ImmutableList.of(path), CODECS).apply(null, null, null);
+
+    assertThat(applied).containsExactly("legacy");
+  }
+
+  @Test
+  public void multipleFiles() throws IOException {
+    Path first = tempDir.newFile("first.bundle").toPath();
+    try (OutputStream out = Files.newOutputStream(first)) {
+      CodeTransformerBundle.writer(CODECS).add("a", new NamedTransformer("a")).write(out);
+    }
+    Path second = tempDir.newFile("second.analyzer").toPath();
+    try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(second))) {
+      out.writeObject(new NamedTransformer("b"));
+    }
+
+    CodeTransformerBundle.load(ImmutableList.of(first, second), CODECS).apply(null, null, null);
+
+    assertThat(applied).containsExactly("a", "b").inOrder();
+  }
+
+  @Test
+  public void newerVersion() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodeTransformerBundle.writer(CODECS).add("a", new NamedTransformer("a")).write(bytes);
+    byte[] bundle = bytes.toByteArray();
+    // The version follows the 4-byte magic number.
+    bundle[7] = (byte) (CodeTransformerBundle.VERSION + 1);
+    Path path = tempDir.newFile("newer.bundle").toPath();
+    Files.write(path, bundle);
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> CodeTransformerBundle.load(ImmutableList.of(path), CODECS));
+    assertThat(e)
+        .hasMessageThat()
+        .contains("uses version " + (CodeTransformerBundle.VERSION + 1) + " of the bundle format");
+  }
+
+  @Test
+  public void missingCodec() throws IOException {
+    Path path = tempDir.newFile("rules.bundle").toPath();
+    try (OutputStream out = Files.newOutputStream(path)) {
+      CodeTransformerBundle.writer(CODECS).add("a", new NamedTransformer("a")).write(out);
+    }
+
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> CodeTransformerBundle.load(ImmutableList.of(path), ImmutableList.of()));
+    assertThat(e).hasMessageThat().contains("needs the bundle codec named, which isn't available");
+  }
+
+  @Test
+  public void noCodec() {
+    CodeTransformerBundle.Writer writer =
+        CodeTransformerBundle.writer(ImmutableList.of()).add("a", new NamedTransformer("a"));
+
+    assertThrows(IllegalArgumentException.class, () -> writer.write(new ByteArrayOutputStream()));
+  }
+
+  @Test
+  public void internsEqualStrings() throws IOException {
+    String name = Strings.repeat("x", 1000);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    CodeTransformerBundle.writer(CODECS)
+        .add("a", new NamedPair(new String(name), new String(name)))
+        .write(bytes);
+
+    assertThat(bytes.size()).isLessThan(2 * name.length());
+  }
+
+  @Test
+  public void sharedValuesAndSections() {
+    ImmutableList<Long> values = ImmutableList.of(-1L, 1L << 40);
+    EntryWriter out = EntryWriter.create();
+    out.writeShared(values, CodeTransformerBundleTest::writeLongs);
+    out.writeSection(
+        section -> {
+          section.writeShared(values, CodeTransformerBundleTest::writeLongs);
+          section.writeString(null);
+        });
+    out.writeBoolean(true);
+
+    EntryReader in = EntryReader.create(ByteBuffer.wrap(out.toEntry()));
+    ImmutableList<Long> first = in.readShared(CodeTransformerBundleTest::readLongs);
+    EntryReader section = in.readSection();
+    assertThat(in.readBoolean()).isTrue();
+
+    assertThat(first).isEqualTo(values);
+    assertThat(section.readShared(CodeTransformerBundleTest::readLongs)).isSameInstanceAs(first);
+    assertThat(section.readString()).isNull();
+  }
+
+  private static void writeLongs(ImmutableList<Long> values, EntryWriter out) {
+    out.writeInt(values.size());
+    values.forEach(out::writeLong);
+  }
+
+  private static ImmutableList<Long> readLongs(EntryReader in) {
+    ImmutableList.Builder<Long> values = ImmutableList.builder();
+    for (int i = in.readInt(); i > 0; i--) {
+      values.add(in.readLong());
+    }
+    return values.build();
+  }
+
+  /** Writes {@link NamedTransformer}s and {@link NamedPair}s. */
+  private static final class NamedCodec implements Codec {
+    @Override
+    public String name() {
+      return "named";
+    }
+
+    @Override
+    public boolean canEncode(CodeTransformer transformer) {
+      return transformer instanceof NamedTransformer || transformer instanceof NamedPair;
+    }
+
+    @Override
+    public void encode(CodeTransformer transformer, EntryWriter out) {
+      out.writeBoolean(transformer instanceof NamedPair);
+      switch (transformer) {
+        case NamedTransformer named -> out.writeString(named.name());
+        case NamedPair pair -> {
+          out.writeString(pair.first());
+          out.writeString(pair.second());
+        }
+        default -> throw new AssertionError(transformer);
+      }
+    }
+
+    @Override
+    public CodeTransformer decode(EntryReader in) {
+      if (in.readBoolean()) {
+        return new NamedPair(in.readString(), in.readString());
+      }
+      String name = in.readString();
+      decoded.add(name);
+      return new NamedTransformer(name);
+    }
+  }
+
+  private record NamedTransformer(String name) implements CodeTransformer, Serializable {
+    @Override
+    public void apply(TreePath path, Context context, DescriptionListener listener) {
+      applied.add(name);
+    }
+
+    @Override
+    public ImmutableClassToInstanceMap<Annotation> annotations() {
+      return ImmutableClassToInstanceMap.of();
+    }
+  }
+
+  private record NamedPair(String first, String second) implements CodeTransformer {
+    @Override
+    public void apply(TreePath path, Context context, DescriptionListener listener) {}
+
+    @Override
+    public ImmutableClassToInstanceMap<Annotation> annotations() {
+      return ImmutableClassToInstanceMap.of();
+    }
+  }
+}
@@ -30,6 +30,8 @@ import com.google.errorprone.apply.ImportOrganizer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -198,6 +200,84 @@ public class ErrorProneOptionsTest {
     assertThat(options.isIgnoreSuppressionAnnotations()).isTrue();
   }
 
+  @Test
+  public void recognizesCheckTimeBudget() {
+    assertThat(ErrorProneOptions.empty().checkTimeBudget()).isNull();
+    assertThat(
+            ErrorProneOptions.processArgs(new String[] {"-XepCheckTimeBudget:500ms"})
+                .checkTimeBudget())
+        .isEqualTo(Duration.ofMillis(500));
+    assertThat(
+            ErrorProneOptions.processArgs(new String[] {"-XepCheckTimeBudget:30s"})
+                .checkTimeBudget())
+        .isEqualTo(Duration.ofSeconds(30));
+    assertThat(
+            ErrorProneOptions.processArgs(new String[] {"-XepCheckTimeBudget:2m"})
+                .checkTimeBudget())
+        .isEqualTo(Duration.ofMinutes(2));
+  }
+
+  @Test
+  public void throwsExceptionWithBadCheckTimeBudget() {
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepCheckTimeBudget:30"}));
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepCheckTimeBudget:longs"}));
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepCheckTimeBudget:0s"}));
+  }
+
+  @Test
+  public void recognizesTimingsOutput() {
+    assertThat(ErrorProneOptions.empty().timingsOutput()).isNull();
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepTimingsOutput:/tmp/timings.json"});
+    assertThat(options.timingsOutput()).isEqualTo(Paths.get("/tmp/timings.json"));
+  }
+
+  @Test
+  public void throwsExceptionWithEmptyTimingsOutput() {
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepTimingsOutput:"}));
+  }
+
+  @Test
+  public void recognizesFindingsCache() {
+    assertThat(ErrorProneOptions.empty().findingsCache()).isNull();
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepFindingsCache:/tmp/findings"});
+    assertThat(options.findingsCache()).isEqualTo(Paths.get("/tmp/findings"));
+  }
+
+  @Test
+  public void throwsExceptionWithEmptyFindingsCache() {
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepFindingsCache:"}));
+  }
+
+  @Test
+  public void recognizesMetricsOutput() {
+    assertThat(ErrorProneOptions.empty().metricsOutput()).isNull();
+    assertThat(ErrorProneOptions.empty().metricsFormat()).isEqualTo("prometheus");
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(
+            new String[] {"-XepMetricsOutput:/tmp/metrics.txt", "-XepMetricsFormat:openmetrics"});
+    assertThat(options.metricsOutput()).isEqualTo(Paths.get("/tmp/metrics.txt"));
+    assertThat(options.metricsFormat()).isEqualTo("openmetrics");
+  }
+
+  @Test
+  public void throwsExceptionWithEmptyMetricsOutput() {
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepMetricsOutput:"}));
+  }
+
   @Test
   public void recognizesExcludedPaths() {
     ErrorProneOptions options =
@@ -240,6 +320,19 @@ public class ErrorProneOptionsTest {
     assertThat(options.patchingOptions().doRefactor()).isFalse();
   }
 
+  @Test
+  public void recognizesPatchFilePerPackage() {
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepPatchLocation:/some/base/dir"});
+    assertThat(options.patchingOptions().patchFilePerPackage()).isFalse();
+
+    options =
+        ErrorProneOptions.processArgs(
+            new String[] {"-XepPatchLocation:/some/base/dir", "-XepPatchFilePerPackage"});
+    assertThat(options.patchingOptions().patchFilePerPackage()).isTrue();
+    assertThat(ErrorProneOptions.isSupportedOption("-XepPatchFilePerPackage")).isEqualTo(0);
+  }
+
   @Test
   public void throwsExceptionWithBadPatchArgs() {
     assertThrows(
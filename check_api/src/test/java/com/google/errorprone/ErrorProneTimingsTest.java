@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+import com.google.errorprone.ErrorProneTimings.FileTimings;
+import com.google.errorprone.ErrorProneTimings.Timer;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.sun.tools.javac.util.Context;
+import java.io.StringWriter;
+import java.time.Duration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ErrorProneTimings}Test */
+@RunWith(JUnit4.class)
+public class ErrorProneTimingsTest {
+
+  private final ErrorProneTimings timings = ErrorProneTimings.instance(new Context());
+
+  @Test
+  public void timer() {
+    Timer timer = timings.timer(new Fast());
+    for (int i = 0; i < 99; i++) {
+      timer.record(1_000);
+    }
+    timer.record(1_000_000);
+
+    assertThat(timer.name()).isEqualTo("Fast");
+    assertThat(timer.count()).isEqualTo(100);
+    assertThat(timer.total()).isEqualTo(Duration.ofNanos(1_099_000));
+    assertThat(timer.max()).isEqualTo(Duration.ofNanos(1_000_000));
+    // Percentiles are upper bounds, at most 25% above the exact value.
+    assertThat(timer.percentile(50).toNanos()).isIn(Range.closed(1_000L, 1_250L));
+    assertThat(timer.percentile(99).toNanos()).isIn(Range.closed(1_000L, 1_250L));
+    assertThat(timer.percentile(100)).isEqualTo(Duration.ofNanos(1_000_000));
+    assertThat(timings.timer(new Fast())).isSameInstanceAs(timer);
+    assertThat(timings.timings()).containsExactly("Fast", Duration.ofNanos(1_099_000));
+  }
+
+  @Test
+  public void timer_empty() {
+    Timer timer = timings.timer(new Fast());
+
+    assertThat(timer.count()).isEqualTo(0);
+    assertThat(timer.percentile(50)).isEqualTo(Duration.ZERO);
+  }
+
+  @Test
+  public void finishFile() {
+    timings.timer(new Fast()).record(10);
+    timings.timer(new Slow()).record(100);
+    timings.finishFile("A.java");
+    timings.timer(new Fast()).record(20);
+    timings.finishFile("B.java");
+
+    assertThat(timings.fileTimings())
+        .containsExactly(
+            new FileTimings(
+                "A.java",
+                Duration.ofNanos(110),
+                ImmutableMap.of("Slow", Duration.ofNanos(100), "Fast", Duration.ofNanos(10))),
+            new FileTimings(
+                "B.java", Duration.ofNanos(20), ImmutableMap.of("Fast", Duration.ofNanos(20))))
+        .inOrder();
+  }
+
+  @Test
+  public void writeJson() throws Exception {
+    timings.timer(new Fast()).record(10);
+    timings.finishFile("\"Quoted\".java");
+    timings.speculativeCompilationTimer().record(20);
+    timings.cfgConstructionTimer().record(40);
+    timings.cfgConstructionTimer().record(50);
+    timings.budgetExceeded("Slow", "A.java", Duration.ofNanos(30));
+    timings.findingsCacheStats(new FindingsCache.Stats(3, 2, 1));
+    StringWriter writer = new StringWriter();
+
+    timings.writeJson(writer);
+
+    assertThat(writer.toString())
+        .contains(
+            "{\"name\": \"Fast\", \"count\": 1, \"totalNanos\": 10, \"p50Nanos\": 10,"
+                + " \"p99Nanos\": 10, \"maxNanos\": 10}");
+    assertThat(writer.toString())
+        .contains(
+            "{\"file\": \"\\\"Quoted\\\".java\", \"totalNanos\": 10,"
+                + " \"slowestChecks\": [{\"name\": \"Fast\", \"nanos\": 10}]}");
+    assertThat(writer.toString())
+        .contains("\"speculativeCompilation\": {\"count\": 1, \"totalNanos\": 20}");
+    assertThat(writer.toString())
+        .contains("\"cfgConstruction\": {\"count\": 2, \"totalNanos\": 90}");
+    assertThat(writer.toString())
+        .contains("{\"check\": \"Slow\", \"file\": \"A.java\", \"nanos\": 30}");
+    assertThat(writer.toString())
+        .contains("\"findingsCache\": {\"hits\": 3, \"misses\": 2, \"evictions\": 1}");
+  }
+
+  @Test
+  public void writeJson_withoutFindingsCache() throws Exception {
+    StringWriter writer = new StringWriter();
+
+    timings.writeJson(writer);
+
+    assertThat(writer.toString()).doesNotContain("findingsCache");
+  }
+
+  @BugPattern(summary = "A fast check", severity = WARNING)
+  private static final class Fast extends BugChecker {}
+
+  @BugPattern(summary = "A slow check", severity = WARNING)
+  private static final class Slow extends BugChecker {}
+}
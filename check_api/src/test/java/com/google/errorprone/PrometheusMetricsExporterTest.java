@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.errorprone.ErrorProneTimings.Timer;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.sun.tools.javac.util.Context;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link PrometheusMetricsExporter}Test */
+@RunWith(JUnit4.class)
+public class PrometheusMetricsExporterTest {
+
+  private final ImmutableList<Timer> timers = timers();
+
+  private final ImmutableMultiset<String> counters =
+      ImmutableMultiset.<String>builder()
+          .addCopies("Fast-\"quoted\"", 2)
+          .addCopies("Fast-findings", 3)
+          .build();
+
+  private static ImmutableList<Timer> timers() {
+    Timer timer = ErrorProneTimings.instance(new Context()).timer(new Fast());
+    // Durations at the upper bounds of histogram buckets, so the percentiles are exact.
+    timer.record(1_023);
+    timer.record(3_071);
+    return ImmutableList.of(timer);
+  }
+
+  @Test
+  public void prometheus() throws Exception {
+    StringWriter writer = new StringWriter();
+    PrometheusMetricsExporter.prometheus().export(counters, timers, writer);
+
+    assertThat(writer.toString())
+        .isEqualTo(
+            """
+            # TYPE errorprone_check_duration_seconds summary
+            # HELP errorprone_check_duration_seconds The time spent running each check.
+            errorprone_check_duration_seconds{check="Fast",quantile="0.5"} 1.023E-6
+            errorprone_check_duration_seconds{check="Fast",quantile="0.99"} 3.071E-6
+            errorprone_check_duration_seconds_sum{check="Fast"} 4.094E-6
+            errorprone_check_duration_seconds_count{check="Fast"} 2
+            # TYPE errorprone_check_max_duration_seconds gauge
+            # HELP errorprone_check_max_duration_seconds The longest single run of each check.
+            errorprone_check_max_duration_seconds{check="Fast"} 3.071E-6
+            # TYPE errorprone_counter_total counter
+            # HELP errorprone_counter_total Counters incremented by checks, by key.
+            errorprone_counter_total{key="Fast-\\"quoted\\""} 2
+            errorprone_counter_total{key="Fast-findings"} 3
+            """);
+  }
+
+  @Test
+  public void openMetrics() throws Exception {
+    StringWriter writer = new StringWriter();
+    PrometheusMetricsExporter.openMetrics().export(counters, timers, writer);
+
+    assertThat(writer.toString())
+        .contains(
+            """
+            # TYPE errorprone_check_duration_seconds summary
+            # UNIT errorprone_check_duration_seconds seconds
+            """);
+    assertThat(writer.toString())
+        .contains(
+            """
+            # TYPE errorprone_counter counter
+            # HELP errorprone_counter Counters incremented by checks, by key.
+            errorprone_counter_total{key="Fast-\\"quoted\\""} 2
+            """);
+    assertThat(writer.toString()).endsWith("# EOF\n");
+  }
+
+  @Test
+  public void forFormat() {
+    Context context = new Context();
+
+    assertThat(MetricsExporter.forFormat("prometheus", context).format()).isEqualTo("prometheus");
+    assertThat(MetricsExporter.forFormat("openmetrics", context).format())
+        .isEqualTo("openmetrics");
+    assertThat(MetricsExporter.forFormat("unknown", context)).isNull();
+  }
+
+  @BugPattern(summary = "A fast check", severity = WARNING)
+  private static final class Fast extends BugChecker {}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.sun.tools.javac.util.Context;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link StatisticsCollector}Test */
+@RunWith(JUnit4.class)
+public class StatisticsCollectorTest {
+
+  @Test
+  public void collector() {
+    StatisticsCollector collector = StatisticsCollector.createCollector();
+    collector.incrementCounter("a");
+    collector.incrementCounter("a", 2);
+    collector.incrementCounter("b", 5);
+
+    assertThat(collector.counters().count("a")).isEqualTo(3);
+    assertThat(collector.counters().count("b")).isEqualTo(5);
+    assertThat(collector.counters().elementSet()).containsExactly("a", "b");
+  }
+
+  @Test
+  public void collector_concurrent() throws Exception {
+    StatisticsCollector collector = StatisticsCollector.createCollector();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 4; i++) {
+      executor.execute(
+          () -> {
+            for (int j = 0; j < 10_000; j++) {
+              collector.incrementCounter("key-" + (j % 3));
+            }
+          });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(60, SECONDS)).isTrue();
+
+    assertThat(collector.counters().size()).isEqualTo(40_000);
+  }
+
+  @Test
+  public void forCompilation() {
+    Context context = new Context();
+    StatisticsCollector collector = StatisticsCollector.forCompilation(context);
+
+    assertThat(StatisticsCollector.forCompilation(context)).isSameInstanceAs(collector);
+    assertThat(StatisticsCollector.forCompilation(new SubContext(context)))
+        .isSameInstanceAs(collector);
+  }
+
+  @Test
+  public void noOpCollector() {
+    StatisticsCollector collector = StatisticsCollector.createNoOpCollector();
+    collector.incrementCounter("a");
+
+    assertThat(collector.counters()).isEmpty();
+  }
+}
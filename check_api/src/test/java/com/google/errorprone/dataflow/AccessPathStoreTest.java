@@ -19,6 +19,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.dataflow.nullnesspropagation.Nullness;
+import org.checkerframework.errorprone.dataflow.analysis.AbstractValue;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -47,6 +48,129 @@ public class AccessPathStoreTest {
     assertThat(newStore().heap()).isEmpty();
   }
 
+  @Test
+  public void leastUpperBound() {
+    AccessPath path1 = new AccessPath(null, ImmutableList.of("foo"));
+    AccessPath path2 = new AccessPath(null, ImmutableList.of("bar"));
+    AccessPath path3 = new AccessPath(null, ImmutableList.of("baz"));
+    AccessPathStore<Nullness> store1 =
+        newStore()
+            .toBuilder()
+            .setInformation(path1, Nullness.NULL)
+            .setInformation(path2, Nullness.NONNULL)
+            .setInformation(path3, Nullness.NONNULL)
+            .build();
+    AccessPathStore<Nullness> store2 =
+        newStore()
+            .toBuilder()
+            .setInformation(path1, Nullness.NONNULL)
+            .setInformation(path2, Nullness.NONNULL)
+            .build();
+
+    assertThat(store1.leastUpperBound(store2).heap())
+        .containsExactly(path1, Nullness.NULLABLE, path2, Nullness.NONNULL);
+  }
+
+  @Test
+  public void leastUpperBoundReturnsEqualInput() {
+    AccessPathStore<Nullness> store = storeWithPaths(1000, Nullness.NONNULL);
+    AccessPathStore<Nullness> smaller =
+        store.leastUpperBound(storeWithPaths(500, Nullness.NONNULL));
+
+    assertThat(store.leastUpperBound(store)).isSameInstanceAs(store);
+    assertThat(smaller.heap()).hasSize(500);
+    assertThat(smaller.leastUpperBound(store)).isSameInstanceAs(smaller);
+    assertThat(store.leastUpperBound(smaller)).isSameInstanceAs(smaller);
+  }
+
+  @Test
+  public void manyPaths() {
+    AccessPathStore<Nullness> store = storeWithPaths(1000, Nullness.NONNULL);
+    AccessPathStore<Nullness> updated =
+        store.toBuilder().setInformation(path(10), Nullness.NULL).build();
+
+    assertThat(store.heap()).hasSize(1000);
+    assertThat(updated.valueOfAccessPath(path(10), Nullness.BOTTOM)).isEqualTo(Nullness.NULL);
+    assertThat(updated.valueOfAccessPath(path(11), Nullness.BOTTOM)).isEqualTo(Nullness.NONNULL);
+    assertThat(store.valueOfAccessPath(path(10), Nullness.BOTTOM)).isEqualTo(Nullness.NONNULL);
+    assertThat(updated).isNotEqualTo(store);
+    assertThat(updated.toBuilder().setInformation(path(10), Nullness.NONNULL).build())
+        .isEqualTo(store);
+    assertThat(storeWithPaths(1000, Nullness.NONNULL)).isEqualTo(store);
+    assertThat(storeWithPaths(1000, Nullness.NONNULL).hashCode()).isEqualTo(store.hashCode());
+    assertThat(store.hashCode()).isEqualTo(store.heap().hashCode());
+  }
+
+  @Test
+  public void unchangedBuilderReturnsPrototype() {
+    AccessPathStore<Nullness> store = storeWithPaths(10, Nullness.NONNULL);
+
+    assertThat(store.toBuilder().setInformation(path(3), Nullness.NONNULL).build())
+        .isSameInstanceAs(store);
+  }
+
+  @Test
+  public void widenedUpperBoundGoesToTopForChangedPaths() {
+    AccessPath path1 = new AccessPath(null, ImmutableList.of("foo"));
+    AccessPath path2 = new AccessPath(null, ImmutableList.of("bar"));
+    AccessPathStore<Nullness> previous =
+        newStore()
+            .toBuilder()
+            .setInformation(path1, Nullness.BOTTOM)
+            .setInformation(path2, Nullness.NONNULL)
+            .build();
+    AccessPathStore<Nullness> next =
+        previous.toBuilder().setInformation(path1, Nullness.NONNULL).build();
+
+    AccessPathStore<Nullness> widened = next.widenedUpperBound(previous);
+
+    // The least upper bound would be NONNULL.
+    assertThat(widened.heap())
+        .containsExactly(path1, Nullness.NULLABLE, path2, Nullness.NONNULL);
+    assertThat(widened.widenedUpperBound(widened)).isSameInstanceAs(widened);
+    assertThat(previous.widenedUpperBound(previous)).isSameInstanceAs(previous);
+  }
+
+  /** A value that can grow without bound, whose least upper bound is the larger value. */
+  private record Count(int count) implements AbstractValue<Count> {
+    @Override
+    public Count leastUpperBound(Count other) {
+      return count >= other.count ? this : other;
+    }
+  }
+
+  @Test
+  public void widenedUpperBoundDropsChangedPathsWithoutTop() {
+    AccessPath path1 = new AccessPath(null, ImmutableList.of("foo"));
+    AccessPath path2 = new AccessPath(null, ImmutableList.of("bar"));
+    AccessPathStore<Count> previous =
+        AccessPathStore.<Count>empty()
+            .toBuilder()
+            .setInformation(path1, new Count(1))
+            .setInformation(path2, new Count(1))
+            .build();
+    AccessPathStore<Count> next =
+        previous.toBuilder().setInformation(path1, new Count(2)).build();
+
+    AccessPathStore<Count> widened = next.widenedUpperBound(previous);
+
+    assertThat(widened.heap()).containsExactly(path2, new Count(1));
+    assertThat(next.leastUpperBound(previous).heap())
+        .containsExactly(path1, new Count(2), path2, new Count(1));
+  }
+
+  private static AccessPath path(int i) {
+    return new AccessPath(null, ImmutableList.of("field" + i));
+  }
+
+  private static AccessPathStore<Nullness> storeWithPaths(int count, Nullness value) {
+    AccessPathStore.Builder<Nullness> builder = newStore().toBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.setInformation(path(i), value);
+    }
+    return builder.build();
+  }
+
   private static AccessPathStore<Nullness> newStore() {
     return AccessPathStore.empty();
   }
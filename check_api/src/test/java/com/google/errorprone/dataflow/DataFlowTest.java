@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.ReturnTreeMatcher;
+import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import java.util.List;
+import org.checkerframework.errorprone.dataflow.analysis.AbstractValue;
+import org.checkerframework.errorprone.dataflow.analysis.ForwardTransferFunction;
+import org.checkerframework.errorprone.dataflow.analysis.RegularTransferResult;
+import org.checkerframework.errorprone.dataflow.analysis.TransferInput;
+import org.checkerframework.errorprone.dataflow.analysis.TransferResult;
+import org.checkerframework.errorprone.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.errorprone.dataflow.cfg.node.AbstractNodeVisitor;
+import org.checkerframework.errorprone.dataflow.cfg.node.AssignmentNode;
+import org.checkerframework.errorprone.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.errorprone.dataflow.cfg.node.Node;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link DataFlow}Test */
+@RunWith(JUnit4.class)
+public class DataFlowTest {
+
+  /**
+   * A {@link BugChecker} that runs the nullness analysis on every returned expression, and reports
+   * the dataflow cache statistics afterwards.
+   */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Reports dataflow cache statistics")
+  public static class CacheStatisticsChecker extends BugChecker implements ReturnTreeMatcher {
+
+    @Override
+    public Description matchReturn(ReturnTree tree, VisitorState state) {
+      if (tree.getExpression() == null) {
+        return Description.NO_MATCH;
+      }
+      NullnessAnalysis.instance(state.context)
+          .getNullness(new TreePath(state.getPath(), tree.getExpression()), state.context);
+      DataFlow.CacheStatistics statistics = DataFlow.cacheStatistics(state.context);
+      return buildDescription(tree)
+          .setMessage(
+              String.format(
+                  "cfg %d/%d, analysis %d/%d",
+                  statistics.cfgHits(),
+                  statistics.cfgMisses(),
+                  statistics.analysisHits(),
+                  statistics.analysisMisses()))
+          .build();
+    }
+  }
+
+  @Test
+  public void reusesGraphsAndAnalysesAcrossMethods() {
+    CompilationTestHelper.newInstance(CacheStatisticsChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              Object f(boolean b, Object o) {
+                if (b) {
+                  // BUG: Diagnostic contains: cfg 0/1, analysis 0/1
+                  return o;
+                }
+                // BUG: Diagnostic contains: cfg 1/1, analysis 1/1
+                return null;
+              }
+
+              Object g(Object o) {
+                // BUG: Diagnostic contains: cfg 1/2, analysis 1/2
+                return o;
+              }
+
+              Object h(boolean b, Object o) {
+                // BUG: Diagnostic contains: cfg 1/3, analysis 1/3
+                return b ? o : null;
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void keepsEnclosingMethodGraphWhileAnalyzingLambda() {
+    CompilationTestHelper.newInstance(CacheStatisticsChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            import java.util.function.Supplier;
+
+            class Test {
+              Object f(Object o) {
+                if (o == null) {
+                  // BUG: Diagnostic contains: cfg 0/1, analysis 0/1
+                  return o;
+                }
+                Supplier<Object> s =
+                    () -> {
+                      // BUG: Diagnostic contains: cfg 0/2, analysis 0/2
+                      return o;
+                    };
+                // BUG: Diagnostic contains: cfg 1/2, analysis 1/2
+                return s;
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  /**
+   * The most assignments to a variable along any path, which can grow without bound. A variable
+   * that the store has no value for may have been assigned any number of times.
+   */
+  private record Assignments(int count) implements AbstractValue<Assignments> {
+    static final Assignments UNKNOWN = new Assignments(Integer.MAX_VALUE);
+
+    Assignments plusOne() {
+      return equals(UNKNOWN) ? UNKNOWN : new Assignments(count + 1);
+    }
+
+    @Override
+    public Assignments leastUpperBound(Assignments other) {
+      return count >= other.count ? this : other;
+    }
+
+    @Override
+    public String toString() {
+      return equals(UNKNOWN) ? "unknown" : String.valueOf(count);
+    }
+  }
+
+  /**
+   * Counts the assignments to each local variable, so the store at the head of a loop that assigns
+   * a variable changes on every iteration until it's widened.
+   */
+  private static final class AssignmentCounter
+      extends AbstractNodeVisitor<
+          TransferResult<Assignments, AccessPathStore<Assignments>>,
+          TransferInput<Assignments, AccessPathStore<Assignments>>>
+      implements ForwardTransferFunction<Assignments, AccessPathStore<Assignments>> {
+
+    private static final int MAX_ASSIGNMENTS_VISITED = 100;
+
+    private int assignmentsVisited = 0;
+
+    @Override
+    public AccessPathStore<Assignments> initialStore(
+        UnderlyingAST underlyingAST, List<LocalVariableNode> parameters) {
+      return AccessPathStore.empty();
+    }
+
+    @Override
+    public TransferResult<Assignments, AccessPathStore<Assignments>> visitNode(
+        Node node, TransferInput<Assignments, AccessPathStore<Assignments>> input) {
+      return new RegularTransferResult<>(null, input.getRegularStore());
+    }
+
+    @Override
+    public TransferResult<Assignments, AccessPathStore<Assignments>> visitAssignment(
+        AssignmentNode node, TransferInput<Assignments, AccessPathStore<Assignments>> input) {
+      // Fail instead of running forever if the analysis doesn't converge.
+      if (++assignmentsVisited > MAX_ASSIGNMENTS_VISITED) {
+        throw new AssertionError("The analysis didn't converge");
+      }
+      if (!(node.getTarget() instanceof LocalVariableNode local)) {
+        return visitNode(node, input);
+      }
+      AccessPath path = AccessPath.fromLocalVariable(local);
+      AccessPathStore<Assignments> store = input.getRegularStore();
+      Assignments value =
+          node.getTree() instanceof VariableTree
+              ? new Assignments(1)
+              : store.valueOfAccessPath(path, Assignments.UNKNOWN).plusOne();
+      return new RegularTransferResult<>(
+          value, store.toBuilder().setInformation(path, value).build());
+    }
+
+    @Override
+    public TransferResult<Assignments, AccessPathStore<Assignments>> visitLocalVariable(
+        LocalVariableNode node, TransferInput<Assignments, AccessPathStore<Assignments>> input) {
+      AccessPathStore<Assignments> store = input.getRegularStore();
+      return new RegularTransferResult<>(
+          store.valueOfAccessPath(AccessPath.fromLocalVariable(node), Assignments.UNKNOWN), store);
+    }
+  }
+
+  /** Reports the number of assignments to each returned local variable that the analysis saw. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Reports assignments to locals")
+  public static class AssignmentCountChecker extends BugChecker implements ReturnTreeMatcher {
+
+    @Override
+    public Description matchReturn(ReturnTree tree, VisitorState state) {
+      Assignments assignments =
+          DataFlow.expressionDataflow(
+              new TreePath(state.getPath(), tree.getExpression()),
+              state.context,
+              new AssignmentCounter());
+      return buildDescription(tree).setMessage(assignments + " assignments").build();
+    }
+  }
+
+  @Test
+  public void widensLoopThatKeepsChangingTheStore() {
+    CompilationTestHelper.newInstance(AssignmentCountChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              int straightLine() {
+                int i = 0;
+                i = i + 1;
+                // BUG: Diagnostic contains: 2 assignments
+                return i;
+              }
+
+              int loop(boolean b) {
+                int i = 0;
+                while (b) {
+                  i = i + 1;
+                }
+                // The count at the loop head kept changing, so it was widened to unknown.
+                // BUG: Diagnostic contains: unknown assignments
+                return i;
+              }
+
+              int nestedLoops(boolean b, boolean c) {
+                int i = 0;
+                while (b) {
+                  while (c) {
+                    i = i + 1;
+                  }
+                  i = i + 1;
+                }
+                // BUG: Diagnostic contains: unknown assignments
+                return i;
+              }
+            }
+            """)
+        .doTest();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import org.jspecify.annotations.Nullable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link HashTrieMap}Test */
+@RunWith(JUnit4.class)
+public class HashTrieMapTest {
+
+  /** A key with the given hash code, so that distinct keys can collide. */
+  private record Key(String name, int hash) {
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final Key A = new Key("a", 42);
+  private static final Key B = new Key("b", 42);
+  private static final Key C = new Key("c", 42);
+  private static final Key D = new Key("d", 42);
+  private static final Key OTHER = new Key("other", 7);
+
+  /** Hash codes that collide, or share some but not all of their bits. */
+  private static final int[] HASHES = {
+    0, 1, 32, 33, 1 << 30, 1 << 31, -1, Integer.MAX_VALUE, 42, 42 | (1 << 25)
+  };
+
+  private static final BiFunction<Integer, Integer, @Nullable Integer> MAX = Math::max;
+
+  @Test
+  public void collidingKeys_put() {
+    HashTrieMap<Key, Integer> map = of(A, 1, B, 2, C, 3);
+
+    assertThat(map.size()).isEqualTo(3);
+    assertThat(map.get(A)).isEqualTo(1);
+    assertThat(map.get(B)).isEqualTo(2);
+    assertThat(map.get(C)).isEqualTo(3);
+    assertThat(map.get(D)).isNull();
+    assertThat(map.put(B, 2)).isSameInstanceAs(map);
+    assertThat(map.put(B, 5).get(B)).isEqualTo(5);
+    assertThat(map.put(B, 5).size()).isEqualTo(3);
+    assertThat(map.hashCode()).isEqualTo(toMap(map).hashCode());
+  }
+
+  @Test
+  public void collidingKeys_equalRegardlessOfOrder() {
+    HashTrieMap<Key, Integer> map = of(A, 1, B, 2, C, 3, OTHER, 4);
+
+    assertThat(of(C, 3, OTHER, 4, A, 1, B, 2)).isEqualTo(map);
+    assertThat(of(C, 3, OTHER, 4, A, 1, B, 2).hashCode()).isEqualTo(map.hashCode());
+    assertThat(of(C, 3, OTHER, 4, A, 1, B, 5)).isNotEqualTo(map);
+    assertThat(of(C, 3, OTHER, 4, A, 1, D, 2)).isNotEqualTo(map);
+    assertThat(of(C, 3, OTHER, 4, A, 1)).isNotEqualTo(map);
+  }
+
+  @Test
+  public void collidingKeys_intersect() {
+    HashTrieMap<Key, Integer> map = of(A, 1, B, 2, C, 3);
+    HashTrieMap<Key, Integer> other = of(A, 1, B, 5, D, 4);
+
+    HashTrieMap<Key, Integer> result = map.intersect(other, MAX);
+
+    assertThat(toMap(result)).containsExactly(A, 1, B, 5);
+    assertThat(result).isEqualTo(of(B, 5, A, 1));
+    assertThat(map.intersect(map.put(D, 4), MAX)).isSameInstanceAs(map);
+    assertThat(map.put(D, 4).intersect(map, MAX)).isSameInstanceAs(map);
+  }
+
+  @Test
+  public void collidingKeys_collapseAfterIntersection() {
+    HashTrieMap<Key, Integer> map = of(A, 1, B, 2, OTHER, 3);
+
+    // Only one of the colliding keys is left, so it's stored inline again.
+    HashTrieMap<Key, Integer> result = map.intersect(of(A, 1, OTHER, 3), MAX);
+
+    assertThat(result).isEqualTo(of(A, 1, OTHER, 3));
+    assertThat(result.hashCode()).isEqualTo(of(A, 1, OTHER, 3).hashCode());
+  }
+
+  @Test
+  public void collidingKeys_collapseAfterRemoval() {
+    HashTrieMap<Key, Integer> map = of(A, 1, B, 2, C, 3, OTHER, 4);
+
+    // The merger removes the keys whose values differ.
+    HashTrieMap<Key, Integer> result =
+        map.intersect(of(A, 1, B, 5, C, 6, OTHER, 4), (x, y) -> null);
+
+    assertThat(result).isEqualTo(of(A, 1, OTHER, 4));
+    assertThat(result.intersect(of(A, 2, OTHER, 4), (x, y) -> null)).isEqualTo(of(OTHER, 4));
+    assertThat(result.intersect(of(A, 2, OTHER, 5), (x, y) -> null).isEmpty()).isTrue();
+    assertThat(result.intersect(of(A, 2, OTHER, 5), (x, y) -> null))
+        .isEqualTo(HashTrieMap.empty());
+  }
+
+  @Test
+  public void randomized_matchesHashMap() {
+    Random random = new Random(0);
+    for (int round = 0; round < 200; round++) {
+      Map<Key, Integer> expected1 = randomMap(random);
+      Map<Key, Integer> expected2 = randomMap(random);
+      HashTrieMap<Key, Integer> map1 = build(expected1, random);
+      HashTrieMap<Key, Integer> map2 = build(expected2, random);
+      BiFunction<Integer, Integer, @Nullable Integer> merger =
+          (x, y) -> (x + y) % 3 == 0 ? null : Math.max(x, y);
+
+      Map<Key, Integer> expectedIntersection = new HashMap<>();
+      expected1.forEach(
+          (key, value) -> {
+            Integer other = expected2.get(key);
+            if (other != null) {
+              Integer merged = value.equals(other) ? value : merger.apply(value, other);
+              if (merged != null) {
+                expectedIntersection.put(key, merged);
+              }
+            }
+          });
+
+      assertMatches(map1, expected1);
+      assertMatches(map2, expected2);
+      assertMatches(map1.intersect(map2, merger), expectedIntersection);
+      assertThat(map1.intersect(map2, merger)).isEqualTo(build(expectedIntersection, random));
+      assertThat(map1.equals(map2)).isEqualTo(expected1.equals(expected2));
+      assertThat(build(expected1, random)).isEqualTo(map1);
+    }
+  }
+
+  private static Map<Key, Integer> randomMap(Random random) {
+    Map<Key, Integer> result = new HashMap<>();
+    int size = random.nextInt(40);
+    for (int i = 0; i < size; i++) {
+      result.put(
+          new Key("k" + random.nextInt(30), HASHES[random.nextInt(HASHES.length)]),
+          random.nextInt(4));
+    }
+    return result;
+  }
+
+  /** Builds a map with the given entries, putting them in a random order. */
+  private static HashTrieMap<Key, Integer> build(Map<Key, Integer> entries, Random random) {
+    List<Map.Entry<Key, Integer>> shuffled = new ArrayList<>(entries.entrySet());
+    Collections.shuffle(shuffled, random);
+    HashTrieMap<Key, Integer> result = HashTrieMap.empty();
+    for (Map.Entry<Key, Integer> entry : shuffled) {
+      result = result.put(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  private static void assertMatches(HashTrieMap<Key, Integer> map, Map<Key, Integer> expected) {
+    assertThat(toMap(map)).isEqualTo(expected);
+    assertThat(map.size()).isEqualTo(expected.size());
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+    for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+      assertThat(map.get(entry.getKey())).isEqualTo(entry.getValue());
+    }
+  }
+
+  private static Map<Key, Integer> toMap(HashTrieMap<Key, Integer> map) {
+    Map<Key, Integer> result = new HashMap<>();
+    map.forEach(result::put);
+    return result;
+  }
+
+  private static HashTrieMap<Key, Integer> of(Object... keysAndValues) {
+    HashTrieMap<Key, Integer> result = HashTrieMap.empty();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      result = result.put((Key) keysAndValues[i], (Integer) keysAndValues[i + 1]);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.errorprone.util.ASTHelpers.getStartPosition;
+import static com.google.errorprone.util.ASTHelpers.hasExplicitSource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePathScanner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ErrorProneTokenIndex}Test */
+@RunWith(JUnit4.class)
+public class ErrorProneTokenIndexTest {
+
+  /**
+   * A {@link BugChecker} that compares the tokens sliced from the token index with the tokens
+   * produced by re-lexing, for every tree in the compilation unit.
+   */
+  @BugPattern(
+      severity = SeverityLevel.ERROR,
+      summary = "Reports trees whose sliced tokens differ from re-lexed tokens")
+  public static class CompareTokens extends BugChecker implements CompilationUnitTreeMatcher {
+
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      state.getTokenIndex();
+      new TreePathScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null
+              && !(tree instanceof CompilationUnitTree)
+              && hasExplicitSource(tree, state)) {
+            VisitorState stateWithPath = state.withPath(getCurrentPath());
+            int start = getStartPosition(tree);
+            ImmutableList<ErrorProneToken> relexed =
+                ErrorProneTokens.getTokens(state.getSourceForNode(tree), start, state.context);
+            if (!describe(relexed).equals(describe(stateWithPath.getOffsetTokensForNode(tree)))) {
+              state.reportMatch(
+                  buildDescription(tree).setMessage("Mismatch: " + describe(relexed)).build());
+            }
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(state.getPath(), null);
+      return Description.NO_MATCH;
+    }
+
+    private static ImmutableList<String> describe(ImmutableList<ErrorProneToken> tokens) {
+      return tokens.stream()
+          .map(
+              t ->
+                  String.format(
+                      "%s[%d,%d]%s",
+                      t.kind(),
+                      t.pos(),
+                      t.endPos(),
+                      t.comments().stream()
+                          .map(c -> c.getPos() + "," + c.getEndPos() + ":" + c.getText())
+                          .collect(toImmutableList())))
+          .collect(toImmutableList());
+    }
+  }
+
+  @Test
+  public void slicedTokensMatchRelexedTokens() {
+    CompilationTestHelper.newInstance(CompareTokens.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            /** Class javadoc. */
+            abstract class Test {
+              /* leading */ abstract void target(Object param /* trailing */);
+
+              // before method
+              private int test(Object param) {
+                target(/* param= */ param); // 1
+                String s = "/* not a comment */";
+                int x = 1 /* inner */ + 2;
+                return x >>> 1; // end
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  /** A {@link BugChecker} that reports the number of avoided re-lexes. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Reports the number of avoided re-lexes")
+  public static class CountRelexes extends BugChecker implements CompilationUnitTreeMatcher {
+
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      var unused = state.getTokenIndex().getTokens();
+      var unused2 = state.getTokenIndex().getComments();
+      var unused3 = state.getOffsetTokensForNode(tree.getTypeDecls().get(0));
+      return buildDescription(tree.getTypeDecls().get(0))
+          .setMessage("avoided: " + state.counters().count(VisitorState.RELEX_AVOIDED_COUNTER))
+          .build();
+    }
+  }
+
+  @Test
+  public void countsAvoidedRelexes() {
+    CompilationTestHelper.newInstance(CountRelexes.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            // BUG: Diagnostic contains: avoided: 2
+            class Test {}
+            """)
+        .doTest();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Symbol;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link SymbolIndex}Test */
+@RunWith(JUnit4.class)
+public class SymbolIndexTest {
+
+  /** A {@link BugChecker} that reports the references and writes of each variable. */
+  @BugPattern(
+      severity = SeverityLevel.ERROR,
+      summary = "Reports the references and writes of each variable")
+  public static class DescribeVariables extends BugChecker implements CompilationUnitTreeMatcher {
+
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      SymbolIndex index = state.getSymbolIndex();
+      for (Map.Entry<Symbol, TreePath> declaration : index.declarations().entrySet()) {
+        if (declaration.getValue().getLeaf() instanceof VariableTree variableTree) {
+          Symbol symbol = declaration.getKey();
+          state.reportMatch(
+              buildDescription(variableTree)
+                  .setMessage(
+                      String.format(
+                          "references: %d, writes: %d",
+                          index.references(symbol).size(), index.writes(symbol).size()))
+                  .build());
+        }
+      }
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void referencesAndWrites() {
+    CompilationTestHelper.newInstance(DescribeVariables.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: references: 4, writes: 3
+              private int x;
+
+              // BUG: Diagnostic contains: references: 0, writes: 0
+              void f(int y) {
+                x = 1;
+                this.x += 2;
+                x++;
+                // BUG: Diagnostic contains: references: 1, writes: 0
+                int z = x;
+                System.err.println(z);
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  /** A {@link BugChecker} that reports whether the index of the compilation unit was reused. */
+  @BugPattern(
+      severity = SeverityLevel.ERROR,
+      summary = "Reports whether the index of the compilation unit was reused")
+  public static class CountReuses extends BugChecker implements MethodTreeMatcher {
+
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      var unused = state.getSymbolIndex();
+      return buildDescription(tree)
+          .setMessage("reused: " + state.counters().count(VisitorState.SYMBOL_INDEX_REUSED_COUNTER))
+          .build();
+    }
+  }
+
+  @Test
+  public void reusedWithinCompilationUnit() {
+    CompilationTestHelper.newInstance(CountReuses.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: reused: 0
+              void f() {}
+
+              // BUG: Diagnostic contains: reused: 1
+              void g() {}
+            }
+            """)
+        .doTest();
+  }
+}
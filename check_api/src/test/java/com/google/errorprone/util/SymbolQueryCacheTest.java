@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.StatisticsCollector;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.MethodTree;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link SymbolQueryCache}Test */
+@RunWith(JUnit4.class)
+public class SymbolQueryCacheTest {
+
+  /** A {@link BugChecker} that reports whether each method is an override, and cache hits. */
+  @BugPattern(
+      severity = SeverityLevel.ERROR,
+      summary = "Reports whether each method is an override")
+  public static class DescribeOverrides extends BugChecker implements MethodTreeMatcher {
+
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      StatisticsCollector statistics = StatisticsCollector.forCompilation(state.context);
+      MethodSymbol symbol = getSymbol(tree);
+      int hits = statistics.counters().count(SymbolQueryCache.SUPER_METHODS_HIT_COUNTER);
+      boolean override = isOverride(symbol, state.getTypes());
+      boolean again = isOverride(symbol, state.getTypes());
+      return buildDescription(tree)
+          .setMessage(
+              String.format(
+                  "override: %s, again: %s, hits: %d",
+                  override,
+                  again,
+                  statistics.counters().count(SymbolQueryCache.SUPER_METHODS_HIT_COUNTER)
+                      - hits))
+          .build();
+    }
+  }
+
+  @Test
+  public void superMethods() {
+    CompilationTestHelper.newInstance(DescribeOverrides.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test implements Runnable {
+              @Override
+              // BUG: Diagnostic contains: override: true, again: true, hits: 1
+              public void run() {}
+
+              // BUG: Diagnostic contains: override: false, again: false, hits: 1
+              void f() {}
+            }
+            """)
+        .doTest();
+  }
+}
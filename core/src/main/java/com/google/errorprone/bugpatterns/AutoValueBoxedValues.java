@@ -20,7 +20,6 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.matchers.Matchers.hasModifier;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.getType;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
@@ -38,6 +37,7 @@ import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnnotations;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MethodTree;
@@ -248,7 +248,7 @@ public class AutoValueBoxedValues extends BugChecker implements ClassTreeMatcher
 
   /** Returns true if the method overrides another method. */
   private static boolean isOverride(MethodTree methodTree, VisitorState state) {
-    return !findSuperMethods(getSymbol(methodTree), state.getTypes()).isEmpty();
+    return ASTHelpers.isOverride(getSymbol(methodTree), state.getTypes());
   }
 
   /** Returns the primitive type corresponding to a boxed type. */
@@ -56,6 +56,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.VisitorState.Counter;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
@@ -146,6 +147,11 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
   private final MessageTrailerStyle messageTrailerStyle;
   private final ResultUsePolicyEvaluator<VisitorState, Symbol, MethodSymbol> evaluator;
 
+  private final Counter methodCacheHits = counter("method-cache-hit");
+  private final Counter methodCacheMisses = counter("method-cache-miss");
+  private final Counter enclosingElementCacheHits = counter("enclosing-element-cache-hit");
+  private final Counter enclosingElementCacheMisses = counter("enclosing-element-cache-miss");
+
   @Inject
   CheckReturnValue(ErrorProneFlags flags, ConstantExpressions constantExpressions) {
     super(constantExpressions);
@@ -156,6 +162,7 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
 
     ResultUsePolicyEvaluator.Builder<VisitorState, Symbol, MethodSymbol> builder =
         ResultUsePolicyEvaluator.builder(METHOD_INFO)
+            .cacheListener(this::recordCacheLookup)
             .addRules(
                 // The order of these rules matters somewhat because when checking a method, we'll
                 // evaluate them in the order they're listed here and stop as soon as one of them
@@ -196,6 +203,14 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
     return flags.getBoolean(flag).map(check -> check ? EXPECTED : OPTIONAL);
   }
 
+  private void recordCacheLookup(VisitorState state, RuleScope scope, boolean hit) {
+    if (scope.equals(RuleScope.METHOD)) {
+      state.incrementCounter(hit ? methodCacheHits : methodCacheMisses);
+    } else {
+      state.incrementCounter(hit ? enclosingElementCacheHits : enclosingElementCacheMisses);
+    }
+  }
+
   /**
    * Return a matcher for method invocations in which the method being called should be considered
    * must-be-used.
@@ -248,17 +263,15 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
 
   @Override
   public boolean isCovered(ExpressionTree tree, VisitorState state) {
-    return methodToInspect(tree).stream()
-        .flatMap(method -> evaluator.evaluations(method, state))
-        .findFirst()
+    return methodToInspect(tree)
+        .flatMap(method -> evaluator.firstEvaluation(method, state))
         .isPresent();
   }
 
   @Override
   public ImmutableMap<String, ?> getMatchMetadata(ExpressionTree tree, VisitorState state) {
-    return methodToInspect(tree).stream()
-        .flatMap(method -> evaluator.evaluations(method, state))
-        .findFirst()
+    return methodToInspect(tree)
+        .flatMap(method -> evaluator.firstEvaluation(method, state))
         .map(
             evaluation ->
                 ImmutableMap.of(
@@ -55,6 +55,11 @@ public final class ComputeIfAbsentAmbiguousReference extends BugChecker
           .named("computeIfAbsent")
           .withParameters("java.lang.Object", "java.util.function.Function");
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(COMPUTE_IF_ABSENT);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!COMPUTE_IF_ABSENT.matches(tree, state)) {
@@ -22,10 +22,10 @@ import static com.google.errorprone.bugpatterns.DoNotCallChecker.DO_NOT_CALL;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.util.ASTHelpers.enclosingClass;
 import static com.google.errorprone.util.ASTHelpers.findClass;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.getType;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static com.google.errorprone.util.ASTHelpers.isSubtype;
 import static com.google.errorprone.util.ASTHelpers.methodCanBeOverridden;
 
@@ -160,7 +160,7 @@ public class DoNotCallSuggester extends BugChecker implements MethodTreeMatcher
     }
 
     // if the method is an "effective override" (they forgot to add @Override), exit
-    if (!findSuperMethods(symbol, state.getTypes()).isEmpty()) {
+    if (isOverride(symbol, state.getTypes())) {
       return NO_MATCH;
     }
 
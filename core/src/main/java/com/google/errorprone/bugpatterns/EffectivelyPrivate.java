@@ -22,7 +22,7 @@ import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
 import static com.google.errorprone.util.ASTHelpers.isEffectivelyPrivate;
-import static com.google.errorprone.util.ASTHelpers.streamSuperMethods;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
@@ -94,7 +94,7 @@ public final class EffectivelyPrivate extends BugChecker
       // a subclass that relies on inheriting a method of a particular visibility to fulfil and
       // interface contract. Skip that for now, since many classes don't rely on that and also
       // aren't explicitly final.
-      if (streamSuperMethods(methodSymbol, state.getTypes()).findAny().isPresent()) {
+      if (isOverride(methodSymbol, state.getTypes())) {
         return NO_MATCH;
       }
     }
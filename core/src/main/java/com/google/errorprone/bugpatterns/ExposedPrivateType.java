@@ -186,7 +186,7 @@ public final class ExposedPrivateType extends BugChecker
       return true;
     }
     MethodSymbol methodSymbol = getSymbol(methodTree);
-    if (ASTHelpers.streamSuperMethods(methodSymbol, state.getTypes()).findAny().isPresent()) {
+    if (ASTHelpers.isOverride(methodSymbol, state.getTypes())) {
       return false;
     }
     if (JUnitMatchers.TEST_CASE.matches(methodTree, state)) {
@@ -20,15 +20,17 @@ import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.InjectMatchers;
-import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.SymbolIndex;
 import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
@@ -42,14 +44,13 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
-import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Symbol;
-import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
-import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import javax.inject.Inject;
@@ -126,39 +127,6 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
     NONE
   }
 
-  /** A record of all assignments to variables in the current compilation unit. */
-  private static class VariableAssignmentRecords {
-
-    private final Map<VarSymbol, VariableAssignments> assignments = new LinkedHashMap<>();
-
-    /** Returns all {@link VariableAssignments} in the current compilation unit. */
-    private Collection<VariableAssignments> getAssignments() {
-      return assignments.values();
-    }
-
-    /** Records an assignment to a variable. */
-    private void recordAssignment(Tree tree, InitializationContext init) {
-      Symbol sym = ASTHelpers.getSymbol(tree);
-      if (sym != null && sym.getKind() == ElementKind.FIELD) {
-        recordAssignment((VarSymbol) sym, init);
-      }
-    }
-
-    /** Records an assignment to a variable. */
-    private void recordAssignment(VarSymbol sym, InitializationContext init) {
-      getDeclaration(sym).recordAssignment(init);
-    }
-
-    private VariableAssignments getDeclaration(VarSymbol sym) {
-      return assignments.computeIfAbsent(sym, VariableAssignments::new);
-    }
-
-    /** Records a variable declaration. */
-    private void recordDeclaration(VarSymbol sym, VariableTree tree) {
-      getDeclaration(sym).recordDeclaration(tree);
-    }
-  }
-
   /** A record of all assignments to a specific variable in the current compilation unit. */
   private static class VariableAssignments {
 
@@ -220,9 +188,24 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    VariableAssignmentRecords writes = new VariableAssignmentRecords();
-    new FinalScanner(writes, state).scan(state.getPath(), InitializationContext.NONE);
-    for (VariableAssignments var : writes.getAssignments()) {
+    SymbolIndex index = state.getSymbolIndex();
+    Map<ClassTree, Boolean> skippedClasses = new HashMap<>();
+    // The fixes are checked together, since each check recompiles the whole compilation.
+    Map<SuggestedFix, VariableTree> candidates = new LinkedHashMap<>();
+    for (Map.Entry<Symbol, TreePath> declaration : index.declarations().entrySet()) {
+      if (declaration.getKey().getKind() != ElementKind.FIELD
+          || !(declaration.getValue().getLeaf() instanceof VariableTree variableTree)
+          || isSuppressed(variableTree, state)
+          || inSkippedClass(declaration.getValue(), skippedClasses, state)) {
+        continue;
+      }
+      VariableAssignments var = new VariableAssignments((VarSymbol) declaration.getKey());
+      var.recordDeclaration(variableTree);
+      for (TreePath write : index.writes(var.sym)) {
+        if (!inSkippedClass(write, skippedClasses, state)) {
+          var.recordAssignment(initializationContext(write));
+        }
+      }
       if (!var.isEffectivelyFinal()) {
         continue;
       }
@@ -238,117 +221,109 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
       for (Attribute.Compound anno : var.sym.getAnnotationMirrors()) {
         TypeElement annoElement = (TypeElement) anno.getAnnotationType().asElement();
         if (IMPLICIT_VAR_ANNOTATION_SIMPLE_NAMES.contains(annoElement.getSimpleName().toString())) {
+          reportCompilingFixes(candidates, state);
           return Description.NO_MATCH;
         }
         if (annoElement.getQualifiedName().toString().startsWith(OBJECTIFY_PREFIX)) {
+          reportCompilingFixes(candidates, state);
           return Description.NO_MATCH;
         }
       }
       VariableTree varDecl = var.declaration();
       SuggestedFixes.addModifiers(varDecl, state, Modifier.FINAL)
-          .filter(f -> SuggestedFixes.compilesWithFix(f, state))
-          .ifPresent(f -> state.reportMatch(describeMatch(varDecl, f)));
+          .ifPresent(f -> candidates.put(f, varDecl));
     }
+    reportCompilingFixes(candidates, state);
     return Description.NO_MATCH;
   }
 
-  /** Record assignments to possibly-final variables in a compilation unit. */
-  private final class FinalScanner extends TreePathScanner<Void, InitializationContext> {
-
-    private final VariableAssignmentRecords writes;
-    private final VisitorState compilationState;
-
-    private FinalScanner(VariableAssignmentRecords writes, VisitorState compilationState) {
-      this.writes = writes;
-      this.compilationState = compilationState;
+  private void reportCompilingFixes(
+      Map<SuggestedFix, VariableTree> candidates, VisitorState state) {
+    for (SuggestedFix fix :
+        SuggestedFixes.compilingFixes(ImmutableList.copyOf(candidates.keySet()), state)) {
+      state.reportMatch(describeMatch(candidates.get(fix), fix));
     }
+  }
 
-    @Override
-    public Void visitVariable(VariableTree node, InitializationContext init) {
-      VarSymbol sym = ASTHelpers.getSymbol(node);
-      if (sym.getKind() == ElementKind.FIELD && !isSuppressed(node, compilationState)) {
-        writes.recordDeclaration(sym, node);
+  /**
+   * Returns true if the tree at the given path is in a class that is suppressed, or that is
+   * annotated with an Objectify annotation. Assignments in these classes aren't considered.
+   */
+  private boolean inSkippedClass(
+      TreePath path, Map<ClassTree, Boolean> skippedClasses, VisitorState state) {
+    for (TreePath curr = path; curr != null; curr = curr.getParentPath()) {
+      if (curr.getLeaf() instanceof ClassTree classTree) {
+        TreePath classPath = curr;
+        if (skippedClasses.computeIfAbsent(
+            classTree, c -> isSkippedClass(c, state.withPath(classPath)))) {
+          return true;
+        }
       }
-      return super.visitVariable(node, InitializationContext.NONE);
     }
+    return false;
+  }
 
-    @Override
-    public Void visitLambdaExpression(
-        LambdaExpressionTree lambdaExpressionTree, InitializationContext init) {
-      // reset the initialization context when entering lambda
-      return super.visitLambdaExpression(lambdaExpressionTree, InitializationContext.NONE);
+  private boolean isSkippedClass(ClassTree tree, VisitorState state) {
+    if (isSuppressed(tree, state)) {
+      return true;
     }
-
-    @Override
-    public Void visitBlock(BlockTree node, InitializationContext init) {
-      if (getCurrentPath().getParentPath().getLeaf().getKind() == Kind.CLASS) {
-        init = node.isStatic() ? InitializationContext.STATIC : InitializationContext.INSTANCE;
+    for (Attribute.Compound anno : getSymbol(tree).getAnnotationMirrors()) {
+      TypeElement annoElement = (TypeElement) anno.getAnnotationType().asElement();
+      if (annoElement.getQualifiedName().toString().startsWith(OBJECTIFY_PREFIX)) {
+        return true;
       }
-      return super.visitBlock(node, init);
     }
+    return false;
+  }
 
-    @Override
-    public Void visitMethod(MethodTree node, InitializationContext init) {
-      MethodSymbol sym = ASTHelpers.getSymbol(node);
-      if (sym.isConstructor()) {
-        init = InitializationContext.INSTANCE;
-      }
-      return super.visitMethod(node, init);
+  /** Returns the initialization context of the write at the given path. */
+  private static InitializationContext initializationContext(TreePath path) {
+    if (!(path.getLeaf() instanceof AssignmentTree assignment)) {
+      // compound assignments, increments and decrements
+      return InitializationContext.NONE;
     }
-
-    @Override
-    public Void visitAssignment(AssignmentTree node, InitializationContext init) {
-      if (init == InitializationContext.INSTANCE && !isThisAccess(node.getVariable())) {
-        // don't record assignments in initializers that aren't to members of the object
-        // being initialized
-        init = InitializationContext.NONE;
-      }
-      writes.recordAssignment(node.getVariable(), init);
-      return super.visitAssignment(node, init);
+    InitializationContext init = enclosingInitializationContext(path);
+    if (init == InitializationContext.INSTANCE && !isThisAccess(assignment.getVariable())) {
+      // don't record assignments in initializers that aren't to members of the object
+      // being initialized
+      return InitializationContext.NONE;
     }
+    return init;
+  }
 
-    private boolean isThisAccess(Tree tree) {
-      if (tree instanceof IdentifierTree) {
-        return true;
+  /** Returns the initialization context that encloses the tree at the given path. */
+  private static InitializationContext enclosingInitializationContext(TreePath path) {
+    for (TreePath curr = path.getParentPath(); curr != null; curr = curr.getParentPath()) {
+      Tree leaf = curr.getLeaf();
+      if (leaf instanceof ClassTree
+          || leaf instanceof VariableTree
+          || leaf instanceof LambdaExpressionTree
+          || leaf instanceof CompoundAssignmentTree
+          || UNARY_ASSIGNMENT.contains(leaf.getKind())) {
+        // reset the initialization context when entering a new declaration, a lambda, or the
+        // operand of another write
+        return InitializationContext.NONE;
       }
-      return tree instanceof MemberSelectTree memberSelectTree
-          && memberSelectTree.getExpression() instanceof IdentifierTree ident
-          && ident.getName().contentEquals("this");
-    }
-
-    @Override
-    public Void visitClass(ClassTree node, InitializationContext init) {
-      VisitorState state = compilationState.withPath(getCurrentPath());
-
-      if (isSuppressed(node, state)) {
-        return null;
+      if (leaf instanceof AssignmentTree) {
+        return initializationContext(curr);
       }
-
-      for (Attribute.Compound anno : getSymbol(node).getAnnotationMirrors()) {
-        TypeElement annoElement = (TypeElement) anno.getAnnotationType().asElement();
-        if (annoElement.getQualifiedName().toString().startsWith(OBJECTIFY_PREFIX)) {
-          return null;
-        }
+      if (leaf instanceof BlockTree block
+          && curr.getParentPath().getLeaf().getKind() == Kind.CLASS) {
+        return block.isStatic() ? InitializationContext.STATIC : InitializationContext.INSTANCE;
+      }
+      if (leaf instanceof MethodTree method && getSymbol(method).isConstructor()) {
+        return InitializationContext.INSTANCE;
       }
-
-      // reset the initialization context when entering a new declaration
-      return super.visitClass(node, InitializationContext.NONE);
-    }
-
-    @Override
-    public Void visitCompoundAssignment(CompoundAssignmentTree node, InitializationContext init) {
-      init = InitializationContext.NONE;
-      writes.recordAssignment(node.getVariable(), init);
-      return super.visitCompoundAssignment(node, init);
     }
+    return InitializationContext.NONE;
+  }
 
-    @Override
-    public Void visitUnary(UnaryTree node, InitializationContext init) {
-      if (UNARY_ASSIGNMENT.contains(node.getKind())) {
-        init = InitializationContext.NONE;
-        writes.recordAssignment(node.getExpression(), init);
-      }
-      return super.visitUnary(node, init);
+  private static boolean isThisAccess(Tree tree) {
+    if (tree instanceof IdentifierTree) {
+      return true;
     }
+    return tree instanceof MemberSelectTree memberSelectTree
+        && memberSelectTree.getExpression() instanceof IdentifierTree ident
+        && ident.getName().contentEquals("this");
   }
 }
@@ -85,40 +85,19 @@ public final class FieldCanBeLocal extends BugChecker implements CompilationUnit
     SetMultimap<VarSymbol, TreePath> uses =
         MultimapBuilder.linkedHashKeys().linkedHashSetValues().build();
 
-    new SuppressibleTreePathScanner<Void, Void>(state) {
-      @Override
-      public Void visitVariable(VariableTree variableTree, Void unused) {
-        VarSymbol symbol = getSymbol(variableTree);
-        if (symbol.getKind() == ElementKind.FIELD
-            && symbol.isPrivate()
-            && canBeLocal(variableTree)
-            && !wellKnownKeep.shouldKeep(variableTree)
-            && !symbol.getSimpleName().toString().startsWith("unused")) {
-          potentialFields.put(symbol, getCurrentPath());
-        }
-        return null;
-      }
-
-      private boolean canBeLocal(VariableTree variableTree) {
-        if (variableTree.getModifiers() == null) {
-          return true;
-        }
-        return variableTree.getModifiers().getAnnotations().stream()
-            .allMatch(this::canBeUsedOnLocalVariable);
+    for (Map.Entry<Symbol, TreePath> declaration :
+        state.getSymbolIndex().declarations().entrySet()) {
+      if (declaration.getKey() instanceof VarSymbol symbol
+          && symbol.getKind() == ElementKind.FIELD
+          && symbol.isPrivate()
+          && declaration.getValue().getLeaf() instanceof VariableTree variableTree
+          && canBeLocal(variableTree)
+          && !wellKnownKeep.shouldKeep(variableTree)
+          && !symbol.getSimpleName().toString().startsWith("unused")
+          && !isSuppressedOrInInitializer(declaration.getValue(), state)) {
+        potentialFields.put(symbol, declaration.getValue());
       }
-
-      private boolean canBeUsedOnLocalVariable(AnnotationTree annotationTree) {
-        // TODO(b/137842683): Should this (and all other places using getAnnotation with Target) be
-        // replaced with annotation mirror traversals?
-        // This is safe given we know that Target does not have Class fields.
-        Target target = getAnnotation(annotationTree, Target.class);
-        if (target == null) {
-          return true;
-        }
-        return !Sets.intersection(VALID_ON_LOCAL_VARIABLES, ImmutableSet.copyOf(target.value()))
-            .isEmpty();
-      }
-    }.scan(state.getPath(), null);
+    }
 
     new TreePathScanner<Void, Void>() {
       boolean inMethod = false;
@@ -310,6 +289,44 @@ public final class FieldCanBeLocal extends BugChecker implements CompilationUnit
     return Description.NO_MATCH;
   }
 
+  /**
+   * Returns true if the declaration at the given path, or any declaration enclosing it, is
+   * suppressed, or if it is declared in the initializer of another variable.
+   */
+  private boolean isSuppressedOrInInitializer(TreePath path, VisitorState state) {
+    for (TreePath curr = path; curr != null; curr = curr.getParentPath()) {
+      Tree leaf = curr.getLeaf();
+      if (leaf != path.getLeaf() && leaf instanceof VariableTree) {
+        return true;
+      }
+      if ((leaf instanceof ClassTree || leaf instanceof MethodTree || leaf instanceof VariableTree)
+          && isSuppressed(leaf, state)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean canBeLocal(VariableTree variableTree) {
+    if (variableTree.getModifiers() == null) {
+      return true;
+    }
+    return variableTree.getModifiers().getAnnotations().stream()
+        .allMatch(FieldCanBeLocal::canBeUsedOnLocalVariable);
+  }
+
+  private static boolean canBeUsedOnLocalVariable(AnnotationTree annotationTree) {
+    // TODO(b/137842683): Should this (and all other places using getAnnotation with Target) be
+    // replaced with annotation mirror traversals?
+    // This is safe given we know that Target does not have Class fields.
+    Target target = getAnnotation(annotationTree, Target.class);
+    if (target == null) {
+      return true;
+    }
+    return !Sets.intersection(VALID_ON_LOCAL_VARIABLES, ImmutableSet.copyOf(target.value()))
+        .isEmpty();
+  }
+
   private static String getAnnotationSource(VisitorState state, VariableTree variableTree) {
     List<? extends AnnotationTree> annotations = variableTree.getModifiers().getAnnotations();
     if (annotations == null || annotations.isEmpty()) {
@@ -29,9 +29,9 @@ import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.matchers.JUnitMatchers.TEST_CASE;
 import static com.google.errorprone.util.ASTHelpers.annotationsAmong;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static com.google.errorprone.util.ASTHelpers.isStatic;
 import static java.util.stream.Collectors.joining;
 import static javax.lang.model.element.ElementKind.BINDING_VARIABLE;
@@ -148,7 +148,7 @@ public final class IdentifierName extends BugChecker
     if (hasAnnotation(symbol, "org.junit.Ignore", state)) {
       return NO_MATCH;
     }
-    if (!findSuperMethods(symbol, state.getTypes()).isEmpty()) {
+    if (isOverride(symbol, state.getTypes())) {
       return NO_MATCH;
     }
     if (tree.getModifiers().getFlags().contains(Modifier.NATIVE)) {
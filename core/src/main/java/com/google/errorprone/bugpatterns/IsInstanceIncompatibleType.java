@@ -25,6 +25,7 @@ import static com.google.errorprone.util.ASTHelpers.getType;
 import static com.google.errorprone.util.ASTHelpers.isCastable;
 import static com.google.errorprone.util.Signatures.prettyType;
 
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MemberReferenceTreeMatcher;
@@ -50,6 +51,11 @@ public final class IsInstanceIncompatibleType extends BugChecker
   private static final Matcher<ExpressionTree> IS_INSTANCE =
       instanceMethod().onExactClass("java.lang.Class").named("isInstance");
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(IS_INSTANCE);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!IS_INSTANCE.matches(tree, state)) {
@@ -31,9 +31,9 @@ import static com.google.errorprone.matchers.Matchers.hasModifier;
 import static com.google.errorprone.matchers.Matchers.methodHasNoParameters;
 import static com.google.errorprone.matchers.Matchers.methodReturns;
 import static com.google.errorprone.suppliers.Suppliers.VOID_TYPE;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.isGeneratedConstructor;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
@@ -141,7 +141,7 @@ public final class JUnit3TestNotRun extends BugChecker implements CompilationUni
     if (calledMethods.contains(getSymbol(methodTree))) {
       return Optional.empty();
     }
-    if (!findSuperMethods(getSymbol(methodTree), state.getTypes()).isEmpty()) {
+    if (isOverride(getSymbol(methodTree), state.getTypes())) {
       return Optional.empty();
     }
     String methodName = methodTree.getName().toString();
@@ -734,7 +734,7 @@ public class JdkObsolete extends BugChecker
   private static boolean implementingObsoleteMethod(
       MethodTree enclosingMethod, VisitorState state, Type type) {
     MethodSymbol method = ASTHelpers.getSymbol(enclosingMethod);
-    if (ASTHelpers.findSuperMethods(method, state.getTypes()).isEmpty()) {
+    if (!ASTHelpers.isOverride(method, state.getTypes())) {
       // not an override
       return false;
     }
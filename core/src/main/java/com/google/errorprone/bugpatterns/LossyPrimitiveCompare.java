@@ -55,6 +55,11 @@ public class LossyPrimitiveCompare extends BugChecker implements MethodInvocatio
   private static final Matcher<ExpressionTree> FLOAT_COMPARE_MATCHER =
       staticMethod().onClass("java.lang.Float").named("compare");
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(COMPARE_MATCHER);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!COMPARE_MATCHER.matches(tree, state)) {
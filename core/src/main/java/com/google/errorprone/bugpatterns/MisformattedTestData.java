@@ -21,7 +21,6 @@ import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.matchers.Matchers.anyOf;
 import static com.google.errorprone.matchers.method.MethodMatchers.instanceMethod;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
-import static com.google.errorprone.util.ErrorProneTokens.getTokens;
 import static com.google.errorprone.util.SourceVersion.supportsTextBlocks;
 import static java.util.stream.Collectors.joining;
 
@@ -113,8 +112,7 @@ public final class MisformattedTestData extends BugChecker implements Compilatio
     // been formatted so that the arguments are nicely indented.
     int startPos = state.getEndPosition(tree.getArguments().get(0));
     int endPos = getStartPosition(tree.getArguments().get(1));
-    var tokens =
-        getTokens(state.getSourceCode(startPos, endPos).toString(), startPos, state.context);
+    var tokens = state.getOffsetTokens(startPos, endPos);
     var afterCommaPos =
         tokens.reverse().stream()
             .filter(t -> t.kind().equals(TokenKind.COMMA))
@@ -23,10 +23,13 @@ import static com.google.errorprone.util.ASTHelpers.enclosingClass;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.getType;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.threadsafety.WellKnownMutability;
+import com.google.errorprone.dataflow.CompilationUnitCache;
+import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
@@ -34,6 +37,7 @@ import com.sun.source.tree.VariableTree;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
+import java.util.Optional;
 import javax.inject.Inject;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
@@ -51,27 +55,13 @@ public class MutableGuiceModule extends BugChecker implements VariableTreeMatche
 
   @Override
   public Description matchVariable(VariableTree tree, VisitorState state) {
-    if (state.errorProneOptions().isTestOnlyTarget()) {
-      return NO_MATCH;
-    }
-    VarSymbol sym = getSymbol(tree);
-    if (!sym.getKind().equals(ElementKind.FIELD)) {
-      return NO_MATCH;
-    }
-    Symbol abstractModule = ABSTRACT_MODULE.get(state);
-    if (abstractModule == null) {
-      return NO_MATCH;
-    }
-    if (!enclosingClass(sym).isSubClass(abstractModule, state.getTypes())) {
-      return NO_MATCH;
-    }
-    if (sym.isStatic()) {
+    if (!isModuleField(tree, state)) {
       return NO_MATCH;
     }
     if (!tree.getModifiers().getFlags().contains(Modifier.FINAL)) {
       Description.Builder description = buildDescription(tree);
-      SuggestedFixes.addModifiers(tree, state, Modifier.FINAL)
-          .filter(f -> SuggestedFixes.compilesWithFix(f, state))
+      addFinal(tree, state)
+          .filter(f -> compilingFinalFixes(state).contains(f))
           .ifPresent(description::addFix);
       state.reportMatch(description.build());
     }
@@ -89,6 +79,45 @@ public class MutableGuiceModule extends BugChecker implements VariableTreeMatche
     return NO_MATCH;
   }
 
+  private static boolean isModuleField(VariableTree tree, VisitorState state) {
+    if (state.errorProneOptions().isTestOnlyTarget()) {
+      return false;
+    }
+    VarSymbol sym = getSymbol(tree);
+    if (!sym.getKind().equals(ElementKind.FIELD)) {
+      return false;
+    }
+    Symbol abstractModule = ABSTRACT_MODULE.get(state);
+    if (abstractModule == null) {
+      return false;
+    }
+    if (!enclosingClass(sym).isSubClass(abstractModule, state.getTypes())) {
+      return false;
+    }
+    return !sym.isStatic();
+  }
+
+  private static final CompilationUnitCache<ImmutableSet<SuggestedFix>> COMPILING_FINAL_FIXES =
+      CompilationUnitCache.create();
+
+  /** Checks the fixes for all the mutable fields of the compilation unit together. */
+  private static ImmutableSet<SuggestedFix> compilingFinalFixes(VisitorState state) {
+    return SuggestedFixes.compilingFixesInCompilationUnit(
+        COMPILING_FINAL_FIXES,
+        state,
+        s ->
+            s.getPath().getLeaf() instanceof VariableTree variable
+                ? addFinal(variable, s)
+                : Optional.empty());
+  }
+
+  private static Optional<SuggestedFix> addFinal(VariableTree tree, VisitorState state) {
+    if (!isModuleField(tree, state) || tree.getModifiers().getFlags().contains(Modifier.FINAL)) {
+      return Optional.empty();
+    }
+    return SuggestedFixes.addModifiers(tree, state, Modifier.FINAL);
+  }
+
   private static final Supplier<Symbol> ABSTRACT_MODULE =
       VisitorState.memoize(state -> state.getSymbolFromString("com.google.inject.AbstractModule"));
 }
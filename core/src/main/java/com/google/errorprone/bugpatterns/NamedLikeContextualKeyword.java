@@ -26,7 +26,7 @@ import static com.google.errorprone.matchers.Matchers.not;
 import static com.google.errorprone.util.ASTHelpers.enclosingClass;
 import static com.google.errorprone.util.ASTHelpers.findPathFromEnclosingNodeToTopLevel;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
-import static com.google.errorprone.util.ASTHelpers.streamSuperMethods;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
@@ -96,7 +96,7 @@ public final class NamedLikeContextualKeyword extends BugChecker
     }
 
     // Don't alert if method is an override (this includes interfaces)
-    if (streamSuperMethods(methodSymbol, state.getTypes()).findAny().isEmpty()
+    if (!isOverride(methodSymbol, state.getTypes())
         && DISALLOWED_METHOD_NAME_MATCHER.matches(tree, state)) {
       return describeMatch(tree);
     }
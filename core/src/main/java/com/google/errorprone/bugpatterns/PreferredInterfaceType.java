@@ -32,12 +32,12 @@ import static com.google.errorprone.matchers.Matchers.variableType;
 import static com.google.errorprone.predicates.TypePredicates.isDescendantOf;
 import static com.google.errorprone.suppliers.Suppliers.typeFromString;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getErasedTypeTree;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.getType;
 import static com.google.errorprone.util.ASTHelpers.getUpperBound;
 import static com.google.errorprone.util.ASTHelpers.isConsideredFinal;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static com.google.errorprone.util.ASTHelpers.isSubtype;
 import static com.google.errorprone.util.ASTHelpers.methodCanBeOverridden;
 
@@ -286,7 +286,7 @@ public final class PreferredInterfaceType extends BugChecker implements Compilat
             ? IMMUTABLE_MESSAGE
             : NON_IMMUTABLE_MESSAGE;
     if (symbol instanceof MethodSymbol methodSymbol) {
-      if (!findSuperMethods(methodSymbol, state.getTypes()).isEmpty()) {
+      if (isOverride(methodSymbol, state.getTypes())) {
         return "Method return" + messageBase + OVERRIDE_NOTE;
       } else {
         return "Method return" + messageBase;
@@ -23,9 +23,11 @@ import static com.google.errorprone.matchers.Matchers.hasAnnotation;
 import static com.google.errorprone.matchers.Matchers.hasModifier;
 import static javax.lang.model.element.Modifier.STATIC;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
+import com.google.errorprone.dataflow.CompilationUnitCache;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
@@ -46,21 +48,36 @@ public final class StaticMockMember extends BugChecker implements VariableTreeMa
   private static final Matcher<Tree> STATIC_MOCK =
       allOf(hasModifier(STATIC), hasAnnotation("org.mockito.Mock"));
 
+  private static final CompilationUnitCache<ImmutableSet<SuggestedFix>> COMPILING_FIXES =
+      CompilationUnitCache.create();
+
   @Override
   public Description matchVariable(VariableTree varTree, VisitorState state) {
-    if (!STATIC_MOCK.matches(varTree, state)) {
-      return NO_MATCH;
-    }
-    Optional<SuggestedFix> optionalFix =
-        SuggestedFixes.removeModifiers(varTree, state, Modifier.STATIC);
+    Optional<SuggestedFix> optionalFix = removeStatic(varTree, state);
 
     if (optionalFix.isEmpty()) {
       return NO_MATCH;
     }
-    if (SuggestedFixes.compilesWithFix(optionalFix.get(), state)) {
+    // The fixes for all the static mocks of the compilation unit are checked together.
+    ImmutableSet<SuggestedFix> compilingFixes =
+        SuggestedFixes.compilingFixesInCompilationUnit(
+            COMPILING_FIXES,
+            state,
+            s ->
+                s.getPath().getLeaf() instanceof VariableTree variable
+                    ? removeStatic(variable, s)
+                    : Optional.empty());
+    if (compilingFixes.contains(optionalFix.get())) {
       return describeMatch(varTree, optionalFix.get());
     } else {
       return describeMatch(varTree);
     }
   }
+
+  private static Optional<SuggestedFix> removeStatic(VariableTree varTree, VisitorState state) {
+    if (!STATIC_MOCK.matches(varTree, state)) {
+      return Optional.empty();
+    }
+    return SuggestedFixes.removeModifiers(varTree, state, Modifier.STATIC);
+  }
 }
@@ -37,8 +37,7 @@ import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.ErrorProneComment;
-import com.google.errorprone.util.ErrorProneToken;
-import com.google.errorprone.util.ErrorProneTokens;
+import com.google.errorprone.util.ErrorProneTokenIndex;
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.LineMap;
@@ -115,15 +114,13 @@ public final class SuppressWarningsWithoutExplanation extends BugChecker
 
   private static ImmutableRangeSet<Long> linesWithComments(VisitorState state) {
     RangeSet<Long> lines = TreeRangeSet.create();
-    ErrorProneTokens tokens = new ErrorProneTokens(state.getSourceCode().toString(), state.context);
+    ErrorProneTokenIndex tokens = state.getTokenIndex();
     LineMap lineMap = tokens.getLineMap();
-    for (ErrorProneToken token : tokens.getTokens()) {
-      for (ErrorProneComment comment : token.comments()) {
-        lines.add(
-            Range.closed(
-                lineMap.getLineNumber(comment.getSourcePos(0)),
-                lineMap.getLineNumber(comment.getSourcePos(comment.getText().length() - 1))));
-      }
+    for (ErrorProneComment comment : tokens.getComments()) {
+      lines.add(
+          Range.closed(
+              lineMap.getLineNumber(comment.getSourcePos(0)),
+              lineMap.getLineNumber(comment.getSourcePos(comment.getText().length() - 1))));
     }
     return ImmutableRangeSet.copyOf(lines);
   }
@@ -56,6 +56,11 @@ public class ThreeLetterTimeZoneID extends BugChecker implements MethodInvocatio
           .named("forTimeZone")
           .withParameters("java.util.TimeZone");
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(METHOD_MATCHER);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!METHOD_MATCHER.matches(tree, state)) {
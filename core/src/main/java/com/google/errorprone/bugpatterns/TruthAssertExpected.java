@@ -25,10 +25,12 @@ import static com.google.errorprone.matchers.method.MethodMatchers.staticMethod;
 import static com.google.errorprone.util.ASTHelpers.streamReceivers;
 
 import com.google.common.base.Ascii;
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.StandardTags;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.dataflow.CompilationUnitCache;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
@@ -44,6 +46,7 @@ import com.sun.source.util.SimpleTreeVisitor;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Type;
 import java.util.List;
+import java.util.Optional;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -146,21 +149,45 @@ public final class TruthAssertExpected extends BugChecker implements MethodInvoc
         && arguments.stream().allMatch(argument -> ASTHelpers.constValue(argument) != null);
   }
 
+  private static final CompilationUnitCache<ImmutableSet<SuggestedFix>> COMPILING_SWAP_FIXES =
+      CompilationUnitCache.create();
+
   /** Matcher for a reversible assertion that appears to be the wrong way around. */
   private static final Matcher<ExpressionTree> MATCH =
       allOf(REVERSIBLE_TERMINATORS, hasReceiverMatching(ASSERT_ON_EXPECTED));
 
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MATCH.matches(tree, state)) {
+    Optional<SuggestedFix> fix = swapFix(tree, state);
+    if (fix.isEmpty()) {
       return Description.NO_MATCH;
     }
+    // The swaps for all the assertions of the compilation unit are checked together.
+    ImmutableSet<SuggestedFix> compilingFixes =
+        SuggestedFixes.compilingFixesInCompilationUnit(
+            COMPILING_SWAP_FIXES,
+            state,
+            s ->
+                s.getPath().getLeaf() instanceof MethodInvocationTree invocation
+                    ? swapFix(invocation, s)
+                    : Optional.empty());
+    if (compilingFixes.contains(fix.get())) {
+      return describeMatch(tree, fix.get());
+    }
+    return describeMatch(tree);
+  }
+
+  /** Returns the fix that swaps the arguments of an assertion that's the wrong way around. */
+  private static Optional<SuggestedFix> swapFix(MethodInvocationTree tree, VisitorState state) {
+    if (!MATCH.matches(tree, state)) {
+      return Optional.empty();
+    }
     if (expectedValue(tree, state)) {
-      return Description.NO_MATCH;
+      return Optional.empty();
     }
     ExpressionTree assertion = findReceiverMatching(tree, state, ASSERT_ON_EXPECTED);
     if (!(assertion instanceof MethodInvocationTree methodInvocationTree)) {
-      return Description.NO_MATCH;
+      return Optional.empty();
     }
     ExpressionTree assertedArgument = getOnlyElement(methodInvocationTree.getArguments());
     ExpressionTree terminatingArgument = getOnlyElement(tree.getArguments());
@@ -169,13 +196,9 @@ public final class TruthAssertExpected extends BugChecker implements MethodInvoc
     if (ASTHelpers.constValue(terminatingArgument) != null
         || Matchers.staticFieldAccess().matches(terminatingArgument, state)
         || isConstantCreator(terminatingArgument)) {
-      return Description.NO_MATCH;
-    }
-    SuggestedFix fix = SuggestedFix.swap(assertedArgument, terminatingArgument, state);
-    if (SuggestedFixes.compilesWithFix(fix, state)) {
-      return describeMatch(tree, fix);
+      return Optional.empty();
     }
-    return describeMatch(tree);
+    return Optional.of(SuggestedFix.swap(assertedArgument, terminatingArgument, state));
   }
 
   private static Matcher<ExpressionTree> hasReceiverMatching(Matcher<ExpressionTree> matcher) {
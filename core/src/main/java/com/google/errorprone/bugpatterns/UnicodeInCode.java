@@ -20,7 +20,6 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Streams.concat;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
-import static com.google.errorprone.util.ErrorProneTokens.getTokens;
 import static com.google.errorprone.util.SourceCodeEscapers.javaCharEscaper;
 import static java.lang.String.format;
 
@@ -61,7 +60,7 @@ public final class UnicodeInCode extends BugChecker implements CompilationUnitTr
     }
 
     ImmutableRangeSet<Integer> permissibleUnicodeRegions =
-        suppressedRegions(state).union(commentsAndLiterals(state, sourceCode));
+        suppressedRegions(state).union(commentsAndLiterals(state));
 
     for (var range : violations.asDescendingSetOfRanges()) {
       if (!permissibleUnicodeRegions.encloses(range)) {
@@ -98,8 +97,8 @@ public final class UnicodeInCode extends BugChecker implements CompilationUnitTr
     return (c >= 0x20 && c <= 0x7E) || c == '\n' || c == '\r' || c == '\t';
   }
 
-  private static ImmutableRangeSet<Integer> commentsAndLiterals(VisitorState state, String source) {
-    ImmutableList<ErrorProneToken> tokens = getTokens(source, state.context);
+  private static ImmutableRangeSet<Integer> commentsAndLiterals(VisitorState state) {
+    ImmutableList<ErrorProneToken> tokens = state.getTokenIndex().getTokens();
     return ImmutableRangeSet.unionOf(
         concat(
                 tokens.stream()
@@ -25,7 +25,7 @@ import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.util.ASTHelpers.annotationsAmong;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasDirectAnnotationWithSimpleName;
-import static com.google.errorprone.util.ASTHelpers.streamSuperMethods;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
 
@@ -85,7 +85,7 @@ public final class UnnecessarilyVisible extends BugChecker implements MethodTree
     if (annotations.isEmpty()) {
       return NO_MATCH;
     }
-    if (streamSuperMethods(symbol, state.getTypes()).findAny().isPresent()) {
+    if (isOverride(symbol, state.getTypes())) {
       return NO_MATCH;
     }
     if (hasDirectAnnotationWithSimpleName(tree, "VisibleForTesting")) {
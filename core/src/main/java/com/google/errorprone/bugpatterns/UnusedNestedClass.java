@@ -28,20 +28,15 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.SymbolIndex;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
-import com.sun.source.tree.IdentifierTree;
-import com.sun.source.tree.MemberSelectTree;
-import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
-import com.sun.source.util.TreePathScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 import javax.inject.Inject;
 
 /** Bugpattern to detect unused nested classes. */
@@ -61,14 +56,25 @@ public final class UnusedNestedClass extends BugChecker implements CompilationUn
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    PrivateNestedClassScanner privateNestedClassScanner = new PrivateNestedClassScanner(state);
-    privateNestedClassScanner.scan(state.getPath(), null);
-
-    Map<ClassSymbol, TreePath> privateNestedClasses = privateNestedClassScanner.classes;
+    SymbolIndex index = state.getSymbolIndex();
+    Map<ClassSymbol, TreePath> privateNestedClasses = new LinkedHashMap<>();
+    for (Map.Entry<Symbol, TreePath> declaration : index.declarations().entrySet()) {
+      if (declaration.getKey() instanceof ClassSymbol symbol
+          && declaration.getValue().getLeaf() instanceof ClassTree classTree
+          && classTree.getSimpleName().length() != 0
+          && (canBeRemoved(symbol) || symbol.owner instanceof MethodSymbol)
+          && !inIgnoredClass(declaration.getValue(), state)) {
+        privateNestedClasses.put(symbol, declaration.getValue());
+      }
+    }
 
-    ClassUsageScanner classUsageScanner = new ClassUsageScanner();
-    classUsageScanner.scan(state.getPath(), null);
-    privateNestedClasses.keySet().removeAll(classUsageScanner.usedClasses);
+    for (Map.Entry<Symbol, TreePath> reference : index.references().entries()) {
+      for (Symbol symbol = reference.getKey(); symbol != null; symbol = enclosingClass(symbol)) {
+        if (privateNestedClasses.containsKey(symbol) && !isWithin(reference.getValue(), symbol)) {
+          privateNestedClasses.remove(symbol);
+        }
+      }
+    }
     for (TreePath path : privateNestedClasses.values()) {
       state.reportMatch(
           describeMatch(path.getLeaf(), SuggestedFixes.replaceIncludingComments(path, "", state)));
@@ -76,66 +82,30 @@ public final class UnusedNestedClass extends BugChecker implements CompilationUn
     return NO_MATCH;
   }
 
-  private final class PrivateNestedClassScanner extends TreePathScanner<Void, Void> {
-    private final Map<ClassSymbol, TreePath> classes = new HashMap<>();
-
-    private final VisitorState state;
-
-    private PrivateNestedClassScanner(VisitorState state) {
-      this.state = state;
-    }
-
-    @Override
-    public Void visitClass(ClassTree classTree, Void unused) {
-      if (ignoreUnusedClass(classTree, state)) {
-        return null;
-      }
-      ClassSymbol symbol = getSymbol(classTree);
-      boolean isAnonymous = classTree.getSimpleName().length() == 0;
-      if (!isAnonymous && (canBeRemoved(symbol) || symbol.owner instanceof MethodSymbol)) {
-        classes.put(symbol, getCurrentPath());
+  /** Returns true if the class at the given path, or any class enclosing it, is ignored. */
+  private boolean inIgnoredClass(TreePath path, VisitorState state) {
+    for (TreePath curr = path; curr != null; curr = curr.getParentPath()) {
+      if (curr.getLeaf() instanceof ClassTree classTree && ignoreUnusedClass(classTree, state)) {
+        return true;
       }
-      return super.visitClass(classTree, null);
-    }
-
-    private boolean ignoreUnusedClass(ClassTree classTree, VisitorState state) {
-      return isSuppressed(classTree, state)
-          || wellKnownKeep.shouldKeep(classTree)
-          || toLowerCase(classTree.getSimpleName().toString()).startsWith("unused");
     }
+    return false;
   }
 
-  private static final class ClassUsageScanner extends TreePathScanner<Void, Void> {
-    private final Set<ClassSymbol> withinClasses = new HashSet<>();
-    private final Set<ClassSymbol> usedClasses = new HashSet<>();
-
-    @Override
-    public Void visitClass(ClassTree classTree, Void unused) {
-      ClassSymbol symbol = getSymbol(classTree);
-      withinClasses.add(symbol);
-      super.visitClass(classTree, null);
-      withinClasses.remove(symbol);
-      return null;
-    }
-
-    @Override
-    public Void visitMemberSelect(MemberSelectTree memberSelectTree, Void unused) {
-      handle(memberSelectTree);
-      return super.visitMemberSelect(memberSelectTree, null);
-    }
-
-    @Override
-    public Void visitIdentifier(IdentifierTree identifierTree, Void unused) {
-      handle(identifierTree);
-      return super.visitIdentifier(identifierTree, null);
-    }
+  private boolean ignoreUnusedClass(ClassTree classTree, VisitorState state) {
+    return isSuppressed(classTree, state)
+        || wellKnownKeep.shouldKeep(classTree)
+        || toLowerCase(classTree.getSimpleName().toString()).startsWith("unused");
+  }
 
-    private void handle(Tree node) {
-      for (Symbol symbol = getSymbol(node); symbol != null; symbol = enclosingClass(symbol)) {
-        if (symbol instanceof ClassSymbol classSymbol && !withinClasses.contains(symbol)) {
-          usedClasses.add(classSymbol);
-        }
+  /** Returns true if the tree at the given path is within the declaration of the given class. */
+  private static boolean isWithin(TreePath path, Symbol classSymbol) {
+    for (TreePath curr = path; curr != null; curr = curr.getParentPath()) {
+      if (curr.getLeaf() instanceof ClassTree classTree
+          && getSymbol(classTree).equals(classSymbol)) {
+        return true;
       }
     }
+    return false;
   }
 }
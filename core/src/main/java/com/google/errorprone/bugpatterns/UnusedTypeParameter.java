@@ -18,9 +18,9 @@ package com.google.errorprone.bugpatterns;
 
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.errorprone.fixes.SuggestedFixes.removeElement;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static com.google.errorprone.util.ASTHelpers.methodCanBeOverridden;
 
 import com.google.common.collect.ImmutableMultiset;
@@ -63,7 +63,7 @@ public final class UnusedTypeParameter extends BugChecker implements Compilation
       public Void visitMethod(MethodTree node, Void unused) {
         var symbol = getSymbol(node);
         if (methodCanBeOverridden(symbol)
-            || !findSuperMethods(symbol, state.getTypes()).isEmpty()) {
+            || isOverride(symbol, state.getTypes())) {
           return null;
         }
         handle(node, node.getTypeParameters());
@@ -28,9 +28,9 @@ import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
 import static com.google.errorprone.util.ASTHelpers.hasDirectAnnotationWithSimpleName;
 import static com.google.errorprone.util.ASTHelpers.isAbstract;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static com.google.errorprone.util.ASTHelpers.isSameType;
 import static com.google.errorprone.util.ASTHelpers.isSubtype;
-import static com.google.errorprone.util.ASTHelpers.streamSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.stripParentheses;
 
 import com.google.common.collect.ImmutableSet;
@@ -150,7 +150,7 @@ public final class CanIgnoreReturnValueSuggester extends BugChecker implements M
     }
 
     // Don't fire on overrides of methods within anonymous classes.
-    if (streamSuperMethods(methodSymbol, state.getTypes()).findFirst().isPresent()
+    if (isOverride(methodSymbol, state.getTypes())
         && methodSymbol.owner.isAnonymous()) {
       return Description.NO_MATCH;
     }
@@ -16,12 +16,15 @@
 
 package com.google.errorprone.bugpatterns.checkreturnvalue;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableListMultimap.toImmutableListMultimap;
 import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.UNSPECIFIED;
 import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope.ENCLOSING_ELEMENTS;
 import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope.GLOBAL;
 import static java.util.Map.entry;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
@@ -98,17 +101,45 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
     }
   }
 
+  /**
+   * Receives the outcome of each lookup in an evaluator's caches, for example to record statistics.
+   *
+   * @param <C> the type of the context object used during evaluation
+   */
+  @FunctionalInterface
+  public interface CacheListener<C> {
+    /**
+     * Called for each lookup of a method's first evaluation, with {@link RuleScope#METHOD}, and of
+     * the evaluations of an enclosing element, with {@link RuleScope#ENCLOSING_ELEMENTS}.
+     */
+    void lookup(C context, RuleScope scope, boolean hit);
+  }
+
+  /** The maximum number of methods, and of enclosing elements, whose evaluations are cached. */
+  private static final int MAXIMUM_CACHE_SIZE = 10_000;
+
   /** All the rules for this evaluator, indexed by the scopes they apply to. */
   private final ImmutableListMultimap<RuleScope, ResultUseRule<C, S>> rules;
 
   private final MethodInfo<C, S, M> methodInfo;
 
+  private final CacheListener<C> cacheListener;
+
+  /** The first evaluation of each method, whose keys are compared by identity like symbols. */
+  private final Cache<M, Optional<Evaluation<S>>> firstEvaluations =
+      Caffeine.newBuilder().weakKeys().maximumSize(MAXIMUM_CACHE_SIZE).build();
+
+  /** The evaluations of each class and package, which are shared by the methods they enclose. */
+  private final Cache<S, ImmutableList<Evaluation<S>>> enclosingElementEvaluations =
+      Caffeine.newBuilder().weakKeys().maximumSize(MAXIMUM_CACHE_SIZE).build();
+
   private ResultUsePolicyEvaluator(Builder<C, S, M> builder) {
     this.rules =
         builder.rules.stream()
             .flatMap(rule -> rule.scopes().stream().map(scope -> entry(scope, rule)))
             .collect(toImmutableListMultimap(Entry::getKey, Entry::getValue));
     this.methodInfo = builder.methodInfo;
+    this.cacheListener = builder.cacheListener;
   }
 
   /**
@@ -116,49 +147,61 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
    * apply to it.
    */
   public ResultUsePolicy evaluate(M method, C state) {
-    return evaluateAcrossScopes(
-            method, state, (rule, scope, symbol, context) -> rule.evaluate(symbol, context))
-        .findFirst()
-        .orElse(UNSPECIFIED);
+    return firstEvaluation(method, state).map(Evaluation::policy).orElse(UNSPECIFIED);
   }
 
   /**
-   * Returns a stream of {@link Evaluation}s made by rules starting from the given {@code method}.
+   * Returns the first {@link Evaluation} made by rules starting from the given {@code method},
+   * which is the one that determines its policy.
+   *
+   * <p>The result is cached, so rules must evaluate each symbol the same way for the rest of the
+   * compilation.
    */
-  public Stream<Evaluation<S>> evaluations(M method, C state) {
-    return evaluateAcrossScopes(method, state, ResultUseRule::evaluate);
+  public Optional<Evaluation<S>> firstEvaluation(M method, C state) {
+    Optional<Evaluation<S>> result = firstEvaluations.getIfPresent(method);
+    cacheListener.lookup(state, RuleScope.METHOD, result != null);
+    if (result == null) {
+      result = evaluations(method, state).findFirst();
+      firstEvaluations.put(method, result);
+    }
+    return result;
   }
 
   /**
-   * Evaluates all rules for each scope against all members of the scope for scopes appropriate to
-   * the {@code method}.
+   * Returns a stream of {@link Evaluation}s made by rules starting from the given {@code method}.
    */
-  private <R> Stream<R> evaluateAcrossScopes(
-      M method, C state, ScopeEvaluator<C, S, R> scopeEvaluator) {
+  public Stream<Evaluation<S>> evaluations(M method, C state) {
     return methodInfo.scopes(method).stream()
-        .flatMap(scope -> evaluateForScope(method, state, scopeEvaluator, scope));
+        .flatMap(scope -> evaluateForScope(method, state, scope));
   }
 
   /**
    * Evaluates all rules in a {@code scope} for each member of the {@code scope} for the {@code
    * method}.
    */
-  private <R> Stream<R> evaluateForScope(
-      M method, C state, ScopeEvaluator<C, S, R> scopeEvaluator, RuleScope scope) {
-    ImmutableList<ResultUseRule<C, S>> scopeRules = rules.get(scope);
-    return methodInfo
-        .scopeMembers(scope, method, state)
-        .flatMap(
-            symbol ->
-                scopeRules.stream()
-                    .map(rule -> scopeEvaluator.evaluateForScope(rule, scope, symbol, state)))
-        .flatMap(Optional::stream);
+  private Stream<Evaluation<S>> evaluateForScope(M method, C state, RuleScope scope) {
+    Stream<S> members = methodInfo.scopeMembers(scope, method, state);
+    return scope.equals(ENCLOSING_ELEMENTS)
+        ? members.flatMap(symbol -> enclosingElementEvaluations(symbol, state).stream())
+        : members.flatMap(symbol -> evaluateRules(scope, symbol, state));
   }
 
-  @FunctionalInterface
-  private interface ScopeEvaluator<C, S, R> {
-    /** Evaluates a {@code rule} on a {@code symbol} that is within a {@code scope} for a method. */
-    Optional<R> evaluateForScope(ResultUseRule<C, S> rule, RuleScope scope, S symbol, C context);
+  /** Returns the evaluations of a class or package that encloses a method. */
+  private ImmutableList<Evaluation<S>> enclosingElementEvaluations(S symbol, C state) {
+    ImmutableList<Evaluation<S>> result = enclosingElementEvaluations.getIfPresent(symbol);
+    cacheListener.lookup(state, ENCLOSING_ELEMENTS, result != null);
+    if (result == null) {
+      result = evaluateRules(ENCLOSING_ELEMENTS, symbol, state).collect(toImmutableList());
+      enclosingElementEvaluations.put(symbol, result);
+    }
+    return result;
+  }
+
+  /** Evaluates all rules in a {@code scope} for a member of the {@code scope}. */
+  private Stream<Evaluation<S>> evaluateRules(RuleScope scope, S symbol, C state) {
+    return rules.get(scope).stream()
+        .map(rule -> rule.evaluate(scope, symbol, state))
+        .flatMap(Optional::stream);
   }
 
   /**
@@ -172,6 +215,7 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
   public static final class Builder<C, S, M extends S> {
     private final List<ResultUseRule<C, S>> rules = new ArrayList<>();
     private final MethodInfo<C, S, M> methodInfo;
+    private CacheListener<C> cacheListener = (context, scope, hit) -> {};
 
     private Builder(MethodInfo<C, S, M> methodInfo) {
       this.methodInfo = methodInfo;
@@ -197,6 +241,13 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
       return this;
     }
 
+    /** Sets the listener for lookups in the evaluator's caches. */
+    @CanIgnoreReturnValue
+    public Builder<C, S, M> cacheListener(CacheListener<C> cacheListener) {
+      this.cacheListener = cacheListener;
+      return this;
+    }
+
     /** Builds a new {@link ResultUsePolicyEvaluator}. */
     public ResultUsePolicyEvaluator<C, S, M> build() {
       return new ResultUsePolicyEvaluator<>(this);
@@ -29,11 +29,14 @@ import static javax.lang.model.element.Modifier.STATIC;
 import com.google.common.base.Joiner;
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.LinkType;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.VisitorState.Counter;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.IdentifierTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.MemberSelectTreeMatcher;
@@ -114,6 +117,18 @@ public final class FloggerRequiredModifiers extends BugChecker
 
   private final Map<String, LocalLogger> localLogger = new HashMap<>();
 
+  private final Counter localVariableCounter = counter("local-variable");
+  private final Counter inlineCounter = counter("inline");
+  private final Counter skipSelfAssignmentCounter = counter("skip-self-assignment");
+  private final ImmutableMap<Modifier, Counter> missingModifierCounters =
+      Maps.toMap(ImmutableList.of(STATIC, FINAL), m -> counter("missing-" + m));
+  private final ImmutableMap<Modifier, Counter> visibilityCounters =
+      Maps.toMap(
+          ImmutableList.of(PUBLIC, Modifier.PRIVATE, PROTECTED), m -> counter("visibility-" + m));
+  private final Counter packageVisibilityCounter = counter("visibility-package");
+  private final Counter foundExistingCounter = counter("found-existing");
+  private final Counter noOutermostClassCounter = counter("error-no-outermost-class");
+
   private static final Matcher<Tree> CONTAINS_INIT_LOGGER =
       Matchers.contains(ExpressionTree.class, INIT_LOGGER);
 
@@ -199,7 +214,7 @@ public final class FloggerRequiredModifiers extends BugChecker
     // They're using forEnclosingClass inside a method that doesn't produce a logger, or in the
     // initializer for some variable that's not a logger. We'll replace this with a reference to a
     // class-level logger.
-    state.incrementCounter(this, parent instanceof VariableTree ? "local-variable" : "inline");
+    state.incrementCounter(parent instanceof VariableTree ? localVariableCounter : inlineCounter);
     return replaceWithFieldLookup(tree, state);
   }
 
@@ -251,7 +266,7 @@ public final class FloggerRequiredModifiers extends BugChecker
       do {
         if (e instanceof AssignmentTree assignment) {
           if (ASTHelpers.getSymbol(assignment.getVariable()).equals(target)) {
-            state.incrementCounter(this, "skip-self-assignment");
+            state.incrementCounter(skipSelfAssignmentCounter);
             return NO_MATCH;
           }
         }
@@ -283,22 +298,23 @@ public final class FloggerRequiredModifiers extends BugChecker
 
   private void updateModifierCounters(VisitorState state, Set<Modifier> flags) {
     // We expect to see all of these, so note when we don't
-    for (Modifier modifier : ImmutableList.of(STATIC, FINAL)) {
-      if (!flags.contains(modifier)) {
-        state.incrementCounter(this, "missing-" + modifier);
-      }
-    }
+    missingModifierCounters.forEach(
+        (modifier, counter) -> {
+          if (!flags.contains(modifier)) {
+            state.incrementCounter(counter);
+          }
+        });
     // These we expect to see at most one of, so log whichever is there (or package otherwise)
     boolean explicitVisibility = false;
-    for (Modifier visibility : ImmutableList.of(PUBLIC, Modifier.PRIVATE, PROTECTED)) {
-      if (flags.contains(visibility)) {
-        state.incrementCounter(this, "visibility-" + visibility);
+    for (Map.Entry<Modifier, Counter> visibility : visibilityCounters.entrySet()) {
+      if (flags.contains(visibility.getKey())) {
+        state.incrementCounter(visibility.getValue());
         explicitVisibility = true;
         break;
       }
     }
     if (!explicitVisibility) {
-      state.incrementCounter(this, "visibility-package");
+      state.incrementCounter(packageVisibilityCounter);
     }
   }
 
@@ -331,7 +347,7 @@ public final class FloggerRequiredModifiers extends BugChecker
           && !ignoredFields.contains(memberSym)) {
         // Found some logger defined, let's just use that, unless it needs to be moved.
         if (!targetClassSym.isInterface()) {
-          state.incrementCounter(this, "found-existing");
+          state.incrementCounter(foundExistingCounter);
           return new LocalLogger(
               LocalLogger.Provenance.ALREADY_PRESENT,
               Optional.of(memberSym),
@@ -452,7 +468,7 @@ public final class FloggerRequiredModifiers extends BugChecker
 
     if (outermostClassOfFile == null) {
       // Impossible, I think?
-      state.incrementCounter(this, "error-no-outermost-class");
+      state.incrementCounter(noOutermostClassCounter);
       return NO_MATCH;
     }
 
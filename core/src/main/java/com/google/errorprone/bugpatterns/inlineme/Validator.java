@@ -17,11 +17,11 @@
 package com.google.errorprone.bugpatterns.inlineme;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getAnnotationWithSimpleName;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
 import static com.google.errorprone.util.ASTHelpers.hasDirectAnnotationWithSimpleName;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.BugPattern;
@@ -92,7 +92,7 @@ public final class Validator extends BugChecker implements MethodTreeMatcher {
     return hasDirectAnnotationWithSimpleName(tree, "InlineMe")
         && !wellKnownKeep.shouldKeep(tree)
         && !hasAnnotation(tree, "java.lang.Override", state)
-        && findSuperMethods(getSymbol(tree), state.getTypes()).isEmpty();
+        && !isOverride(getSymbol(tree), state.getTypes());
   }
 
   private Description match(InlineMeData existingAnnotation, MethodTree tree, VisitorState state) {
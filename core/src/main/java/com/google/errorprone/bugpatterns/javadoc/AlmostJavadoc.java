@@ -34,7 +34,6 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.util.ErrorProneComment;
 import com.google.errorprone.util.ErrorProneToken;
-import com.google.errorprone.util.ErrorProneTokens;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.TreePath;
 import java.util.Optional;
@@ -68,8 +67,7 @@ public final class AlmostJavadoc extends BugChecker implements CompilationUnitTr
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
     ImmutableMap<Integer, TreePath> javadoccableTrees = getJavadoccableTrees(tree);
-    for (ErrorProneToken token :
-        ErrorProneTokens.getTokens(state.getSourceCode().toString(), state.context)) {
+    for (ErrorProneToken token : state.getTokenIndex().getTokens()) {
       for (ErrorProneComment comment : token.comments()) {
         var path = javadoccableTrees.get(token.pos());
         if (path == null) {
@@ -18,8 +18,8 @@ package com.google.errorprone.bugpatterns.javadoc;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.bugpatterns.javadoc.Utils.diagnosticPosition;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.StandardTags;
@@ -98,7 +98,7 @@ public final class InheritDoc extends BugChecker
         @Override
         public Void visitMethod(MethodTree methodTree, Void unused) {
           MethodSymbol methodSymbol = getSymbol(methodTree);
-          if (findSuperMethods(methodSymbol, state.getTypes()).isEmpty()) {
+          if (!isOverride(methodSymbol, state.getTypes())) {
             state.reportMatch(
                 buildDescription(diagnosticPosition(getCurrentPath(), state))
                     .setMessage(
@@ -21,10 +21,10 @@ import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.bugpatterns.javadoc.Utils.diagnosticPosition;
 import static com.google.errorprone.bugpatterns.javadoc.Utils.getDocTreePath;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
-import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
 import static com.google.errorprone.util.ASTHelpers.isEffectivelyPrivate;
+import static com.google.errorprone.util.ASTHelpers.isOverride;
 import static java.util.stream.Collectors.joining;
 
 import com.google.errorprone.BugPattern;
@@ -193,7 +193,7 @@ public final class MissingSummary extends BugChecker
     }
     Symbol symbol = getSymbol(tree);
     if (symbol instanceof MethodSymbol methodSymbol
-        && !findSuperMethods(methodSymbol, state.getTypes()).isEmpty()) {
+        && isOverride(methodSymbol, state.getTypes())) {
       return false;
     }
     return symbol != null && !isEffectivelyPrivate(symbol);
@@ -25,7 +25,6 @@ import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.isRecord;
-import static com.google.errorprone.util.ErrorProneTokens.getTokens;
 import static java.util.Comparator.comparing;
 
 import com.google.common.collect.ImmutableList;
@@ -59,7 +58,7 @@ public final class NotJavadoc extends BugChecker implements CompilationUnitTreeM
     ImmutableMap<Integer, JavadocableTreeKind> seeminglyJavadocableTrees =
         getSeeminglyJavadocableTrees(tree);
     ImmutableRangeSet<Integer> suppressedRegions = suppressedRegions(state);
-    for (ErrorProneToken token : getTokens(state.getSourceCode().toString(), state.context)) {
+    for (ErrorProneToken token : state.getTokenIndex().getTokens()) {
       ImmutableList<ErrorProneComment> javadoc =
           token.comments().stream()
               .filter(
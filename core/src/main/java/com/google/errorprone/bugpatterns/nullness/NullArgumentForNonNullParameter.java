@@ -271,6 +271,14 @@ public final class NullArgumentForNonNullParameter extends BugChecker
       return true;
     }
 
+    // A private or final method in this file that dereferences the parameter on every path
+    if (sym.owner instanceof MethodSymbol method
+        && NullnessUtils.methodSummary(method, state)
+            .dereferencedParameters()
+            .contains(method.getParameters().indexOf(sym))) {
+      return true;
+    }
+
     return false;
   }
 
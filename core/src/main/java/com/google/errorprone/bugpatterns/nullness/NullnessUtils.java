@@ -39,6 +39,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.nullness.NullnessUtils.NullCheck.Polarity;
+import com.google.errorprone.dataflow.nullnesspropagation.MethodSummary;
 import com.google.errorprone.dataflow.nullnesspropagation.Nullness;
 import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnnotations;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -73,6 +74,7 @@ import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import javax.lang.model.element.Name;
 import org.jspecify.annotations.Nullable;
@@ -472,6 +474,17 @@ final class NullnessUtils {
     }
   }
 
+  /**
+   * Returns what the nullness analysis learns about calls to {@code method} from its body, which
+   * is {@link MethodSummary#UNKNOWN} unless the method is declared in the current compilation unit
+   * and can't be overridden.
+   */
+  static MethodSummary methodSummary(MethodSymbol method, VisitorState state) {
+    return state
+        .getNullnessAnalysis()
+        .getMethodSummary(method, state.getPath().getCompilationUnit(), state.context);
+  }
+
   static boolean hasDefinitelyNullBranch(
       ExpressionTree tree,
       Set<VarSymbol> definitelyNullVars,
@@ -507,7 +520,8 @@ final class NullnessUtils {
       public Boolean visitMethodInvocation(MethodInvocationTree tree, Void unused) {
         return super.visitMethodInvocation(tree, null)
             || isOptionalOrNull(tree)
-            || isStringsEmptyToNull(tree);
+            || isStringsEmptyToNull(tree)
+            || isSummarizedAsReturningNull(tree);
       }
 
       @Override
@@ -554,6 +568,13 @@ final class NullnessUtils {
         return EMPTY_TO_NULL.matches(tree, stateForCompilationUnit);
       }
 
+      boolean isSummarizedAsReturningNull(MethodInvocationTree tree) {
+        MethodSymbol method = getSymbol(tree);
+        return methodSummary(method, stateForCompilationUnit)
+            .returnNullness()
+            .equals(Optional.of(Nullness.NULL));
+      }
+
       boolean isSwitchExpressionWithDefinitelyNullBranch(Tree tree) {
         return tree instanceof SwitchExpressionTree switchExpressionTree
             && switchExpressionTree.getCases().stream()
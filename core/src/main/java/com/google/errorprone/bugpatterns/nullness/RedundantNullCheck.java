@@ -169,6 +169,12 @@ public class RedundantNullCheck extends BugChecker
     if (methodSymbol.getReturnType().getKind() == TYPEVAR) {
       return true;
     }
+    // A private or final method in this file whose every return statement returns non-null
+    if (NullnessUtils.methodSummary(methodSymbol, state)
+        .returnNullness()
+        .equals(Optional.of(Nullness.NONNULL))) {
+      return false;
+    }
     // No explicit annotation on return type.
     // Default based on the null-marked status of the method's defining scope.
     // If the method's defining scope is NOT @NullMarked (or is @NullUnmarked),
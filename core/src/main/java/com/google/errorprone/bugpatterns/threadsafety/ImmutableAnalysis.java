@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.annotations.CheckReturnValue;
 import com.google.errorprone.annotations.ImmutableTypeParameter;
+import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.threadsafety.ThreadSafety.Purpose;
 import com.google.errorprone.bugpatterns.threadsafety.ThreadSafety.Violation;
 import com.google.errorprone.fixes.SuggestedFix;
@@ -69,21 +70,38 @@ public final class ImmutableAnalysis {
         VisitorState state,
         ImmutableSet<String> immutableAnnotations) {
       return new ImmutableAnalysis(
-          suppressionChecker, state, wellKnownMutability, immutableAnnotations);
+          suppressionChecker,
+          /* summaryOwner= */ null,
+          state,
+          wellKnownMutability,
+          immutableAnnotations);
+    }
+
+    /**
+     * Creates an analysis that uses the given checker's suppressions, and shares the summaries of
+     * the classes it analyzes with other analyses for the same checker in the compilation.
+     */
+    public ImmutableAnalysis create(
+        BugChecker bugChecker, VisitorState state, ImmutableSet<String> immutableAnnotations) {
+      return new ImmutableAnalysis(
+          bugChecker::isSuppressed, bugChecker, state, wellKnownMutability, immutableAnnotations);
     }
   }
 
   private final BiPredicate<Symbol, VisitorState> suppressionChecker;
+  private final @Nullable BugChecker summaryOwner;
   private final VisitorState state;
   private final WellKnownMutability wellKnownMutability;
   private final ThreadSafety threadSafety;
 
   private ImmutableAnalysis(
       BiPredicate<Symbol, VisitorState> suppressionChecker,
+      @Nullable BugChecker summaryOwner,
       VisitorState state,
       WellKnownMutability wellKnownMutability,
       ImmutableSet<String> immutableAnnotations) {
     this.suppressionChecker = suppressionChecker;
+    this.summaryOwner = summaryOwner;
     this.state = state;
     this.wellKnownMutability = wellKnownMutability;
     this.threadSafety =
@@ -214,14 +232,50 @@ public final class ImmutableAnalysis {
     }
 
     // Recursive case: check if the supertype is 'effectively' immutable.
-    Violation info =
-        checkForImmutability(Optional.<ClassTree>empty(), immutableTyParams, superType, reporter);
+    Violation info = checkSupertypeForImmutability(immutableTyParams, superType, reporter);
     if (!info.isPresent()) {
       return Violation.absent();
     }
     return info.plus(message);
   }
 
+  /**
+   * Checks a supertype, which doesn't have a tree to report findings on, so the result only depends
+   * on the type and can be shared through a class summary.
+   */
+  private Violation checkSupertypeForImmutability(
+      ImmutableSet<String> immutableTyParams, ClassType superType, ViolationReporter reporter) {
+    if (summaryOwner == null) {
+      return checkForImmutability(Optional.empty(), immutableTyParams, superType, reporter);
+    }
+    return threadSafety.classSummary(
+        summaryOwner,
+        immutableTyParams,
+        superType,
+        t -> checkForImmutability(Optional.empty(), immutableTyParams, t, reporter));
+  }
+
+  /**
+   * Records the summary of a class that isn't annotated, if summaries are being written for the
+   * compilation, so that later compilations can use it instead of analysing the class again.
+   */
+  void recordSummary(ClassSymbol symbol) {
+    if (summaryOwner == null) {
+      return;
+    }
+    threadSafety.recordClassSummary(
+        summaryOwner,
+        symbol,
+        t ->
+            checkForImmutability(
+                Optional.empty(),
+                ImmutableSet.of(),
+                t,
+                (tree, info) -> {
+                  throw new AssertionError("findings aren't reported without a tree");
+                }));
+  }
+
   /**
    * Check a single class' fields for immutability.
    *
@@ -213,7 +213,7 @@ public class ImmutableChecker extends BugChecker
   }
 
   private ImmutableAnalysis createImmutableAnalysis(VisitorState state) {
-    return immutableAnalysisFactory.create(this::isSuppressed, state, immutableAnnotations);
+    return immutableAnalysisFactory.create(this, state, immutableAnnotations);
   }
 
   private void checkInvocation(
@@ -262,6 +262,7 @@ public class ImmutableChecker extends BugChecker
       // An earlier version of the check required an explicit annotation on classes that extended
       // @Immutable classes, but didn't enforce the subtyping requirement for interfaces. We now
       // don't require the explicit annotations on any subtypes.
+      analysis.recordSummary(getSymbol(tree));
       return NO_MATCH;
     }
 
@@ -85,7 +85,7 @@ public class ImmutableEnumChecker extends BugChecker implements ClassTreeMatcher
 
     Violation info =
         immutableAnalysisFactory
-            .create(this::isSuppressed, state, ImmutableSet.of(IMMUTABLE_ANNOTATION))
+            .create(this, state, ImmutableSet.of(IMMUTABLE_ANNOTATION))
             .checkForImmutability(
                 Optional.of(tree), ImmutableSet.of(), getType(tree), this::describe);
 
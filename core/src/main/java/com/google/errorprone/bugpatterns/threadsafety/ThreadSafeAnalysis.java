@@ -172,8 +172,14 @@ public final class ThreadSafeAnalysis {
               threadSafety.getPrettyName(type.tsym), threadSafety.getPrettyName(superType.tsym)));
     }
 
-    // Recursive case: check if the supertype is 'effectively' threadsafe.
-    Violation info = checkForThreadSafety(Optional.empty(), threadSafeTypeParams, superType);
+    // Recursive case: check if the supertype is 'effectively' threadsafe. Without a tree to report
+    // findings on, the result only depends on the supertype, so it's shared as a class summary.
+    Violation info =
+        threadSafety.classSummary(
+            bugChecker,
+            threadSafeTypeParams,
+            superType,
+            t -> checkForThreadSafety(Optional.empty(), threadSafeTypeParams, t));
     if (!info.isPresent()) {
       return Violation.absent();
     }
@@ -183,6 +189,15 @@ public final class ThreadSafeAnalysis {
             threadSafety.getPrettyName(type.tsym), threadSafety.getPrettyName(superType.tsym)));
   }
 
+  /**
+   * Records the summary of a class that isn't annotated, if summaries are being written for the
+   * compilation, so that later compilations can use it instead of analysing the class again.
+   */
+  void recordSummary(ClassSymbol symbol) {
+    threadSafety.recordClassSummary(
+        bugChecker, symbol, t -> checkForThreadSafety(Optional.empty(), ImmutableSet.of(), t));
+  }
+
   /**
    * Check a single class' fields for thread safety.
    *
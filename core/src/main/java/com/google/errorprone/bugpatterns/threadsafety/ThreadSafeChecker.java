@@ -167,6 +167,7 @@ public class ThreadSafeChecker extends BugChecker
     if (annotation == null) {
       // If the type isn't annotated we don't check for thread safety, but we do
       // report an error if it extends/implements any @ThreadSafe-annotated types.
+      analysis.recordSummary(getSymbol(tree));
       return checkSubtype(tree, state);
     }
 
@@ -20,6 +20,8 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.errorprone.util.ASTHelpers.isStatic;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.auto.value.AutoBuilder;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
@@ -33,6 +35,7 @@ import com.google.errorprone.annotations.Immutable;
 import com.google.errorprone.annotations.ImmutableTypeParameter;
 import com.google.errorprone.annotations.ThreadSafe;
 import com.google.errorprone.annotations.ThreadSafeTypeParameter;
+import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.CanBeStaticAnalyzer;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
@@ -57,6 +60,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.type.TypeKind;
@@ -78,6 +82,7 @@ public final class ThreadSafety {
   private final ImmutableSet<String> suppressAnnotation;
   private final ImmutableSet<String> typeParameterAnnotation;
   private final ImmutableSet<String> acceptedTypeParameterAnnotation;
+  private final Configuration configuration;
 
   public static Builder builder() {
     return new AutoBuilder_ThreadSafety_Builder()
@@ -224,6 +229,127 @@ public final class ThreadSafety {
     this.suppressAnnotation = suppressAnnotation;
     this.typeParameterAnnotation = typeParameterAnnotation;
     this.acceptedTypeParameterAnnotation = acceptedTypeParameterAnnotation;
+    this.configuration =
+        new Configuration(
+            purpose,
+            markerAnnotationInherited,
+            knownTypes,
+            markerAnnotations,
+            acceptedAnnotations,
+            containerOfAnnotation,
+            suppressAnnotation,
+            typeParameterAnnotation,
+            acceptedTypeParameterAnnotation);
+  }
+
+  /**
+   * Everything other than the types being checked that verdicts depend on, so that verdicts can be
+   * shared by equally configured instances.
+   */
+  private record Configuration(
+      Purpose purpose,
+      boolean markerAnnotationInherited,
+      ThreadSafetyKnownTypes knownTypes,
+      ImmutableSet<String> markerAnnotations,
+      ImmutableSet<String> acceptedAnnotations,
+      ImmutableSet<String> containerOfAnnotation,
+      ImmutableSet<String> suppressAnnotation,
+      ImmutableSet<String> typeParameterAnnotation,
+      ImmutableSet<String> acceptedTypeParameterAnnotation) {}
+
+  /** The maximum number of verdicts and class summaries that are cached for a compilation. */
+  private static final int MAXIMUM_CACHED_VERDICTS = 50_000;
+
+  /**
+   * The verdicts of {@link #isThreadSafeType} and the class summaries of {@link #classSummary},
+   * which are shared by all checks in a compilation. The keys are compared by value, so unlike the
+   * symbol-keyed caches they aren't held weakly: a key is created for every lookup, and nothing else
+   * would keep it alive.
+   */
+  private static final Supplier<Cache<Object, Violation>> VERDICTS =
+      VisitorState.memoize(
+          unused -> Caffeine.newBuilder().maximumSize(MAXIMUM_CACHED_VERDICTS).build());
+
+  private record TypeVerdictKey(
+      Configuration configuration,
+      Object type,
+      boolean allowContainerTypeParameters,
+      Set<String> containerTypeParameters) {}
+
+  private record ClassSummaryKey(
+      Configuration configuration,
+      BugChecker owner,
+      Set<String> containerTypeParameters,
+      Object type) {}
+
+  /**
+   * A key for the given type. Instantiations of a class with identical type arguments are equal,
+   * even though javac creates a new {@link Type} for each of them.
+   */
+  private static Object typeKey(Type type) {
+    return type instanceof ClassType classType
+        ? new ClassTypeKey(
+            classType.tsym, classType.getTypeArguments(), classType.getEnclosingType())
+        : type;
+  }
+
+  private record ClassTypeKey(TypeSymbol symbol, List<Type> typeArguments, Type enclosingType) {}
+
+  private Violation cached(Object key, Function<Object, Violation> compute) {
+    Cache<Object, Violation> verdicts = VERDICTS.get(state);
+    Violation result = verdicts.getIfPresent(key);
+    if (result == null) {
+      result = compute.apply(key);
+      verdicts.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the summary of a class, computing it if necessary. A summary is a {@link Violation}
+   * that only depends on the class and on the in-scope type parameters, such as the result of
+   * checking its fields and supertypes without reporting findings on their trees, so it can be
+   * shared by every check and subclass that asks about the class in the same compilation.
+   *
+   * <p>Summaries of classpath classes that were written when their library was compiled are used
+   * instead of analysing those classes again; see {@link ThreadSafetySummaries}.
+   *
+   * @param owner the checker whose analysis the summary belongs to
+   */
+  Violation classSummary(
+      BugChecker owner,
+      ImmutableSet<String> containerTypeParameters,
+      ClassType type,
+      Function<ClassType, Violation> compute) {
+    return cached(
+        new ClassSummaryKey(configuration, owner, containerTypeParameters, typeKey(type)),
+        unused -> {
+          if (type.tsym instanceof ClassSymbol symbol
+              && ThreadSafetySummaries.isSummarizable(symbol)) {
+            Violation persisted =
+                ThreadSafetySummaries.instance(state).lookup(owner.canonicalName(), symbol);
+            if (persisted != null) {
+              return persisted;
+            }
+          }
+          return compute.apply(type);
+        });
+  }
+
+  /**
+   * Records the summary of a class that's being compiled, if summaries are being written for the
+   * compilation.
+   */
+  void recordClassSummary(
+      BugChecker owner, ClassSymbol symbol, Function<ClassType, Violation> compute) {
+    ThreadSafetySummaries summaries = ThreadSafetySummaries.instance(state);
+    if (!summaries.isWriting() || !ThreadSafetySummaries.isSummarizable(symbol)) {
+      return;
+    }
+    summaries.record(
+        owner.canonicalName(),
+        symbol,
+        classSummary(owner, ImmutableSet.of(), (ClassType) symbol.type, compute));
   }
 
   /**
@@ -404,8 +530,20 @@ public final class ThreadSafety {
    */
   public Violation isThreadSafeType(
       boolean allowContainerTypeParameters, Set<String> containerTypeParameters, Type type) {
-    return isThreadSafeTypeInternal(
-        allowContainerTypeParameters, containerTypeParameters, type, new HashSet<>());
+    // The visitor ignores the container type parameters if they aren't allowed.
+    Set<String> relevantContainerTypeParameters =
+        allowContainerTypeParameters
+            ? ImmutableSet.copyOf(containerTypeParameters)
+            : ImmutableSet.of();
+    return cached(
+        new TypeVerdictKey(
+            configuration,
+            typeKey(type),
+            allowContainerTypeParameters,
+            relevantContainerTypeParameters),
+        unused ->
+            isThreadSafeTypeInternal(
+                allowContainerTypeParameters, containerTypeParameters, type, new HashSet<>()));
   }
 
   private Violation isThreadSafeTypeInternal(
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.threadsafety;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.ErrorProneFlags;
+import com.google.errorprone.ErrorProneVersion;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.threadsafety.ThreadSafety.Violation;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Log;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.jspecify.annotations.Nullable;
+import org.pcollections.ConsPStack;
+
+/**
+ * Summaries of whether the classes of a library are immutable or thread-safe, as decided by each
+ * thread-safety checker.
+ *
+ * <p>With {@code -XepOpt:ThreadSafety:WriteSummaries=true}, the summaries of the classes in a
+ * compilation are written to {@value #RESOURCE} in its class output, so that they're packaged with
+ * the library. With {@code -XepOpt:ThreadSafety:ReadSummaries=true}, later compilations read the
+ * summaries of the libraries on their classpath instead of analysing those classes again. Each file
+ * records a fingerprint of the Error Prone version and thread-safety flags it was written with, and
+ * files whose fingerprint doesn't match the reading compilation's are ignored.
+ *
+ * <p>Only classes without type parameters are summarized, since the summary of a generic class
+ * depends on how it's instantiated.
+ */
+final class ThreadSafetySummaries {
+
+  static final String RESOURCE = "META-INF/errorprone/thread-safety-summaries.txt";
+
+  private static final String HEADER = "# Error Prone thread-safety summaries, version 2";
+
+  private static final ImmutableSet<String> FLAG_PREFIXES =
+      ImmutableSet.of("Immutable:", "ThreadSafe:", "ThreadSafety:");
+
+  private static final ImmutableSet<String> SUMMARY_FLAGS =
+      ImmutableSet.of("ThreadSafety:ReadSummaries", "ThreadSafety:WriteSummaries");
+
+  private static final Splitter TAB_SPLITTER = Splitter.on('\t');
+
+  private static final Context.Key<ThreadSafetySummaries> KEY = new Context.Key<>();
+
+  /** Returns the summaries of the compilation of the given state, creating them if necessary. */
+  static synchronized ThreadSafetySummaries instance(VisitorState state) {
+    ThreadSafetySummaries summaries = state.context.get(KEY);
+    if (summaries == null) {
+      ErrorProneFlags flags = state.errorProneOptions().getFlags();
+      String fingerprint = fingerprint(flags);
+      summaries =
+          new ThreadSafetySummaries(
+              flags.getBoolean("ThreadSafety:ReadSummaries").orElse(false)
+                  ? readSummaries(state.context, fingerprint)
+                  : ImmutableMap.of(),
+              flags.getBoolean("ThreadSafety:WriteSummaries").orElse(false),
+              fingerprint);
+      state.context.put(KEY, summaries);
+      if (summaries.writing) {
+        ThreadSafetySummaries written = summaries;
+        Context context = state.context;
+        BasicJavacTask.instance(context)
+            .addTaskListener(
+                new TaskListener() {
+                  @Override
+                  public void finished(TaskEvent event) {
+                    if (event.getKind() == TaskEvent.Kind.COMPILATION) {
+                      written.write(context);
+                    }
+                  }
+                });
+      }
+    }
+    return summaries;
+  }
+
+  /**
+   * Returns whether the given class can be summarized: its summary mustn't depend on how it's
+   * instantiated, and it must be visible to other compilations.
+   */
+  static boolean isSummarizable(ClassSymbol symbol) {
+    return symbol.type.allparams().isEmpty() && !symbol.isDirectlyOrIndirectlyLocal();
+  }
+
+  /**
+   * Returns the header of a summaries file written with the given flags; the summaries in a file
+   * are only read by compilations with the same header.
+   */
+  static String header(ErrorProneFlags flags) {
+    return header(fingerprint(flags));
+  }
+
+  private static String header(String fingerprint) {
+    return HEADER + "\n# " + fingerprint + '\n';
+  }
+
+  /** Hashes the Error Prone version and the flags that the thread-safety checkers depend on. */
+  private static String fingerprint(ErrorProneFlags flags) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(
+        ErrorProneVersion.loadVersionFromPom().or("unknown version"), StandardCharsets.UTF_8);
+    for (Map.Entry<String, String> flag : new TreeMap<>(flags.getFlagsMap()).entrySet()) {
+      String key = flag.getKey();
+      if (SUMMARY_FLAGS.contains(key) || FLAG_PREFIXES.stream().noneMatch(key::startsWith)) {
+        continue;
+      }
+      hasher
+          .putString(key, StandardCharsets.UTF_8)
+          .putChar('=')
+          .putString(flag.getValue(), StandardCharsets.UTF_8)
+          .putChar('\n');
+    }
+    return hasher.hash().toString();
+  }
+
+  // Checker -> class -> summary
+  private final ImmutableMap<String, ImmutableMap<String, Violation>> read;
+  private final boolean writing;
+  private final String fingerprint;
+  private final Map<String, Map<String, Violation>> recorded = new HashMap<>();
+
+  private ThreadSafetySummaries(
+      ImmutableMap<String, ImmutableMap<String, Violation>> read,
+      boolean writing,
+      String fingerprint) {
+    this.read = read;
+    this.writing = writing;
+    this.fingerprint = fingerprint;
+  }
+
+  boolean isWriting() {
+    return writing;
+  }
+
+  /**
+   * Returns the summary that the given checker recorded for the given class when its library was
+   * compiled, or {@code null} if there is none.
+   */
+  @Nullable Violation lookup(String checker, ClassSymbol symbol) {
+    if (symbol.classfile == null || symbol.classfile.getKind() != JavaFileObject.Kind.CLASS) {
+      // Summaries are only read for classes on the classpath, not for the ones being compiled.
+      return null;
+    }
+    ImmutableMap<String, Violation> summaries = read.get(checker);
+    return summaries == null ? null : summaries.get(symbol.flatName().toString());
+  }
+
+  /** Records the summary of a class in the compilation, to be written when it finishes. */
+  synchronized void record(String checker, ClassSymbol symbol, Violation summary) {
+    recorded
+        .computeIfAbsent(checker, c -> new TreeMap<>())
+        .put(symbol.flatName().toString(), summary);
+  }
+
+  private synchronized void write(Context context) {
+    if (recorded.isEmpty()) {
+      return;
+    }
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    try {
+      FileObject file =
+          fileManager.getFileForOutput(StandardLocation.CLASS_OUTPUT, "", RESOURCE, null);
+      try (Writer writer = file.openWriter()) {
+        writer.write(header(fingerprint));
+        for (Map.Entry<String, Map<String, Violation>> checker :
+            new TreeMap<>(recorded).entrySet()) {
+          for (Map.Entry<String, Violation> summary : checker.getValue().entrySet()) {
+            StringBuilder line =
+                new StringBuilder(checker.getKey()).append('\t').append(summary.getKey());
+            for (String step : summary.getValue().path()) {
+              line.append('\t').append(step.replace('\t', ' ').replace('\n', ' '));
+            }
+            writer.write(line.append('\n').toString());
+          }
+        }
+      }
+    } catch (IOException e) {
+      PrintWriter out = Log.instance(context).getWriter(Log.WriterKind.ERROR);
+      out.println("Failed to write thread-safety summaries: " + e);
+      out.flush();
+    }
+  }
+
+  private static ImmutableMap<String, ImmutableMap<String, Violation>> readSummaries(
+      Context context, String fingerprint) {
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    int separator = RESOURCE.lastIndexOf('/');
+    String packageName = RESOURCE.substring(0, separator).replace('/', '.');
+    String fileName = RESOURCE.substring(separator + 1);
+    Map<String, Map<String, Violation>> result = new HashMap<>();
+    try {
+      for (JavaFileObject file :
+          fileManager.list(
+              StandardLocation.CLASS_PATH,
+              packageName,
+              ImmutableSet.of(JavaFileObject.Kind.OTHER),
+              /* recurse= */ false)) {
+        if (!file.getName().endsWith(fileName)) {
+          continue;
+        }
+        try (Reader reader = file.openReader(/* ignoreEncodingErrors= */ false)) {
+          readSummaries(new BufferedReader(reader), fingerprint, result);
+        }
+      }
+    } catch (IOException e) {
+      // Summaries are only an optimization, so analyse the classpath instead.
+      return ImmutableMap.of();
+    }
+    return result.entrySet().stream()
+        .collect(toImmutableMap(Map.Entry::getKey, e -> ImmutableMap.copyOf(e.getValue())));
+  }
+
+  private static void readSummaries(
+      BufferedReader reader, String fingerprint, Map<String, Map<String, Violation>> result)
+      throws IOException {
+    if (!header(fingerprint).equals(reader.readLine() + '\n' + reader.readLine() + '\n')) {
+      // Written by a different version of Error Prone, or with different thread-safety flags.
+      return;
+    }
+    String line;
+    while ((line = reader.readLine()) != null) {
+      List<String> fields = TAB_SPLITTER.splitToList(line);
+      if (fields.size() < 2) {
+        continue;
+      }
+      result
+          .computeIfAbsent(fields.get(0), c -> new HashMap<>())
+          .putIfAbsent(
+              fields.get(1), Violation.create(ConsPStack.from(fields.subList(2, fields.size()))));
+    }
+  }
+}
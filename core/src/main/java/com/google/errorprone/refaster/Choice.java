@@ -19,6 +19,7 @@ package com.google.errorprone.refaster;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
@@ -29,6 +30,8 @@ import java.util.Iterator;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A representation of a choice with zero or more options, which may be evaluated lazily or
@@ -78,6 +81,11 @@ public abstract class Choice<T> {
           return checkNotNull(other);
         }
 
+        @Override
+        public Choice<Object> concat(Supplier<Choice<Object>> other) {
+          return checkNotNull(other.get());
+        }
+
         @CanIgnoreReturnValue
         @Override
         public Choice<Object> filter(Predicate<? super Object> predicate) {
@@ -229,12 +237,19 @@ public abstract class Choice<T> {
     return new Choice<R>() {
       @Override
       protected Iterator<R> iterator() {
-        return Iterables.transform(
-                Iterables.filter(
-                    Iterables.transform(thisChoice.asIterable(), function::apply),
-                    Optional::isPresent),
-                Optional::get)
-            .iterator();
+        Iterator<T> itr = thisChoice.iterator();
+        return new AbstractIterator<R>() {
+          @Override
+          protected @Nullable R computeNext() {
+            while (itr.hasNext()) {
+              Optional<R> result = function.apply(itr.next());
+              if (result.isPresent()) {
+                return result.get();
+              }
+            }
+            return endOfData();
+          }
+        };
       }
     };
   }
@@ -272,6 +287,38 @@ public abstract class Choice<T> {
     }
   }
 
+  /**
+   * Returns a choice of the options from this {@code Choice} or from the {@code Choice} supplied by
+   * {@code other}, which is only computed once the options from this {@code Choice} run out.
+   */
+  public Choice<T> concat(Supplier<Choice<T>> other) {
+    checkNotNull(other);
+    Choice<T> thisChoice = this;
+    return new Choice<T>() {
+      @Override
+      protected Iterator<T> iterator() {
+        return Iterators.concat(
+            thisChoice.iterator(),
+            new AbstractIterator<T>() {
+              private @Nullable Iterator<T> otherItr;
+
+              @Override
+              protected @Nullable T computeNext() {
+                if (otherItr == null) {
+                  otherItr = other.get().iterator();
+                }
+                return otherItr.hasNext() ? otherItr.next() : endOfData();
+              }
+            });
+      }
+
+      @Override
+      public String toString() {
+        return String.format("%s.concat(%s)", thisChoice, other);
+      }
+    };
+  }
+
   /** Filters the choices to those that satisfy the provided {@code Predicate}. */
   public Choice<T> filter(Predicate<? super T> predicate) {
     checkNotNull(predicate);
@@ -14,7 +14,6 @@
 
 package com.google.errorprone.refaster;
 
-import com.google.common.base.Predicates;
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.ImmutableClassToInstanceMap;
 import com.google.common.collect.ImmutableMap;
@@ -29,16 +28,14 @@ import com.google.errorprone.refaster.annotation.NotMatches;
 import com.google.errorprone.refaster.annotation.OfKind;
 import com.google.errorprone.refaster.annotation.Placeholder;
 import com.sun.source.tree.ExpressionTree;
-import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 import com.sun.tools.javac.tree.JCTree.JCStatement;
 import com.sun.tools.javac.util.List;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
-import java.util.Arrays;
 import java.util.Set;
-import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Representation of a {@code Refaster} placeholder method, which can represent an arbitrary
@@ -67,32 +64,43 @@ record PlaceholderMethod(
         annotations.containsKey(NotMatches.class)
             ? UTemplater.getValue(annotations.getInstance(NotMatches.class))
             : null;
-    Predicate<Kind> allowedKinds =
+    ImmutableSet<Kind> allowedKinds =
         annotations.containsKey(OfKind.class)
-            ? Predicates.<Tree.Kind>in(Arrays.asList(annotations.getInstance(OfKind.class).value()))
-            : Predicates.<Tree.Kind>alwaysTrue();
-    class PlaceholderMatcher implements Matcher<ExpressionTree> {
-
-      @Override
-      public boolean matches(ExpressionTree t, VisitorState state) {
-        try {
-          return (allowsIdentity || !(t instanceof PlaceholderParamIdent))
-              && (matchesClass == null || matchesClass.newInstance().matches(t, state))
-              && (notMatchesClass == null || !notMatchesClass.newInstance().matches(t, state))
-              && allowedKinds.test(t.getKind());
-        } catch (ReflectiveOperationException e) {
-          throw new RuntimeException(e);
-        }
-      }
-    }
+            ? ImmutableSet.copyOf(annotations.getInstance(OfKind.class).value())
+            : null;
     return new PlaceholderMethod(
         StringName.of(name),
         returnType,
         parameters,
-        new PlaceholderMatcher(),
+        new PlaceholderMatcher(allowsIdentity, matchesClass, notMatchesClass, allowedKinds),
         ImmutableClassToInstanceMap.<Annotation, Annotation>copyOf(annotations));
   }
 
+  /**
+   * Matches the expressions allowed by a placeholder's annotations. Placeholder methods with the
+   * same annotations have equal matchers.
+   */
+  private record PlaceholderMatcher(
+      boolean allowsIdentity,
+      @Nullable Class<? extends Matcher<? super ExpressionTree>> matchesClass,
+      @Nullable Class<? extends Matcher<? super ExpressionTree>> notMatchesClass,
+      // null if any kind of expression is allowed
+      @Nullable ImmutableSet<Kind> allowedKinds)
+      implements Matcher<ExpressionTree> {
+
+    @Override
+    public boolean matches(ExpressionTree t, VisitorState state) {
+      try {
+        return (allowsIdentity || !(t instanceof PlaceholderParamIdent))
+            && (matchesClass == null || matchesClass.newInstance().matches(t, state))
+            && (notMatchesClass == null || !notMatchesClass.newInstance().matches(t, state))
+            && (allowedKinds == null || allowedKinds.contains(t.getKind()));
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
   ImmutableSet<UVariableDecl> parameters() {
     return annotatedParameters().keySet();
   }
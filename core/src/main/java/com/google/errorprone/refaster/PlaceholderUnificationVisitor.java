@@ -154,10 +154,12 @@ abstract class PlaceholderUnificationVisitor
    * arg1}, {@code arg2}, or the other arguments.
    */
   Choice<State<PlaceholderParamIdent>> tryBindArguments(ExpressionTree node, State<?> state) {
+    // The arguments are tried lazily, so they fork a snapshot of the state as it is now.
+    State<?> snapshot = state.fork();
     return Choice.from(arguments().entrySet())
         .flatMap(
             (Map.Entry<UVariableDecl, UExpression> entry) ->
-                unifyParam(entry.getKey(), entry.getValue(), node, state.fork()));
+                unifyParam(entry.getKey(), entry.getValue(), node, snapshot.fork()));
   }
 
   private Choice<State<PlaceholderParamIdent>> unifyParam(
@@ -257,7 +259,9 @@ abstract class PlaceholderUnificationVisitor
     Choice<? extends State<? extends JCExpression>> tryBindArguments =
         tryBindArguments(node, state);
     if (!node.accept(FORBIDDEN_REFERENCE_VISITOR, state.unifier())) {
-      return tryBindArguments.concat((Choice) node.accept(this, state));
+      // Only unify the subtrees once the ways of binding the whole tree have been tried.
+      State<?> subtreesState = state.fork();
+      return tryBindArguments.concat(() -> (Choice) node.accept(this, subtreesState));
     } else {
       return tryBindArguments;
     }
@@ -147,13 +147,20 @@ public abstract class RefasterRule<M extends TemplateMatch, T extends Template<M
   static final Context.Key<ImmutableList<UTypeVar>> RULE_TYPE_VARS = new Context.Key<>();
 
   private Context prepareContext(Context baseContext, JCCompilationUnit compilationUnit) {
+    return prepareContext(baseContext, compilationUnit, typeVariables());
+  }
+
+  static Context prepareContext(
+      Context baseContext,
+      JCCompilationUnit compilationUnit,
+      ImmutableList<UTypeVar> typeVariables) {
     Context context = new SubContext(baseContext);
     if (context.get(JavaFileManager.class) == null) {
       JavacFileManager.preRegister(context);
     }
     context.put(JCCompilationUnit.class, compilationUnit);
     context.put(PackageSymbol.class, compilationUnit.packge);
-    context.put(RULE_TYPE_VARS, typeVariables());
+    context.put(RULE_TYPE_VARS, typeVariables);
     return context;
   }
 
@@ -0,0 +1,1324 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.CodeTransformerBundle;
+import com.google.errorprone.CodeTransformerBundle.EntryReader;
+import com.google.errorprone.CodeTransformerBundle.EntryWriter;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.refaster.RefasterRuleSet.Member;
+import com.google.errorprone.refaster.RefasterRuleSet.TemplateKey;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MemberReferenceTree.ReferenceMode;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.BoundKind;
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.tree.JCTree.JCLambda.ParameterKind;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.lang.model.type.TypeKind;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Writes {@link RefasterRule}s and {@link RefasterRuleSet}s to {@link CodeTransformerBundle}s, and
+ * reads them back as a {@link RefasterRuleSet}.
+ *
+ * <p>Each rule is written as its template class, its annotations and the {@linkplain TemplateKey
+ * keys} of its {@code @BeforeTemplate}s, followed by a section with its templates. Reading a rule
+ * set only reads what's needed to index the templates; the templates of a rule are read the first
+ * time one of them could match. Types that don't refer to type variables are shared by the whole
+ * entry.
+ */
+@AutoService(CodeTransformerBundle.Codec.class)
+public final class RefasterRuleCodec implements CodeTransformerBundle.Codec {
+
+  @Override
+  public String name() {
+    return "refaster";
+  }
+
+  @Override
+  public boolean canEncode(CodeTransformer transformer) {
+    return transformer instanceof RefasterRuleSet || transformer instanceof RefasterRule;
+  }
+
+  @Override
+  public void encode(CodeTransformer transformer, EntryWriter out) {
+    RefasterRuleSet ruleSet =
+        (RefasterRuleSet) RefasterRuleSet.combine(ImmutableList.of(transformer));
+    out.writeInt(ruleSet.members().size());
+    for (Member member : ruleSet.members()) {
+      RefasterRule<?, ?> rule = member.rule();
+      out.writeString(member.qualifiedTemplateClass());
+      writeAnnotations(out, rule.annotations());
+      out.writeInt(member.beforeTemplates().size());
+      for (TemplateKey key : member.beforeTemplates()) {
+        writeEnum(out, key.kind());
+        Object discriminator = key.discriminator();
+        out.writeBoolean(discriminator instanceof Tree.Kind);
+        if (discriminator instanceof Tree.Kind kind) {
+          writeEnum(out, kind);
+        } else {
+          out.writeString((String) discriminator);
+        }
+      }
+      out.writeSection(section -> new TemplateWriter(section).writeRule(rule));
+    }
+  }
+
+  @Override
+  public CodeTransformer decode(EntryReader in) {
+    int count = in.readInt();
+    ImmutableList.Builder<Member> members = ImmutableList.builderWithExpectedSize(count);
+    for (int i = 0; i < count; i++) {
+      String qualifiedTemplateClass = checkNotNull(in.readString());
+      ImmutableClassToInstanceMap<Annotation> annotations = readAnnotations(in);
+      int templates = in.readInt();
+      ImmutableList.Builder<TemplateKey> keys = ImmutableList.builderWithExpectedSize(templates);
+      for (int j = 0; j < templates; j++) {
+        Tree.Kind kind = readEnum(in, Tree.Kind.class);
+        Object discriminator = in.readBoolean() ? readEnum(in, Tree.Kind.class) : in.readString();
+        keys.add(new TemplateKey(kind, discriminator));
+      }
+      EntryReader section = in.readSection();
+      members.add(
+          new Member(
+              qualifiedTemplateClass,
+              keys.build(),
+              () -> new TemplateReader(section).readRule(qualifiedTemplateClass, annotations)));
+    }
+    return new RefasterRuleSet(members.build());
+  }
+
+  /** The kinds of {@link UType}s. */
+  private enum TypeNode {
+    NULL,
+    SHARED,
+    TYPE_VAR,
+    PRIMITIVE,
+    CLASS,
+    ARRAY,
+    METHOD,
+    FOR_ALL,
+    INTERSECTION,
+    WILDCARD;
+
+    static final TypeNode[] VALUES = values();
+  }
+
+  /** The kinds of template trees: {@link UTree}s, and the {@link UStatement}s that aren't trees. */
+  private enum TreeNode {
+    NULL,
+    ANNOTATED_TYPE,
+    ANNOTATION,
+    ANY_OF,
+    ARRAY_ACCESS,
+    ARRAY_TYPE_TREE,
+    ASSERT,
+    ASSIGN,
+    ASSIGN_OP,
+    BINARY,
+    BLANK,
+    BLOCK,
+    BREAK,
+    CATCH,
+    CLASS_DECL,
+    CLASS_IDENT,
+    CONDITIONAL,
+    CONTINUE,
+    DO_WHILE_LOOP,
+    ENHANCED_FOR_LOOP,
+    EXPRESSION_STATEMENT,
+    FOR_LOOP,
+    FREE_IDENT,
+    IF,
+    INSTANCE_OF,
+    INTERSECTION_TYPE,
+    LABELED_STATEMENT,
+    LAMBDA,
+    LITERAL,
+    LOCAL_VAR_IDENT,
+    MATCHES,
+    MEMBER_REFERENCE,
+    MEMBER_SELECT,
+    METHOD_DECL,
+    METHOD_IDENT,
+    METHOD_INVOCATION,
+    MODIFIERS,
+    NEW_ARRAY,
+    NEW_CLASS,
+    OF_KIND,
+    PARENS,
+    PLACEHOLDER_EXPRESSION,
+    PLACEHOLDER_STATEMENT,
+    PRIMITIVE_TYPE_TREE,
+    REPEATED,
+    RETURN,
+    SKIP,
+    STATIC_IDENT,
+    SYNCHRONIZED,
+    THROW,
+    TRY,
+    TYPE_APPLY,
+    TYPE_CAST,
+    TYPE_PARAMETER,
+    TYPE_VAR_IDENT,
+    UNARY,
+    UNION_TYPE,
+    VARIABLE_DECL,
+    WHILE_LOOP,
+    WILDCARD;
+
+    static final TreeNode[] VALUES = values();
+  }
+
+  /** The types of the values of {@link ULiteral}s. */
+  private enum LiteralValue {
+    NULL,
+    INT,
+    LONG,
+    FLOAT,
+    DOUBLE,
+    BOOLEAN,
+    CHAR,
+    STRING;
+
+    static final LiteralValue[] VALUES = values();
+  }
+
+  /**
+   * Writes the templates of a rule. Type variables and placeholder methods are written the first
+   * time they occur, and referred to by index after that, since type variables can refer to
+   * themselves in their bounds, and templates refer to the same placeholder methods.
+   */
+  private static final class TemplateWriter {
+    private final EntryWriter out;
+    private final Map<Object, Integer> written = new IdentityHashMap<>();
+
+    TemplateWriter(EntryWriter out) {
+      this.out = out;
+    }
+
+    void writeRule(RefasterRule<?, ?> rule) {
+      writeTypes(rule.typeVariables());
+      writeTemplates(rule.beforeTemplates());
+      writeTemplates(rule.afterTemplates());
+    }
+
+    private void writeTemplates(List<? extends Template<?>> templates) {
+      out.writeInt(templates.size());
+      for (Template<?> template : templates) {
+        out.writeBoolean(template instanceof BlockTemplate);
+        writeAnnotations(out, template.annotations());
+        writeTypes(template.templateTypeVariables());
+        out.writeInt(template.expressionArgumentTypes().size());
+        template
+            .expressionArgumentTypes()
+            .forEach(
+                (name, type) -> {
+                  out.writeString(name);
+                  writeType(type);
+                });
+        if (template instanceof BlockTemplate blockTemplate) {
+          writeTrees(blockTemplate.templateStatements());
+        } else if (template instanceof ExpressionTemplate expressionTemplate) {
+          writeTree(expressionTemplate.expression());
+          writeType(expressionTemplate.returnType());
+        } else {
+          throw new IllegalArgumentException("Can't write template " + template);
+        }
+      }
+    }
+
+    /**
+     * Writes -1 followed by the given object if it wasn't written before, and returns true; or
+     * writes the index it was written at, and returns false.
+     */
+    private boolean writeReference(Object object) {
+      Integer index = written.putIfAbsent(object, written.size());
+      out.writeInt(index == null ? -1 : index);
+      return index == null;
+    }
+
+    private void writeTypes(@Nullable List<? extends UType> types) {
+      if (types == null) {
+        out.writeInt(-1);
+        return;
+      }
+      out.writeInt(types.size());
+      types.forEach(this::writeType);
+    }
+
+    private void writeType(@Nullable UType type) {
+      if (UType.isShareable(type)) {
+        writeNode(TypeNode.SHARED);
+        out.writeShared(type, (t, w) -> new TemplateWriter(w).writeUnsharedType(t));
+      } else {
+        writeUnsharedType(type);
+      }
+    }
+
+    private void writeUnsharedType(@Nullable UType type) {
+      switch (type) {
+        case null -> writeNode(TypeNode.NULL);
+        case UTypeVar typeVar -> {
+          writeNode(TypeNode.TYPE_VAR);
+          if (writeReference(typeVar)) {
+            out.writeString(typeVar.getName());
+            writeType(typeVar.getLowerBound());
+            writeType(typeVar.getUpperBound());
+          }
+        }
+        case UPrimitiveType primitiveType -> {
+          writeNode(TypeNode.PRIMITIVE);
+          writeEnum(out, primitiveType.getKind());
+        }
+        case UClassType classType -> {
+          writeNode(TypeNode.CLASS);
+          out.writeString(classType.fullyQualifiedClass().contents());
+          writeTypes(classType.typeArguments());
+        }
+        case UArrayType arrayType -> {
+          writeNode(TypeNode.ARRAY);
+          writeType(arrayType.componentType());
+        }
+        case UMethodType methodType -> {
+          writeNode(TypeNode.METHOD);
+          writeType(methodType.getReturnType());
+          writeTypes(methodType.getParameterTypes());
+        }
+        case UForAll forAll -> {
+          writeNode(TypeNode.FOR_ALL);
+          writeTypes(forAll.getTypeVars());
+          writeType(forAll.getQuantifiedType());
+        }
+        case UIntersectionClassType intersectionType -> {
+          writeNode(TypeNode.INTERSECTION);
+          writeTypes(intersectionType.bounds());
+        }
+        case UWildcardType wildcardType -> {
+          writeNode(TypeNode.WILDCARD);
+          writeEnum(out, wildcardType.boundKind());
+          writeType(wildcardType.bound());
+        }
+        default -> throw new IllegalArgumentException("Can't write type " + type);
+      }
+    }
+
+    private void writeNode(TypeNode node) {
+      out.writeInt(node.ordinal());
+    }
+
+    private void writePlaceholder(PlaceholderMethod placeholder) {
+      if (writeReference(placeholder)) {
+        out.writeString(placeholder.name().contents());
+        writeType(placeholder.returnType());
+        out.writeInt(placeholder.annotatedParameters().size());
+        placeholder
+            .annotatedParameters()
+            .forEach(
+                (parameter, annotations) -> {
+                  writeTree(parameter);
+                  writeAnnotations(out, annotations);
+                });
+        writeAnnotations(out, placeholder.annotations());
+      }
+    }
+
+    private void writeName(@Nullable StringName name) {
+      out.writeString(name == null ? null : name.contents());
+    }
+
+    private void writeTrees(@Nullable List<?> trees) {
+      if (trees == null) {
+        out.writeInt(-1);
+        return;
+      }
+      out.writeInt(trees.size());
+      trees.forEach(this::writeTree);
+    }
+
+    private void writeTree(@Nullable Object tree) {
+      switch (tree) {
+        case null -> writeNode(TreeNode.NULL);
+        case UAnnotatedType annotatedType -> {
+          writeNode(TreeNode.ANNOTATED_TYPE);
+          writeTrees(annotatedType.getAnnotations());
+          writeTree(annotatedType.getUnderlyingType());
+        }
+        case UAnnotation annotation -> {
+          writeNode(TreeNode.ANNOTATION);
+          writeTree(annotation.getAnnotationType());
+          writeTrees(annotation.getArguments());
+        }
+        case UAnyOf anyOf -> {
+          writeNode(TreeNode.ANY_OF);
+          writeTrees(anyOf.expressions());
+        }
+        case UArrayAccess arrayAccess -> {
+          writeNode(TreeNode.ARRAY_ACCESS);
+          writeTree(arrayAccess.getExpression());
+          writeTree(arrayAccess.getIndex());
+        }
+        case UArrayTypeTree arrayTypeTree -> {
+          writeNode(TreeNode.ARRAY_TYPE_TREE);
+          writeTree(arrayTypeTree.getType());
+        }
+        case UAssert assertion -> {
+          writeNode(TreeNode.ASSERT);
+          writeTree(assertion.getCondition());
+          writeTree(assertion.getDetail());
+        }
+        case UAssign assign -> {
+          writeNode(TreeNode.ASSIGN);
+          writeTree(assign.getVariable());
+          writeTree(assign.getExpression());
+        }
+        case UAssignOp assignOp -> {
+          writeNode(TreeNode.ASSIGN_OP);
+          writeTree(assignOp.getVariable());
+          writeEnum(out, assignOp.getKind());
+          writeTree(assignOp.getExpression());
+        }
+        case UBinary binary -> {
+          writeNode(TreeNode.BINARY);
+          writeEnum(out, binary.getKind());
+          writeTree(binary.getLeftOperand());
+          writeTree(binary.getRightOperand());
+        }
+        case UBlank blank -> {
+          writeNode(TreeNode.BLANK);
+          out.writeLong(blank.unique().getMostSignificantBits());
+          out.writeLong(blank.unique().getLeastSignificantBits());
+        }
+        case UBlock block -> {
+          writeNode(TreeNode.BLOCK);
+          writeTrees(block.getStatements());
+        }
+        case UBreak breakStatement -> {
+          writeNode(TreeNode.BREAK);
+          writeName(breakStatement.getLabel());
+        }
+        case UCatch catchTree -> {
+          writeNode(TreeNode.CATCH);
+          writeTree(catchTree.getParameter());
+          writeTree(catchTree.getBlock());
+        }
+        case UClassDecl classDecl -> {
+          writeNode(TreeNode.CLASS_DECL);
+          writeTrees(classDecl.getMembers());
+        }
+        case UClassIdent classIdent -> {
+          writeNode(TreeNode.CLASS_IDENT);
+          out.writeString(classIdent.getTopLevelClass());
+          writeName(classIdent.getName());
+        }
+        case UConditional conditional -> {
+          writeNode(TreeNode.CONDITIONAL);
+          writeTree(conditional.getCondition());
+          writeTree(conditional.getTrueExpression());
+          writeTree(conditional.getFalseExpression());
+        }
+        case UContinue continueStatement -> {
+          writeNode(TreeNode.CONTINUE);
+          writeName(continueStatement.getLabel());
+        }
+        case UDoWhileLoop doWhileLoop -> {
+          writeNode(TreeNode.DO_WHILE_LOOP);
+          writeTree(doWhileLoop.getStatement());
+          writeTree(doWhileLoop.getCondition());
+        }
+        case UEnhancedForLoop enhancedForLoop -> {
+          writeNode(TreeNode.ENHANCED_FOR_LOOP);
+          writeTree(enhancedForLoop.getVariable());
+          writeTree(enhancedForLoop.getExpression());
+          writeTree(enhancedForLoop.getStatement());
+        }
+        case UExpressionStatement expressionStatement -> {
+          writeNode(TreeNode.EXPRESSION_STATEMENT);
+          writeTree(expressionStatement.getExpression());
+        }
+        case UForLoop forLoop -> {
+          writeNode(TreeNode.FOR_LOOP);
+          writeTrees(forLoop.getInitializer());
+          writeTree(forLoop.getCondition());
+          writeTrees(forLoop.getUpdate());
+          writeTree(forLoop.getStatement());
+        }
+        case UFreeIdent freeIdent -> {
+          writeNode(TreeNode.FREE_IDENT);
+          writeName(freeIdent.getName());
+        }
+        case UIf ifStatement -> {
+          writeNode(TreeNode.IF);
+          writeTree(ifStatement.condition());
+          writeTree(ifStatement.thenStatement());
+          writeTree(ifStatement.elseStatement());
+        }
+        case UInstanceOf instanceOf -> {
+          writeNode(TreeNode.INSTANCE_OF);
+          writeTree(instanceOf.getExpression());
+          writeTree(instanceOf.getType());
+        }
+        case UIntersectionType intersectionType -> {
+          writeNode(TreeNode.INTERSECTION_TYPE);
+          writeTrees(intersectionType.getBounds());
+        }
+        case ULabeledStatement labeledStatement -> {
+          writeNode(TreeNode.LABELED_STATEMENT);
+          writeName(labeledStatement.getLabel());
+          writeTree(labeledStatement.getStatement());
+        }
+        case ULambda lambda -> {
+          writeNode(TreeNode.LAMBDA);
+          writeEnum(out, lambda.parameterKind());
+          writeTrees(lambda.getParameters());
+          writeTree(lambda.getBody());
+        }
+        case ULiteral literal -> {
+          writeNode(TreeNode.LITERAL);
+          writeEnum(out, literal.getKind());
+          writeLiteralValue(literal.getValue());
+        }
+        case ULocalVarIdent localVarIdent -> {
+          writeNode(TreeNode.LOCAL_VAR_IDENT);
+          writeName(localVarIdent.getName());
+        }
+        case UMatches matches -> {
+          writeNode(TreeNode.MATCHES);
+          out.writeString(matches.matcherClass().getName());
+          out.writeBoolean(matches.positive());
+          writeTree(matches.expression());
+        }
+        case UMemberReference memberReference -> {
+          writeNode(TreeNode.MEMBER_REFERENCE);
+          writeEnum(out, memberReference.getMode());
+          writeTree(memberReference.getQualifierExpression());
+          writeName(memberReference.getName());
+          writeTrees(memberReference.getTypeArguments());
+        }
+        case UMemberSelect memberSelect -> {
+          writeNode(TreeNode.MEMBER_SELECT);
+          writeTree(memberSelect.getExpression());
+          writeName(memberSelect.getIdentifier());
+          writeType(memberSelect.type());
+        }
+        case UMethodDecl methodDecl -> {
+          writeNode(TreeNode.METHOD_DECL);
+          writeTree(methodDecl.getModifiers());
+          writeName(methodDecl.getName());
+          writeTree(methodDecl.getReturnType());
+          writeTrees(methodDecl.getParameters());
+          writeTrees(methodDecl.getThrows());
+          writeTree(methodDecl.getBody());
+        }
+        case UMethodIdent methodIdent -> {
+          writeNode(TreeNode.METHOD_IDENT);
+          writeTree(methodIdent.classIdent());
+          writeName(methodIdent.getName());
+          writeType(methodIdent.memberType());
+        }
+        case UMethodInvocation methodInvocation -> {
+          writeNode(TreeNode.METHOD_INVOCATION);
+          writeTrees(methodInvocation.getTypeArguments());
+          writeTree(methodInvocation.getMethodSelect());
+          writeTrees(methodInvocation.getArguments());
+        }
+        case UModifiers modifiers -> {
+          writeNode(TreeNode.MODIFIERS);
+          out.writeLong(modifiers.flagBits());
+          writeTrees(modifiers.getAnnotations());
+        }
+        case UNewArray newArray -> {
+          writeNode(TreeNode.NEW_ARRAY);
+          writeTree(newArray.getType());
+          writeTrees(newArray.getDimensions());
+          writeTrees(newArray.getInitializers());
+        }
+        case UNewClass newClass -> {
+          writeNode(TreeNode.NEW_CLASS);
+          writeTree(newClass.getEnclosingExpression());
+          writeTrees(newClass.getTypeArguments());
+          writeTree(newClass.getIdentifier());
+          writeTrees(newClass.getArguments());
+          writeTree(newClass.getClassBody());
+        }
+        case UOfKind ofKind -> {
+          writeNode(TreeNode.OF_KIND);
+          writeTree(ofKind.expression());
+          out.writeInt(ofKind.allowed().size());
+          ofKind.allowed().forEach(kind -> writeEnum(out, kind));
+        }
+        case UParens parens -> {
+          writeNode(TreeNode.PARENS);
+          writeTree(parens.getExpression());
+        }
+        case UPlaceholderExpression placeholderExpression -> {
+          writeNode(TreeNode.PLACEHOLDER_EXPRESSION);
+          writePlaceholder(placeholderExpression.placeholder());
+          // The arguments are in the order of the placeholder's parameters.
+          writeTrees(placeholderExpression.arguments().values().asList());
+        }
+        case UPlaceholderStatement placeholderStatement -> {
+          writeNode(TreeNode.PLACEHOLDER_STATEMENT);
+          writePlaceholder(placeholderStatement.placeholder());
+          writeTrees(placeholderStatement.arguments().values().asList());
+          writeEnum(out, placeholderStatement.implementationFlow());
+        }
+        case UPrimitiveTypeTree primitiveTypeTree -> {
+          writeNode(TreeNode.PRIMITIVE_TYPE_TREE);
+          writeEnum(out, primitiveTypeTree.typeTag());
+        }
+        case URepeated repeated -> {
+          writeNode(TreeNode.REPEATED);
+          out.writeString(repeated.identifier());
+          writeTree(repeated.expression());
+        }
+        case UReturn returnStatement -> {
+          writeNode(TreeNode.RETURN);
+          writeTree(returnStatement.getExpression());
+        }
+        case USkip unused -> writeNode(TreeNode.SKIP);
+        case UStaticIdent staticIdent -> {
+          writeNode(TreeNode.STATIC_IDENT);
+          writeTree(staticIdent.classIdent());
+          writeName(staticIdent.getName());
+          writeType(staticIdent.memberType());
+        }
+        case USynchronized synchronizedStatement -> {
+          writeNode(TreeNode.SYNCHRONIZED);
+          writeTree(synchronizedStatement.getExpression());
+          writeTree(synchronizedStatement.getBlock());
+        }
+        case UThrow throwStatement -> {
+          writeNode(TreeNode.THROW);
+          writeTree(throwStatement.getExpression());
+        }
+        case UTry tryStatement -> {
+          writeNode(TreeNode.TRY);
+          writeTrees(tryStatement.getResources());
+          writeTree(tryStatement.getBlock());
+          writeTrees(tryStatement.getCatches());
+          writeTree(tryStatement.getFinallyBlock());
+        }
+        case UTypeApply typeApply -> {
+          writeNode(TreeNode.TYPE_APPLY);
+          writeTree(typeApply.getType());
+          writeTrees(typeApply.getTypeArguments());
+        }
+        case UTypeCast typeCast -> {
+          writeNode(TreeNode.TYPE_CAST);
+          writeTree(typeCast.getType());
+          writeTree(typeCast.getExpression());
+        }
+        case UTypeParameter typeParameter -> {
+          writeNode(TreeNode.TYPE_PARAMETER);
+          writeName(typeParameter.getName());
+          writeTrees(typeParameter.getBounds());
+          writeTrees(typeParameter.getAnnotations());
+        }
+        case UTypeVarIdent typeVarIdent -> {
+          writeNode(TreeNode.TYPE_VAR_IDENT);
+          writeName(typeVarIdent.getName());
+        }
+        case UUnary unary -> {
+          writeNode(TreeNode.UNARY);
+          writeEnum(out, unary.getKind());
+          writeTree(unary.getExpression());
+        }
+        case UUnionType unionType -> {
+          writeNode(TreeNode.UNION_TYPE);
+          writeTrees(unionType.getTypeAlternatives());
+        }
+        case UVariableDecl variableDecl -> {
+          writeNode(TreeNode.VARIABLE_DECL);
+          writeName(variableDecl.getName());
+          writeTree(variableDecl.getType());
+          writeType(variableDecl.getVariableType());
+          writeTree(variableDecl.getInitializer());
+        }
+        case UWhileLoop whileLoop -> {
+          writeNode(TreeNode.WHILE_LOOP);
+          writeTree(whileLoop.getCondition());
+          writeTree(whileLoop.getStatement());
+        }
+        case UWildcard wildcard -> {
+          writeNode(TreeNode.WILDCARD);
+          writeEnum(out, wildcard.getKind());
+          writeTree(wildcard.getBound());
+        }
+        default -> throw new IllegalArgumentException("Can't write template tree " + tree);
+      }
+    }
+
+    private void writeNode(TreeNode node) {
+      out.writeInt(node.ordinal());
+    }
+
+    private void writeLiteralValue(@Nullable Object value) {
+      switch (value) {
+        case null -> writeNode(LiteralValue.NULL);
+        case Integer i -> {
+          writeNode(LiteralValue.INT);
+          out.writeInt(i);
+        }
+        case Long l -> {
+          writeNode(LiteralValue.LONG);
+          out.writeLong(l);
+        }
+        case Float f -> {
+          writeNode(LiteralValue.FLOAT);
+          out.writeInt(Float.floatToRawIntBits(f));
+        }
+        case Double d -> {
+          writeNode(LiteralValue.DOUBLE);
+          out.writeLong(Double.doubleToRawLongBits(d));
+        }
+        case Boolean b -> {
+          writeNode(LiteralValue.BOOLEAN);
+          out.writeBoolean(b);
+        }
+        case Character c -> {
+          writeNode(LiteralValue.CHAR);
+          out.writeInt(c);
+        }
+        case String s -> {
+          writeNode(LiteralValue.STRING);
+          out.writeString(s);
+        }
+        default -> throw new IllegalArgumentException("Can't write literal " + value);
+      }
+    }
+
+    private void writeNode(LiteralValue node) {
+      out.writeInt(node.ordinal());
+    }
+  }
+
+  /** Reads what a {@link TemplateWriter} wrote. */
+  private static final class TemplateReader {
+    private final EntryReader in;
+    private final List<@Nullable Object> read = new ArrayList<>();
+
+    TemplateReader(EntryReader in) {
+      this.in = in;
+    }
+
+    RefasterRule<?, ?> readRule(
+        String qualifiedTemplateClass, ImmutableClassToInstanceMap<Annotation> annotations) {
+      ImmutableList<UTypeVar> typeVariables = readTypes(UTypeVar.class);
+      ImmutableList<Template<?>> beforeTemplates = readTemplates();
+      ImmutableList<Template<?>> afterTemplates = readTemplates();
+      return RefasterRule.create(
+          qualifiedTemplateClass, typeVariables, beforeTemplates, afterTemplates, annotations);
+    }
+
+    private ImmutableList<Template<?>> readTemplates() {
+      int count = in.readInt();
+      ImmutableList.Builder<Template<?>> templates = ImmutableList.builderWithExpectedSize(count);
+      for (int i = 0; i < count; i++) {
+        boolean block = in.readBoolean();
+        ImmutableClassToInstanceMap<Annotation> annotations = readAnnotations(in);
+        ImmutableList<UTypeVar> typeVariables = readTypes(UTypeVar.class);
+        int arguments = in.readInt();
+        ImmutableMap.Builder<String, UType> argumentTypes =
+            ImmutableMap.builderWithExpectedSize(arguments);
+        for (int j = 0; j < arguments; j++) {
+          argumentTypes.put(readString(), checkNotNull(readType()));
+        }
+        templates.add(
+            block
+                ? BlockTemplate.create(
+                    annotations,
+                    typeVariables,
+                    argumentTypes.buildOrThrow(),
+                    readTrees(UStatement.class))
+                : ExpressionTemplate.create(
+                    annotations,
+                    typeVariables,
+                    argumentTypes.buildOrThrow(),
+                    readTree(UExpression.class),
+                    readType()));
+      }
+      return templates.build();
+    }
+
+    /** Reserves the index of an object that's being read, and returns it. */
+    private int reserve() {
+      read.add(null);
+      return read.size() - 1;
+    }
+
+    private <T> ImmutableList<T> readTypes(Class<T> type) {
+      int count = in.readInt();
+      if (count < 0) {
+        return null;
+      }
+      ImmutableList.Builder<T> types = ImmutableList.builderWithExpectedSize(count);
+      for (int i = 0; i < count; i++) {
+        types.add(type.cast(readType()));
+      }
+      return types.build();
+    }
+
+    /** Reads a type, or returns {@code null} if {@code null} was written. */
+    private UType readType() {
+      return switch (TypeNode.VALUES[in.readInt()]) {
+        case NULL -> null;
+        case SHARED -> in.readShared(r -> new TemplateReader(r).readType());
+        case TYPE_VAR -> readTypeVar();
+        case PRIMITIVE -> UPrimitiveType.create(readEnum(in, TypeKind.class));
+        case CLASS -> UClassType.create(readString(), readTypes(UType.class));
+        case ARRAY -> UArrayType.create(readType());
+        case METHOD -> UMethodType.create(readType(), readTypes(UType.class));
+        case FOR_ALL -> UForAll.create(readTypes(UTypeVar.class), readType());
+        case INTERSECTION -> UIntersectionClassType.create(readTypes(UType.class));
+        case WILDCARD -> UWildcardType.create(readEnum(in, BoundKind.class), readType());
+      };
+    }
+
+    private UTypeVar readTypeVar() {
+      int index = in.readInt();
+      if (index >= 0) {
+        return (UTypeVar) read.get(index);
+      }
+      UTypeVar typeVar = UTypeVar.create(readString());
+      read.set(reserve(), typeVar);
+      // The bounds may refer to the type variable itself.
+      typeVar.setLowerBound(readType());
+      typeVar.setUpperBound(readType());
+      return typeVar;
+    }
+
+    private PlaceholderMethod readPlaceholder() {
+      int index = in.readInt();
+      if (index >= 0) {
+        return (PlaceholderMethod) read.get(index);
+      }
+      int reserved = reserve();
+      String name = readString();
+      UType returnType = readType();
+      int count = in.readInt();
+      ImmutableMap.Builder<UVariableDecl, ImmutableClassToInstanceMap<Annotation>> parameters =
+          ImmutableMap.builderWithExpectedSize(count);
+      for (int i = 0; i < count; i++) {
+        parameters.put(readTree(UVariableDecl.class), readAnnotations(in));
+      }
+      PlaceholderMethod placeholder =
+          PlaceholderMethod.create(
+              name, returnType, parameters.buildOrThrow(), readAnnotations(in));
+      read.set(reserved, placeholder);
+      return placeholder;
+    }
+
+    private String readString() {
+      return checkNotNull(in.readString());
+    }
+
+    private <T> ImmutableList<T> readTrees(Class<T> type) {
+      int count = in.readInt();
+      if (count < 0) {
+        return null;
+      }
+      ImmutableList.Builder<T> trees = ImmutableList.builderWithExpectedSize(count);
+      for (int i = 0; i < count; i++) {
+        trees.add(readTree(type));
+      }
+      return trees.build();
+    }
+
+    /** Reads a tree, or returns {@code null} if {@code null} was written. */
+    private <T> T readTree(Class<T> type) {
+      return type.cast(readTree());
+    }
+
+    private Object readTree() {
+      return switch (TreeNode.VALUES[in.readInt()]) {
+        case NULL -> null;
+        case ANNOTATED_TYPE ->
+            UAnnotatedType.create(readTrees(UAnnotation.class), readTree(UExpression.class));
+        case ANNOTATION ->
+            UAnnotation.create(readTree(UTree.class), readTrees(UExpression.class));
+        case ANY_OF -> UAnyOf.create(readTrees(UExpression.class));
+        case ARRAY_ACCESS ->
+            UArrayAccess.create(readTree(UExpression.class), readTree(UExpression.class));
+        case ARRAY_TYPE_TREE -> UArrayTypeTree.create(readTree(UExpression.class));
+        case ASSERT -> UAssert.create(readTree(UExpression.class), readTree(UExpression.class));
+        case ASSIGN -> UAssign.create(readTree(UExpression.class), readTree(UExpression.class));
+        case ASSIGN_OP ->
+            UAssignOp.create(
+                readTree(UExpression.class),
+                readEnum(in, Tree.Kind.class),
+                readTree(UExpression.class));
+        case BINARY ->
+            UBinary.create(
+                readEnum(in, Tree.Kind.class),
+                readTree(UExpression.class),
+                readTree(UExpression.class));
+        case BLANK -> new UBlank(new UUID(in.readLong(), in.readLong()));
+        case BLOCK -> UBlock.create(readTrees(UStatement.class));
+        case BREAK -> UBreak.create(in.readString());
+        case CATCH -> UCatch.create(readTree(UVariableDecl.class), readTree(UBlock.class));
+        case CLASS_DECL -> UClassDecl.create(readTrees(UMethodDecl.class));
+        case CLASS_IDENT -> UClassIdent.create(readString(), readString());
+        case CONDITIONAL ->
+            UConditional.create(
+                readTree(UExpression.class),
+                readTree(UExpression.class),
+                readTree(UExpression.class));
+        case CONTINUE -> UContinue.create(in.readString());
+        case DO_WHILE_LOOP ->
+            UDoWhileLoop.create(readTree(UStatement.class), readTree(UExpression.class));
+        case ENHANCED_FOR_LOOP ->
+            UEnhancedForLoop.create(
+                readTree(UVariableDecl.class),
+                readTree(UExpression.class),
+                readTree(UStatement.class));
+        case EXPRESSION_STATEMENT -> UExpressionStatement.create(readTree(UExpression.class));
+        case FOR_LOOP ->
+            UForLoop.create(
+                readTrees(UStatement.class),
+                readTree(UExpression.class),
+                readTrees(UExpressionStatement.class),
+                readTree(UStatement.class));
+        case FREE_IDENT -> UFreeIdent.create(readString());
+        case IF ->
+            UIf.create(
+                readTree(UExpression.class),
+                readTree(UStatement.class),
+                readTree(UStatement.class));
+        case INSTANCE_OF ->
+            UInstanceOf.create(readTree(UExpression.class), readTree(UTree.class));
+        case INTERSECTION_TYPE -> UIntersectionType.create(readTrees(UExpression.class));
+        case LABELED_STATEMENT ->
+            ULabeledStatement.create(readString(), readTree(UStatement.class));
+        case LAMBDA ->
+            ULambda.create(
+                readEnum(in, ParameterKind.class),
+                readTrees(UVariableDecl.class),
+                readTree(UTree.class));
+        case LITERAL -> ULiteral.create(readEnum(in, Tree.Kind.class), readLiteralValue());
+        case LOCAL_VAR_IDENT -> ULocalVarIdent.create(readString());
+        case MATCHES ->
+            UMatches.create(
+                matcherClass(readString()), in.readBoolean(), readTree(UExpression.class));
+        case MEMBER_REFERENCE ->
+            UMemberReference.create(
+                readEnum(in, ReferenceMode.class),
+                readTree(UExpression.class),
+                readString(),
+                readTrees(UExpression.class));
+        case MEMBER_SELECT ->
+            UMemberSelect.create(readTree(UExpression.class), readString(), readType());
+        case METHOD_DECL ->
+            UMethodDecl.create(
+                readTree(UModifiers.class),
+                readString(),
+                readTree(UExpression.class),
+                readTrees(UVariableDecl.class),
+                readTrees(UExpression.class),
+                readTree(UBlock.class));
+        case METHOD_IDENT ->
+            UMethodIdent.create(readTree(UClassIdent.class), readString(), readType());
+        case METHOD_INVOCATION ->
+            UMethodInvocation.create(
+                readTrees(UExpression.class),
+                readTree(UExpression.class),
+                readTrees(UExpression.class));
+        case MODIFIERS -> UModifiers.create(in.readLong(), readTrees(UAnnotation.class));
+        case NEW_ARRAY ->
+            UNewArray.create(
+                readTree(UExpression.class),
+                readTrees(UExpression.class),
+                readTrees(UExpression.class));
+        case NEW_CLASS ->
+            UNewClass.create(
+                readTree(UExpression.class),
+                readTrees(UExpression.class),
+                readTree(UExpression.class),
+                readTrees(UExpression.class),
+                readTree(UClassDecl.class));
+        case OF_KIND -> UOfKind.create(readTree(UExpression.class), readKinds());
+        case PARENS -> UParens.create(readTree(UExpression.class));
+        case PLACEHOLDER_EXPRESSION ->
+            UPlaceholderExpression.create(readPlaceholder(), readTrees(UExpression.class));
+        case PLACEHOLDER_STATEMENT ->
+            UPlaceholderStatement.create(
+                readPlaceholder(),
+                readTrees(UExpression.class),
+                readEnum(in, ControlFlowVisitor.Result.class));
+        case PRIMITIVE_TYPE_TREE -> UPrimitiveTypeTree.create(readEnum(in, TypeTag.class));
+        case REPEATED -> URepeated.create(readString(), readTree(UExpression.class));
+        case RETURN -> UReturn.create(readTree(UExpression.class));
+        case SKIP -> USkip.INSTANCE;
+        case STATIC_IDENT ->
+            UStaticIdent.create(readTree(UClassIdent.class), readString(), readType());
+        case SYNCHRONIZED ->
+            USynchronized.create(readTree(UExpression.class), readTree(UBlock.class));
+        case THROW -> UThrow.create(readTree(UExpression.class));
+        case TRY ->
+            UTry.create(
+                readResources(),
+                readTree(UBlock.class),
+                readTrees(UCatch.class),
+                readTree(UBlock.class));
+        case TYPE_APPLY ->
+            UTypeApply.create(readTree(UExpression.class), readTrees(UExpression.class));
+        case TYPE_CAST -> UTypeCast.create(readTree(UTree.class), readTree(UExpression.class));
+        case TYPE_PARAMETER ->
+            UTypeParameter.create(
+                readString(), readTrees(UExpression.class), readTrees(UAnnotation.class));
+        case TYPE_VAR_IDENT -> UTypeVarIdent.create(readString());
+        case UNARY -> UUnary.create(readEnum(in, Tree.Kind.class), readTree(UExpression.class));
+        case UNION_TYPE -> UUnionType.create(readTrees(UExpression.class));
+        case VARIABLE_DECL ->
+            UVariableDecl.create(
+                readString(), readTree(UExpression.class), readType(), readTree(UExpression.class));
+        case WHILE_LOOP ->
+            UWhileLoop.create(readTree(UExpression.class), readTree(UStatement.class));
+        case WILDCARD -> UWildcard.create(readEnum(in, Tree.Kind.class), readTree(UTree.class));
+      };
+    }
+
+    @SuppressWarnings("unchecked") // there's no class literal for UTree<?>
+    private ImmutableList<UTree<?>> readResources() {
+      return (ImmutableList<UTree<?>>) (ImmutableList<?>) readTrees(UTree.class);
+    }
+
+    private ImmutableSet<Tree.Kind> readKinds() {
+      int count = in.readInt();
+      ImmutableSet.Builder<Tree.Kind> kinds = ImmutableSet.builderWithExpectedSize(count);
+      for (int i = 0; i < count; i++) {
+        kinds.add(readEnum(in, Tree.Kind.class));
+      }
+      return kinds.build();
+    }
+
+    private @Nullable Object readLiteralValue() {
+      return switch (LiteralValue.VALUES[in.readInt()]) {
+        case NULL -> null;
+        case INT -> in.readInt();
+        case LONG -> in.readLong();
+        case FLOAT -> Float.intBitsToFloat(in.readInt());
+        case DOUBLE -> Double.longBitsToDouble(in.readLong());
+        case BOOLEAN -> in.readBoolean();
+        case CHAR -> (char) in.readInt();
+        case STRING -> in.readString();
+      };
+    }
+
+    @SuppressWarnings("unchecked") // the class was a matcher when it was written
+    private static Class<? extends Matcher<? super ExpressionTree>> matcherClass(String name) {
+      return (Class<? extends Matcher<? super ExpressionTree>>) loadClass(name);
+    }
+  }
+
+  /** Writes an enum constant, or {@code null}, by name, which doesn't change between releases. */
+  private static void writeEnum(EntryWriter out, @Nullable Enum<?> value) {
+    out.writeString(value == null ? null : value.name());
+  }
+
+  private static <E extends Enum<E>> @Nullable E readEnum(EntryReader in, Class<E> type) {
+    String name = in.readString();
+    return name == null ? null : Enum.valueOf(type, name);
+  }
+
+  private static void writeAnnotations(
+      EntryWriter out, ImmutableClassToInstanceMap<Annotation> annotations) {
+    out.writeInt(annotations.size());
+    annotations.values().forEach(annotation -> writeAnnotation(out, annotation));
+  }
+
+  private static ImmutableClassToInstanceMap<Annotation> readAnnotations(EntryReader in) {
+    int count = in.readInt();
+    ImmutableClassToInstanceMap.Builder<Annotation> annotations =
+        ImmutableClassToInstanceMap.builder();
+    for (int i = 0; i < count; i++) {
+      Annotation annotation = readAnnotation(in);
+      put(annotations, annotation.annotationType(), annotation);
+    }
+    return annotations.build();
+  }
+
+  private static <A extends Annotation> void put(
+      ImmutableClassToInstanceMap.Builder<Annotation> annotations,
+      Class<A> type,
+      Annotation annotation) {
+    annotations.put(type, type.cast(annotation));
+  }
+
+  /** Writes an annotation as its type, and the names and values of its elements. */
+  private static void writeAnnotation(EntryWriter out, Annotation annotation) {
+    Class<? extends Annotation> type = annotation.annotationType();
+    ImmutableList<Method> elements = elements(type);
+    out.writeString(type.getName());
+    out.writeInt(elements.size());
+    for (Method element : elements) {
+      out.writeString(element.getName());
+      Object value;
+      try {
+        element.setAccessible(true);
+        value = element.invoke(annotation);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Can't read " + element + " of " + annotation, e);
+      }
+      writeAnnotationValue(out, element.getReturnType(), value);
+    }
+  }
+
+  private static Annotation readAnnotation(EntryReader in) {
+    Class<? extends Annotation> type =
+        loadClass(checkNotNull(in.readString())).asSubclass(Annotation.class);
+    int count = in.readInt();
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      String name = checkNotNull(in.readString());
+      Method element;
+      try {
+        element = type.getDeclaredMethod(name);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException("Can't read the " + name + " element of " + type, e);
+      }
+      values.put(name, readAnnotationValue(in, element.getReturnType()));
+    }
+    return DecodedAnnotation.create(type, values);
+  }
+
+  /** The elements of the given annotation type. */
+  private static ImmutableList<Method> elements(Class<? extends Annotation> type) {
+    return Arrays.stream(type.getDeclaredMethods())
+        .filter(m -> m.getParameterCount() == 0 && !Modifier.isStatic(m.getModifiers()))
+        .filter(m -> !m.isSynthetic())
+        .collect(toImmutableList());
+  }
+
+  /** Writes the value of an annotation element of the given type. */
+  private static void writeAnnotationValue(EntryWriter out, Class<?> type, Object value) {
+    if (type.isArray()) {
+      int length = Array.getLength(value);
+      out.writeInt(length);
+      for (int i = 0; i < length; i++) {
+        writeAnnotationValue(out, type.getComponentType(), Array.get(value, i));
+      }
+    } else if (type == boolean.class) {
+      out.writeBoolean((Boolean) value);
+    } else if (type == long.class) {
+      out.writeLong((Long) value);
+    } else if (type == float.class) {
+      out.writeInt(Float.floatToRawIntBits((Float) value));
+    } else if (type == double.class) {
+      out.writeLong(Double.doubleToRawLongBits((Double) value));
+    } else if (type == char.class) {
+      out.writeInt((Character) value);
+    } else if (type.isPrimitive()) {
+      // byte, short or int
+      out.writeInt(((Number) value).intValue());
+    } else if (type == String.class) {
+      out.writeString((String) value);
+    } else if (type == Class.class) {
+      out.writeString(((Class<?>) value).getName());
+    } else if (type.isEnum()) {
+      out.writeString(((Enum<?>) value).name());
+    } else {
+      writeAnnotation(out, (Annotation) value);
+    }
+  }
+
+  private static Object readAnnotationValue(EntryReader in, Class<?> type) {
+    if (type.isArray()) {
+      int length = in.readInt();
+      Object array = Array.newInstance(type.getComponentType(), length);
+      for (int i = 0; i < length; i++) {
+        Array.set(array, i, readAnnotationValue(in, type.getComponentType()));
+      }
+      return array;
+    } else if (type == boolean.class) {
+      return in.readBoolean();
+    } else if (type == byte.class) {
+      return (byte) in.readInt();
+    } else if (type == short.class) {
+      return (short) in.readInt();
+    } else if (type == int.class) {
+      return in.readInt();
+    } else if (type == long.class) {
+      return in.readLong();
+    } else if (type == float.class) {
+      return Float.intBitsToFloat(in.readInt());
+    } else if (type == double.class) {
+      return Double.longBitsToDouble(in.readLong());
+    } else if (type == char.class) {
+      return (char) in.readInt();
+    } else if (type == String.class) {
+      return checkNotNull(in.readString());
+    } else if (type == Class.class) {
+      return loadClass(checkNotNull(in.readString()));
+    } else if (type.isEnum()) {
+      String name = checkNotNull(in.readString());
+      for (Object constant : type.getEnumConstants()) {
+        if (((Enum<?>) constant).name().equals(name)) {
+          return constant;
+        }
+      }
+      throw new IllegalArgumentException(type + " has no constant " + name);
+    } else {
+      return readAnnotation(in);
+    }
+  }
+
+  private static Class<?> loadClass(String name) {
+    for (Class<?> primitive : Primitives.allPrimitiveTypes()) {
+      if (primitive.getName().equals(name)) {
+        return primitive;
+      }
+    }
+    try {
+      return Class.forName(name, false, RefasterRuleCodec.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException("Can't load " + name, e);
+    }
+  }
+
+  /**
+   * Implements an annotation read from a bundle, following the contract of {@link Annotation} like
+   * the annotations returned by reflection.
+   */
+  private static final class DecodedAnnotation implements InvocationHandler {
+    private final Class<? extends Annotation> type;
+    // The value of every element, including the defaults of elements that weren't written.
+    private final ImmutableMap<String, Object> values;
+
+    private DecodedAnnotation(
+        Class<? extends Annotation> type, ImmutableMap<String, Object> values) {
+      this.type = type;
+      this.values = values;
+    }
+
+    static Annotation create(Class<? extends Annotation> type, Map<String, Object> values) {
+      ImmutableMap.Builder<String, Object> allValues = ImmutableMap.builder();
+      for (Method element : elements(type)) {
+        Object value = values.get(element.getName());
+        if (value == null) {
+          value = element.getDefaultValue();
+        }
+        if (value == null) {
+          throw new IllegalArgumentException(type + " has no value for " + element.getName());
+        }
+        allValues.put(element.getName(), value);
+      }
+      return type.cast(
+          Proxy.newProxyInstance(
+              type.getClassLoader(),
+              new Class<?>[] {type},
+              new DecodedAnnotation(type, allValues.buildOrThrow())));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object @Nullable [] args) {
+      String name = method.getName();
+      if (name.equals("equals") && method.getParameterCount() == 1) {
+        return equalTo(checkNotNull(args)[0]);
+      }
+      if (method.getParameterCount() != 0) {
+        throw new UnsupportedOperationException(method.toString());
+      }
+      return switch (name) {
+        case "annotationType" -> type;
+        case "hashCode" -> annotationHashCode();
+        case "toString" -> annotationToString();
+        default -> copy(values.get(name));
+      };
+    }
+
+    private boolean equalTo(@Nullable Object other) {
+      if (!type.isInstance(other)) {
+        return false;
+      }
+      for (Map.Entry<String, Object> value : values.entrySet()) {
+        Object otherValue;
+        try {
+          Method element = type.getDeclaredMethod(value.getKey());
+          element.setAccessible(true);
+          otherValue = element.invoke(other);
+        } catch (ReflectiveOperationException e) {
+          return false;
+        }
+        // Compares arrays by their elements, and other values with equals.
+        if (!Arrays.deepEquals(new Object[] {value.getValue()}, new Object[] {otherValue})) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private int annotationHashCode() {
+      int hashCode = 0;
+      for (Map.Entry<String, Object> value : values.entrySet()) {
+        // Hashes arrays by their elements, and other values with hashCode.
+        int valueHashCode = Arrays.deepHashCode(new Object[] {value.getValue()}) - 31;
+        hashCode += (127 * value.getKey().hashCode()) ^ valueHashCode;
+      }
+      return hashCode;
+    }
+
+    private String annotationToString() {
+      StringBuilder result = new StringBuilder("@").append(type.getName()).append('(');
+      String separator = "";
+      for (Map.Entry<String, Object> value : values.entrySet()) {
+        String valueString = Arrays.deepToString(new Object[] {value.getValue()});
+        result
+            .append(separator)
+            .append(value.getKey())
+            .append('=')
+            .append(valueString, 1, valueString.length() - 1);
+        separator = ", ";
+      }
+      return result.append(')').toString();
+    }
+
+    /** Returns a copy of an array value, which the caller may modify, or any other value. */
+    private static @Nullable Object copy(@Nullable Object value) {
+      if (value == null || !value.getClass().isArray()) {
+        return value;
+      }
+      int length = Array.getLength(value);
+      Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+      System.arraycopy(value, 0, copy, 0, length);
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,595 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparingInt;
+
+import com.google.auto.service.AutoService;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Iterables;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.CodeTransformerBundle;
+import com.google.errorprone.CompositeCodeTransformer;
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.SuppressionInfo;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.DoWhileLoopTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.IfTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.SynchronizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.tree.WhileLoopTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCStatement;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.ListBuffer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A set of {@link RefasterRule}s that are matched together, in a single pass over each compilation
+ * unit.
+ *
+ * <p>Applying each rule on its own walks the whole compilation unit once per rule, and tries every
+ * {@code @BeforeTemplate} of the rule at every tree. Instead, the templates of all rules are
+ * indexed by the kind of tree they can match, and for method invocations and operators also by the
+ * method name or operator, so that each tree is only unified with the templates that could match
+ * it. Matches are reported in the same order as if the rules were applied one after another.
+ */
+public final class RefasterRuleSet implements CodeTransformer {
+
+  /**
+   * Returns a {@link CodeTransformer} equivalent to applying the given transformers in order, with
+   * each run of consecutive {@link RefasterRule}s combined into a {@link RefasterRuleSet}.
+   */
+  public static CodeTransformer combine(Iterable<? extends CodeTransformer> transformers) {
+    List<CodeTransformer> result = new ArrayList<>();
+    List<Member> members = new ArrayList<>();
+    addAll(transformers, result, members);
+    addRules(result, members);
+    return result.size() == 1 ? result.getFirst() : CompositeCodeTransformer.compose(result);
+  }
+
+  private static void addAll(
+      Iterable<? extends CodeTransformer> transformers,
+      List<CodeTransformer> result,
+      List<Member> members) {
+    for (CodeTransformer transformer : transformers) {
+      if (transformer instanceof CompositeCodeTransformer composite) {
+        addAll(composite.transformers(), result, members);
+      } else if (transformer instanceof RefasterRuleSet ruleSet) {
+        members.addAll(ruleSet.members);
+      } else if (transformer instanceof RefasterRule<?, ?> rule) {
+        members.add(Member.of(rule));
+      } else {
+        addRules(result, members);
+        result.add(transformer);
+      }
+    }
+  }
+
+  /**
+   * Combines the rules loaded from several {@link CodeTransformerBundle}s into rule sets, so that
+   * rules from different bundles are matched in the same pass.
+   */
+  @AutoService(CodeTransformerBundle.Combiner.class)
+  public static final class BundleCombiner implements CodeTransformerBundle.Combiner {
+    @Override
+    public CodeTransformer combine(ImmutableList<CodeTransformer> transformers) {
+      return RefasterRuleSet.combine(transformers);
+    }
+  }
+
+  private static void addRules(List<CodeTransformer> result, List<Member> members) {
+    if (!members.isEmpty()) {
+      result.add(new RefasterRuleSet(ImmutableList.copyOf(members)));
+    }
+    members.clear();
+  }
+
+  /**
+   * A rule of a rule set, and what's needed to index its {@code @BeforeTemplate}s. A rule loaded
+   * from a bundle is only decoded when one of its templates is first tried.
+   */
+  static final class Member {
+    private final String qualifiedTemplateClass;
+    private final ImmutableList<TemplateKey> beforeTemplates;
+    private final Supplier<RefasterRule<?, ?>> rule;
+
+    Member(
+        String qualifiedTemplateClass,
+        ImmutableList<TemplateKey> beforeTemplates,
+        Supplier<RefasterRule<?, ?>> rule) {
+      this.qualifiedTemplateClass = qualifiedTemplateClass;
+      this.beforeTemplates = beforeTemplates;
+      this.rule = Suppliers.memoize(rule::get);
+    }
+
+    static Member of(RefasterRule<?, ?> rule) {
+      return new Member(
+          rule.qualifiedTemplateClass(),
+          rule.beforeTemplates().stream().map(TemplateKey::of).collect(toImmutableList()),
+          () -> rule);
+    }
+
+    String qualifiedTemplateClass() {
+      return qualifiedTemplateClass;
+    }
+
+    /** The keys of the rule's {@code @BeforeTemplate}s, in order. */
+    ImmutableList<TemplateKey> beforeTemplates() {
+      return beforeTemplates;
+    }
+
+    RefasterRule<?, ?> rule() {
+      return rule.get();
+    }
+  }
+
+  /**
+   * The kind of tree a {@code @BeforeTemplate} can match, or {@code null} if it might match trees
+   * of any kind, and for method invocations and operators the method name or operator.
+   */
+  record TemplateKey(Tree.@Nullable Kind kind, @Nullable Object discriminator) {
+    /** Trees of these types can only be matched by a template of the same type at its root. */
+    private static final ImmutableSet<Class<? extends UExpression>> KIND_RESTRICTED =
+        ImmutableSet.of(
+            UArrayAccess.class,
+            UAssign.class,
+            UAssignOp.class,
+            UBinary.class,
+            UConditional.class,
+            UInstanceOf.class,
+            ULambda.class,
+            ULiteral.class,
+            UMemberReference.class,
+            UMethodInvocation.class,
+            UNewArray.class,
+            UNewClass.class,
+            UTypeCast.class,
+            UUnary.class);
+
+    static TemplateKey of(Template<?> template) {
+      return new TemplateKey(rootKind(template), templateDiscriminator(template));
+    }
+
+    private static Tree.@Nullable Kind rootKind(Template<?> template) {
+      if (template instanceof BlockTemplate) {
+        return Tree.Kind.BLOCK;
+      }
+      if (template instanceof ExpressionTemplate expressionTemplate) {
+        UExpression root = expressionTemplate.expression();
+        if (KIND_RESTRICTED.stream().anyMatch(c -> c.isInstance(root))) {
+          return root.getKind();
+        }
+      }
+      return null;
+    }
+
+    private static @Nullable Object templateDiscriminator(Template<?> template) {
+      if (!(template instanceof ExpressionTemplate expressionTemplate)) {
+        return null;
+      }
+      UExpression root = expressionTemplate.expression();
+      if (root instanceof UMethodInvocation invocation) {
+        return methodName(invocation.getMethodSelect());
+      }
+      if (root instanceof UBinary || root instanceof UUnary || root instanceof UAssignOp) {
+        // The operator
+        return root.getKind();
+      }
+      return null;
+    }
+
+    private static @Nullable String methodName(UExpression methodSelect) {
+      String name = null;
+      if (methodSelect instanceof UMemberSelect memberSelect) {
+        name = memberSelect.getIdentifier().contents();
+      } else if (methodSelect instanceof UStaticIdent staticIdent) {
+        name = staticIdent.getName().contents();
+      } else if (methodSelect instanceof UMethodIdent methodIdent) {
+        name = methodIdent.getName().contents();
+      }
+      // Constructors are invoked as this(...) or super(...), but are matched by their symbol.
+      return name == null || name.equals("<init>") ? null : name;
+    }
+  }
+
+  private final ImmutableList<Member> members;
+
+  // Built lazily, so that a rule set loaded from a bundle is only indexed when it's used.
+  private volatile @Nullable TemplateIndex index;
+
+  RefasterRuleSet(ImmutableList<Member> members) {
+    this.members = members;
+  }
+
+  ImmutableList<Member> members() {
+    return members;
+  }
+
+  @Override
+  public void apply(TreePath path, Context context, DescriptionListener listener) {
+    new RuleSetScanner(index(), (JCCompilationUnit) path.getCompilationUnit(), context, listener)
+        .scanAndReport(path.getLeaf());
+  }
+
+  @Override
+  public ImmutableClassToInstanceMap<Annotation> annotations() {
+    return ImmutableClassToInstanceMap.of();
+  }
+
+  private TemplateIndex index() {
+    TemplateIndex result = index;
+    if (result == null) {
+      result = new TemplateIndex(members);
+      index = result;
+    }
+    return result;
+  }
+
+  /** The {@code @BeforeTemplate} at the given position in the rule set. */
+  private record Candidate(int rule, int template, int order) {}
+
+  /** The {@code @BeforeTemplate}s of a rule set, indexed by the trees they could match. */
+  private static final class TemplateIndex {
+    /** Templates that could match any tree. */
+    private final ImmutableList<Candidate> wildcards;
+
+    /** Candidates for each type of tree, including the wildcards. */
+    private final ImmutableMap<Class<?>, ImmutableList<Candidate>> byType;
+
+    /** Candidates for each type of tree and discriminator, including the wildcards. */
+    private final ImmutableMap<Class<?>, ImmutableMap<Object, ImmutableList<Candidate>>>
+        byDiscriminator;
+
+    /** The indices of the rules declared by each template class. */
+    private final ImmutableSetMultimap<String, Integer> templateClasses;
+
+    TemplateIndex(ImmutableList<Member> members) {
+      List<Candidate> wildcards = new ArrayList<>();
+      Map<Class<?>, List<Candidate>> general = new LinkedHashMap<>();
+      Map<Class<?>, Map<Object, List<Candidate>>> specific = new LinkedHashMap<>();
+      ImmutableSetMultimap.Builder<String, Integer> templateClasses =
+          ImmutableSetMultimap.builder();
+      int order = 0;
+      for (int i = 0; i < members.size(); i++) {
+        Member member = members.get(i);
+        templateClasses.put(member.qualifiedTemplateClass(), i);
+        for (int j = 0; j < member.beforeTemplates().size(); j++) {
+          Candidate candidate = new Candidate(i, j, order++);
+          TemplateKey key = member.beforeTemplates().get(j);
+          Tree.Kind kind = key.kind();
+          Class<?> type = kind != null ? kind.asInterface() : null;
+          Object discriminator = key.discriminator();
+          if (type == null) {
+            wildcards.add(candidate);
+          } else if (discriminator == null) {
+            general.computeIfAbsent(type, t -> new ArrayList<>()).add(candidate);
+          } else {
+            specific
+                .computeIfAbsent(type, t -> new LinkedHashMap<>())
+                .computeIfAbsent(discriminator, d -> new ArrayList<>())
+                .add(candidate);
+          }
+        }
+      }
+      this.wildcards = ImmutableList.copyOf(wildcards);
+      ImmutableMap.Builder<Class<?>, ImmutableList<Candidate>> byType = ImmutableMap.builder();
+      for (Map.Entry<Class<?>, List<Candidate>> entry : general.entrySet()) {
+        byType.put(entry.getKey(), merge(entry.getValue(), wildcards));
+      }
+      for (Class<?> type : specific.keySet()) {
+        if (!general.containsKey(type)) {
+          byType.put(type, this.wildcards);
+        }
+      }
+      this.byType = byType.buildOrThrow();
+      ImmutableMap.Builder<Class<?>, ImmutableMap<Object, ImmutableList<Candidate>>>
+          byDiscriminator = ImmutableMap.builder();
+      for (Map.Entry<Class<?>, Map<Object, List<Candidate>>> entry : specific.entrySet()) {
+        List<Candidate> generalCandidates = general.getOrDefault(entry.getKey(), List.of());
+        ImmutableMap.Builder<Object, ImmutableList<Candidate>> candidates = ImmutableMap.builder();
+        for (Map.Entry<Object, List<Candidate>> discriminated : entry.getValue().entrySet()) {
+          candidates.put(
+              discriminated.getKey(),
+              merge(discriminated.getValue(), generalCandidates, wildcards));
+        }
+        byDiscriminator.put(entry.getKey(), candidates.buildOrThrow());
+      }
+      this.byDiscriminator = byDiscriminator.buildOrThrow();
+      this.templateClasses = templateClasses.build();
+    }
+
+    /** Returns the templates that could match the given tree, in the order of the rule set. */
+    ImmutableList<Candidate> candidates(Tree tree) {
+      Class<?> type = tree.getKind().asInterface();
+      ImmutableMap<Object, ImmutableList<Candidate>> discriminated = byDiscriminator.get(type);
+      if (discriminated != null) {
+        Object discriminator = targetDiscriminator(tree);
+        ImmutableList<Candidate> candidates =
+            discriminator != null ? discriminated.get(discriminator) : null;
+        if (candidates != null) {
+          return candidates;
+        }
+      }
+      ImmutableList<Candidate> candidates = byType.get(type);
+      return candidates != null ? candidates : wildcards;
+    }
+
+    /** Returns the indices of the rules declared by the given template class. */
+    ImmutableSet<Integer> rulesDeclaredBy(CharSequence qualifiedTemplateClass) {
+      return templateClasses.get(qualifiedTemplateClass.toString());
+    }
+
+    @SafeVarargs
+    private static ImmutableList<Candidate> merge(List<Candidate>... candidates) {
+      return ImmutableList.sortedCopyOf(
+          comparingInt(Candidate::order), Iterables.concat(candidates));
+    }
+
+    private static @Nullable Object targetDiscriminator(Tree tree) {
+      if (tree instanceof MethodInvocationTree invocation) {
+        ExpressionTree methodSelect = invocation.getMethodSelect();
+        if (methodSelect instanceof IdentifierTree identifier) {
+          return identifier.getName().toString();
+        } else if (methodSelect instanceof MemberSelectTree memberSelect) {
+          return memberSelect.getIdentifier().toString();
+        }
+        return null;
+      }
+      if (tree instanceof BinaryTree
+          || tree instanceof UnaryTree
+          || tree instanceof CompoundAssignmentTree) {
+        // The operator
+        return tree.getKind();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Scans a compilation unit for matches of all rules, keeping track of the rules that are
+   * suppressed in the current subtree.
+   */
+  private final class RuleSetScanner extends TreeScanner<Void, Void> {
+    private final TemplateIndex index;
+    private final JCCompilationUnit compilationUnit;
+    private final Context baseContext;
+    private final DescriptionListener listener;
+    // Shared by the rules without type variables, which don't need a context of their own.
+    private final Context context;
+    private final @Nullable Context[] ruleContexts;
+    private final List<List<Description>> descriptions;
+    private final VisitorState state;
+    // The rules that are suppressed in the current subtree. Copied on write.
+    private BitSet disabled = new BitSet();
+
+    RuleSetScanner(
+        TemplateIndex index,
+        JCCompilationUnit compilationUnit,
+        Context baseContext,
+        DescriptionListener listener) {
+      this.index = index;
+      this.compilationUnit = compilationUnit;
+      this.baseContext = baseContext;
+      this.listener = listener;
+      this.context =
+          RefasterRule.prepareContext(baseContext, compilationUnit, ImmutableList.of());
+      this.ruleContexts = new Context[members.size()];
+      this.descriptions = new ArrayList<>(members.size());
+      for (int i = 0; i < members.size(); i++) {
+        descriptions.add(new ArrayList<>());
+      }
+      this.state = VisitorState.createForUtilityPurposes(context);
+    }
+
+    void scanAndReport(Tree tree) {
+      scan(tree, null);
+      // Report the matches rule by rule, as applying the rules one after another would.
+      for (List<Description> ruleDescriptions : descriptions) {
+        ruleDescriptions.forEach(listener::onDescribed);
+      }
+    }
+
+    @Override
+    public Void scan(Tree tree, Void unused) {
+      if (tree == null) {
+        return null;
+      }
+      for (Candidate candidate : index.candidates(tree)) {
+        int rule = candidate.rule();
+        if (!disabled.get(rule)) {
+          RefasterRule<?, ?> refasterRule = members.get(rule).rule();
+          describeMatches(
+              refasterRule,
+              refasterRule.beforeTemplates().get(candidate.template()),
+              (JCTree) tree,
+              contextFor(rule),
+              descriptions.get(rule)::add);
+        }
+      }
+      return super.scan(tree, null);
+    }
+
+    private Context contextFor(int rule) {
+      ImmutableList<UTypeVar> typeVariables = members.get(rule).rule().typeVariables();
+      if (typeVariables.isEmpty()) {
+        return context;
+      }
+      Context ruleContext = ruleContexts[rule];
+      if (ruleContext == null) {
+        ruleContext = RefasterRule.prepareContext(baseContext, compilationUnit, typeVariables);
+        ruleContexts[rule] = ruleContext;
+      }
+      return ruleContext;
+    }
+
+    @Override
+    public Void visitClass(ClassTree node, Void unused) {
+      BitSet outer = disabled;
+      // Rules don't match inside their own template class.
+      disabled =
+          disable(node, index.rulesDeclaredBy(ASTHelpers.getSymbol(node).getQualifiedName()));
+      try {
+        if (anyEnabled()) {
+          ListBuffer<JCStatement> statements = new ListBuffer<>();
+          for (Tree tree : node.getMembers()) {
+            if (tree instanceof JCStatement jCStatement) {
+              statements.append(jCStatement);
+            } else {
+              tree.accept(this, null);
+            }
+          }
+          scan(TreeMaker.instance(context).Block(0, statements.toList()), null);
+        }
+      } finally {
+        disabled = outer;
+      }
+      return null;
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void unused) {
+      BitSet outer = disabled;
+      disabled = disable(node, ImmutableSet.of());
+      try {
+        return anyEnabled() ? super.visitMethod(node, null) : null;
+      } finally {
+        disabled = outer;
+      }
+    }
+
+    @Override
+    public Void visitVariable(VariableTree node, Void unused) {
+      BitSet outer = disabled;
+      disabled = disable(node, ImmutableSet.of());
+      try {
+        return anyEnabled() ? super.visitVariable(node, null) : null;
+      } finally {
+        disabled = outer;
+      }
+    }
+
+    /*
+     * Matching on the parentheses surrounding the condition of an if, while, or do-while
+     * is nonsensical, as those parentheses are obligatory and should never be changed.
+     */
+
+    @Override
+    public Void visitDoWhileLoop(DoWhileLoopTree node, Void unused) {
+      scan(node.getStatement(), null);
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getCondition(), null), null);
+      return null;
+    }
+
+    @Override
+    public Void visitWhileLoop(WhileLoopTree node, Void unused) {
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getCondition(), null), null);
+      scan(node.getStatement(), null);
+      return null;
+    }
+
+    @Override
+    public Void visitSynchronized(SynchronizedTree node, Void unused) {
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getExpression(), null), null);
+      scan(node.getBlock(), null);
+      return null;
+    }
+
+    @Override
+    public Void visitIf(IfTree node, Void unused) {
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getCondition(), null), null);
+      scan(node.getThenStatement(), null);
+      scan(node.getElseStatement(), null);
+      return null;
+    }
+
+    private boolean anyEnabled() {
+      return disabled.cardinality() < members.size();
+    }
+
+    /**
+     * Returns the rules disabled in the given declaration: those disabled outside of it, those
+     * suppressed on it, and the given ones.
+     */
+    private BitSet disable(Tree declaration, Collection<Integer> alsoDisabled) {
+      BitSet result = disabled;
+      SuppressionInfo suppressions = RefasterSuppressionHelper.suppressions(declaration, state);
+      if (suppressions != null && !suppressions.isEmpty()) {
+        for (int i = 0; i < members.size(); i++) {
+          if (!result.get(i)
+              && RefasterSuppressionHelper.suppressed(
+                  members.get(i).qualifiedTemplateClass(), suppressions, state)) {
+            result = withRule(result, i);
+          }
+        }
+      }
+      for (int i : alsoDisabled) {
+        result = withRule(result, i);
+      }
+      return result;
+    }
+
+    private BitSet withRule(BitSet set, int rule) {
+      if (set.get(rule)) {
+        return set;
+      }
+      BitSet result = set == disabled ? (BitSet) set.clone() : set;
+      result.set(rule);
+      return result;
+    }
+  }
+
+  @SuppressWarnings("unchecked") // the template is one of the rule's @BeforeTemplates
+  private static <M extends TemplateMatch, T extends Template<M>> void describeMatches(
+      RefasterRule<M, T> rule,
+      Template<?> template,
+      JCTree tree,
+      Context context,
+      DescriptionListener listener) {
+    RefasterScanner.describeMatches(rule, (T) template, tree, context, listener);
+  }
+}
@@ -27,6 +27,7 @@ import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Name;
 import java.lang.annotation.Annotation;
 import java.util.Set;
+import org.jspecify.annotations.Nullable;
 
 /** Helpers for handling suppression annotations in refaster. */
 final class RefasterSuppressionHelper {
@@ -37,23 +38,43 @@ final class RefasterSuppressionHelper {
    * <p>Unlike Error Prone, which scans the compilation unit once for all checks, refaster scans the
    * compilation unit separately for each check. This simplifies suppression handling, since we can
    * just stop recursively scanning as soon as a suppression is found for the current refaster rule.
+   * A {@link RefasterRuleSet} instead tracks the suppressed rules while scanning, using {@link
+   * #suppressions} and {@link #suppressed(String, SuppressionInfo, VisitorState)}.
    */
   static boolean suppressed(RefasterRule<?, ?> rule, Tree tree, Context context) {
     VisitorState state = VisitorState.createForUtilityPurposes(context);
+    SuppressionInfo suppressions = suppressions(tree, state);
+    return suppressions != null && suppressed(rule.qualifiedTemplateClass(), suppressions, state);
+  }
+
+  /**
+   * Returns the suppressions declared on the given tree, or {@code null} if it doesn't declare a
+   * symbol.
+   */
+  static @Nullable SuppressionInfo suppressions(Tree tree, VisitorState state) {
     Symbol sym = ASTHelpers.getDeclaredSymbol(tree);
     if (sym == null) {
-      return false;
+      return null;
     }
-    return SuppressionInfo.EMPTY
-        .withExtendedSuppressions(
-            sym, state, /* customSuppressionAnnosToLookFor= */ ImmutableSet.of())
+    return SuppressionInfo.EMPTY.withExtendedSuppressions(
+        sym, state, /* customSuppressionAnnosToLookFor= */ ImmutableSet.of());
+  }
+
+  /**
+   * Returns true if the rules of the given template class are suppressed by the given suppressions.
+   */
+  static boolean suppressed(
+      String qualifiedTemplateClass, SuppressionInfo suppressions, VisitorState state) {
+    return suppressions
         .suppressedState(
-            new RefasterSuppressible(rule), /* suppressedInGeneratedCode= */ false, state)
+            new RefasterSuppressible(RefasterRule.fromSecondLevel(qualifiedTemplateClass)),
+            /* suppressedInGeneratedCode= */ false,
+            state)
         .equals(SuppressionInfo.SuppressedState.SUPPRESSED);
   }
 
-  /** Adapts a {@link RefasterRule<?, ?>} into a {@link Suppressible}. */
-  private record RefasterSuppressible(RefasterRule<?, ?> rule) implements Suppressible {
+  /** Adapts a {@link RefasterRule<?, ?>}, by its template name, into a {@link Suppressible}. */
+  private record RefasterSuppressible(String simpleTemplateName) implements Suppressible {
     @Override
     public Set<String> allNames() {
       return ImmutableSet.of(canonicalName());
@@ -61,7 +82,7 @@ final class RefasterSuppressionHelper {
 
     @Override
     public String canonicalName() {
-      return rule.simpleTemplateName();
+      return simpleTemplateName;
     }
 
     @Override
@@ -49,16 +49,27 @@ abstract class UBlock extends USimpleStatement implements BlockTree {
       Iterable<? extends UStatement> statements,
       Iterable<? extends StatementTree> targets,
       Unifier unifier) {
-    Choice<UnifierWithUnconsumedStatements> choice =
-        Choice.of(UnifierWithUnconsumedStatements.create(unifier, ImmutableList.copyOf(targets)));
+    return unifyStatements(
+            statements,
+            UnifierWithUnconsumedStatements.create(unifier, ImmutableList.copyOf(targets)))
+        .mapIfPresent(
+            (UnifierWithUnconsumedStatements state) ->
+                state.unconsumedStatements().isEmpty()
+                    ? Optional.of(state.unifier())
+                    : Optional.<Unifier>empty());
+  }
+
+  /**
+   * Returns all the ways {@code statements} can be unified with a prefix of the unconsumed
+   * statements of {@code state}.
+   */
+  static Choice<UnifierWithUnconsumedStatements> unifyStatements(
+      Iterable<? extends UStatement> statements, UnifierWithUnconsumedStatements state) {
+    Choice<UnifierWithUnconsumedStatements> choice = Choice.of(state);
     for (UStatement statement : statements) {
       choice = choice.flatMap(statement);
     }
-    return choice.mapIfPresent(
-        (UnifierWithUnconsumedStatements state) ->
-            state.unconsumedStatements().isEmpty()
-                ? Optional.of(state.unifier())
-                : Optional.<Unifier>empty());
+    return choice;
   }
 
   static com.sun.tools.javac.util.List<JCStatement> inlineStatementList(
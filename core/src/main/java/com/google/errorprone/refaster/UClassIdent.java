@@ -52,7 +52,7 @@ abstract class UClassIdent extends UIdent {
     return create(ASTHelpers.outermostClass(sym).getQualifiedName(), sym.getQualifiedName());
   }
 
-  private static UClassIdent create(CharSequence topLevelClass, CharSequence name) {
+  static UClassIdent create(CharSequence topLevelClass, CharSequence name) {
     return new AutoValue_UClassIdent(topLevelClass.toString(), StringName.of(name));
   }
 
@@ -48,16 +48,18 @@ abstract class UConditional extends UExpression implements ConditionalExpression
   @Override
   public @Nullable Choice<Unifier> visitConditionalExpression(
       ConditionalExpressionTree conditional, Unifier unifier) {
+    Unifier negatedUnifier = unifier.fork();
     return getCondition()
         .unify(conditional.getCondition(), unifier.fork())
         .flatMap(unifications(getTrueExpression(), conditional.getTrueExpression()))
         .flatMap(unifications(getFalseExpression(), conditional.getFalseExpression()))
         .concat(
-            getCondition()
-                .negate()
-                .unify(conditional.getCondition(), unifier.fork())
-                .flatMap(unifications(getFalseExpression(), conditional.getTrueExpression()))
-                .flatMap(unifications(getTrueExpression(), conditional.getFalseExpression())));
+            () ->
+                getCondition()
+                    .negate()
+                    .unify(conditional.getCondition(), negatedUnifier)
+                    .flatMap(unifications(getFalseExpression(), conditional.getTrueExpression()))
+                    .flatMap(unifications(getTrueExpression(), conditional.getFalseExpression())));
   }
 
   @Override
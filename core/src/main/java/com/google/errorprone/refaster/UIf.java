@@ -26,6 +26,7 @@ import com.sun.source.tree.TreeVisitor;
 import com.sun.tools.javac.tree.JCTree.JCStatement;
 import com.sun.tools.javac.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -110,14 +111,14 @@ record UIf(UExpression condition, UStatement thenStatement, @Nullable UStatement
                                 UnifierWithUnconsumedStatements.create(
                                     unifierAfterThen.fork(), unconsumedStatementsTail));
                     if (getElseStatement() instanceof UBlock uBlock) {
-                      Choice<UnifierWithUnconsumedStatements> alternative =
-                          Choice.of(
-                              UnifierWithUnconsumedStatements.create(
-                                  unifierAfterThen.fork(), unconsumedStatementsTail));
-                      for (UStatement stmt : uBlock.getStatements()) {
-                        alternative = alternative.flatMap(stmt);
-                      }
-                      result = result.concat(alternative);
+                      Unifier alternativeUnifier = unifierAfterThen.fork();
+                      result =
+                          result.concat(
+                              () ->
+                                  UBlock.unifyStatements(
+                                      uBlock.getStatements(),
+                                      UnifierWithUnconsumedStatements.create(
+                                          alternativeUnifier, unconsumedStatementsTail)));
                     }
                     return result;
                   } else {
@@ -130,56 +131,58 @@ record UIf(UExpression condition, UStatement thenStatement, @Nullable UStatement
                                     unifierAfterElse, unconsumedStatementsTail));
                   }
                 });
-    Choice<UnifierWithUnconsumedStatements> backwardMatch =
-        getCondition()
-            .negate()
-            .unify(ifTree.getCondition(), unifier.fork())
-            .flatMap(
-                unifierAfterCond -> {
-                  if (getElseStatement() == null) {
-                    return Choice.none();
-                  }
-                  return getElseStatement()
-                      .apply(
-                          UnifierWithUnconsumedStatements.create(
-                              unifierAfterCond, List.of(ifTree.getThenStatement())))
-                      .mapIfPresent(
-                          (UnifierWithUnconsumedStatements stateAfterThen) ->
-                              stateAfterThen.unconsumedStatements().isEmpty()
-                                  ? Optional.of(stateAfterThen.unifier())
-                                  : Optional.<Unifier>empty());
-                })
-            .flatMap(
-                unifierAfterThen -> {
-                  if (ifTree.getElseStatement() == null
-                      && ControlFlowVisitor.INSTANCE.visitStatement(ifTree.getThenStatement())
-                          == Result.ALWAYS_RETURNS) {
-                    Choice<UnifierWithUnconsumedStatements> result =
-                        getThenStatement()
-                            .apply(
-                                UnifierWithUnconsumedStatements.create(
-                                    unifierAfterThen.fork(), unconsumedStatementsTail));
-                    if (getThenStatement() instanceof UBlock uBlock) {
-                      Choice<UnifierWithUnconsumedStatements> alternative =
-                          Choice.of(
+    Unifier backwardUnifier = unifier.fork();
+    Supplier<Choice<UnifierWithUnconsumedStatements>> backwardMatch =
+        () ->
+            getCondition()
+                .negate()
+                .unify(ifTree.getCondition(), backwardUnifier)
+                .flatMap(
+                    unifierAfterCond -> {
+                      if (getElseStatement() == null) {
+                        return Choice.none();
+                      }
+                      return getElseStatement()
+                          .apply(
                               UnifierWithUnconsumedStatements.create(
-                                  unifierAfterThen.fork(), unconsumedStatementsTail));
-                      for (UStatement stmt : uBlock.getStatements()) {
-                        alternative = alternative.flatMap(stmt);
+                                  unifierAfterCond, List.of(ifTree.getThenStatement())))
+                          .mapIfPresent(
+                              (UnifierWithUnconsumedStatements stateAfterThen) ->
+                                  stateAfterThen.unconsumedStatements().isEmpty()
+                                      ? Optional.of(stateAfterThen.unifier())
+                                      : Optional.<Unifier>empty());
+                    })
+                .flatMap(
+                    unifierAfterThen -> {
+                      if (ifTree.getElseStatement() == null
+                          && ControlFlowVisitor.INSTANCE.visitStatement(ifTree.getThenStatement())
+                              == Result.ALWAYS_RETURNS) {
+                        Choice<UnifierWithUnconsumedStatements> result =
+                            getThenStatement()
+                                .apply(
+                                    UnifierWithUnconsumedStatements.create(
+                                        unifierAfterThen.fork(), unconsumedStatementsTail));
+                        if (getThenStatement() instanceof UBlock uBlock) {
+                          Unifier alternativeUnifier = unifierAfterThen.fork();
+                          result =
+                              result.concat(
+                                  () ->
+                                      UBlock.unifyStatements(
+                                          uBlock.getStatements(),
+                                          UnifierWithUnconsumedStatements.create(
+                                              alternativeUnifier, unconsumedStatementsTail)));
+                        }
+                        return result;
+                      } else {
+                        return unifyUStatementWithSingleStatement(
+                                getThenStatement(), ifTree.getElseStatement())
+                            .apply(unifierAfterThen)
+                            .map(
+                                unifierAfterElse ->
+                                    UnifierWithUnconsumedStatements.create(
+                                        unifierAfterElse, unconsumedStatementsTail));
                       }
-                      result = result.concat(alternative);
-                    }
-                    return result;
-                  } else {
-                    return unifyUStatementWithSingleStatement(
-                            getThenStatement(), ifTree.getElseStatement())
-                        .apply(unifierAfterThen)
-                        .map(
-                            unifierAfterElse ->
-                                UnifierWithUnconsumedStatements.create(
-                                    unifierAfterElse, unconsumedStatementsTail));
-                  }
-                });
+                    });
     return forwardMatch.concat(backwardMatch);
   }
 
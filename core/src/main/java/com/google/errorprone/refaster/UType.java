@@ -38,4 +38,14 @@ public abstract class UType extends Types.SimpleVisitor<Choice<Unifier>, Unifier
   public final Choice<Unifier> unify(Type target, Unifier unifier) {
     return (target != null) ? target.accept(this, unifier) : Choice.<Unifier>none();
   }
+
+  /**
+   * Returns true if the given object is a type that can be shared by every template that uses an
+   * equal type, e.g. when writing rules to a bundle. Types that may refer to type variables aren't
+   * shared, since type variables are mutable.
+   */
+  public static boolean isShareable(Object o) {
+    return o instanceof UPrimitiveType
+        || (o instanceof UClassType classType && classType.typeArguments().isEmpty());
+  }
 }
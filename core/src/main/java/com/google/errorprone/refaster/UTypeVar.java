@@ -24,6 +24,8 @@ import com.google.common.base.Objects;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.Type.TypeVar;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
+import java.util.ArrayList;
+import java.util.List;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -136,14 +138,34 @@ public final class UTypeVar extends UType {
     return Objects.hashCode(name);
   }
 
+  /**
+   * The pairs of type variables whose bounds are being compared on this thread. Bounds can refer to
+   * the type variable itself, as in {@code T extends Comparable<T>}, so a pair that's compared again
+   * while comparing its bounds is assumed to be equal.
+   */
+  private static final ThreadLocal<List<UTypeVar[]>> comparing =
+      ThreadLocal.withInitial(ArrayList::new);
+
   @Override
   public boolean equals(@Nullable Object obj) {
     if (this == obj) {
       return true;
     } else if (obj instanceof UTypeVar typeVar) {
-      return name.equals(typeVar.name)
-          && lowerBound.equals(typeVar.lowerBound)
-          && upperBound.equals(typeVar.upperBound);
+      if (!name.equals(typeVar.name)) {
+        return false;
+      }
+      List<UTypeVar[]> pairs = comparing.get();
+      for (UTypeVar[] pair : pairs) {
+        if (pair[0] == this && pair[1] == typeVar) {
+          return true;
+        }
+      }
+      pairs.add(new UTypeVar[] {this, typeVar});
+      try {
+        return lowerBound.equals(typeVar.lowerBound) && upperBound.equals(typeVar.upperBound);
+      } finally {
+        pairs.removeLast();
+      }
     }
     return false;
   }
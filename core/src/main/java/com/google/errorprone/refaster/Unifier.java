@@ -18,7 +18,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Function;
-import com.google.errorprone.SubContext;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.Types;
@@ -27,8 +26,11 @@ import com.sun.tools.javac.tree.JCTree.JCExpression;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.Context;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -38,18 +40,39 @@ import org.jspecify.annotations.Nullable;
  * @author Louis Wasserman
  */
 public final class Unifier {
-  private final Bindings bindings;
+  /** The shortest trail that is compacted, dropping replaced and cleared bindings. */
+  private static final int MIN_COMPACTED_TRAIL_LENGTH = 64;
+
+  /**
+   * A binding, and the bindings made before it. A null value records that the key was cleared.
+   *
+   * <p>Trails are immutable, and forks of a {@code Unifier} share them, so forking is a
+   * constant-time operation, and abandoning a fork rolls back everything bound in it.
+   */
+  private record Trail(
+      Bindings.Key<?> key, @Nullable Object value, @Nullable Trail previous, int length) {
+    Trail(Bindings.Key<?> key, @Nullable Object value, @Nullable Trail previous) {
+      this(key, value, previous, previous == null ? 1 : previous.length + 1);
+    }
+  }
 
   private final Context context;
 
+  private @Nullable Trail trail;
+
+  /** The trail length at which to compact the trail, which is twice its length once compacted. */
+  private int compactionLength = MIN_COMPACTED_TRAIL_LENGTH;
+
+  /** The bindings on {@link #trail}, as a map, if they've been needed since they last changed. */
+  private @Nullable Bindings bindings;
+
   public Unifier(Context context) {
-    this.bindings = Bindings.create();
-    this.context = checkNotNull(context);
+    this(checkNotNull(context), null);
   }
 
-  private Unifier(Context context, Bindings bindings) {
-    this.context = new SubContext(context);
-    this.bindings = Bindings.create(bindings);
+  private Unifier(Context context, @Nullable Trail trail) {
+    this.context = context;
+    this.trail = trail;
   }
 
   /**
@@ -57,7 +80,7 @@ public final class Unifier {
    * succeed or fail independently of this {@code Unifier}.
    */
   public Unifier fork() {
-    return new Unifier(context, bindings);
+    return new Unifier(context, trail);
   }
 
   public Types types() {
@@ -69,30 +92,71 @@ public final class Unifier {
   }
 
   public Inliner createInliner() {
-    return new Inliner(context, bindings);
+    return new Inliner(context, bindings());
   }
 
+  @SuppressWarnings("unchecked")
   public <V> @Nullable V getBinding(Bindings.Key<V> key) {
-    return bindings.getBinding(key);
+    checkNotNull(key);
+    for (Trail t = trail; t != null; t = t.previous()) {
+      if (t.key().equals(key)) {
+        return (V) t.value();
+      }
+    }
+    return null;
   }
 
   @CanIgnoreReturnValue
-  public <V> V putBinding(Bindings.Key<V> key, V value) {
-    checkArgument(!bindings.containsKey(key), "Cannot bind %s more than once", key);
-    return bindings.putBinding(key, value);
+  public <V> @Nullable V putBinding(Bindings.Key<V> key, V value) {
+    checkArgument(getBinding(key) == null, "Cannot bind %s more than once", key);
+    bind(key, checkNotNull(value));
+    return null;
   }
 
   public <V> V replaceBinding(Bindings.Key<V> key, V value) {
-    checkArgument(bindings.containsKey(key), "Binding for %s does not exist", key);
-    return bindings.putBinding(key, value);
+    V previous = getBinding(key);
+    checkArgument(previous != null, "Binding for %s does not exist", key);
+    bind(key, checkNotNull(value));
+    return previous;
   }
 
   public void clearBinding(Bindings.Key<?> key) {
-    bindings.remove(key);
+    if (getBinding(key) != null) {
+      bind(key, null);
+    }
+  }
+
+  private void bind(Bindings.Key<?> key, @Nullable Object value) {
+    trail = new Trail(key, value, trail);
+    bindings = null;
+    if (trail.length() >= compactionLength) {
+      Trail compacted = null;
+      for (Map.Entry<Bindings.Key<?>, Object> entry : bindings().entrySet()) {
+        compacted = new Trail(entry.getKey(), entry.getValue(), compacted);
+      }
+      trail = compacted;
+      compactionLength =
+          Math.max(MIN_COMPACTED_TRAIL_LENGTH, compacted == null ? 0 : 2 * compacted.length());
+    }
+  }
+
+  @SuppressWarnings("unchecked") // the trail only pairs keys with values of their type
+  private Bindings bindings() {
+    if (bindings == null) {
+      Set<Bindings.Key<?>> seen = new HashSet<>();
+      Bindings result = Bindings.create();
+      for (Trail t = trail; t != null; t = t.previous()) {
+        if (seen.add(t.key()) && t.value() != null) {
+          result.putBinding((Bindings.Key<Object>) t.key(), t.value());
+        }
+      }
+      bindings = result.unmodifiable();
+    }
+    return bindings;
   }
 
   public Bindings getBindings() {
-    return bindings.unmodifiable();
+    return bindings();
   }
 
   public Context getContext() {
@@ -101,7 +165,7 @@ public final class Unifier {
 
   @Override
   public String toString() {
-    return "Unifier{" + bindings + "}";
+    return "Unifier{" + bindings() + "}";
   }
 
   public static <T, U extends Unifiable<? super T>> Function<Unifier, Choice<Unifier>> unifications(
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import com.google.errorprone.bugpatterns.DeadException;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link BugCheckerRegistry}Test */
+@RunWith(JUnit4.class)
+public class BugCheckerRegistryTest {
+
+  @Test
+  public void precomputedInfoMatchesAnnotation() {
+    int precomputed = 0;
+    for (BugCheckerInfo info : BuiltInCheckerSuppliers.allChecks().getAllChecks().values()) {
+      BugCheckerInfo registered = BugCheckerRegistry.lookupInfo(info.checkerClass());
+      if (registered == null) {
+        continue;
+      }
+      precomputed++;
+      BugCheckerInfo expected = BugCheckerInfo.createFromAnnotation(info.checkerClass());
+      String name = expected.canonicalName();
+      assertWithMessage(name).that(registered.canonicalName()).isEqualTo(name);
+      assertWithMessage(name).that(registered.allNames()).isEqualTo(expected.allNames());
+      assertWithMessage(name).that(registered.message()).isEqualTo(expected.message());
+      assertWithMessage(name)
+          .that(registered.defaultSeverity())
+          .isEqualTo(expected.defaultSeverity());
+      assertWithMessage(name).that(registered.linkUrl()).isEqualTo(expected.linkUrl());
+      assertWithMessage(name)
+          .that(registered.supportsSuppressWarnings())
+          .isEqualTo(expected.supportsSuppressWarnings());
+      assertWithMessage(name)
+          .that(registered.customSuppressionAnnotations())
+          .isEqualTo(expected.customSuppressionAnnotations());
+      assertWithMessage(name).that(registered.getTags()).isEqualTo(expected.getTags());
+      assertWithMessage(name).that(registered.disableable()).isEqualTo(expected.disableable());
+    }
+    assertThat(precomputed).isGreaterThan(0);
+  }
+
+  @Test
+  public void newInstance() {
+    assertThat(BugCheckerRegistry.newInstance(DeadException.class, ErrorProneFlags.empty()))
+        .isInstanceOf(DeadException.class);
+  }
+
+  @Test
+  public void newInstance_notAChecker() {
+    assertThat(BugCheckerRegistry.newInstance(String.class, ErrorProneFlags.empty())).isNull();
+  }
+}
@@ -21,6 +21,7 @@ import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.DiagnosticTestHelper.DIAGNOSTIC_CONTAINING;
 import static com.google.errorprone.FileObjects.forResources;
 import static com.google.errorprone.FileObjects.forSourceLines;
@@ -46,6 +47,7 @@ import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.ReturnTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.NonAtomicVolatileUpdate;
+import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
 import com.google.errorprone.scanner.ScannerSupplier;
@@ -62,10 +64,13 @@ import com.sun.source.tree.VariableTree;
 import com.sun.tools.javac.main.Main.Result;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 import javax.lang.model.element.Name;
 import javax.tools.Diagnostic;
@@ -909,4 +914,139 @@ public class ErrorProneCompilerIntegrationTest {
         .contains(
             "com.google.errorprone.SourcePositionException: invalid source position: [35, 29)");
   }
+
+  /** A check that counts the methods it has matched, and suggests a fix for each. */
+  @BugPattern(summary = "", severity = WARNING)
+  public static class CountingMethodMatcher extends BugChecker implements MethodTreeMatcher {
+    static final AtomicInteger matched = new AtomicInteger();
+
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      if (ASTHelpers.isGeneratedConstructor(tree)) {
+        return NO_MATCH;
+      }
+      matched.incrementAndGet();
+      return describeMatch(tree, SuggestedFix.prefixWith(tree, "@Deprecated "));
+    }
+  }
+
+  @Test
+  public void findingsCacheReplaysFindings() throws Exception {
+    Path timings = tmpFolder.newFile("timings.json").toPath();
+    String[] args = {
+      "-XepFindingsCache:" + tmpFolder.newFolder("findings"), "-XepTimingsOutput:" + timings
+    };
+    ImmutableList<JavaFileObject> sources =
+        ImmutableList.of(
+            forSourceLines(
+                "Test.java",
+                """
+                package test;
+                class Test {
+                  void a() {}
+                  void b() {}
+                }
+                """));
+    compilerBuilder.report(ScannerSupplier.fromBugCheckerClasses(CountingMethodMatcher.class));
+    CountingMethodMatcher.matched.set(0);
+
+    assertThat(compilerBuilder.build().compile(args, sources)).isEqualTo(Result.OK);
+    assertThat(Files.readString(timings))
+        .contains("\"findingsCache\": {\"hits\": 0, \"misses\": 1, \"evictions\": 0}");
+    ImmutableList<String> first =
+        diagnosticHelper.getDiagnostics().stream()
+            .map(d -> d.getLineNumber() + ": " + d.getMessage(ENGLISH))
+            .collect(toImmutableList());
+    diagnosticHelper.clearDiagnostics();
+    assertThat(compilerBuilder.build().compile(args, sources)).isEqualTo(Result.OK);
+    assertThat(Files.readString(timings))
+        .contains("\"findingsCache\": {\"hits\": 1, \"misses\": 0, \"evictions\": 0}");
+    ImmutableList<String> second =
+        diagnosticHelper.getDiagnostics().stream()
+            .map(d -> d.getLineNumber() + ": " + d.getMessage(ENGLISH))
+            .collect(toImmutableList());
+
+    assertThat(first).hasSize(2);
+    assertThat(first.get(0)).contains("Did you mean '@Deprecated void a() {}'?");
+    assertThat(second).isEqualTo(first);
+    // The check only ran during the first compilation.
+    assertThat(CountingMethodMatcher.matched.get()).isEqualTo(2);
+    assertThat(outputStream.toString()).doesNotContain("findings cache");
+  }
+
+  @Test
+  public void findingsCacheDistinguishesFilesWithTheSameName() throws Exception {
+    Path timings = tmpFolder.newFile("timings.json").toPath();
+    String[] args = {
+      "-XepFindingsCache:" + tmpFolder.newFolder("findings"), "-XepTimingsOutput:" + timings
+    };
+    String source =
+        """
+        package test;
+        class Test {
+          void a() {}
+        }
+        """;
+    compilerBuilder.report(ScannerSupplier.fromBugCheckerClasses(CountingMethodMatcher.class));
+    CountingMethodMatcher.matched.set(0);
+
+    assertThat(
+            compilerBuilder
+                .build()
+                .compile(args, ImmutableList.of(forSourceLines("a/test/Test.java", source))))
+        .isEqualTo(Result.OK);
+    assertThat(
+            compilerBuilder
+                .build()
+                .compile(args, ImmutableList.of(forSourceLines("b/test/Test.java", source))))
+        .isEqualTo(Result.OK);
+
+    assertThat(CountingMethodMatcher.matched.get()).isEqualTo(2);
+    assertThat(Files.readString(timings)).contains("\"findingsCache\": {\"hits\": 0,");
+  }
+
+  /** A check that takes a while for every method. */
+  @BugPattern(summary = "", severity = WARNING)
+  public static class SlowMethodMatcher extends BugChecker implements MethodTreeMatcher {
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      if (ASTHelpers.isGeneratedConstructor(tree)) {
+        return NO_MATCH;
+      }
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+      return buildDescription(tree).setMessage("method " + tree.getName()).build();
+    }
+  }
+
+  @Test
+  public void checkTimeBudgetSkipsSlowChecksForTheRestOfTheFile() {
+    compilerBuilder.report(ScannerSupplier.fromBugCheckerClasses(SlowMethodMatcher.class));
+    compiler = compilerBuilder.build();
+    Result exitCode =
+        compiler.compile(
+            new String[] {"-XepCheckTimeBudget:10ms"},
+            ImmutableList.of(
+                forSourceLines(
+                    "Test.java",
+                    """
+                    package test;
+                    class Test {
+                      void a() {}
+                      void b() {}
+                      void c() {}
+                    }
+                    """)));
+    outputStream.flush();
+
+    assertWithMessage(outputStream.toString()).that(exitCode).isEqualTo(Result.OK);
+    assertThat(diagnosticHelper.getDiagnostics())
+        .comparingElementsUsing(DIAGNOSTIC_CONTAINING)
+        .containsExactly("method a");
+    assertThat(outputStream.toString()).contains("SlowMethodMatcher spent");
+    assertThat(outputStream.toString()).contains("and was skipped for the rest of the file");
+  }
 }
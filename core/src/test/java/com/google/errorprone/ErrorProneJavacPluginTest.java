@@ -225,6 +225,65 @@ public class ErrorProneJavacPluginTest {
         .containsExactly("A.java", "B.java");
   }
 
+  @Test
+  public void applyToPatchFilePerPackage() throws IOException {
+    // TODO(b/63064865): Test is broken on Windows.  Disable for now.
+    Assume.assumeFalse(StandardSystemProperty.OS_NAME.value().startsWith("Windows"));
+
+    Path tmp = temporaryFolder.newFolder().toPath();
+    Path patchDir = temporaryFolder.newFolder().toPath();
+    Path fileA = tmp.resolve("A.java");
+    Path fileB = tmp.resolve("B.java");
+    Files.write(
+        fileA,
+        ImmutableList.of(
+            "package a;", //
+            "class A implements Runnable {",
+            "  public void run() {}",
+            "}"),
+        UTF_8);
+    Files.write(
+        fileB,
+        ImmutableList.of(
+            "class B implements Runnable {", //
+            "  public void run() {}",
+            "}"),
+        UTF_8);
+    JavacFileManager fileManager = new JavacFileManager(new Context(), false, UTF_8);
+    DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
+    JavacTask task =
+        JavacTool.create()
+            .getTask(
+                null,
+                fileManager,
+                diagnosticCollector,
+                ImmutableList.of(
+                    "-Xplugin:ErrorProne"
+                        + " -XepPatchChecks:MissingOverride -XepPatchFilePerPackage"
+                        + " -XepPatchLocation:"
+                        + patchDir,
+                    "-XDcompilePolicy=byfile",
+                    "--should-stop=ifError=FLOW",
+                    "-XDaddTypeAnnotationsToSymbol=true"),
+                ImmutableList.of(),
+                fileManager.getJavaFileObjects(fileA, fileB));
+    assertWithMessage(Joiner.on('\n').join(diagnosticCollector.getDiagnostics()))
+        .that(task.call())
+        .isTrue();
+    assertThat(
+            Files.readAllLines(patchDir.resolve("error-prone-a.patch"), UTF_8).stream()
+                .filter(l -> l.startsWith("--- "))
+                .map(l -> Paths.get(l.substring("--- ".length())).getFileName().toString())
+                .collect(toImmutableList()))
+        .containsExactly("A.java");
+    assertThat(
+            Files.readAllLines(patchDir.resolve("error-prone.patch"), UTF_8).stream()
+                .filter(l -> l.startsWith("--- "))
+                .map(l -> Paths.get(l.substring("--- ".length())).getFileName().toString())
+                .collect(toImmutableList()))
+        .containsExactly("B.java");
+  }
+
   @Test
   public void noPolicyGiven() throws IOException {
     FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.checkreturnvalue;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.EXPECTED;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.UNSPECIFIED;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope.ENCLOSING_ELEMENTS;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope.METHOD;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.SymbolRule;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ResultUsePolicyEvaluator}. */
+@RunWith(JUnit4.class)
+public final class ResultUsePolicyEvaluatorTest {
+
+  private static final ImmutableMap<String, String> ENCLOSING_CLASSES =
+      ImmutableMap.of("Foo#a", "Foo", "Foo#b", "Foo", "Bar#c", "Bar");
+
+  private static final ResultUsePolicyEvaluator.MethodInfo<Object, String, String> METHOD_INFO =
+      new ResultUsePolicyEvaluator.MethodInfo<>() {
+        @Override
+        public Stream<String> scopeMembers(RuleScope scope, String method, Object context) {
+          return switch (scope) {
+            case ENCLOSING_ELEMENTS -> Stream.of(ENCLOSING_CLASSES.get(method));
+            case GLOBAL, METHOD -> Stream.of(method);
+          };
+        }
+
+        @Override
+        public MethodKind getMethodKind(String method) {
+          return MethodKind.METHOD;
+        }
+      };
+
+  private final List<String> evaluated = new ArrayList<>();
+  private final List<String> lookups = new ArrayList<>();
+
+  private final ResultUsePolicyEvaluator<Object, String, String> evaluator =
+      ResultUsePolicyEvaluator.builder(METHOD_INFO)
+          .cacheListener((context, scope, hit) -> lookups.add(scope + (hit ? " hit" : " miss")))
+          .addRule(
+              new SymbolRule<Object, String>() {
+                @Override
+                public String id() {
+                  return "FooIsExpected";
+                }
+
+                @Override
+                public Optional<ResultUsePolicy> evaluate(String symbol, Object context) {
+                  evaluated.add(symbol);
+                  return symbol.equals("Foo") ? Optional.of(EXPECTED) : Optional.empty();
+                }
+              })
+          .build();
+
+  @Test
+  public void cachesMethodsAndEnclosingElements() {
+    assertThat(evaluator.evaluate("Foo#a", new Object())).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("Foo#a", new Object())).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("Foo#b", new Object())).isEqualTo(EXPECTED);
+
+    assertThat(evaluated).containsExactly("Foo#a", "Foo", "Foo#b").inOrder();
+    assertThat(lookups)
+        .containsExactly(
+            METHOD + " miss",
+            ENCLOSING_ELEMENTS + " miss",
+            METHOD + " hit",
+            METHOD + " miss",
+            ENCLOSING_ELEMENTS + " hit")
+        .inOrder();
+  }
+
+  @Test
+  public void firstEvaluation() {
+    var evaluation = evaluator.firstEvaluation("Foo#a", new Object()).get();
+
+    assertThat(evaluation.rule().id()).isEqualTo("FooIsExpected");
+    assertThat(evaluation.scope()).isEqualTo(ENCLOSING_ELEMENTS);
+    assertThat(evaluation.element()).isEqualTo("Foo");
+    assertThat(evaluator.firstEvaluation("Bar#c", new Object())).isEmpty();
+    assertThat(evaluator.evaluate("Bar#c", new Object())).isEqualTo(UNSPECIFIED);
+  }
+}
@@ -140,4 +140,24 @@ public class DereferenceWithNullBranchTest {
             """)
         .doTest();
   }
+
+  @Test
+  public void positivePrivateMethodReturnsNull() {
+    helper
+        .addSourceLines(
+            "Foo.java",
+            """
+            class Foo {
+              private String name() {
+                return null;
+              }
+
+              int foo() {
+                // BUG: Diagnostic contains:
+                return name().length();
+              }
+            }
+            """)
+        .doTest();
+  }
 }
@@ -628,4 +628,65 @@ public class NullArgumentForNonNullParameterTest {
             """)
         .doTest();
   }
+
+  @Test
+  public void positivePrivateMethodDereferencesParameter() {
+    conservativeHelper
+        .addSourceLines(
+            "Foo.java",
+            """
+            class Foo {
+              private int length(String s) {
+                return s.length();
+              }
+
+              void foo() {
+                // BUG: Diagnostic contains: parameter 's' of method 'length'
+                length(null);
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void negativeOverridableMethodDereferencesParameter() {
+    conservativeHelper
+        .addSourceLines(
+            "Foo.java",
+            """
+            class Foo {
+              int length(String s) {
+                return s.length();
+              }
+
+              void foo() {
+                length(null);
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void negativePrivateMethodChecksParameter() {
+    conservativeHelper
+        .addSourceLines(
+            "Foo.java",
+            """
+            class Foo {
+              private int length(String s) {
+                if (s == null) {
+                  return 0;
+                }
+                return s.length();
+              }
+
+              void foo() {
+                length(null);
+              }
+            }
+            """)
+        .doTest();
+  }
 }
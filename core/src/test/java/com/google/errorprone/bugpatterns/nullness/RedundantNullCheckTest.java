@@ -1034,4 +1034,47 @@ public class RedundantNullCheckTest {
             """)
         .doTest();
   }
+
+  @Test
+  public void positive_privateMethodReturnsNonNull() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              private String name(boolean b) {
+                return b ? "a" : "b";
+              }
+
+              void foo(boolean b) {
+                // BUG: Diagnostic contains: RedundantNullCheck
+                if (name(b) == null) {
+                  System.out.println("name is null");
+                }
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void negative_privateMethodMayReturnNull() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              private String name(boolean b) {
+                return b ? "a" : null;
+              }
+
+              void foo(boolean b) {
+                if (name(b) == null) {
+                  System.out.println("name is null");
+                }
+              }
+            }
+            """)
+        .doTest();
+  }
 }
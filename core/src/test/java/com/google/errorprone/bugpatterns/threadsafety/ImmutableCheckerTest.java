@@ -16,21 +16,36 @@
 
 package com.google.errorprone.bugpatterns.threadsafety;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.Immutable;
 import com.google.errorprone.annotations.concurrent.LazyInit;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runners.JUnit4;
 
 /** {@link ImmutableChecker}Test */
 @RunWith(JUnit4.class)
 public class ImmutableCheckerTest {
 
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
   private final CompilationTestHelper compilationHelper =
       CompilationTestHelper.newInstance(ImmutableChecker.class, getClass());
 
@@ -416,6 +431,119 @@ public class ImmutableCheckerTest {
         .doTest();
   }
 
+  @Test
+  public void extendsMutable_sharedSupertype() {
+    compilationHelper
+        .addSourceLines(
+            "Super.java",
+            """
+            public class Super<T> {
+              public final T t = null;
+            }
+            """)
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+
+            class Test {
+              @Immutable
+              static class A extends Super<String> {}
+
+              @Immutable
+              static class B extends Super<String> {}
+
+              @Immutable
+              // BUG: Diagnostic contains: 'Super' has field 't' of type 'java.lang.Object'
+              static class C extends Super<Object> {}
+
+              @Immutable
+              // BUG: Diagnostic contains: 'Super' has field 't' of type 'java.lang.Object'
+              static class D extends Super<Object> {}
+            }
+            """)
+        .doTest();
+  }
+
+  /** A class whose summary in {@link #writeSummaries} claims that it's mutable. */
+  public static class SummarizedSuper {
+    public final int x = 42;
+  }
+
+  private Path writeSummaries(String header) throws IOException {
+    Path jar = tempFolder.newFile("summaries.jar").toPath();
+    try (OutputStream os = Files.newOutputStream(jar);
+        JarOutputStream jos = new JarOutputStream(os)) {
+      jos.putNextEntry(new JarEntry(ThreadSafetySummaries.RESOURCE));
+      jos.write(
+          (header
+                  + "Immutable\t"
+                  + SummarizedSuper.class.getName()
+                  + "\t'SummarizedSuper' is mutable according to its summary\n")
+              .getBytes(UTF_8));
+    }
+    return jar;
+  }
+
+  private static String classpathWith(Path jar) {
+    return jar + File.pathSeparator + System.getProperty("java.class.path");
+  }
+
+  @Test
+  public void extendsClasspathClass_usesSummary() throws IOException {
+    Path jar = writeSummaries(ThreadSafetySummaries.header(ErrorProneFlags.empty()));
+    compilationHelper
+        .setArgs("-cp", classpathWith(jar), "-XepOpt:ThreadSafety:ReadSummaries=true")
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import com.google.errorprone.bugpatterns.threadsafety.ImmutableCheckerTest.SummarizedSuper;
+
+            @Immutable
+            // BUG: Diagnostic contains: 'SummarizedSuper' is mutable according to its summary
+            class Test extends SummarizedSuper {}
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void extendsClasspathClass_ignoresSummaryWrittenWithOtherFlags() throws IOException {
+    Path jar =
+        writeSummaries(
+            ThreadSafetySummaries.header(
+                ErrorProneFlags.fromMap(ImmutableMap.of("Immutable:KnownImmutable", "foo.Bar"))));
+    compilationHelper
+        .setArgs("-cp", classpathWith(jar), "-XepOpt:ThreadSafety:ReadSummaries=true")
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import com.google.errorprone.bugpatterns.threadsafety.ImmutableCheckerTest.SummarizedSuper;
+
+            @Immutable
+            class Test extends SummarizedSuper {}
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void extendsClasspathClass_ignoresSummaryByDefault() throws IOException {
+    Path jar = writeSummaries(ThreadSafetySummaries.header(ErrorProneFlags.empty()));
+    compilationHelper
+        .setArgs("-cp", classpathWith(jar))
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import com.google.errorprone.bugpatterns.threadsafety.ImmutableCheckerTest.SummarizedSuper;
+
+            @Immutable
+            class Test extends SummarizedSuper {}
+            """)
+        .doTest();
+  }
+
   @Test
   public void extendsImmutableAnnotated_substBounds() {
     compilationHelper
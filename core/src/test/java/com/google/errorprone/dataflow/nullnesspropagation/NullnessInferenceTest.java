@@ -679,6 +679,42 @@ public class AnnotatedMethodTypeParamsTest {
         .doTest();
   }
 
+  @Test
+  public void cachedPerCompilationUnit() {
+    CompilationTestHelper.newInstance(CachedNullnessInferenceChecker.class, getClass())
+        .addSourceLines(
+            "CachedTest.java",
+"""
+package com.google.errorprone.dataflow.nullnesspropagation;
+
+import static com.google.errorprone.dataflow.nullnesspropagation.NullnessInferenceTest.inspectInferredExpression;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+public class CachedTest {
+  static <T> T id(T t) {
+    return t;
+  }
+
+  public void first(Object o) {
+    // BUG: Diagnostic contains: Optional[Nullable]
+    inspectInferredExpression(CachedTest.<@Nullable Object>id(o));
+    // BUG: Diagnostic contains: Optional[Non-null]
+    inspectInferredExpression(CachedTest.<@NonNull Object>id(o));
+  }
+
+  public void second(Object o) {
+    // BUG: Diagnostic contains: Optional[Non-null]
+    inspectInferredExpression(CachedTest.<@NonNull Object>id(o));
+    // BUG: Diagnostic contains: Optional.empty
+    inspectInferredExpression(o);
+  }
+}
+""")
+        .doTest();
+  }
+
   /** BugPattern to test inference of nullness qualifiers */
   @BugPattern(
       summary = "Test checker for NullnessInferenceTest",
@@ -729,4 +765,42 @@ public class AnnotatedMethodTypeParamsTest {
       }
     }
   }
+  /**
+   * Like {@link NullnessInferenceChecker}, but uses the inference cached per compilation unit, and
+   * checks that it agrees with the uncached inference.
+   */
+  @BugPattern(summary = "Test checker for NullnessInferenceTest", severity = ERROR)
+  public static final class CachedNullnessInferenceChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+
+    private static final Matcher<ExpressionTree> EXPRESSION_CALL_MATCHER =
+        staticMethod()
+            .onClass(NullnessInferenceTest.class.getName())
+            .named("inspectInferredExpression");
+
+    @Override
+    public Description matchMethodInvocation(
+        MethodInvocationTree methodInvocation, VisitorState state) {
+      if (!EXPRESSION_CALL_MATCHER.matches(methodInvocation, state)) {
+        return NO_MATCH;
+      }
+      TreePath root = state.getPath();
+      MethodTree method = ASTHelpers.findEnclosingNode(root, MethodTree.class);
+      InferredNullability inferenceRes =
+          NullnessQualifierInference.getInferredNullability(
+              method, root.getCompilationUnit(), state.context);
+      assertThat(
+              NullnessQualifierInference.getInferredNullability(
+                  method, root.getCompilationUnit(), state.context))
+          .isSameInstanceAs(inferenceRes);
+      ExpressionTree exprToInspect = methodInvocation.getArguments().get(0);
+      assertThat(inferenceRes.getExprNullness(exprToInspect))
+          .isEqualTo(
+              NullnessQualifierInference.getInferredNullability(method)
+                  .getExprNullness(exprToInspect));
+      return describeMatch(
+          exprToInspect,
+          replace(methodInvocation, inferenceRes.getExprNullness(exprToInspect).toString()));
+    }
+  }
 }
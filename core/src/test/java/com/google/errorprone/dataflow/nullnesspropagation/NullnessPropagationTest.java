@@ -823,7 +823,7 @@ public class NullnessPropagationTransferCases3 {
     int i;
     // BUG: Diagnostic contains: (Non-null)
     triggerNullnessCheckerOnPrimitive(i = boxedIntReturningMethod());
-    // BUG: Diagnostic contains: (Nullable)
+    // BUG: Diagnostic contains: (Null)
     triggerNullnessChecker(boxedIntReturningMethod());
   }
 
@@ -831,7 +831,7 @@ public class NullnessPropagationTransferCases3 {
     // BUG: Diagnostic contains: (Non-null)
     triggerNullnessCheckerOnPrimitive(intReturningMethod());
 
-    // BUG: Diagnostic contains: (Nullable)
+    // BUG: Diagnostic contains: (Null)
     triggerNullnessChecker(stringReturningMethod());
   }
 
@@ -2488,6 +2488,81 @@ public class PartialCorrectnessTest {
         .doTest();
   }
 
+  @Test
+  public void joinsAtLoopsAndWideMerges() {
+    compilationHelper
+        .addSourceLines(
+            "JoinsTest.java",
+"""
+package com.google.errorprone.dataflow.nullnesspropagation;
+
+import static com.google.errorprone.dataflow.nullnesspropagation.NullnessPropagationTest.triggerNullnessChecker;
+
+public class JoinsTest {
+  public void wideSwitch(int x) {
+    String s = "s";
+    Object o = "o";
+    switch (x) {
+      case 0:
+        o = "0";
+        break;
+      case 1:
+        o = "1";
+        break;
+      case 2:
+        o = "2";
+        break;
+      case 3:
+        o = "3";
+        break;
+      case 4:
+        o = "4";
+        break;
+      case 5:
+        o = "5";
+        break;
+      case 6:
+        o = "6";
+        break;
+      case 7:
+        o = "7";
+        break;
+      case 8:
+        o = "8";
+        break;
+      case 9:
+        o = "9";
+        break;
+      default:
+        break;
+    }
+    // BUG: Diagnostic contains: (Non-null)
+    triggerNullnessChecker(s);
+    // BUG: Diagnostic contains: (Non-null)
+    triggerNullnessChecker(o);
+  }
+
+  public void loop(int n) {
+    String s = "s";
+    Object o = "o";
+    Object p = "p";
+    for (int i = 0; i < n; i++) {
+      s = s + i;
+      // BUG: Diagnostic contains: (Nullable)
+      triggerNullnessChecker(o);
+      o = p;
+      p = null;
+    }
+    // BUG: Diagnostic contains: (Non-null)
+    triggerNullnessChecker(s);
+    // BUG: Diagnostic contains: (Nullable)
+    triggerNullnessChecker(o);
+  }
+}
+""")
+        .doTest();
+  }
+
   @Test
   public void casts() {
     compilationHelper
@@ -2616,6 +2691,30 @@ public class AnnotatedFormalTest {
         .doTest();
   }
 
+  @Test
+  public void summariesOfTrustingAnalysisNotShared() {
+    CompilationTestHelper.newInstance(TrustingFirstNullnessChecker.class, getClass())
+        .addSourceLines(
+            "SummariesTest.java",
+"""
+package com.google.errorprone.dataflow.nullnesspropagation;
+
+import static com.google.errorprone.dataflow.nullnesspropagation.NullnessPropagationTest.triggerNullnessChecker;
+
+public class SummariesTest {
+  public void test(Object o) {
+    // BUG: Diagnostic contains: (Nullable)
+    triggerNullnessChecker(helper(o));
+  }
+
+  private static Object helper(Object o) {
+    return o;
+  }
+}
+""")
+        .doTest();
+  }
+
   /** BugPattern to test dataflow analysis using nullness propagation */
   @BugPattern(
       summary = "Test checker for NullnessPropagationTest",
@@ -2673,4 +2772,31 @@ public class AnnotatedFormalTest {
       return describeMatch(methodInvocation, replace(methodInvocation, fixString));
     }
   }
+
+  /**
+   * Reports the nullness of the arguments of calls to triggerNullnessChecker, after analyzing them
+   * with the trusting analysis, whose method summaries mustn't leak into the regular analysis.
+   */
+  @BugPattern(summary = "Test checker for NullnessPropagationTest", severity = ERROR)
+  public static final class TrustingFirstNullnessChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    private static final Matcher<ExpressionTree> TRIGGER_CALL_MATCHER =
+        staticMethod()
+            .onClass(NullnessPropagationTest.class.getName())
+            .named("triggerNullnessChecker")
+            .withParameters("java.lang.Object");
+
+    @Override
+    public Description matchMethodInvocation(
+        MethodInvocationTree methodInvocation, VisitorState state) {
+      if (!TRIGGER_CALL_MATCHER.matches(methodInvocation, state)) {
+        return NO_MATCH;
+      }
+      TreePath argPath = new TreePath(state.getPath(), methodInvocation.getArguments().get(0));
+      TrustingNullnessAnalysis.instance(state.context).getNullness(argPath, state.context);
+      Nullness nullness =
+          NullnessAnalysis.instance(state.context).getNullness(argPath, state.context);
+      return describeMatch(methodInvocation, replace(methodInvocation, "(" + nullness + ")"));
+    }
+  }
 }
@@ -30,6 +30,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BaseErrorProneJavaCompiler;
 import com.google.errorprone.BugCheckerRefactoringTestHelper;
 import com.google.errorprone.BugPattern;
@@ -45,6 +46,7 @@ import com.google.errorprone.bugpatterns.BugChecker.NewClassTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.ReturnTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.RemoveUnusedImports;
+import com.google.errorprone.dataflow.CompilationUnitCache;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.scanner.ScannerSupplier;
@@ -53,7 +55,9 @@ import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.doctree.LinkTree;
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.LambdaExpressionTree;
@@ -62,6 +66,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.NewClassTree;
 import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.StatementTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.DocTreePath;
@@ -80,7 +85,10 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import javax.lang.model.element.Modifier;
 import javax.tools.DiagnosticCollector;
@@ -1835,6 +1843,132 @@ public class Test {
         .doTest();
   }
 
+  /** A test bugchecker that deletes the local variables whose removal doesn't break compilation. */
+  @BugPattern(summary = "", severity = ERROR)
+  public static class CompilingFixesChecker extends BugChecker implements MethodTreeMatcher {
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      Map<SuggestedFix, Tree> candidates = new LinkedHashMap<>();
+      for (StatementTree statement : tree.getBody().getStatements()) {
+        if (statement instanceof VariableTree) {
+          candidates.put(SuggestedFix.delete(statement), statement);
+        }
+      }
+      for (SuggestedFix fix :
+          SuggestedFixes.compilingFixes(ImmutableList.copyOf(candidates.keySet()), state)) {
+        state.reportMatch(describeMatch(candidates.get(fix), fix));
+      }
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void compilingFixes() {
+    BugCheckerRefactoringTestHelper.newInstance(CompilingFixesChecker.class, getClass())
+        .addInputLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+                int x = 0;
+                int y = 1;
+                int z = 2;
+                System.err.println(y);
+              }
+            }
+            """)
+        .addOutputLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+
+                int y = 1;
+
+                System.err.println(y);
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  /**
+   * Like {@link CompilingFixesChecker}, but matches each variable on its own, and checks the fixes
+   * for all of them when it sees the first.
+   */
+  @BugPattern(summary = "", severity = ERROR)
+  public static class FixesInCompilationUnitChecker extends BugChecker
+      implements VariableTreeMatcher {
+    private static final CompilationUnitCache<ImmutableSet<SuggestedFix>> COMPILING_FIXES =
+        CompilationUnitCache.create();
+
+    static final AtomicInteger walks = new AtomicInteger();
+
+    @Override
+    public Description matchVariable(VariableTree tree, VisitorState state) {
+      Optional<SuggestedFix> fix = deleteLocal(state);
+      if (fix.isEmpty()) {
+        return Description.NO_MATCH;
+      }
+      ImmutableSet<SuggestedFix> compilingFixes =
+          SuggestedFixes.compilingFixesInCompilationUnit(
+              COMPILING_FIXES, state, FixesInCompilationUnitChecker::deleteLocal);
+      return compilingFixes.contains(fix.get())
+          ? describeMatch(tree, fix.get())
+          : Description.NO_MATCH;
+    }
+
+    private static Optional<SuggestedFix> deleteLocal(VisitorState state) {
+      Tree tree = state.getPath().getLeaf();
+      if (tree instanceof CompilationUnitTree) {
+        walks.incrementAndGet();
+      }
+      return tree instanceof VariableTree
+              && state.getPath().getParentPath().getLeaf() instanceof BlockTree
+          ? Optional.of(SuggestedFix.delete(tree))
+          : Optional.empty();
+    }
+  }
+
+  @Test
+  public void fixesInCompilationUnit() {
+    FixesInCompilationUnitChecker.walks.set(0);
+    BugCheckerRefactoringTestHelper.newInstance(FixesInCompilationUnitChecker.class, getClass())
+        .addInputLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+                int x = 0;
+                int y = 1;
+                System.err.println(y);
+              }
+
+              void g() {
+                int z = 2;
+              }
+            }
+            """)
+        .addOutputLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+
+                int y = 1;
+                System.err.println(y);
+              }
+
+              void g() {
+
+              }
+            }
+            """)
+        .doTest();
+    // The compilation unit is only walked for the first of the three locals.
+    assertThat(FixesInCompilationUnitChecker.walks.get()).isEqualTo(1);
+  }
+
   @Test
   public void compilesWithFix_releaseFlag() {
     BugCheckerRefactoringTestHelper.newInstance(CompilesWithFixChecker.class, getClass())
@@ -2547,6 +2681,34 @@ public class Test {
         .doTest();
   }
 
+  @Test
+  public void compilesWithFix_onlyInSameCompilationUnit_dependency() {
+    CompilationTestHelper.newInstance(
+            AddSuppressWarningsIfCompilationSucceedsOnlyInSameCompilationUnit.class, getClass())
+        .addSourceLines(
+            "OnlyInSameCompilationUnit.java",
+            """
+            // BUG: Diagnostic contains: foobar
+            class OnlyInSameCompilationUnit {
+              Dependency dependency = new Dependency();
+            }
+            """)
+        .addSourceLines(
+            "Dependency.java",
+            """
+            class Dependency {}
+            """)
+        .addSourceLines(
+            "ClassContainingRawType.java",
+            """
+            class ClassContainingRawType {
+              // This unsuppressed raw type would prevent compilation.
+              java.util.List list;
+            }
+            """)
+        .doTest();
+  }
+
   /** Test checker that adds @SuppressWarnings when compilation succeeds in all units. */
   @BugPattern(summary = "", severity = ERROR)
   public static final class AddSuppressWarningsIfCompilationSucceedsInAllCompilationUnits
@@ -18,10 +18,14 @@ package com.google.errorprone.matchers.method;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Matchers.anyMethod;
+import static com.google.errorprone.matchers.Matchers.constructor;
 import static com.google.errorprone.matchers.Matchers.instanceMethod;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.CompilationTestHelper;
 import com.google.errorprone.VisitorState;
@@ -30,6 +34,7 @@ import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.LabeledMatcher;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import org.junit.Test;
@@ -62,6 +67,53 @@ public class MethodInvocationMatcherTest {
         .doTest();
   }
 
+  @Test
+  public void labeledMatchers() {
+    CompilationTestHelper.newInstance(LabeledMethodInvocationChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+                // BUG: Diagnostic contains: [static, valueOf]
+                String.valueOf(5);
+                // BUG: Diagnostic contains: [toString]
+                "5".toString();
+                // BUG: Diagnostic contains: [static]
+                Integer.parseInt("5");
+                new Object().hashCode();
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void labeledClassMatchers() {
+    CompilationTestHelper.newInstance(LabeledClassMatcherChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              Test() {
+                // BUG: Diagnostic contains: [object]
+                super();
+              }
+
+              <T extends CharSequence> void f(String s, StringBuilder sb, T t) {
+                // BUG: Diagnostic contains: [charSequence, string]
+                s.length();
+                // BUG: Diagnostic contains: [charSequence]
+                sb.length();
+                // BUG: Diagnostic contains: [charSequence, exactCharSequence]
+                t.length();
+                s.isEmpty();
+              }
+            }
+            """)
+        .doTest();
+  }
+
   /** A {@link BugChecker} for test. */
   @BugPattern(
       summary = "Checker that flags the given method invocation if the matcher matches",
@@ -85,4 +137,55 @@ public class MethodInvocationMatcherTest {
       return matcher.matches(tree, state) ? describeMatch(tree) : Description.NO_MATCH;
     }
   }
+
+  /** A {@link BugChecker} that reports the labels of the rules matching each invocation. */
+  @BugPattern(summary = "Reports the labels matching method invocations", severity = ERROR)
+  public static class LabeledMethodInvocationChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    private static final LabeledMatcher<String> MATCHER =
+        MethodInvocationMatcher.compileLabeled(
+            ImmutableSetMultimap.of(
+                "toString",
+                MethodInvocationMatcher.prefilter(instanceMethod().anyClass().named("toString")),
+                "valueOf",
+                MethodInvocationMatcher.prefilter(anyMethod().anyClass().named("valueOf")),
+                "static",
+                MethodInvocationMatcher.prefilter(staticMethod())));
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      ImmutableSet<String> labels = MATCHER.matchingLabels(tree, state);
+      return labels.isEmpty()
+          ? Description.NO_MATCH
+          : buildDescription(tree).setMessage(ImmutableSortedSet.copyOf(labels).toString()).build();
+    }
+  }
+
+  /** Like {@link LabeledMethodInvocationChecker}, for rules that constrain the classes. */
+  @BugPattern(summary = "Reports the labels matching method invocations", severity = ERROR)
+  public static class LabeledClassMatcherChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    private static final LabeledMatcher<String> MATCHER =
+        MethodInvocationMatcher.compileLabeled(
+            ImmutableSetMultimap.of(
+                "string",
+                MethodInvocationMatcher.prefilter(
+                    instanceMethod().onExactClass("java.lang.String").named("length")),
+                "exactCharSequence",
+                MethodInvocationMatcher.prefilter(
+                    instanceMethod().onExactClass("java.lang.CharSequence").named("length")),
+                "charSequence",
+                MethodInvocationMatcher.prefilter(
+                    instanceMethod().onDescendantOf("java.lang.CharSequence").named("length")),
+                "object",
+                MethodInvocationMatcher.prefilter(constructor().forClass("java.lang.Object"))));
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      ImmutableSet<String> labels = MATCHER.matchingLabels(tree, state);
+      return labels.isEmpty()
+          ? Description.NO_MATCH
+          : buildDescription(tree).setMessage(ImmutableSortedSet.copyOf(labels).toString()).build();
+    }
+  }
 }
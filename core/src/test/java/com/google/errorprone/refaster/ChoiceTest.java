@@ -20,6 +20,8 @@ import com.google.common.base.Functions;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -67,4 +69,21 @@ public class ChoiceTest {
         .containsExactly(2, 1, 3)
         .inOrder();
   }
+
+  @Test
+  public void orLazily() {
+    List<String> supplied = new ArrayList<>();
+    Choice<Integer> choice =
+        Choice.of(2)
+            .concat(
+                () -> {
+                  supplied.add("other");
+                  return Choice.from(ImmutableList.of(1, 3));
+                });
+
+    assertThat(choice.findFirst()).hasValue(2);
+    assertThat(supplied).isEmpty();
+    assertThat(choice.asIterable()).containsExactly(2, 1, 3).inOrder();
+    assertThat(supplied).containsExactly("other");
+  }
 }
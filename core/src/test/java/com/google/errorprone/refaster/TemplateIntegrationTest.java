@@ -24,14 +24,21 @@ import static org.junit.Assert.assertThrows;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.CodeTransformerBundle;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import javax.tools.JavaFileObject;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runners.JUnit4;
 
 /**
@@ -41,6 +48,8 @@ import org.junit.runners.JUnit4;
  */
 @RunWith(JUnit4.class)
 public class TemplateIntegrationTest extends CompilerBasedTest {
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
   private CodeTransformer extractRefasterRule(JavaFileObject object) {
     compile(object);
     ClassTree classTree =
@@ -73,14 +82,87 @@ public class TemplateIntegrationTest extends CompilerBasedTest {
   private static final String OUTPUT_DIR = "com/google/errorprone/refaster/testdata/output";
 
   private void runTest(String testName) throws IOException {
-    CodeTransformer transformer =
-        extractRefasterRule(forResource(String.format("%s/%s.java", TEMPLATE_DIR, testName)));
+    CodeTransformer transformer = extractRefasterRule(testName);
+    expectTransforms(transformer, testName);
+    expectTransforms(RefasterRuleSet.combine(ImmutableList.of(transformer)), testName);
+    expectRoundTrip((RefasterRule<?, ?>) transformer);
+    expectTransforms(CodeTransformerBundle.load(writeBundle(testName, transformer)), testName);
+  }
+
+  /** Checks that reading a rule back from a bundle gives an equal rule. */
+  private static void expectRoundTrip(RefasterRule<?, ?> rule) {
+    RefasterRuleSet decoded =
+        (RefasterRuleSet) CodeTransformerBundle.encodeAndDecode(new RefasterRuleCodec(), rule);
+    RefasterRuleSet.Member member = Iterables.getOnlyElement(decoded.members());
+    assertThat(member.qualifiedTemplateClass()).isEqualTo(rule.qualifiedTemplateClass());
+    assertThat(member.beforeTemplates())
+        .isEqualTo(RefasterRuleSet.Member.of(rule).beforeTemplates());
+    assertThat(member.rule()).isEqualTo(rule);
+    assertThat(rule).isEqualTo(member.rule());
+  }
+
+  private CodeTransformer extractRefasterRule(String templateName) {
+    return extractRefasterRule(
+        forResource(String.format("%s/%s.java", TEMPLATE_DIR, templateName)));
+  }
 
+  private static void expectTransforms(CodeTransformer transformer, String testName)
+      throws IOException {
     JavaFileObject input = forResource(String.format("%s/%sExample.java", INPUT_DIR, testName));
     JavaFileObject output = forResource(String.format("%s/%sExample.java", OUTPUT_DIR, testName));
     expectTransforms(transformer, input, output);
   }
 
+  @Test
+  public void ruleSet() throws IOException {
+    CodeTransformer ruleSet =
+        RefasterRuleSet.combine(
+            ImmutableList.of(
+                extractRefasterRule("BinaryTemplate"),
+                extractRefasterRule("MethodInvocationTemplate")));
+
+    expectTransforms(ruleSet, "BinaryTemplate");
+    expectTransforms(ruleSet, "MethodInvocationTemplate");
+  }
+
+  @Test
+  public void bundles() throws IOException {
+    CodeTransformer loaded =
+        CodeTransformerBundle.load(
+            ImmutableList.of(
+                writeBundle("BinaryTemplate"), writeBundle("MethodInvocationTemplate")));
+
+    expectTransforms(loaded, "BinaryTemplate");
+    expectTransforms(loaded, "MethodInvocationTemplate");
+  }
+
+  @Test
+  public void bundleCombiner() {
+    CodeTransformer combined =
+        new RefasterRuleSet.BundleCombiner()
+            .combine(
+                ImmutableList.of(
+                    RefasterRuleSet.combine(
+                        ImmutableList.of(extractRefasterRule("BinaryTemplate"))),
+                    RefasterRuleSet.combine(
+                        ImmutableList.of(extractRefasterRule("MethodInvocationTemplate")))));
+
+    assertThat(combined).isInstanceOf(RefasterRuleSet.class);
+    assertThat(((RefasterRuleSet) combined).members()).hasSize(2);
+  }
+
+  private Path writeBundle(String templateName) throws IOException {
+    return writeBundle(templateName, extractRefasterRule(templateName));
+  }
+
+  private Path writeBundle(String templateName, CodeTransformer rule) throws IOException {
+    Path path = tempFolder.newFile(templateName + ".refaster").toPath();
+    try (OutputStream out = Files.newOutputStream(path)) {
+      CodeTransformerBundle.writer().add(templateName, rule).write(out);
+    }
+    return path;
+  }
+
   @Test
   public void keyBindingError() {
     IllegalArgumentException failure =
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.sun.tools.javac.util.Context;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link Unifier}. */
+@RunWith(JUnit4.class)
+public class UnifierTest {
+  private static class Key extends Bindings.Key<String> {
+    Key(String identifier) {
+      super(identifier);
+    }
+  }
+
+  private final Unifier unifier = new Unifier(new Context());
+
+  @Test
+  public void forkSharesBindings() {
+    unifier.putBinding(new Key("foo"), "bar");
+
+    Unifier fork = unifier.fork();
+
+    assertThat(fork.getBinding(new Key("foo"))).isEqualTo("bar");
+  }
+
+  @Test
+  public void forkIsIndependent() {
+    unifier.putBinding(new Key("foo"), "bar");
+    Unifier fork = unifier.fork();
+
+    fork.putBinding(new Key("baz"), "qux");
+    fork.replaceBinding(new Key("foo"), "quux");
+    unifier.clearBinding(new Key("foo"));
+
+    assertThat(unifier.getBindings()).isEmpty();
+    assertThat(fork.getBindings()).containsExactly(new Key("foo"), "quux", new Key("baz"), "qux");
+  }
+
+  @Test
+  public void putBindingTwice() {
+    unifier.putBinding(new Key("foo"), "bar");
+
+    assertThrows(IllegalArgumentException.class, () -> unifier.putBinding(new Key("foo"), "baz"));
+  }
+
+  @Test
+  public void putBindingAfterClear() {
+    unifier.putBinding(new Key("foo"), "bar");
+    unifier.clearBinding(new Key("foo"));
+
+    unifier.putBinding(new Key("foo"), "baz");
+
+    assertThat(unifier.getBinding(new Key("foo"))).isEqualTo("baz");
+  }
+
+  @Test
+  public void replaceMissingBinding() {
+    assertThrows(
+        IllegalArgumentException.class, () -> unifier.replaceBinding(new Key("foo"), "bar"));
+  }
+
+  @Test
+  public void manyReplacements() {
+    unifier.putBinding(new Key("foo"), "0");
+    Unifier fork = unifier.fork();
+    for (int i = 1; i <= 1000; i++) {
+      fork.replaceBinding(new Key("foo"), Integer.toString(i));
+      fork.putBinding(new Key(Integer.toString(i)), "x");
+      fork.clearBinding(new Key(Integer.toString(i)));
+    }
+
+    assertThat(fork.getBindings()).containsExactly(new Key("foo"), "1000");
+    assertThat(unifier.getBindings()).containsExactly(new Key("foo"), "0");
+  }
+}
@@ -18,6 +18,8 @@ package com.google.errorprone.scanner;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
+import static com.google.errorprone.matchers.method.MethodMatchers.instanceMethod;
+import static com.google.errorprone.matchers.method.MethodMatchers.staticMethod;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 
 import com.google.common.collect.ImmutableList;
@@ -26,8 +28,12 @@ import com.google.errorprone.CompilationTestHelper;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.IdentifierTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
+import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodInvocationTree;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -106,6 +112,55 @@ public class ScannerTest {
         .doTest();
   }
 
+  @Test
+  public void suppressionLimitedToScope() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.scanner.ScannerTest.Foo;
+
+            class Test {
+              @SuppressWarnings("ShouldNotUseFoo")
+              void f(Foo a) {
+                Foo b;
+              }
+
+              // BUG: Diagnostic contains: ShouldNotUseFoo
+              void g(Foo a) {
+                @SuppressWarnings({"unchecked", "ShouldNotUseFoo"})
+                Foo b;
+                @SuppressWarnings("unchecked")
+                // BUG: Diagnostic contains: ShouldNotUseFoo
+                Foo c;
+              }
+
+              // BUG: Diagnostic contains: ShouldNotUseFoo
+              Foo d;
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void methodInvocationMatchersSelectInvocations() {
+    CompilationTestHelper.newInstance(ReportsEveryInvocation.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              void f(String s) {
+                // BUG: Diagnostic contains: valueOf
+                String.valueOf(1);
+                s.length();
+                // BUG: Diagnostic contains: trim
+                s.trim();
+              }
+            }
+            """)
+        .doTest();
+  }
+
   @OkToUseFoo // Foo can use itself. But this shouldn't suppress errors on *usages* of Foo.
   public static final class Foo<T> {}
 
@@ -123,4 +178,20 @@ public class ScannerTest {
           : NO_MATCH;
     }
   }
+
+  /** Reports every invocation it sees, to show that only the declared ones are passed to it. */
+  @BugPattern(summary = "Reports method invocations.", severity = ERROR)
+  public static class ReportsEveryInvocation extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    @Override
+    public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+      return ImmutableList.of(
+          staticMethod().anyClass().named("valueOf"), instanceMethod().anyClass().named("trim"));
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      return buildDescription(tree).setMessage(getSymbol(tree).getSimpleName().toString()).build();
+    }
+  }
 }
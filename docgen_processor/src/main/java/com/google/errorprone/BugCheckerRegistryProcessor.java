@@ -0,0 +1,425 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor which generates a {@code BugCheckerRegistry} for all classes in the
+ * compilation that have a {@code BugPattern} annotation, so their metadata and constructors can be
+ * looked up at runtime without reflection.
+ *
+ * <p>The registry is only generated if the {@value #REGISTRY_OPTION} option names the class to
+ * generate, e.g. {@code -Aerrorprone.bugCheckerRegistry=com.example.MyCheckerRegistry}. Checkers
+ * generated by other annotation processors can't be registered.
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes("com.google.errorprone.BugPattern")
+@SupportedOptions(BugCheckerRegistryProcessor.REGISTRY_OPTION)
+public class BugCheckerRegistryProcessor extends AbstractProcessor {
+
+  /** The option naming the fully qualified class name of the registry to generate. */
+  public static final String REGISTRY_OPTION = "errorprone.bugCheckerRegistry";
+
+  private static final String BUG_CHECKER = "com.google.errorprone.bugpatterns.BugChecker";
+  private static final String ERROR_PRONE_FLAGS = "com.google.errorprone.ErrorProneFlags";
+
+  /** The number of checkers handled by each generated method, to stay clear of the size limit. */
+  private static final int CHECKERS_PER_METHOD = 50;
+
+  /** The checkers to register, by binary name. */
+  private final Map<String, Checker> checkers = new TreeMap<>();
+
+  /** Whether the registry has been written. */
+  private boolean written = false;
+
+  /** The metadata of a single checker, and how to construct it. */
+  private record Checker(
+      String binaryName,
+      String sourceName,
+      String canonicalName,
+      ImmutableList<String> allNames,
+      String summary,
+      BugPattern.SeverityLevel severity,
+      Optional<String> linkUrl,
+      boolean supportsSuppressWarnings,
+      ImmutableList<String> customSuppressionAnnotations,
+      ImmutableList<String> tags,
+      boolean disableable,
+      // the number of ErrorProneFlags parameters of a public constructor, or empty if there is no
+      // constructor that can be called directly
+      Optional<Integer> flagsParameters) {}
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latest();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    String registry = processingEnv.getOptions().get(REGISTRY_OPTION);
+    if (registry == null) {
+      return false;
+    }
+    TypeElement bugChecker = processingEnv.getElementUtils().getTypeElement(BUG_CHECKER);
+    if (bugChecker == null) {
+      return false;
+    }
+    for (TypeElement element :
+        ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(BugPattern.class))) {
+      if (!isRegistrable(element, bugChecker)) {
+        continue;
+      }
+      if (written) {
+        processingEnv
+            .getMessager()
+            .printMessage(
+                Diagnostic.Kind.ERROR,
+                String.format(
+                    "%s was generated after the checkers were registered in %s",
+                    element.getQualifiedName(), registry),
+                element);
+        continue;
+      }
+      Checker checker = toChecker(element);
+      if (checker != null) {
+        checkers.put(checker.binaryName(), checker);
+      }
+    }
+    // Sources created in the last round aren't compiled, so the registry is written at the end of
+    // the first round that finds checkers, which is the round of the sources being compiled.
+    if (!written && !checkers.isEmpty() && !roundEnv.processingOver()) {
+      written = true;
+      try {
+        writeRegistry(registry);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if the registry can refer to the given class: it must be a concrete, non-generic
+   * {@code BugChecker} that is accessible from any package.
+   */
+  private boolean isRegistrable(TypeElement element, TypeElement bugChecker) {
+    if (element.getKind() != ElementKind.CLASS
+        || element.getModifiers().contains(Modifier.ABSTRACT)
+        || !element.getTypeParameters().isEmpty()
+        || !processingEnv
+            .getTypeUtils()
+            .isSubtype(
+                processingEnv.getTypeUtils().erasure(element.asType()),
+                processingEnv.getTypeUtils().erasure(bugChecker.asType()))) {
+      return false;
+    }
+    for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+        return false;
+      }
+      if (e.getEnclosingElement() instanceof TypeElement
+          && !e.getModifiers().contains(Modifier.STATIC)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the checker's metadata, or {@code null} if its {@code BugPattern} is invalid. */
+  private Checker toChecker(TypeElement element) {
+    BugPattern pattern = element.getAnnotation(BugPattern.class);
+    try {
+      BugPatternValidator.validate(pattern);
+    } catch (ValidationException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), element);
+      return null;
+    }
+    String canonicalName =
+        pattern.name().isEmpty() ? element.getSimpleName().toString() : pattern.name();
+    Optional<String> linkUrl =
+        switch (pattern.linkType()) {
+          case AUTOGENERATED ->
+              Optional.of(String.format("https://errorprone.info/bugpattern/%s", canonicalName));
+          case CUSTOM -> Optional.of(pattern.link());
+          case NONE -> Optional.empty();
+        };
+    List<TypeElement> suppressionAnnotations = suppressionAnnotations(element);
+    Predicate<TypeElement> isSuppressWarnings =
+        a -> a.getSimpleName().contentEquals("SuppressWarnings");
+    return new Checker(
+        processingEnv.getElementUtils().getBinaryName(element).toString(),
+        element.getQualifiedName().toString(),
+        canonicalName,
+        ImmutableList.<String>builder().add(canonicalName).add(pattern.altNames()).build(),
+        pattern.summary(),
+        pattern.severity(),
+        linkUrl,
+        suppressionAnnotations.stream().anyMatch(isSuppressWarnings),
+        suppressionAnnotations.stream()
+            .filter(isSuppressWarnings.negate())
+            .map(a -> a.getQualifiedName().toString())
+            .collect(ImmutableList.toImmutableList()),
+        ImmutableList.copyOf(pattern.tags()),
+        pattern.disableable(),
+        flagsParameters(element));
+  }
+
+  /** Returns the {@code suppressionAnnotations} of the {@code BugPattern} on the given class. */
+  private List<TypeElement> suppressionAnnotations(TypeElement element) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (!((TypeElement) mirror.getAnnotationType().asElement())
+          .getQualifiedName()
+          .contentEquals(BugPattern.class.getName())) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          mirror.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("suppressionAnnotations")) {
+          @SuppressWarnings("unchecked") // The value of a Class[] element is always a List.
+          List<? extends AnnotationValue> values =
+              (List<? extends AnnotationValue>) entry.getValue().getValue();
+          List<TypeElement> result = new ArrayList<>();
+          for (AnnotationValue value : values) {
+            result.add((TypeElement) ((DeclaredType) value.getValue()).asElement());
+          }
+          return result;
+        }
+      }
+    }
+    return List.of(
+        processingEnv.getElementUtils().getTypeElement(SuppressWarnings.class.getName()));
+  }
+
+  /**
+   * Chooses a constructor the same way {@code ErrorProneInjector.findConstructor} does, and returns
+   * the number of {@code ErrorProneFlags} parameters it has if the generated code can call it.
+   */
+  private Optional<Integer> flagsParameters(TypeElement element) {
+    List<ExecutableElement> constructors =
+        ElementFilter.constructorsIn(element.getEnclosedElements());
+    Optional<ExecutableElement> constructor =
+        constructors.stream()
+            .filter(
+                c ->
+                    c.getAnnotationMirrors().stream()
+                        .anyMatch(
+                            a ->
+                                a.getAnnotationType()
+                                    .asElement()
+                                    .getSimpleName()
+                                    .contentEquals("Inject")))
+            .findFirst()
+            .or(
+                () ->
+                    constructors.stream()
+                        .filter(
+                            c ->
+                                !c.getParameters().isEmpty()
+                                    && c.getParameters().stream().allMatch(this::isFlags))
+                        .findFirst())
+            .or(() -> constructors.stream().filter(c -> c.getParameters().isEmpty()).findFirst());
+    return constructor
+        .filter(c -> c.getModifiers().contains(Modifier.PUBLIC))
+        .filter(c -> c.getParameters().stream().allMatch(this::isFlags))
+        .map(c -> c.getParameters().size());
+  }
+
+  private boolean isFlags(VariableElement parameter) {
+    return processingEnv
+        .getTypeUtils()
+        .erasure(parameter.asType())
+        .toString()
+        .equals(ERROR_PRONE_FLAGS);
+  }
+
+  private void writeRegistry(String registry) throws IOException {
+    int lastDot = registry.lastIndexOf('.');
+    String packageName = lastDot < 0 ? "" : registry.substring(0, lastDot);
+    String simpleName = registry.substring(lastDot + 1);
+    List<List<Checker>> buckets = bucket(checkers.values());
+
+    FileObject source = processingEnv.getFiler().createSourceFile(registry);
+    try (PrintWriter pw =
+        new PrintWriter(
+            new BufferedWriter(new OutputStreamWriter(source.openOutputStream(), UTF_8)))) {
+      if (!packageName.isEmpty()) {
+        pw.printf("package %s;%n%n", packageName);
+      }
+      pw.printf(
+          "@javax.annotation.processing.Generated(\"%s\")%n", getClass().getCanonicalName());
+      pw.printf(
+          "public final class %s extends com.google.errorprone.BugCheckerRegistry {%n", simpleName);
+
+      pw.println();
+      pw.println("  @Override");
+      pw.println("  protected com.google.errorprone.BugCheckerInfo info(");
+      pw.println("      Class<? extends com.google.errorprone.bugpatterns.BugChecker> checker) {");
+      pw.println("    String name = checker.getName();");
+      printDispatch(pw, buckets.size(), "info%d(checker, name)");
+      pw.println("  }");
+
+      pw.println();
+      pw.println("  @Override");
+      pw.println("  protected com.google.errorprone.bugpatterns.BugChecker newChecker(");
+      pw.println("      String name, com.google.errorprone.ErrorProneFlags flags) {");
+      printDispatch(pw, buckets.size(), "newChecker%d(name, flags)");
+      pw.println("  }");
+
+      for (int i = 0; i < buckets.size(); i++) {
+        pw.println();
+        pw.printf("  private static com.google.errorprone.BugCheckerInfo info%d(%n", i);
+        pw.println("      Class<? extends com.google.errorprone.bugpatterns.BugChecker> checker,");
+        pw.println("      String name) {");
+        pw.println("    return switch (name) {");
+        for (Checker checker : buckets.get(i)) {
+          printInfoCase(pw, checker);
+        }
+        pw.println("      default -> null;");
+        pw.println("    };");
+        pw.println("  }");
+
+        pw.println();
+        pw.printf(
+            "  private static com.google.errorprone.bugpatterns.BugChecker newChecker%d(%n", i);
+        pw.println("      String name, com.google.errorprone.ErrorProneFlags flags) {");
+        pw.println("    return switch (name) {");
+        for (Checker checker : buckets.get(i)) {
+          if (checker.flagsParameters().isPresent()) {
+            pw.printf(
+                "      case %s -> new %s(%s);%n",
+                literal(checker.binaryName()),
+                checker.sourceName(),
+                String.join(", ", Collections.nCopies(checker.flagsParameters().get(), "flags")));
+          }
+        }
+        pw.println("      default -> null;");
+        pw.println("    };");
+        pw.println("  }");
+      }
+      pw.println("}");
+    }
+
+    FileObject services =
+        processingEnv
+            .getFiler()
+            .createResource(
+                StandardLocation.CLASS_OUTPUT,
+                "",
+                "META-INF/services/com.google.errorprone.BugCheckerRegistry");
+    try (PrintWriter pw =
+        new PrintWriter(
+            new BufferedWriter(new OutputStreamWriter(services.openOutputStream(), UTF_8)))) {
+      pw.println(registry);
+    }
+  }
+
+  /**
+   * Groups the checkers by the hash code of their binary name, so that each lookup method handles a
+   * bounded number of them.
+   */
+  private static List<List<Checker>> bucket(Iterable<Checker> checkers) {
+    List<Checker> all = new ArrayList<>();
+    checkers.forEach(all::add);
+    int count = Math.max(1, (all.size() + CHECKERS_PER_METHOD - 1) / CHECKERS_PER_METHOD);
+    List<List<Checker>> buckets = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (Checker checker : all) {
+      buckets.get(Math.floorMod(checker.binaryName().hashCode(), count)).add(checker);
+    }
+    return buckets;
+  }
+
+  private static void printDispatch(PrintWriter pw, int buckets, String call) {
+    pw.printf("    return switch (Math.floorMod(name.hashCode(), %d)) {%n", buckets);
+    for (int i = 0; i < buckets; i++) {
+      pw.printf("      case %d -> %s;%n", i, String.format(call, i));
+    }
+    pw.println("      default -> null;");
+    pw.println("    };");
+  }
+
+  private void printInfoCase(PrintWriter pw, Checker checker) {
+    pw.printf("      case %s ->%n", literal(checker.binaryName()));
+    pw.println("          com.google.errorprone.BugCheckerInfo.precomputed(");
+    pw.println("              checker,");
+    pw.printf("              %s,%n", literal(checker.canonicalName()));
+    pw.printf("              %s,%n", stringSet(checker.allNames()));
+    pw.printf("              %s,%n", literal(checker.summary()));
+    pw.printf(
+        "              com.google.errorprone.BugPattern.SeverityLevel.%s,%n",
+        checker.severity().name());
+    pw.printf("              %s,%n", checker.linkUrl().map(this::literal).orElse("null"));
+    pw.printf("              %s,%n", checker.supportsSuppressWarnings());
+    pw.printf(
+        "              com.google.common.collect.ImmutableSet"
+            + ".<Class<? extends java.lang.annotation.Annotation>>of(%s),%n",
+        checker.customSuppressionAnnotations().stream()
+            .map(a -> a + ".class")
+            .collect(Collectors.joining(", ")));
+    pw.printf("              %s,%n", stringSet(checker.tags()));
+    pw.printf("              %s);%n", checker.disableable());
+  }
+
+  private String stringSet(List<String> strings) {
+    return strings.stream()
+        .map(this::literal)
+        .collect(Collectors.joining(", ", "com.google.common.collect.ImmutableSet.of(", ")"));
+  }
+
+  private String literal(String s) {
+    return processingEnv.getElementUtils().getConstantExpression(s);
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.errorprone;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -76,6 +77,7 @@ import java.util.Map;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Compare a file transformed as suggested by {@link BugChecker} to an expected source.
@@ -188,6 +190,7 @@ public final class BugCheckerRefactoringTestHelper {
   private boolean allowBreakingChanges = false;
   private boolean allowFormattingErrors = false;
   private String importOrder = "static-first";
+  private @Nullable CompilerService compilerService = CompilerService.defaultService();
 
   private boolean run = false;
 
@@ -285,6 +288,13 @@ public final class BugCheckerRefactoringTestHelper {
     return this;
   }
 
+  /** Runs the test compilations with warm compilers from the given service. */
+  @CanIgnoreReturnValue
+  public BugCheckerRefactoringTestHelper withCompilerService(CompilerService compilerService) {
+    this.compilerService = checkNotNull(compilerService);
+    return this;
+  }
+
   /**
    * Runs the test.
    *
@@ -333,57 +343,94 @@ public final class BugCheckerRefactoringTestHelper {
 
   private void runTestOnPair(JavaFileObject input, JavaFileObject output, TestMode testMode)
       throws IOException {
-    Context context = new Context();
-    setupMessageBundle(context);
     DiagnosticCollector<JavaFileObject> diagnosticsCollector = new DiagnosticCollector<>();
-    JCCompilationUnit tree = doCompile(input, sources.keySet(), context, diagnosticsCollector);
-    handleDiagnostics(diagnosticsCollector);
-    JavaFileObject transformed = applyDiff(input, context, tree);
-    handleDiagnostics(diagnosticsCollector);
-    closeCompiler(context);
+    JavaFileObject transformed =
+        doCompile(
+            input,
+            sources.keySet(),
+            diagnosticsCollector,
+            (context, tree) -> {
+              handleDiagnostics(diagnosticsCollector);
+              JavaFileObject result = applyDiff(input, context, tree);
+              handleDiagnostics(diagnosticsCollector);
+              return result;
+            });
     testMode.verifyMatch(transformed, output, allowFormattingErrors);
     if (!allowBreakingChanges) {
-      Context anotherContext = new Context();
-      doCompile(output, sources.values(), anotherContext);
-      closeCompiler(anotherContext);
+      DiagnosticCollector<JavaFileObject> outputDiagnosticsCollector = new DiagnosticCollector<>();
+      doCompile(
+          output,
+          sources.values(),
+          outputDiagnosticsCollector,
+          (context, tree) -> {
+            handleDiagnostics(outputDiagnosticsCollector);
+            return null;
+          });
     }
   }
 
-  @CanIgnoreReturnValue
-  private JCCompilationUnit doCompile(
-      JavaFileObject input, Iterable<JavaFileObject> files, Context context) throws IOException {
-    DiagnosticCollector<JavaFileObject> diagnosticsCollector = new DiagnosticCollector<>();
-    JCCompilationUnit unit = doCompile(input, files, context, diagnosticsCollector);
-    handleDiagnostics(diagnosticsCollector);
-    return unit;
+  /** Work to do with the compilation unit of a test input, while its compilation is open. */
+  private interface CompilationWorker<T> {
+    T run(Context context, JCCompilationUnit tree) throws IOException;
   }
 
   @CanIgnoreReturnValue
-  private JCCompilationUnit doCompile(
+  private <T> T doCompile(
       JavaFileObject input,
       Iterable<JavaFileObject> files,
-      Context context,
-      DiagnosticCollector<JavaFileObject> diagnosticsCollector)
+      DiagnosticCollector<JavaFileObject> diagnosticsCollector,
+      CompilationWorker<T> worker)
       throws IOException {
-    JavacTool tool = JavacTool.create();
     ErrorProneOptions errorProneOptions;
     try {
       errorProneOptions = ErrorProneOptions.processArgs(options);
     } catch (InvalidCommandLineOptionException e) {
       throw new IllegalArgumentException("Exception during argument processing: " + e);
     }
-    context.put(ErrorProneOptions.class, errorProneOptions);
     StringWriter out = new StringWriter();
+    if (compilerService != null) {
+      return compilerService.withTask(
+          new PrintWriter(out, true),
+          diagnosticsCollector,
+          errorProneOptions.getRemainingArgs(),
+          files,
+          task -> {
+            try {
+              return analyze(task, input, errorProneOptions, out, diagnosticsCollector, worker);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    }
+    Context context = new Context();
     JavacTaskImpl task =
         (JavacTaskImpl)
-            tool.getTask(
-                new PrintWriter(out, true),
-                FileManagers.testFileManager(),
-                diagnosticsCollector,
-                errorProneOptions.getRemainingArgs(),
-                /* classes= */ null,
-                files,
-                context);
+            JavacTool.create()
+                .getTask(
+                    new PrintWriter(out, true),
+                    FileManagers.testFileManager(),
+                    diagnosticsCollector,
+                    errorProneOptions.getRemainingArgs(),
+                    /* classes= */ null,
+                    files,
+                    context);
+    T result = analyze(task, input, errorProneOptions, out, diagnosticsCollector, worker);
+    closeCompiler(context);
+    return result;
+  }
+
+  private static <T> T analyze(
+      JavacTaskImpl task,
+      JavaFileObject input,
+      ErrorProneOptions errorProneOptions,
+      StringWriter out,
+      DiagnosticCollector<JavaFileObject> diagnosticsCollector,
+      CompilationWorker<T> worker)
+      throws IOException {
+    setupMessageBundle(task.getContext());
+    // The task's context may be reused by later compilations, so keep the options in a view of it.
+    Context context = new SubContext(task.getContext());
+    context.put(ErrorProneOptions.class, errorProneOptions);
     Iterable<? extends CompilationUnitTree> trees = task.parse();
     task.analyze();
     ImmutableMap<URI, ? extends CompilationUnitTree> byUri =
@@ -393,7 +440,7 @@ public final class BugCheckerRefactoringTestHelper {
         .that(byUri)
         .containsKey(inputUri);
     JCCompilationUnit tree = (JCCompilationUnit) byUri.get(inputUri);
-    return tree;
+    return worker.run(context, tree);
   }
 
   private static void handleDiagnostics(DiagnosticCollector<JavaFileObject> diagnosticsCollector) {
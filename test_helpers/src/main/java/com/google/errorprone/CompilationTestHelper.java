@@ -16,6 +16,7 @@
 
 package com.google.errorprone;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.truth.Truth.assertWithMessage;
@@ -76,6 +77,7 @@ public final class CompilationTestHelper {
           "500");
 
   private final DiagnosticTestHelper diagnosticHelper;
+  private final ScannerSupplier scannerSupplier;
   private final BaseErrorProneJavaCompiler compiler;
   private final ByteArrayOutputStream outputStream;
   private final Class<?> clazz;
@@ -86,6 +88,7 @@ public final class CompilationTestHelper {
   private Optional<Result> expectedResult = Optional.empty();
   private LookForCheckNameInDiagnostic lookForCheckNameInDiagnostic =
       LookForCheckNameInDiagnostic.YES;
+  private @Nullable CompilerService compilerService = CompilerService.defaultService();
 
   private boolean run = false;
 
@@ -93,6 +96,7 @@ public final class CompilationTestHelper {
     this.clazz = clazz;
     this.diagnosticHelper = new DiagnosticTestHelper(checkName);
     this.outputStream = new ByteArrayOutputStream();
+    this.scannerSupplier = scannerSupplier;
     this.compiler = new BaseErrorProneJavaCompiler(JavacTool.create(), scannerSupplier);
   }
 
@@ -305,6 +309,17 @@ public final class CompilationTestHelper {
     return this;
   }
 
+  /**
+   * Runs the test compilation with a warm compiler from the given service, instead of with a new
+   * compiler. Compilations with an {@linkplain #withClasspath overridden classpath} always use a
+   * new compiler.
+   */
+  @CanIgnoreReturnValue
+  public CompilationTestHelper withCompilerService(CompilerService compilerService) {
+    this.compilerService = checkNotNull(compilerService);
+    return this;
+  }
+
   /** Performs a compilation and checks that the diagnostics and result match the expectations. */
   public void doTest() {
     checkState(!sources.isEmpty(), "No source files to compile");
@@ -372,11 +387,30 @@ public final class CompilationTestHelper {
 
   private Result compile() {
     List<String> processedArgs = buildArguments(overrideClasspath, extraArgs);
+    PrintWriter out =
+        new PrintWriter(
+            new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8)),
+            /* autoFlush= */ true);
+    // A compilation with an overridden classpath has options that no other compilation shares, so
+    // there's no warm compiler to reuse.
+    if (compilerService != null && overrideClasspath == null) {
+      ErrorProneOptions errorProneOptions = ErrorProneOptions.processArgs(processedArgs);
+      return compilerService.withTask(
+              out,
+              diagnosticHelper.collector,
+              BaseErrorProneJavaCompiler.javacOptions(errorProneOptions),
+              sources,
+              task -> {
+                BaseErrorProneJavaCompiler.addTaskListener(
+                    task, scannerSupplier, errorProneOptions);
+                return task.call();
+              })
+          ? Result.OK
+          : Result.ERROR;
+    }
     return compiler
             .getTask(
-                new PrintWriter(
-                    new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8)),
-                    /* autoFlush= */ true),
+                out,
                 FileManagers.testFileManager(),
                 diagnosticHelper.collector,
                 /* options= */ ImmutableList.copyOf(processedArgs),
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTaskPool;
+import com.sun.tools.javac.file.JavacFileManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Runs test compilations with warm javac instances that are shared between tests.
+ *
+ * <p>Every test compilation normally starts with a new javac {@code Context}, and so completes the
+ * symbols of the JDK and the classpath all over again. A {@code CompilerService} instead keeps a
+ * pool of contexts, and runs each compilation in a context that earlier compilations with the same
+ * options have already warmed up. Between compilations javac resets the context's per-compilation
+ * state, and removes the classes that were compiled from source from its symbol table. Contexts
+ * that can't be reset safely, for example because a test redefined a class in {@code java.*}, or
+ * because the compilation threw an exception, are dropped from the pool.
+ *
+ * <p>The service is thread-safe, and concurrent compilations each take a different context from
+ * the pool, so test suites that run tests in parallel can share a single service. Each context
+ * compiles with its own file manager, since javac keeps using the file manager a context was first
+ * given, and file managers aren't thread-safe.
+ *
+ * <p>Using the service is opt-in, either for individual tests with {@link
+ * CompilationTestHelper#withCompilerService} and {@link
+ * BugCheckerRefactoringTestHelper#withCompilerService}, or for all tests by setting the {@code
+ * com.google.errorprone.shared_compiler_service} system property to {@code true}.
+ */
+public final class CompilerService {
+
+  private static final String SHARED_COMPILER_SERVICE_PROPERTY =
+      "com.google.errorprone.shared_compiler_service";
+
+  private static final CompilerService SHARED =
+      create(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * Returns a service that's shared by all tests in this JVM, and keeps a warm context for each
+   * available processor.
+   */
+  public static CompilerService shared() {
+    return SHARED;
+  }
+
+  /** Returns a new service that keeps at most {@code poolSize} warm contexts. */
+  public static CompilerService create(int poolSize) {
+    checkArgument(poolSize > 0, "poolSize must be positive, was %s", poolSize);
+    return new CompilerService(poolSize);
+  }
+
+  /**
+   * Returns the service that test helpers use unless they're given one, which is the {@link
+   * #shared} service if the {@code com.google.errorprone.shared_compiler_service} system property
+   * is set, and otherwise {@code null}.
+   */
+  static @Nullable CompilerService defaultService() {
+    return Boolean.getBoolean(SHARED_COMPILER_SERVICE_PROPERTY) ? SHARED : null;
+  }
+
+  /**
+   * A warm context, and the file manager that it compiles with. A slot is only used by one
+   * compilation at a time.
+   */
+  private record Slot(JavacFileManager fileManager, JavacTaskPool pool) {
+    static Slot create() {
+      return new Slot(FileManagers.createFileManager(), new JavacTaskPool(1));
+    }
+  }
+
+  private final int poolSize;
+
+  // Guarded by itself.
+  private final Deque<Slot> idle = new ArrayDeque<>();
+
+  private CompilerService(int poolSize) {
+    this.poolSize = poolSize;
+  }
+
+  /**
+   * Runs {@code worker} with a javac task that compiles {@code sources} with the given options and
+   * a file manager set up like the {@linkplain FileManagers#testFileManager test file manager},
+   * and returns its result. The task is only valid while {@code worker} is running.
+   */
+  <T> T withTask(
+      Writer out,
+      DiagnosticListener<? super JavaFileObject> diagnosticListener,
+      List<String> options,
+      Iterable<? extends JavaFileObject> sources,
+      Function<? super JavacTaskImpl, T> worker) {
+    Slot slot = take();
+    try {
+      return slot.pool()
+          .getTask(
+              out,
+              FileManagers.prepareForTest(slot.fileManager()),
+              diagnosticListener,
+              options,
+              /* classes= */ ImmutableList.of(),
+              sources,
+              task -> worker.apply((JavacTaskImpl) task));
+    } finally {
+      release(slot);
+    }
+  }
+
+  private Slot take() {
+    synchronized (idle) {
+      Slot slot = idle.poll();
+      if (slot != null) {
+        return slot;
+      }
+    }
+    return Slot.create();
+  }
+
+  /** Returns the slot to the pool, or closes its file manager if the pool is already full. */
+  private void release(Slot slot) {
+    synchronized (idle) {
+      if (idle.size() < poolSize) {
+        idle.push(slot);
+        return;
+      }
+    }
+    try {
+      slot.fileManager().close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -53,7 +53,11 @@ public final class FileManagers {
 
   private static final ThreadLocal<FileSystem> FILE_SYSTEM = withInitial(Jimfs::newFileSystem);
 
-  private static JavacFileManager createFileManager() {
+  /**
+   * Returns a new file manager, which isn't shared with other tests on this thread. Call {@link
+   * #prepareForTest} before each compilation that uses it.
+   */
+  static JavacFileManager createFileManager() {
     Context context = new Context();
     // Install the non-default caching version of FSInfo, which caches the result of filesystem
     // calls to files on the classpath.
@@ -63,8 +67,11 @@ public final class FileManagers {
 
   /** Returns a {@link JavacFileManager} for use in compiler-based tests. */
   public static JavacFileManager testFileManager() {
-    JavacFileManager fileManager = FILE_MANAGER.get();
+    return prepareForTest(FILE_MANAGER.get());
+  }
 
+  /** Sets the class path and output directories of the given file manager for a new test. */
+  static JavacFileManager prepareForTest(JavacFileManager fileManager) {
     // Explicitly set the class path to the ambient runtime's classpath. This is the default
     // behaviour, but re-doing it for each test avoids issues when tests are executed in different
     // classloaders observed with IntelliJ and maven.
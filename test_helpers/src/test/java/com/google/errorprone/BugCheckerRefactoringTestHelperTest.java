@@ -453,4 +453,34 @@ public class BugCheckerRefactoringTestHelperTest {
         .hasMessageThat()
         .contains("Expected a class, package, or module declaration");
   }
+
+  @Test
+  public void compilerService() {
+    CompilerService compilerService = CompilerService.create(1);
+    for (int i = 0; i < 2; i++) {
+      BugCheckerRefactoringTestHelper.newInstance(ReturnNullRefactoring.class, getClass())
+          .withCompilerService(compilerService)
+          .addInputLines(
+              "in/Test.java",
+              """
+              public class Test {
+                public Object foo() {
+                  Integer i = 1 + 2;
+                  return i;
+                }
+              }
+              """)
+          .addOutputLines(
+              "out/Test.java",
+              """
+              public class Test {
+                public Object foo() {
+                  Integer i = 1 + 2;
+                  return null;
+                }
+              }
+              """)
+          .doTest();
+    }
+  }
 }
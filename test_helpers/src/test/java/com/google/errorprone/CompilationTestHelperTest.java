@@ -35,7 +35,15 @@ import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ReturnTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
+import com.sun.tools.javac.code.Symtab;
 import com.sun.tools.javac.main.Main.Result;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.tools.JavaFileManager;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -571,4 +579,137 @@ public class CompilationTestHelperTest {
             """);
     assertThat(e).hasMessageThat().contains("BugPattern: ReplaceVarTypes");
   }
+
+  private static final List<Symtab> symtabs = Collections.synchronizedList(new ArrayList<>());
+
+  /** Reports return statements, and records the symbol table of their compilation. */
+  @BugPattern(summary = "Method may return normally.", severity = ERROR)
+  public static class SymtabRecordingChecker extends BugChecker implements ReturnTreeMatcher {
+    @Override
+    public Description matchReturn(ReturnTree tree, VisitorState state) {
+      symtabs.add(state.getSymtab());
+      return describeMatch(tree);
+    }
+  }
+
+  @Test
+  public void compilerService_reusesSymbolTable() {
+    symtabs.clear();
+    CompilerService compilerService = CompilerService.create(1);
+    CompilationTestHelper.newInstance(SymtabRecordingChecker.class, getClass())
+        .withCompilerService(compilerService)
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              int f() {
+                // BUG: Diagnostic contains:
+                return 1;
+              }
+            }
+            """)
+        .doTest();
+    // The second compilation defines a different Test class in the same context.
+    CompilationTestHelper.newInstance(SymtabRecordingChecker.class, getClass())
+        .withCompilerService(compilerService)
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              String g() {
+                // BUG: Diagnostic contains:
+                return "";
+              }
+            }
+            """)
+        .doTest();
+
+    assertThat(symtabs).hasSize(2);
+    assertThat(symtabs.get(1)).isSameInstanceAs(symtabs.get(0));
+  }
+
+  private static final List<JavaFileManager> fileManagers =
+      Collections.synchronizedList(new ArrayList<>());
+
+  /** Reports return statements, and records the file manager of their compilation. */
+  @BugPattern(summary = "Method may return normally.", severity = ERROR)
+  public static class FileManagerRecordingChecker extends BugChecker implements ReturnTreeMatcher {
+    @Override
+    public Description matchReturn(ReturnTree tree, VisitorState state) {
+      symtabs.add(state.getSymtab());
+      fileManagers.add(state.context.get(JavaFileManager.class));
+      return describeMatch(tree);
+    }
+  }
+
+  @Test
+  public void compilerService_contextKeepsItsFileManagerAcrossThreads() throws Exception {
+    symtabs.clear();
+    fileManagers.clear();
+    CompilerService compilerService = CompilerService.create(1);
+    for (int i = 0; i < 2; i++) {
+      // Each compilation runs on a new thread, which has its own test file manager.
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        executor
+            .submit(
+                () ->
+                    CompilationTestHelper.newInstance(
+                            FileManagerRecordingChecker.class, getClass())
+                        .withCompilerService(compilerService)
+                        .addSourceLines(
+                            "Test.java",
+                            """
+                            class Test {
+                              int f() {
+                                // BUG: Diagnostic contains:
+                                return 1;
+                              }
+                            }
+                            """)
+                        .doTest())
+            .get();
+      } finally {
+        executor.shutdown();
+      }
+    }
+
+    assertThat(symtabs).hasSize(2);
+    assertThat(symtabs.get(1)).isSameInstanceAs(symtabs.get(0));
+    assertThat(fileManagers).hasSize(2);
+    assertThat(fileManagers.get(1)).isSameInstanceAs(fileManagers.get(0));
+    assertThat(fileManagers.get(0)).isNotSameInstanceAs(FileManagers.testFileManager());
+  }
+
+  @Test
+  public void compilerService_concurrentCompilations() throws Exception {
+    CompilerService compilerService = CompilerService.create(2);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(
+            executor.submit(
+                () ->
+                    CompilationTestHelper.newInstance(ReturnTreeChecker.class, getClass())
+                        .withCompilerService(compilerService)
+                        .addSourceLines(
+                            "Test.java",
+                            """
+                            public class Test {
+                              public boolean doIt() {
+                                // BUG: Diagnostic contains: Method may return normally
+                                return true;
+                              }
+                            }
+                            """)
+                        .doTest()));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }